@@ -0,0 +1,147 @@
+package benchmarks;
+
+import properties.ProgramSettings;
+import properties.Speed;
+import simulator.controllers.AbstractController;
+
+/**
+ * Program settings for the benchmarks. As {@link ProgramSettings} can be set only once per JVM, benchmarks with
+ * building size parameters must run in forked JVMs, i.e., with at least one fork per trial (JMH default).
+ * 
+ * @author SSE
+ */
+public class BenchmarkSettings extends ProgramSettings {
+
+    private int floors;
+    private int elevators;
+
+    /**
+     * Creates a settings instance.
+     * 
+     * @param floors the number of floors
+     * @param elevators the number of elevators
+     */
+    private BenchmarkSettings(int floors, int elevators) {
+        this.floors = floors;
+        this.elevators = elevators;
+    }
+
+    /**
+     * Installs the benchmark settings.
+     * 
+     * @param floors the number of floors
+     * @param elevators the number of elevators
+     * @throws IllegalStateException if different settings are already installed, e.g., as benchmarks do not fork
+     */
+    public static void install(int floors, int elevators) {
+        ProgramSettings.setInstance(new BenchmarkSettings(floors, elevators));
+        ProgramSettings settings = ProgramSettings.getInstance();
+        if (settings.getFloors() != floors || settings.getElevators() != elevators) {
+            throw new IllegalStateException("Settings are already installed. Run benchmarks with forks.");
+        }
+    }
+
+    /**
+     * Disables the engine of {@code controller}, i.e., {@link AbstractController#startSimulation()} does nothing so
+     * that the controller logic can be measured in isolation.
+     * 
+     * @param <C> the controller type
+     * @param controller the controller
+     * @return {@code controller}
+     */
+    public static <C extends AbstractController> C detach(C controller) {
+        controller.setDriver(c -> { });
+        return controller;
+    }
+
+    @Override
+    public int getFloors() {
+        return floors;
+    }
+
+    @Override
+    public int getElevators() {
+        return elevators;
+    }
+
+    @Override
+    public int getFloorsHeight() {
+        return 50;
+    }
+
+    @Override
+    public boolean isAutoscroll() {
+        return false;
+    }
+
+    @Override
+    public boolean isSynchronized() {
+        return true;
+    }
+
+    @Override
+    public int getElevatorsSpeed() {
+        return Speed.FAST.getValue();
+    }
+
+    @Override
+    public int getFloorsButtons() {
+        return 1;
+    }
+
+    @Override
+    public boolean isAccelerated() {
+        return false;
+    }
+
+    @Override
+    public boolean isOuterviewCancel() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewEmergency() {
+        return false;
+    }
+
+    @Override
+    public boolean isOuterviewEmergency() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayDirection() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayFloorNumber() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayTarget() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewAuthorization() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayDoorstate() {
+        return false;
+    }
+
+    @Override
+    public boolean isFloorSliderDisplay() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewDoorButton() {
+        return false;
+    }
+
+}
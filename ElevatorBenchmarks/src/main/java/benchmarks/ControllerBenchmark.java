@@ -0,0 +1,148 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulator.controllers.AbstractController;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.DistanceEController;
+import simulator.model.Request;
+
+/**
+ * Measures the single-elevator controllers {@link DistanceEController} and {@link DefaultEController} across
+ * building sizes. The controllers run without engine, i.e., the benchmarks call {@code simulate()} per floor as the
+ * engine would do.
+ *
+ * @author SSE
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+    private static final int CALLS = 1024; // power of 2
+
+    @Param({"10", "50", "100", "500"})
+    private int floors;
+
+    private int[] calls = new int[CALLS];
+    private int call;
+    private DistanceEController distance;
+    private DefaultEController defaultController;
+    private DistanceEController distanceFilled;
+    private DefaultEController defaultFilled;
+    private Request topRequest;
+
+    /**
+     * Creates the controllers and the (seeded) call sequence.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkSettings.install(floors, 1);
+        Random random = new Random(42);
+        for (int c = 0; c < CALLS; c++) {
+            calls[c] = random.nextInt(floors);
+        }
+        distance = BenchmarkSettings.detach(new DistanceEController(0));
+        defaultController = BenchmarkSettings.detach(new DefaultEController(0));
+
+        // every third floor requested, elevator in the middle
+        distanceFilled = BenchmarkSettings.detach(new DistanceEController(0));
+        distanceFilled.setElevatorCurrentFloor(floors / 2);
+        for (int f = 0; f < floors; f += 3) {
+            distanceFilled.addRequest(new Request(f, 0));
+        }
+
+        // elevator in the ground floor moving up, only top floor requested
+        defaultFilled = BenchmarkSettings.detach(new DefaultEController(0));
+        topRequest = new Request(floors - 1, 1);
+        defaultFilled.addRequest(topRequest);
+    }
+
+    /**
+     * Returns the next floor of the call sequence.
+     *
+     * @return the floor
+     */
+    private int nextCall() {
+        call = (call + 1) & (CALLS - 1);
+        return calls[call];
+    }
+
+    /**
+     * Serves a call, i.e., adds the request and simulates until the elevator reaches the requested floor.
+     *
+     * @param controller the controller
+     * @param floor the requested floor
+     * @return the number of simulation steps
+     */
+    private int serve(AbstractController controller, int floor) {
+        controller.addRequest(new Request(floor, 0));
+        int steps = 0;
+        while (!controller.simulate() && steps <= floors) {
+            steps++;
+        }
+        controller.doAfterAnimate();
+        return steps;
+    }
+
+    /**
+     * Serves a call with {@link DistanceEController}, including {@code addRequest}, {@code simulate} and the
+     * priority-based target update.
+     *
+     * @return the number of simulation steps
+     */
+    @Benchmark
+    public int distanceServeCall() {
+        return serve(distance, nextCall());
+    }
+
+    /**
+     * Updates the target of {@link DistanceEController} by priority/distance with many pending requests.
+     *
+     * @return whether a target was found
+     */
+    @Benchmark
+    public boolean distanceUpdateTargetByPriority() {
+        return distanceFilled.updateTarget();
+    }
+
+    /**
+     * Serves a call with {@link DefaultEController}, including {@code addRequest}, {@code simulate} and the target
+     * search in {@code doAfterAnimate}.
+     *
+     * @return the number of simulation steps
+     */
+    @Benchmark
+    public int defaultServeCall() {
+        return serve(defaultController, nextCall());
+    }
+
+    /**
+     * Worst-case target search of {@link DefaultEController}, i.e., re-adding the pending request for the top
+     * floor scans all floors above the elevator.
+     *
+     * @return the current target floor
+     */
+    @Benchmark
+    public int defaultTargetSearch() {
+        defaultFilled.addRequest(topRequest);
+        return defaultFilled.getCurrentRequestedFloor();
+    }
+
+}
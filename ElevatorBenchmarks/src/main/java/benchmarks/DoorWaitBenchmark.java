@@ -0,0 +1,176 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.clock.SimulationClock;
+import simulator.model.Elevator;
+
+/**
+ * Compares elevators waiting with open doors, i.e., the former 1 ms polling loop against the condition-based waiting
+ * of {@link Elevator#awaitCloseDoorsNow(SimulationClock, long)}. Each elevator waits on its own thread for at most
+ * {@code delay} ms in real time; after half of the delay, all doors are requested to close now. Measures the
+ * wall-clock time until all elevators reacted and, as auxiliary counter {@code cpuMillis}, the CPU time burnt by
+ * the waiting threads.
+ *
+ * @author SSE
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DoorWaitBenchmark {
+
+    /**
+     * The waiting strategies.
+     *
+     * @author SSE
+     */
+    public enum Strategy {
+
+        /**
+         * The former polling loop of {@code MainWindow#animateCloseDoors}.
+         */
+        POLLING {
+
+            @Override
+            void await(Elevator elevator, int delay) throws InterruptedException {
+                for (int i = 1; i <= delay; i++) {
+                    Thread.sleep(1);
+                    if (elevator.isCloseDoorsNow()) {
+                        break;
+                    }
+                }
+            }
+        },
+
+        /**
+         * Condition-based waiting.
+         */
+        SIGNALED {
+
+            @Override
+            void await(Elevator elevator, int delay) throws InterruptedException {
+                elevator.awaitCloseDoorsNow(SimulationClock.realTime(), delay);
+            }
+        };
+
+        /**
+         * Waits for closing the doors.
+         *
+         * @param elevator the elevator
+         * @param delay the maximum closing delay
+         * @throws InterruptedException if waiting is interrupted
+         */
+        abstract void await(Elevator elevator, int delay) throws InterruptedException;
+    }
+
+    /**
+     * The CPU time of the waiting threads, reported per benchmark iteration.
+     *
+     * @author SSE
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CpuCounters {
+
+        public double cpuMillis;
+
+        /**
+         * Resets the counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            cpuMillis = 0;
+        }
+
+    }
+
+    @Param({"64"})
+    private int elevators;
+
+    @Param({"200"})
+    private int delay;
+
+    @Param({"POLLING", "SIGNALED"})
+    private Strategy strategy;
+
+    private ExecutorService executor;
+
+    /**
+     * Creates the waiting threads.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkSettings.install(10, 1);
+        executor = Executors.newFixedThreadPool(elevators);
+    }
+
+    /**
+     * Shuts down the waiting threads.
+     */
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Lets all elevators wait and requests closing the doors after half of the delay.
+     *
+     * @param counters the CPU time counters
+     * @throws InterruptedException if waiting is interrupted
+     */
+    @Benchmark
+    public void awaitDoors(CpuCounters counters) throws InterruptedException {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        AtomicLong cpuNanos = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(elevators);
+        CountDownLatch done = new CountDownLatch(elevators);
+        Elevator[] cars = new Elevator[elevators];
+        for (int e = 0; e < elevators; e++) {
+            Elevator elevator = new Elevator();
+            cars[e] = elevator;
+            executor.execute(() -> {
+                long cpu = mx.getCurrentThreadCpuTime();
+                started.countDown();
+                try {
+                    strategy.await(elevator, delay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                cpuNanos.addAndGet(mx.getCurrentThreadCpuTime() - cpu);
+                done.countDown();
+            });
+        }
+        started.await();
+        Thread.sleep(delay / 2);
+        for (Elevator elevator : cars) {
+            elevator.setCloseDoorsNow(true);
+        }
+        done.await();
+        counters.cpuMillis += cpuNanos.get() / 1e6;
+    }
+
+}
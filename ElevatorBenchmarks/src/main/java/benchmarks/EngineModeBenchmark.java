@@ -0,0 +1,132 @@
+package benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.EngineMode;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.clock.SimulationClock;
+import simulator.model.Elevator;
+import simulator.model.Motion;
+import simulator.model.MotionProfile;
+
+/**
+ * Stress test of the {@link EngineMode engine modes}: runs thousands of cars concurrently, each on its own engine
+ * thread as {@link engine.ElevatorEngine} does, i.e., a run over {@code floors} floors sleeping until each sensor
+ * event on a {@link SimulationClock#scaled(double) scaled clock}, followed by a timed wait for the door command on
+ * the {@link Elevator} condition. Measures the wall-clock time until all cars completed one run. {@code AUTO}
+ * uses virtual threads on Java 21 and newer and falls back to platform threads else; with 10000 cars, platform
+ * threads may exceed the thread limits of the operating system.
+ *
+ * @author SSE
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EngineModeBenchmark {
+
+    private static final double SPEEDUP = 100;
+    private static final long DOOR_DELAY = 2000;
+
+    @Param({"10000"})
+    private int cars;
+
+    @Param({"10"})
+    private int floors;
+
+    @Param({"PLATFORM", "AUTO"})
+    private EngineMode mode;
+
+    private ExecutorService executor;
+    private Elevator[] elevators;
+    private final LongAdder sensorEvents = new LongAdder();
+
+    /**
+     * Creates the executor and the cars.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkSettings.install(floors, 1);
+        executor = mode.newExecutor("Engine");
+        MotionProfile profile = new MotionProfile(MotionProfile.DEFAULT_FLOOR_HEIGHT, 2.5,
+            MotionProfile.DEFAULT_ACCELERATION, MotionProfile.DEFAULT_JERK);
+        elevators = new Elevator[cars];
+        for (int c = 0; c < cars; c++) {
+            elevators[c] = new Elevator();
+            elevators[c].setMotionProfile(profile);
+        }
+    }
+
+    /**
+     * Shuts down the executor.
+     */
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs all cars concurrently and waits until all of them completed their run.
+     *
+     * @return the number of sensor events (against dead code elimination)
+     * @throws InterruptedException if waiting is interrupted
+     */
+    @Benchmark
+    public long runCars() throws InterruptedException {
+        SimulationClock clock = SimulationClock.scaled(SPEEDUP);
+        CountDownLatch done = new CountDownLatch(cars);
+        for (int c = 0; c < cars; c++) {
+            final int index = c;
+            executor.execute(() -> {
+                try {
+                    runCar(index, clock);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return sensorEvents.sum();
+    }
+
+    /**
+     * Runs a single car from floor 0 to {@link #floors} and back to rest.
+     *
+     * @param index the car index
+     * @param clock the simulation clock
+     * @throws InterruptedException if waiting is interrupted
+     */
+    private void runCar(int index, SimulationClock clock) throws InterruptedException {
+        Elevator elevator = elevators[index];
+        Motion run = elevator.startMotion(clock.currentTimeMillis(), 0, floors);
+        for (int f = 1; f <= floors; f++) {
+            clock.sleep(Math.round(run.getTimeAtFloor(f)) - clock.currentTimeMillis());
+            EventsManager.FLOOR_SENSORS.sendEvent(FloorSensorEvent.of(index, f, FloorSensorEvent.Position.TOP));
+            sensorEvents.increment();
+        }
+        elevator.awaitCloseDoorsNow(clock, DOOR_DELAY);
+        elevator.stopMotion(clock.currentTimeMillis(), floors);
+    }
+
+}
@@ -0,0 +1,124 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+
+/**
+ * Measures {@link EventsManager.EventManager#sendEvent(engine.Event)} for varying numbers of observers, one
+ * observer per elevator as registered by event-based controllers. {@code BROADCAST} observers receive all events
+ * and filter by elevator index, {@code ROUTED} observers are subscribed for their elevator only. Events are
+ * flyweights, i.e., run with {@code -prof gc} to check that sending does not allocate.
+ *
+ * @author SSE
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    /**
+     * Observer subscription modes.
+     *
+     * @author SSE
+     */
+    public enum Subscription {
+        BROADCAST,
+        ROUTED
+    }
+
+    @Param({"1", "10", "100", "1000"})
+    private int observers;
+
+    @Param({"BROADCAST", "ROUTED"})
+    private Subscription subscription;
+
+    private long received;
+    private int elevator;
+    private int floor;
+
+    /**
+     * Registers the observers.
+     */
+    @Setup
+    public void setup() {
+        EventsManager.FLOOR_SENSORS.removeAllObservers();
+        for (int o = 0; o < observers; o++) {
+            final int index = o;
+            if (Subscription.BROADCAST == subscription) {
+                EventsManager.FLOOR_SENSORS.addObserver(new FloorSensorEventObserver() {
+
+                    @Override
+                    public void notifyReceived(FloorSensorEvent event) {
+                        if (event.getElevator() == index) {
+                            received += event.getFloor();
+                        }
+                    }
+                });
+            } else {
+                EventsManager.FLOOR_SENSORS.addObserver(index, null, new FloorSensorEventObserver() {
+
+                    @Override
+                    public void notifyReceived(FloorSensorEvent event) {
+                        received += event.getFloor();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Removes the observers.
+     */
+    @TearDown
+    public void tearDown() {
+        EventsManager.FLOOR_SENSORS.removeAllObservers();
+    }
+
+    /**
+     * Sends a sensor hit event for the next elevator/floor.
+     *
+     * @return the accumulated observer result (against dead code elimination)
+     */
+    @Benchmark
+    public long sendEvent() {
+        elevator = (elevator + 1) % observers;
+        floor = (floor + 1) & 63;
+        EventsManager.FLOOR_SENSORS.sendEvent(FloorSensorEvent.of(elevator, floor, FloorSensorEvent.Position.TOP));
+        return received;
+    }
+
+    /**
+     * Sends a sensor hit and the related cleared event as {@link engine.ElevatorEngine} does.
+     *
+     * @return the accumulated observer result (against dead code elimination)
+     */
+    @Benchmark
+    public long sendHitAndCleared() {
+        elevator = (elevator + 1) % observers;
+        floor = (floor + 1) & 63;
+        FloorSensorEvent hit = FloorSensorEvent.of(elevator, floor, FloorSensorEvent.Position.TOP);
+        EventsManager.FLOOR_SENSORS.sendEvent(hit);
+        EventsManager.FLOOR_SENSORS.sendEvent(hit.createClearedEvent());
+        return received;
+    }
+
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulator.controllers.AbstractController;
+import simulator.controllers.AbstractMultiController;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.GroupDispatchController;
+import simulator.controllers.SuperController;
+import simulator.model.Request;
+
+/**
+ * Measures the group dispatching of {@link SuperController}, i.e., {@code delegateCall} via hall calls, and of
+ * {@link GroupDispatchController} across building sizes and fleet sizes. As assigning a call changes the state of the fleet, each operation also resets
+ * the fleet (idle elevators spread over the building, no requests); {@link #resetBaseline()} measures the reset
+ * alone.
+ *
+ * @author SSE
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuperControllerBenchmark {
+
+    private static final int CALLS = 1024; // power of 2
+
+    @Param({"10", "100", "500"})
+    private int floors;
+
+    @Param({"1", "4", "16", "64"})
+    private int elevators;
+
+    @Param({"SUPER", "GROUP"})
+    private String dispatcher;
+
+    private int[] calls = new int[CALLS];
+    private Request[] requests = new Request[CALLS];
+    private int call;
+    private ArrayList<AbstractController> controllers;
+    private AbstractMultiController superController;
+
+    /**
+     * Creates the fleet and the (seeded) call sequence.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkSettings.install(floors, elevators);
+        Random random = new Random(42);
+        for (int c = 0; c < CALLS; c++) {
+            calls[c] = random.nextInt(floors);
+            requests[c] = new Request(calls[c], random.nextBoolean() ? 1 : -1);
+        }
+        controllers = new ArrayList<>();
+        for (int e = 0; e < elevators; e++) {
+            controllers.add(BenchmarkSettings.detach(new DefaultEController(e)));
+        }
+        if ("GROUP".equals(dispatcher)) {
+            superController = new GroupDispatchController(controllers);
+        } else {
+            superController = new SuperController(controllers);
+        }
+        reset(0);
+    }
+
+    /**
+     * Resets the fleet, i.e., spreads idle elevators over the building and removes the request for {@code floor}.
+     *
+     * @param floor the floor to clear
+     */
+    private void reset(int floor) {
+        for (int e = 0; e < elevators; e++) {
+            AbstractController controller = controllers.get(e);
+            controller.setElevatorCurrentDirection(0);
+            controller.setElevatorCurrentFloor(e * floors / elevators);
+            controller.lockRequestList(l -> {
+                l.set(floor, null);
+            });
+        }
+    }
+
+    /**
+     * Delegates a hall call to the best elevator and resets the fleet afterwards.
+     *
+     * @return the requested floor
+     */
+    @Benchmark
+    public int delegateCall() {
+        call = (call + 1) & (CALLS - 1);
+        superController.addRequest(requests[call], 0, false);
+        reset(calls[call]);
+        return calls[call];
+    }
+
+    /**
+     * Resets the fleet only, the baseline for {@link #delegateCall()}.
+     *
+     * @return the cleared floor
+     */
+    @Benchmark
+    public int resetBaseline() {
+        call = (call + 1) & (CALLS - 1);
+        reset(calls[call]);
+        return calls[call];
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * JMH benchmarks for event dispatching and the elevator controllers. Build the uber jar via {@code mvn package}
+ * and run {@code java -jar target/benchmarks.jar}, e.g., with {@code -prof gc} to obtain allocation rates.
+ */
+package benchmarks;
@@ -1,14 +1,14 @@
 package engine;
 
 /**
- * An abstract elevator event.
+ * An abstract elevator event. Elevator events are immutable and, thus, may be shared, e.g., as flyweights.
  * 
  * @author SSE
  */
 public abstract class AbstractElevatorEvent extends Event {
     
-    private int elevator;
-    private int floor;
+    private final int elevator;
+    private final int floor;
     
     /**
      * Creates a floor sensor event.
@@ -39,6 +39,11 @@ public abstract class AbstractElevatorEvent extends Event {
         return floor;
     }    
 
+    @Override
+    public int getRoutingElevator() {
+        return elevator;
+    }
+
     /**
      * Pre-formatted data for {@code toString}.
      * 
@@ -7,10 +7,15 @@ package engine;
  */
 public class ButtonEvent extends AbstractElevatorEvent {
 
-    private Kind kind;
-    private boolean highlighted;
-    private boolean inside;
-    private int value;
+    private static final int VALUES = 3; // cached values -1, 0, 1
+    private static final EventCache<ButtonEvent> CACHE = new EventCache<>(Kind.values().length * VALUES * 4, 
+        (e, f, v) -> new ButtonEvent(e, f, Kind.values()[v / (VALUES * 4)], (v / 4) % VALUES - 1, 
+            (v & 2) != 0, (v & 1) != 0));
+
+    private final Kind kind;
+    private final boolean highlighted;
+    private final boolean inside;
+    private final int value;
     
     /**
      * Button kind.
@@ -64,6 +69,31 @@ public class ButtonEvent extends AbstractElevatorEvent {
         this.inside = inside;
     }
     
+    /**
+     * Returns a shared button event instance for values in [-1; 1], e.g., for directions. Preferred over the 
+     * constructor on the event paths as it does not allocate then.
+     * 
+     * @param elevator the elevator index
+     * @param floor the floor index
+     * @param kind the button kind
+     * @param value (indicates for {@link Kind#BUTTON} the direction (1=up, 0=none/unspecified), -1=down), 
+     *     for {@link Kind#AUTHORIZE} the authorization level)
+     * @param highlighted is the source button highlighted
+     * @param inside is the button inside the elevator or not
+     * @return the event, a new instance if {@code value} is out of the cached range
+     */
+    public static ButtonEvent of(int elevator, int floor, Kind kind, int value, boolean highlighted, 
+        boolean inside) {
+        ButtonEvent result;
+        if (value < -1 || value > 1) {
+            result = new ButtonEvent(elevator, floor, kind, value, highlighted, inside);
+        } else {
+            result = CACHE.get(elevator, floor, ((kind.ordinal() * VALUES + value + 1) * 2 + (highlighted ? 1 : 0)) 
+                * 2 + (inside ? 1 : 0));
+        }
+        return result;
+    }
+    
     /**
      * Returns the sensor position within floor.
      * 
@@ -101,6 +131,11 @@ public class ButtonEvent extends AbstractElevatorEvent {
         return inside;
     }
 
+    @Override
+    public Enum<?> getRoutingKind() {
+        return kind;
+    }
+
     @Override
     public String toString() {
         return String.format("ButtonEvent(%s, kind=%s, highlighted=%b, inside=%b)", 
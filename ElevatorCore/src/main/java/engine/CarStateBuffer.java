@@ -0,0 +1,151 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import simulator.model.Motion;
+
+/**
+ * Shared buffer of the displayed car states, i.e., per car the current {@link Motion run} and the image position of
+ * floor 0 (from which the render loop derives the position of the car image at any point in time), the displayed
+ * floor, the target floor and the direction. Written by the {@link ElevatorEngine engines} without blocking, sampled
+ * by the render loop of the GUI at its frame rate, i.e., the simulation does not wait for rendering and intermediate
+ * values may be skipped by the GUI. Values of a car are not updated atomically as a whole.
+ *
+ * @author SSE
+ */
+public class CarStateBuffer {
+
+    /**
+     * Denotes a value that was not published (yet).
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final int ORIGIN = 0;
+    private static final int FLOOR = 1;
+    private static final int TARGET = 2;
+    private static final int DIRECTION = 3;
+    private static final int STRIDE = 4;
+
+    private final int cars;
+    private final AtomicIntegerArray values;
+    private final AtomicReferenceArray<Motion> motions;
+
+    /**
+     * Creates a buffer with all values set to {@link #NONE}.
+     *
+     * @param cars the number of cars
+     */
+    public CarStateBuffer(int cars) {
+        this.cars = cars;
+        this.values = new AtomicIntegerArray(cars * STRIDE);
+        this.motions = new AtomicReferenceArray<>(cars);
+        for (int i = 0; i < values.length(); i++) {
+            values.set(i, NONE);
+        }
+    }
+
+    /**
+     * Returns the number of cars.
+     *
+     * @return the number of cars
+     */
+    public int getCars() {
+        return cars;
+    }
+
+    /**
+     * Publishes the vertical position of a car image at floor 0.
+     *
+     * @param car the car index
+     * @param y the top position of the car image in pixels
+     */
+    public void setOrigin(int car, int y) {
+        values.set(car * STRIDE + ORIGIN, y);
+    }
+
+    /**
+     * Returns the published vertical position of a car image at floor 0.
+     *
+     * @param car the car index
+     * @return the top position of the car image in pixels, {@link #NONE} if not published
+     */
+    public int getOrigin(int car) {
+        return values.get(car * STRIDE + ORIGIN);
+    }
+
+    /**
+     * Publishes the current run of a car.
+     *
+     * @param car the car index
+     * @param motion the run, may be <b>null</b> for a car at floor 0 that did not move yet
+     */
+    public void setMotion(int car, Motion motion) {
+        motions.set(car, motion);
+    }
+
+    /**
+     * Returns the published run of a car.
+     *
+     * @param car the car index
+     * @return the run, <b>null</b> if not published
+     */
+    public Motion getMotion(int car) {
+        return motions.get(car);
+    }
+
+    /**
+     * Publishes the values shown by the display panel of a car.
+     *
+     * @param car the car index
+     * @param floor the displayed floor
+     * @param target the target floor, {@link #NONE} to keep the displayed target
+     */
+    public void setDisplay(int car, int floor, int target) {
+        values.set(car * STRIDE + FLOOR, floor);
+        if (NONE != target) {
+            values.set(car * STRIDE + TARGET, target);
+        }
+    }
+
+    /**
+     * Returns the published displayed floor of a car.
+     *
+     * @param car the car index
+     * @return the floor, {@link #NONE} if not published
+     */
+    public int getFloor(int car) {
+        return values.get(car * STRIDE + FLOOR);
+    }
+
+    /**
+     * Returns the published target floor of a car.
+     *
+     * @param car the car index
+     * @return the target floor, {@link #NONE} if not published
+     */
+    public int getTarget(int car) {
+        return values.get(car * STRIDE + TARGET);
+    }
+
+    /**
+     * Publishes the direction of a car.
+     *
+     * @param car the car index
+     * @param direction the direction, 1 for up, -1 for down, 0 for stop
+     */
+    public void setDirection(int car, int direction) {
+        values.set(car * STRIDE + DIRECTION, direction);
+    }
+
+    /**
+     * Returns the published direction of a car.
+     *
+     * @param car the car index
+     * @return the direction, {@link #NONE} if not published
+     */
+    public int getDirection(int car) {
+        return values.get(car * STRIDE + DIRECTION);
+    }
+
+}
@@ -0,0 +1,22 @@
+package engine;
+
+import simulator.controllers.AbstractController;
+
+/**
+ * Drives the motion of the elevator of a controller, i.e., executes the engine loop of moving the elevator,
+ * calling {@link AbstractController#simulate()} and handling the doors. If no driver is set on a controller,
+ * the controller runs the Swing-based {@link ElevatorEngine} in an own thread.
+ *
+ * @author SSE
+ */
+public interface ElevatorDriver {
+
+    /**
+     * Starts driving the elevator of {@code controller} if it is not already driven. Called by
+     * {@link AbstractController#startSimulation()}.
+     *
+     * @param controller the controller to drive
+     */
+    public void start(AbstractController controller);
+
+}
@@ -1,34 +1,58 @@
 package engine;
 
 import gui.views.inside.ControlPanel;
-import gui.views.inside.DisplayPanel;
 import gui.windows.MainWindow;
 
-import java.awt.Point;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import javax.swing.JLabel;
-import javax.swing.JScrollPane;
 
+import engine.clock.SimulationClock;
+import engine.headless.EventQueue;
+import engine.metrics.CarMetrics;
+import engine.metrics.EngineMetrics;
 import properties.ProgramSettings;
 import simulator.ElevatorSimulator;
 import simulator.controllers.AbstractController;
 import simulator.controllers.AbstractController.DoorAction;
 import simulator.model.Elevator;
+import simulator.model.Motion;
+import simulator.model.Request;
 
 /**
- * The elevator engine as runnable instance.
+ * The elevator engine as runnable instance. Does not render, but publishes the car state to the 
+ * {@link MainWindow#getCarStates() car state buffer} sampled by the render loop of the GUI. The car moves according
+ * to the {@link simulator.model.MotionProfile motion profile} of its elevator, i.e., instead of moving pixel by pixel
+ * the engine computes the times of the next floor sensor events from the current {@link Motion run}, schedules them
+ * in a time-ordered {@link EventQueue} and sleeps until the next one is due.
  */
 public class ElevatorEngine implements Runnable {
 
+    private static final int SENSOR_TOP = 0;
+    private static final int SENSOR_BOTTOM = 1;
+    private static final int SENSOR_CLEARED = 2;
+
+    /**
+     * The maximum number of threads of the default {@link #getMailboxExecutor() mailbox executor}.
+     */
+    public static final int MAX_MAILBOX_THREADS = 4;
+
+    private static Executor executor;
+    private static Executor mailboxExecutor;
     private MainWindow mw;
+    private final ProgramSettings settings;
     private AbstractController myController;
     private Elevator myElevator;
     private JLabel myElevatorImage;
     private ControlPanel myControls;
-    private DisplayPanel myDisplays;
-    private SpeedController speedController;
+    private CarStateBuffer carStates;
     private int baseY;
     private FloorSensorEvent lastHitSensorEvent;
+    private int lastFloor; // floor of the last sensor hit
+    private Motion motion; // current run, null if at rest
+    private int runTarget;
+    private final EventQueue sensorEvents = new EventQueue();
 
     /**
      * Creates the engine for a given elevator controller
@@ -39,26 +63,84 @@ public class ElevatorEngine implements Runnable {
      */
     public ElevatorEngine(AbstractController controller, int baseY) {
         mw = MainWindow.getInstance();
+        settings = ProgramSettings.getInstance();
 
-        if (ProgramSettings.getInstance().getElevators() > 1) {
+        if (settings.getElevators() > 1) {
             myController = ElevatorSimulator.getInstance().getController(controller.getElevatorIndex());
             myElevatorImage = mw.getElevatorPanel(controller.getElevatorIndex()).getElevatorImage();
             myControls = mw.getControlPanel(controller.getElevatorIndex());
-            myDisplays = mw.getDisplayPanel(controller.getElevatorIndex());
         } else { // TODO
             myController = ElevatorSimulator.getInstance().getController(0);
             myElevatorImage = mw.getElevatorPanel(0).getElevatorImage();
             myControls = mw.getControlPanel(0);
-            myDisplays = mw.getDisplayPanel(0);
         }
         this.baseY = baseY < 0 ? (int) myElevatorImage.getBounds().getMaxY() : baseY;
-System.out.println("BASEY " + this.baseY);        
 
         myElevator = controller.getElevator();
+        lastFloor = myElevator.getCurrentFloor();
+        if (null == myElevator.getMotionProfile()) {
+            myElevator.setMotionProfile(ProgramSettings.createMotionProfile(settings));
+        }
+        int index = myController.getElevatorIndex();
+        carStates = mw.getCarStates();
+        carStates.setOrigin(index, myElevatorImage.getY() + ProgramSettings.getTotalHeight(lastFloor));
+        carStates.setMotion(index, myElevator.getMotion());
+    }
+    
+    /**
+     * Returns the executor running the engines of all controllers. Created on first use according to the
+     * {@link ProgramSettings#getEngineMode() engine mode}, i.e., by default engines run on virtual threads if
+     * supported by the runtime, else on a shared pool of reused platform threads.
+     * 
+     * @return the executor
+     */
+    public static synchronized Executor getExecutor() {
+        if (null == executor) {
+            ProgramSettings settings = ProgramSettings.getInstance();
+            EngineMode mode = null == settings ? EngineMode.AUTO : settings.getEngineMode();
+            executor = mode.newExecutor("ElevatorEngine");
+        }
+        return executor;
+    }
+
+    /**
+     * Changes the executor running the engines. Engines block while their car moves or the doors are open, i.e., 
+     * the executor shall not limit the number of concurrently running engines below the number of elevators, e.g.,
+     * virtual threads or a cached pool. An engine only runs while its car is busy; the messages of the controllers 
+     * are processed by the {@link #getMailboxExecutor() mailbox executor}.
+     * 
+     * @param executor the executor, <b>null</b> for the default one
+     */
+    public static synchronized void setExecutor(Executor executor) {
+        ElevatorEngine.executor = executor;
+    }
 
-        if (ProgramSettings.getInstance().isAccelerated()) {
-            speedController = new SpeedController();
+    /**
+     * Returns the executor processing the {@link AbstractController#setMailboxExecutor(Executor) mailboxes} of the 
+     * controllers in the GUI, i.e., the button, sensor and door messages. Created on first use as a bounded pool of
+     * at most {@link #MAX_MAILBOX_THREADS} daemon threads shared by all controllers.
+     * 
+     * @return the executor
+     */
+    public static synchronized Executor getMailboxExecutor() {
+        if (null == mailboxExecutor) {
+            int threads = Math.min(MAX_MAILBOX_THREADS, Runtime.getRuntime().availableProcessors());
+            mailboxExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "ElevatorMailbox");
+                t.setDaemon(true);
+                return t;
+            });
         }
+        return mailboxExecutor;
+    }
+
+    /**
+     * Changes the executor processing the mailboxes of controllers created afterwards.
+     * 
+     * @param executor the executor, <b>null</b> for the default one
+     */
+    public static synchronized void setMailboxExecutor(Executor executor) {
+        mailboxExecutor = executor;
     }
     
     /**
@@ -73,82 +155,74 @@ System.out.println("BASEY " + this.baseY);
     @Override
     public void run() {
         boolean doorsOpened = false;
+        CarMetrics metrics = ElevatorSimulator.getInstance().getCarMetrics();
+        int index = myController.getElevatorIndex();
+        metrics.busy(index);
         // synchronized (mw.getlElevatorPanels().get(iControllerIndex)) {
-        if (ProgramSettings.getInstance().isInnerviewDoorButton()) {
-            myControls.getCloseButton().setEnabled(false);
-            myControls.getOpenButton().setEnabled(false);
+        if (settings.isInnerviewDoorButton()) {
+            setDoorButtonsEnabled(false);
         }
 
         while (myController.getCurrentRequest() != null) {
 
             if (myController.isUpdateNecessary()) {
-                myController.updateTarget();
+                long start = EngineMetrics.UPDATE_TARGET.start();
+                myController.beginUpdate();
+                try {
+                    myController.updateTarget();
+                } finally {
+                    myController.endUpdate();
+                }
+                EngineMetrics.UPDATE_TARGET.stop(start);
             }
 
-            if (!myController.deletionQueueContains(myController.getCurrentRequest().getFloor())) {
-
-                int floorHeight = ProgramSettings.getInstance().getFloorsHeight();
-                // animation of elevator
-                for (int i = 0; i < floorHeight; i++) {
-                    int dir = myElevator.getDirection();
-                    int nextTopY = (int) myElevatorImage.getLocation().getY() - dir;
-                    int nextBottomY = nextTopY + myElevatorImage.getHeight();
-                    int elevatorY;
-                    FloorSensorEvent.Position sensorPosition = null;
-                    if (dir > 0) {
-                        elevatorY = nextTopY;
-                        sensorPosition = FloorSensorEvent.Position.TOP;
-                    } else {
-                        elevatorY = nextBottomY;
-                        sensorPosition = FloorSensorEvent.Position.BOTTOM;
-                    }
-                    if ((elevatorY - baseY) % floorHeight == 0) {
-                        int floor = Math.abs((elevatorY - baseY) / floorHeight);
-System.out.println(nextTopY+" "+nextBottomY+" "+elevatorY+" "+baseY+" "+floor);                        
-                        FloorSensorEvent evt = new FloorSensorEvent(myController.getElevatorIndex(), floor, sensorPosition);
-                        EventsManager.FLOOR_SENSORS.sendEvent(evt);
-                        lastHitSensorEvent = evt;
-                    } else if (null != lastHitSensorEvent) {
-                        EventsManager.FLOOR_SENSORS.sendEvent(lastHitSensorEvent.createClearedEvent());
-                        lastHitSensorEvent = null;
-                    }
-                    myElevatorImage.setLocation((int) myElevatorImage.getLocation().getX(), nextTopY);
+            Request request = myController.getCurrentRequest(); // read once, may be cleared meanwhile
+            if (null != request && !myController.deletionQueueContains(request.getFloor())) {
 
-                    if (ProgramSettings.getInstance().isAutoscroll()) {
-                        scrollWithElevator(myElevator);
-                    }
-
-                    try {
-                        if (ProgramSettings.getInstance().isAccelerated()) {
-                            speedController.adaptSpeed(i, myElevator, myControls.getButtons());
-                        } else {
-                            Thread.sleep(ProgramSettings.getInstance().getElevatorsSpeed());
-                        }
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
+                SimulationClock clock = settings.getSimulationClock();
+                try {
+                    if (0 == myElevator.getDirection()) {
+                        stopRun(clock);
+                        clock.sleep((long) settings.getElevatorsSpeed() 
+                            * settings.getFloorsHeight());
+                    } else {
+                        moveOneFloor(request.getFloor(), clock);
                     }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
                 }
             }
 
             myElevator.setCloseDoorsNow(false);
             myElevator.setKeepDoorsOpen(false);
 
-            myDisplays.updateValues(myElevator, myController.getCurrentRequest());
+            Request target = myController.getCurrentRequest();
+            carStates.setDisplay(index, myElevator.getCurrentFloor() + myElevator.getDirection(), 
+                null == target ? CarStateBuffer.NONE : target.getFloor());
 
-            boolean targetFound = myController.simulate();
-
-            if (ProgramSettings.getInstance().isDisplayDirection()) {
-                myDisplays.changeImageDirection(myElevator.getDirection());
+            long start = EngineMetrics.SIMULATE.start();
+            boolean targetFound;
+            myController.beginUpdate();
+            try {
+                targetFound = myController.simulate();
+            } finally {
+                myController.endUpdate();
+            }
+            EngineMetrics.SIMULATE.stop(start);
+            if (targetFound || lastFloor == runTarget) {
+                stopRun(settings.getSimulationClock());
             }
 
+            carStates.setDirection(index, myElevator.getDirection());
+
             if (targetFound) {
                 DoorAction doorAction = myController.getDoorAction();
                 if (DoorAction.AUTO == doorAction || DoorAction.OPEN == doorAction) {
-                    if (ProgramSettings.getInstance().isInnerviewDoorButton()) {
+                    if (settings.isInnerviewDoorButton()) {
                         // open/close doors only if elevator is at position
-                        myControls.getCloseButton().setEnabled(true);
-                        myControls.getOpenButton().setEnabled(true);
+                        setDoorButtonsEnabled(true);
                     }
+                    metrics.doorsOpening(index);
                     mw.animateOpenDoors(myController.getElevatorIndex(), myElevator.getCurrentFloor());
                     doorsOpened = true;
                 }
@@ -159,55 +233,149 @@ System.out.println(nextTopY+" "+nextBottomY+" "+elevatorY+" "+baseY+" "+floor);
         }
         if (doorsOpened && myController.getDoorAction() != DoorAction.AUTO) {
             // explicit control, wait for closing action
-            while (myController.getDoorAction() != DoorAction.CLOSE) {
+            boolean closing = false;
+            while (!closing) {
                 try {
-                    Thread.sleep(1);
+                    closing = myController.awaitDoorAction(DoorAction.CLOSE, 
+                        settings.getSimulationClock(), -1);
                 } catch (InterruptedException e) {
                 }
             }
             animateCloseDoors();
         }
-        if (ProgramSettings.getInstance().isInnerviewDoorButton()) {
-            myControls.getCloseButton().setEnabled(true);
-            myControls.getOpenButton().setEnabled(true);
+        if (settings.isInnerviewDoorButton()) {
+            setDoorButtonsEnabled(true);
         }
+        metrics.idle(index);
     }
     
     /**
-     * Actions to close the elevator doors.
+     * Moves the car to the next floor, i.e., schedules the sensor events of the next floor according to the current
+     * run and sends them when due.
+     * 
+     * @param target the target floor of the current request
+     * @param clock the simulation clock
+     * @throws InterruptedException if waiting is interrupted
      */
-    private void animateCloseDoors() {
-        mw.animateCloseDoors(myController.getElevatorIndex(), myElevator.getCurrentFloor());
-        myController.doAfterAnimate();
+    private void moveOneFloor(int target, SimulationClock clock) throws InterruptedException {
+        int index = myController.getElevatorIndex();
+        int dir = myElevator.getDirection();
+        Motion run = planRun(target, dir, clock);
+        double height = run.getProfile().getFloorHeight();
+        if (null != lastHitSensorEvent) {
+            // the sensor is cleared after one pixel of movement
+            double cleared = lastFloor * height + dir * height / settings.getFloorsHeight();
+            sensorEvents.add(Math.round(run.getTimeAt(cleared)), SENSOR_CLEARED, index, lastFloor, null);
+        }
+        sensorEvents.add(Math.round(run.getTimeAtFloor(lastFloor + dir)), dir > 0 ? SENSOR_TOP : SENSOR_BOTTOM,
+            index, lastFloor + dir, null);
+        while (!sensorEvents.isEmpty()) {
+            long delay = sensorEvents.peekTime() - clock.currentTimeMillis();
+            if (delay > 0) {
+                clock.sleep(delay);
+            }
+            int type = sensorEvents.peekType();
+            int floor = sensorEvents.peekArg();
+            sensorEvents.remove();
+            if (SENSOR_CLEARED == type) {
+                sendSensorEvent(lastHitSensorEvent.createClearedEvent());
+                lastHitSensorEvent = null;
+            } else {
+                FloorSensorEvent evt = FloorSensorEvent.of(index, floor, SENSOR_TOP == type 
+                    ? FloorSensorEvent.Position.TOP : FloorSensorEvent.Position.BOTTOM);
+                sendSensorEvent(evt);
+                lastHitSensorEvent = evt;
+                lastFloor = floor;
+            }
+        }
+    }
 
-        if (ProgramSettings.getInstance().isInnerviewDoorButton()) {
-            myControls.getCloseButton().setEnabled(false);
-            myControls.getOpenButton().setEnabled(false);
-        }        
+    /**
+     * Sends a floor sensor event while holding the writer token of the controller, i.e., the observers of the 
+     * controller handle the event before the engine goes on, even if the controller has a mailbox executor.
+     * 
+     * @param event the event
+     */
+    private void sendSensorEvent(FloorSensorEvent event) {
+        myController.beginUpdate();
+        try {
+            EventsManager.FLOOR_SENSORS.sendEvent(event);
+        } finally {
+            myController.endUpdate();
+        }
     }
 
     /**
-     * Scrolls scrollbar with elevator. When the elevator leaves the viewpoint, the scrollbar shall follow.
+     * Starts a new run towards {@code target} unless the car is already on a run to {@code target}. The target is 
+     * clamped to the building, e.g., for endless moves. If the target changes during a run, the run is 
+     * {@link Elevator#replanMotion(long, int) replanned} from the current position and velocity of the car.
      * 
-     * @param elevator the elevator holding the location
+     * @param target the target floor
+     * @param dir the direction of movement, not 0
+     * @param clock the simulation clock
+     * @return the current run
      */
-    private void scrollWithElevator(Elevator elevator) {
-        Point pImage = new Point(myElevatorImage.getLocation());
-        JScrollPane jscroll = mw.getScrollPane(myController.getElevatorIndex());
-
-        if (elevator.getDirection() == 1) {
-            if (pImage.getY() < (jscroll.getViewport().getViewPosition().getY())) {
-                jscroll.getViewport()
-                    .setViewPosition(new Point((int) 1, (int) jscroll.getViewport().getViewPosition().getY()
-                        - (elevator.getDirection() * jscroll.getHeight())));
-            }
-        } else if (elevator.getDirection() == -1) {
-            if (pImage.getY() > (jscroll.getViewport().getViewPosition().getY() + 500)) {
-                jscroll.getViewport()
-                    .setViewPosition(new Point((int) 1, (int) jscroll.getViewport().getViewPosition().getY()
-                        - (elevator.getDirection() * jscroll.getHeight())));
+    private Motion planRun(int target, int dir, SimulationClock clock) {
+        int floor = Math.max(0, Math.min(settings.getFloors() - 1, target));
+        if ((floor - lastFloor) * dir <= 0) {
+            floor = lastFloor + dir;
+        }
+        if (null == motion || floor != runTarget) {
+            long now = clock.currentTimeMillis();
+            if (null == motion || Math.signum(motion.getDistance()) != dir) {
+                motion = myElevator.startMotion(now, lastFloor, floor - lastFloor);
+            } else {
+                motion = myElevator.replanMotion(now, floor);
             }
+            runTarget = floor;
+            int index = myController.getElevatorIndex();
+            carStates.setMotion(index, motion);
+            carStates.setDirection(index, dir);
         }
+        return motion;
     }
-    
+
+    /**
+     * Stops the current run, if any, at the floor reached.
+     * 
+     * @param clock the simulation clock
+     */
+    private void stopRun(SimulationClock clock) {
+        if (null != motion) {
+            motion = null;
+            myElevator.stopMotion(clock.currentTimeMillis(), lastFloor);
+            carStates.setMotion(myController.getElevatorIndex(), myElevator.getMotion());
+        }
+    }
+
+    /**
+     * Enables/disables the door buttons of the control panel on the event dispatch thread.
+     * 
+     * @param enabled the enable/disable state
+     */
+    private void setDoorButtonsEnabled(boolean enabled) {
+        MainWindow.invokeOnEdt(() -> {
+            myControls.getCloseButton().setEnabled(enabled);
+            myControls.getOpenButton().setEnabled(enabled);
+        });
+    }
+
+    /**
+     * Actions to close the elevator doors.
+     */
+    private void animateCloseDoors() {
+        mw.animateCloseDoors(myController.getElevatorIndex(), myElevator.getCurrentFloor());
+        ElevatorSimulator.getInstance().getCarMetrics().doorsClosed(myController.getElevatorIndex());
+        myController.beginUpdate();
+        try {
+            myController.doAfterAnimate();
+        } finally {
+            myController.endUpdate();
+        }
+
+        if (settings.isInnerviewDoorButton()) {
+            setDoorButtonsEnabled(false);
+        }        
+    }
+
 }
\ No newline at end of file
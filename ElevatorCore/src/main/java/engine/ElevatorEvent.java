@@ -14,7 +14,10 @@ public class ElevatorEvent extends AbstractElevatorEvent {
         DOORS_CLOSED
     }
     
-    private Kind kind;
+    private static final EventCache<ElevatorEvent> CACHE = new EventCache<>(Kind.values().length, 
+        (e, f, v) -> new ElevatorEvent(e, f, Kind.values()[v]));
+
+    private final Kind kind;
     
     /**
      * Creates an elevator event.
@@ -27,6 +30,19 @@ public class ElevatorEvent extends AbstractElevatorEvent {
         super(elevator, floor);
         this.kind = kind;
     }
+
+    /**
+     * Returns a shared elevator event instance. Preferred over the constructor on the event paths as it does 
+     * not allocate.
+     * 
+     * @param elevator the elevator index
+     * @param floor the floor index
+     * @param kind the event kind
+     * @return the event
+     */
+    public static ElevatorEvent of(int elevator, int floor, Kind kind) {
+        return CACHE.get(elevator, floor, kind.ordinal());
+    }
     
     /**
      * Returns the event kind.
@@ -37,6 +53,11 @@ public class ElevatorEvent extends AbstractElevatorEvent {
         return kind;
     }
 
+    @Override
+    public Enum<?> getRoutingKind() {
+        return kind;
+    }
+
     @Override
     public String toString() {
         return String.format("ElevatorEvent(%s, kind=%s)", 
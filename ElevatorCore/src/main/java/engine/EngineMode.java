@@ -0,0 +1,89 @@
+package engine;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The threading modes for {@link ElevatorEngine engines} and other long-running, mostly blocking tasks. Engines
+ * spend most of their time sleeping on the {@link engine.clock.SimulationClock simulation clock} or waiting for door
+ * commands, which are implemented via {@link java.util.concurrent.locks.Condition conditions}, i.e., on virtual
+ * threads they park without blocking a carrier thread. Virtual threads are created reflectively, i.e., the code
+ * still compiles and runs on Java 11, where {@link #AUTO} falls back to {@link #PLATFORM}.
+ *
+ * @author SSE
+ */
+public enum EngineMode {
+
+    /**
+     * Platform threads, one per running task. Idle threads are reused by subsequent tasks.
+     */
+    PLATFORM,
+
+    /**
+     * Virtual threads, one per running task. Requires Java 21 or newer.
+     */
+    VIRTUAL,
+
+    /**
+     * {@link #VIRTUAL} if supported by the runtime, {@link #PLATFORM} else.
+     */
+    AUTO;
+
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    /**
+     * Looks up the factory method for virtual thread executors.
+     *
+     * @return the method, <b>null</b> if the runtime does not support virtual threads
+     */
+    private static Method findVirtualExecutor() {
+        Method result;
+        try {
+            result = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the runtime supports virtual threads.
+     *
+     * @return {@code true} for supported, {@code false} else
+     */
+    public static boolean isVirtualThreadSupported() {
+        return null != VIRTUAL_EXECUTOR;
+    }
+
+    /**
+     * Creates an executor running each task on its own thread according to this mode.
+     *
+     * @param name the name of platform threads
+     * @return the executor
+     * @throws UnsupportedOperationException if this mode is {@link #VIRTUAL} and the runtime does not support
+     *     virtual threads
+     */
+    public ExecutorService newExecutor(String name) {
+        ExecutorService result = null;
+        if (PLATFORM != this && isVirtualThreadSupported()) {
+            try {
+                result = (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                result = null;
+            }
+        }
+        if (null == result) {
+            if (VIRTUAL == this) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+            }
+            result = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return result;
+    }
+
+}
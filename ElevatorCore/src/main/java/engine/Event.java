@@ -7,6 +7,24 @@ package engine;
  */
 public class Event {
 
+    /**
+     * Returns the elevator index used for routing the event to observers subscribed for a specific elevator.
+     * 
+     * @return the elevator index, negative if the event does not refer to a specific elevator
+     */
+    public int getRoutingElevator() {
+        return -1;
+    }
+
+    /**
+     * Returns the sub-event kind used for routing the event to observers subscribed for a specific kind.
+     * 
+     * @return the kind (an enum constant), <b>null</b> if the event has no kind
+     */
+    public Enum<?> getRoutingKind() {
+        return null;
+    }
+
     /**
      * A floor sensor event observer.
      * 
@@ -0,0 +1,110 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Lazily filled flyweight cache for immutable elevator events over the finite (elevator, floor, variant) space.
+ * Lookups do not lock and, once an event is cached, do not allocate. Concurrent misses may create duplicate
+ * instances; as events are immutable, this does not matter. Indices outside the cached range are not cached.
+ *
+ * @param <E> the event type
+ * @author SSE
+ */
+final class EventCache<E extends AbstractElevatorEvent> {
+
+    static final int MAX_ELEVATORS = 1024;
+    static final int MAX_FLOORS = 4096;
+
+    private final int variants;
+    private final Factory<E> factory;
+    private volatile Object[][] rows = new Object[0][];
+
+    /**
+     * Creates events on cache misses.
+     *
+     * @param <E> the event type
+     * @author SSE
+     */
+    interface Factory<E> {
+
+        /**
+         * Creates an event.
+         *
+         * @param elevator the elevator index
+         * @param floor the floor index
+         * @param variant the variant index
+         * @return the event
+         */
+        E create(int elevator, int floor, int variant);
+
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param variants the number of variants per elevator and floor, e.g., the number of event kinds
+     * @param factory the event factory
+     */
+    EventCache(int variants, Factory<E> factory) {
+        this.variants = variants;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the event for the given key.
+     *
+     * @param elevator the elevator index
+     * @param floor the floor index
+     * @param variant the variant index in [0; variants)
+     * @return the (cached) event
+     */
+    @SuppressWarnings("unchecked")
+    E get(int elevator, int floor, int variant) {
+        E result;
+        if (elevator < 0 || elevator >= MAX_ELEVATORS || floor < 0 || floor >= MAX_FLOORS) {
+            result = factory.create(elevator, floor, variant);
+        } else {
+            int pos = floor * variants + variant;
+            Object[][] r = rows;
+            Object[] row = elevator < r.length ? r[elevator] : null;
+            if (null != row && pos < row.length) {
+                result = (E) row[pos];
+                if (null == result) {
+                    result = factory.create(elevator, floor, variant);
+                    row[pos] = result; // benign race, final fields ensure safe publication
+                }
+            } else {
+                result = factory.create(elevator, floor, variant);
+                grow(elevator, floor)[pos] = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Grows the cache so that it can hold the given key.
+     *
+     * @param elevator the elevator index
+     * @param floor the floor index
+     * @return the row for {@code elevator}
+     */
+    private synchronized Object[] grow(int elevator, int floor) {
+        Object[][] r = rows;
+        if (elevator >= r.length) {
+            r = Arrays.copyOf(r, elevator + 1);
+        } else {
+            r = r.clone();
+        }
+        Object[] row = r[elevator];
+        int size = (floor + 1) * variants;
+        if (null == row) {
+            row = new Object[Math.max(size, 16 * variants)];
+        } else if (row.length < size) {
+            row = Arrays.copyOf(row, Math.max(size, row.length * 2));
+        }
+        r[elevator] = row;
+        rows = r; // publish copy
+        return row;
+    }
+
+}
@@ -1,26 +1,95 @@
 package engine;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import engine.ButtonEvent.ButtonEventObserver;
 import engine.ElevatorEvent.ElevatorEventObserver;
 import engine.Event.EventObserver;
 import engine.FloorSensorEvent.FloorSensorEventObserver;
+import engine.metrics.Counter;
+import engine.metrics.Histogram;
+import engine.metrics.MetricsRegistry;
+import engine.metrics.Timer;
 
 /**
  * A simple event distribution mechanism. The event manager is pre-loaded with default simulator observers, in 
  * particular for button handling. If this is not desired, please call {@link #removeAllObservers()} and register
  * your own observers.
  * 
+ * By default, events are dispatched synchronously, i.e., all observers are called on the thread sending the event. 
+ * Optionally, an event manager can be switched to {@link EventManager#setAsynchronous(Executor, int, Backpressure) 
+ * asynchronous dispatch}, where each observer has an own bounded mailbox drained by an executor. Then, events are 
+ * delivered to each observer in sending order, but different observers run independently of each other and of the
+ * sending (engine) thread.
+ * 
+ * For headless runs, the channels may be replaced per thread by binding a {@link engine.scenario.ScenarioContext}.
+ * 
  * @author SSE
  */
 public class EventsManager {
 
-    public static final EventManager<FloorSensorEvent, FloorSensorEventObserver> FLOOR_SENSORS = new EventManager<>();
-    public static final EventManager<ButtonEvent, ButtonEventObserver> BUTTONS = new EventManager<>();
-    public static final EventManager<ElevatorEvent, ElevatorEventObserver> ELEVATORS = new EventManager<>();
+    /**
+     * Policies for asynchronous dispatch if the mailbox of an observer is full.
+     * 
+     * @author SSE
+     */
+    public enum Backpressure {
+        
+        /**
+         * The sending thread blocks until there is space in the mailbox. Please note that an observer sending 
+         * events to itself may dead-lock then.
+         */
+        BLOCK,
+        
+        /**
+         * The oldest queued event is dropped.
+         */
+        DROP_OLDEST,
+        
+        /**
+         * A queued event with the same coalescing key as the new event is replaced, i.e., only the latest event 
+         * per key is delivered. If there is no such event, the oldest queued event is dropped.
+         */
+        COALESCE
+    }
+    
+    /**
+     * Routing key for observers receiving events of all elevators.
+     */
+    public static final int ANY_ELEVATOR = -1;
+    
+    /**
+     * Default coalescing key, the elevator index for elevator events, the event class else.
+     */
+    public static final Function<Event, Object> ELEVATOR_KEY = 
+        e -> e instanceof AbstractElevatorEvent ? ((AbstractElevatorEvent) e).getElevator() : e.getClass();
+
+    // global channels, delegate to the channels of the current scenario context if there is one
+    public static final EventManager<FloorSensorEvent, FloorSensorEventObserver> FLOOR_SENSORS = 
+        new ScopedEventManager<>(c -> c.getFloorSensors());
+    public static final EventManager<ButtonEvent, ButtonEventObserver> BUTTONS = 
+        new ScopedEventManager<>(c -> c.getButtons());
+    public static final EventManager<ElevatorEvent, ElevatorEventObserver> ELEVATORS = 
+        new ScopedEventManager<>(c -> c.getElevators());
+
+    static {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registerMetrics(registry, "floorSensors", FLOOR_SENSORS);
+        registerMetrics(registry, "buttons", BUTTONS);
+        registerMetrics(registry, "elevators", ELEVATORS);
+    }
 
     /**
      * Implements a generic event manager.
@@ -30,11 +99,28 @@ public class EventsManager {
      */
     public static class EventManager<E extends Event, O extends EventObserver<E>> {
 
-        private List<O> observers = new ArrayList<>();
+        private static final int MAX_BATCH = 64;
+        
+        private final ObserverRoutes<O> observers = new ObserverRoutes<>();
         private boolean debug;
+        private volatile Executor executor;
+        private int capacity;
+        private Backpressure backpressure;
+        private Function<? super E, ?> coalescingKey = ELEVATOR_KEY;
+        // immutable copy-on-write snapshot, looked up without locking when sending, replaced under mailboxLock
+        private volatile Map<O, Mailbox> mailboxes = Collections.emptyMap();
+        private final Object mailboxLock = new Object();
+        private final ReentrantLock drainLock = new ReentrantLock();
+        private final Condition drainedCondition = drainLock.newCondition();
+        private volatile int drainWaiters;
+        private final Counter dispatched = new Counter();
+        private final Timer observerTimes = new Timer();
 
         /**
-         * Sends a floor sensor event.
+         * Sends a floor sensor event. Observers registered or removed concurrently may or may not receive 
+         * {@code event}. Notifies the observers registered for all events first, then those for the 
+         * {@link Event#getRoutingKind() kind} of {@code event}, then those for its 
+         * {@link Event#getRoutingElevator() elevator} and finally those for elevator and kind.
          * 
          * @param event the event
          */
@@ -42,13 +128,421 @@ public class EventsManager {
             if (debug) {
                 System.out.println(event);
             }
-            for (O obs : observers) {
-                obs.notifyReceived(event);
+            dispatched.increment();
+            Enum<?> kind = event.getRoutingKind();
+            int elevator = event.getRoutingElevator();
+            dispatch(observers.get(ANY_ELEVATOR, null), event);
+            if (null != kind) {
+                dispatch(observers.get(ANY_ELEVATOR, kind), event);
+            }
+            if (elevator >= 0) {
+                dispatch(observers.get(elevator, null), event);
+                if (null != kind) {
+                    dispatch(observers.get(elevator, kind), event);
+                }
+            }
+        }
+
+        /**
+         * Dispatches {@code event} to the observers in {@code registry}.
+         * 
+         * @param registry the registry, may be <b>null</b>
+         * @param event the event
+         */
+        @SuppressWarnings("unchecked")
+        private void dispatch(ObserverRegistry<O> registry, E event) {
+            if (null != registry) {
+                Object[] obs = registry.observers(); // snapshot, iterate without locking/allocation
+                if (null == executor) {
+                    for (int o = 0; o < obs.length; o++) {
+                        long start = observerTimes.start();
+                        ((O) obs[o]).notifyReceived(event);
+                        observerTimes.stop(start);
+                    }
+                } else {
+                    Map<O, Mailbox> boxes = mailboxes;
+                    for (int o = 0; o < obs.length; o++) {
+                        Mailbox mailbox = boxes.get(obs[o]);
+                        if (null == mailbox) { // registered concurrently to switching to asynchronous dispatch
+                            mailbox = getMailbox((O) obs[o]);
+                        }
+                        if (null != mailbox) {
+                            mailbox.offer(event);
+                        }
+                    }
+                }
             }
         }
         
         /**
-         * Returns whether an observer has already been registered.
+         * Switches to asynchronous dispatch. Each observer receives an own mailbox with the given capacity, which is 
+         * created once when switching or when registering the observer, i.e., sending does not lock. Mailboxes are 
+         * drained by tasks submitted to {@code executor}, at most one task per observer at a time, i.e., 
+         * events are delivered to an observer in sending order.
+         * 
+         * @param executor the executor running the observers, e.g., {@link EventsManager#newDispatchExecutor()}
+         * @param capacity the capacity of the mailbox per observer
+         * @param backpressure the policy if a mailbox is full
+         * @throws IllegalArgumentException if {@code executor} or {@code backpressure} is <b>null</b> or 
+         *     {@code capacity} is not positive
+         */
+        public void setAsynchronous(Executor executor, int capacity, Backpressure backpressure) {
+            if (null == executor || null == backpressure || capacity <= 0) {
+                throw new IllegalArgumentException("Executor, backpressure and a positive capacity are required");
+            }
+            synchronized (mailboxLock) {
+                closeMailboxes();
+                this.capacity = capacity;
+                this.backpressure = backpressure;
+                this.executor = executor;
+                for (Object o : observers.observers()) {
+                    @SuppressWarnings("unchecked")
+                    O observer = (O) o;
+                    getMailbox(observer);
+                }
+            }
+        }
+        
+        /**
+         * Changes the coalescing key function for {@link Backpressure#COALESCE}.
+         * 
+         * @param coalescingKey the key function, {@link EventsManager#ELEVATOR_KEY} if <b>null</b>
+         */
+        public void setCoalescingKey(Function<? super E, ?> coalescingKey) {
+            this.coalescingKey = null == coalescingKey ? ELEVATOR_KEY : coalescingKey;
+        }
+
+        /**
+         * Switches back to synchronous dispatch (the default). Events still queued in mailboxes are discarded.
+         */
+        public void setSynchronous() {
+            synchronized (mailboxLock) {
+                executor = null;
+                closeMailboxes();
+            }
+        }
+
+        /**
+         * Returns whether events are dispatched asynchronously.
+         * 
+         * @return {@code true} for asynchronous, {@code false} for synchronous
+         */
+        public boolean isAsynchronous() {
+            return null != executor;
+        }
+        
+        /**
+         * Waits until all mailboxes are drained in asynchronous mode. Returns immediately in synchronous mode. Waits 
+         * on a condition signaled by mailboxes becoming drained, i.e., without polling.
+         * 
+         * @param millis the maximum time to wait in ms
+         * @return {@code true} if all mailboxes are drained, {@code false} if the time elapsed
+         * @throws InterruptedException if waiting is interrupted
+         */
+        public boolean awaitDrained(long millis) throws InterruptedException {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+            drainLock.lock();
+            try {
+                drainWaiters++; // before checking, drained mailboxes read it after becoming drained
+                try {
+                    boolean drained = isDrained();
+                    while (!drained && nanos > 0) {
+                        nanos = drainedCondition.awaitNanos(nanos);
+                        drained = isDrained();
+                    }
+                    return drained;
+                } finally {
+                    drainWaiters--;
+                }
+            } finally {
+                drainLock.unlock();
+            }
+        }
+
+        /**
+         * Returns whether all mailboxes are drained.
+         * 
+         * @return {@code true} for drained, {@code false} else
+         */
+        private boolean isDrained() {
+            boolean drained = true;
+            for (Mailbox m : mailboxes.values()) {
+                drained &= m.isDrained();
+            }
+            return drained;
+        }
+
+        /**
+         * Signals threads waiting in {@link #awaitDrained(long)} that a mailbox became drained.
+         */
+        private void signalDrained() {
+            if (drainWaiters > 0) {
+                drainLock.lock();
+                try {
+                    drainedCondition.signalAll();
+                } finally {
+                    drainLock.unlock();
+                }
+            }
+        }
+        
+        /**
+         * Returns the number of events sent via this event manager.
+         * 
+         * @return the number of events
+         */
+        public long getDispatchedEvents() {
+            return dispatched.get();
+        }
+
+        /**
+         * Returns the execution times of the observers of this event manager.
+         * 
+         * @return the execution times in ns, a copy
+         * @see MetricsRegistry#setTimingEnabled(boolean)
+         */
+        public Histogram getObserverTimes() {
+            return observerTimes.snapshot();
+        }
+        
+        /**
+         * Returns the number of events dropped or coalesced due to full mailboxes since switching to asynchronous 
+         * dispatch.
+         * 
+         * @return the number of dropped events
+         */
+        public long getDroppedEvents() {
+            long result = 0;
+            for (Mailbox m : mailboxes.values()) {
+                result += m.getDropped();
+            }
+            return result;
+        }
+
+        /**
+         * Returns the mailbox for {@code observer}, creates and publishes it if needed. Called upon registration
+         * and when switching to asynchronous dispatch.
+         * 
+         * @param observer the observer
+         * @return the mailbox, <b>null</b> if dispatch is synchronous or {@code observer} is not registered
+         */
+        private Mailbox getMailbox(O observer) {
+            synchronized (mailboxLock) {
+                Mailbox result = mailboxes.get(observer);
+                if (null == result && null != executor && observers.contains(observer)) {
+                    result = new Mailbox(observer, executor, capacity, backpressure);
+                    Map<O, Mailbox> boxes = new IdentityHashMap<>(mailboxes);
+                    boxes.put(observer, result);
+                    mailboxes = boxes; // publish copy
+                }
+                return result;
+            }
+        }
+        
+        /**
+         * Closes and removes all mailboxes. Caller must synchronize on {@link #mailboxLock}.
+         */
+        private void closeMailboxes() {
+            Map<O, Mailbox> boxes = mailboxes;
+            mailboxes = Collections.emptyMap();
+            for (Mailbox m : boxes.values()) {
+                m.close();
+            }
+            signalDrained();
+        }
+
+        /**
+         * Closes and removes the mailbox of the given observer if it is not registered anymore.
+         * 
+         * @param observer the observer
+         */
+        private void closeMailbox(O observer) {
+            synchronized (mailboxLock) {
+                Mailbox m = mailboxes.get(observer);
+                if (null != m && !observers.contains(observer)) {
+                    Map<O, Mailbox> boxes = new IdentityHashMap<>(mailboxes);
+                    boxes.remove(observer);
+                    mailboxes = boxes; // publish copy
+                    m.close();
+                    signalDrained();
+                }
+            }
+        }
+        
+        /**
+         * Bounded mailbox of an observer for asynchronous dispatch.
+         * 
+         * @author SSE
+         */
+        private class Mailbox implements Runnable {
+            
+            private final O observer;
+            private final Executor executor;
+            private final int capacity;
+            private final Backpressure backpressure;
+            private final ArrayDeque<E> queue = new ArrayDeque<>();
+            private final ReentrantLock lock = new ReentrantLock();
+            private final Condition notFull = lock.newCondition();
+            private boolean scheduled;
+            private boolean running;
+            private boolean closed;
+            private long dropped;
+
+            /**
+             * Creates a mailbox.
+             * 
+             * @param observer the observer to deliver the events to
+             * @param executor the executor running the drain task
+             * @param capacity the capacity
+             * @param backpressure the policy if the mailbox is full
+             */
+            private Mailbox(O observer, Executor executor, int capacity, Backpressure backpressure) {
+                this.observer = observer;
+                this.executor = executor;
+                this.capacity = capacity;
+                this.backpressure = backpressure;
+            }
+            
+            /**
+             * Queues an event and schedules draining if required.
+             * 
+             * @param event the event
+             */
+            private void offer(E event) {
+                boolean submit = false;
+                lock.lock();
+                try {
+                    while (!closed && queue.size() >= capacity) {
+                        if (Backpressure.BLOCK == backpressure) {
+                            try {
+                                notFull.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                dropped++;
+                                return;
+                            }
+                        } else {
+                            if (Backpressure.COALESCE != backpressure || !removeSameKey(event)) {
+                                queue.poll();
+                            }
+                            dropped++;
+                        }
+                    }
+                    if (!closed) {
+                        queue.add(event);
+                        if (!scheduled) {
+                            scheduled = true;
+                            submit = true;
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (submit) {
+                    executor.execute(this);
+                }
+            }
+            
+            /**
+             * Removes the first queued event with the same coalescing key as {@code event}.
+             * 
+             * @param event the event
+             * @return {@code true} if an event was removed, {@code false} else
+             */
+            private boolean removeSameKey(E event) {
+                Object key = coalescingKey.apply(event);
+                Iterator<E> iter = queue.iterator();
+                while (iter.hasNext()) {
+                    if (Objects.equals(key, coalescingKey.apply(iter.next()))) {
+                        iter.remove();
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public void run() {
+                boolean resubmit = false;
+                for (int i = 0; i < MAX_BATCH; i++) {
+                    E event;
+                    lock.lock();
+                    try {
+                        event = closed ? null : queue.poll();
+                        if (null == event) {
+                            scheduled = false;
+                            running = false;
+                        } else {
+                            running = true;
+                            notFull.signal();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (null == event) {
+                        signalDrained();
+                        break;
+                    }
+                    long start = observerTimes.start();
+                    try {
+                        observer.notifyReceived(event);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(); // do not kill the executor thread, similar to uncaught handler
+                    }
+                    observerTimes.stop(start);
+                    resubmit = i == MAX_BATCH - 1;
+                }
+                if (resubmit) { // be fair to the other observers on the executor
+                    executor.execute(this);
+                }
+            }
+
+            /**
+             * Returns the number of dropped or coalesced events.
+             * 
+             * @return the number of events
+             */
+            private long getDropped() {
+                lock.lock();
+                try {
+                    return dropped;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            /**
+             * Returns whether this mailbox is empty and no event is in delivery.
+             * 
+             * @return {@code true} for drained, {@code false} else
+             */
+            private boolean isDrained() {
+                lock.lock();
+                try {
+                    return queue.isEmpty() && !running;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            /**
+             * Closes this mailbox and discards the queued events.
+             */
+            private void close() {
+                lock.lock();
+                try {
+                    closed = true;
+                    queue.clear();
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            
+        }
+        
+        /**
+         * Returns whether an observer has already been registered. Observers are compared by identity.
          * 
          * @param observer the observer
          * @return {@code true} for registered, {@code false} for not yet registered
@@ -58,24 +552,48 @@ public class EventsManager {
         }
 
         /**
-         * Adds an observer.
+         * Adds an observer if not already registered. Checking and adding happens atomically.
          * 
-         * @param observer the observer
+         * @param observer the observer (ignored if <b>null</b>)
          */
         public void addObserverIfUnknown(O observer) {
-            if (!containsObserver(observer)) {
-                addObserver(observer);
+            addObserverIfUnknown(ANY_ELEVATOR, null, observer);
+        }
+
+        /**
+         * Adds an observer for the given elevator and/or kind if not already registered. Checking and adding happens
+         * atomically.
+         * 
+         * @param elevator the elevator index, {@link EventsManager#ANY_ELEVATOR} for all elevators
+         * @param kind the event kind, see {@link Event#getRoutingKind()}, <b>null</b> for all kinds
+         * @param observer the observer (ignored if <b>null</b>)
+         */
+        public void addObserverIfUnknown(int elevator, Enum<?> kind, O observer) {
+            if (null != observer && observers.add(elevator, kind, observer, true) && null != executor) {
+                getMailbox(observer);
             }
         }
 
         /**
-         * Adds an observer.
+         * Adds an observer receiving all events. May be called concurrently to {@link #sendEvent(Event)}.
          * 
          * @param observer the observer (ignored if <b>null</b>)
          */
         public void addObserver(O observer) {
-            if (null != observer) {
-                observers.add(observer);
+            addObserver(ANY_ELEVATOR, null, observer);
+        }
+
+        /**
+         * Adds an observer receiving only events for the given elevator and/or kind. May be called concurrently to 
+         * {@link #sendEvent(Event)}.
+         * 
+         * @param elevator the elevator index, {@link EventsManager#ANY_ELEVATOR} for all elevators
+         * @param kind the event kind, see {@link Event#getRoutingKind()}, <b>null</b> for all kinds
+         * @param observer the observer (ignored if <b>null</b>)
+         */
+        public void addObserver(int elevator, Enum<?> kind, O observer) {
+            if (null != observer && observers.add(elevator, kind, observer, false) && null != executor) {
+                getMailbox(observer);
             }
         }
 
@@ -87,6 +605,7 @@ public class EventsManager {
         public void removeObserver(O observer) {
             if (null != observer) {
                 observers.remove(observer);
+                closeMailbox(observer);
             }
         }
         
@@ -96,7 +615,9 @@ public class EventsManager {
          * @param predicate the predicate to select observers to be removed
          */
         public void removeObserverIf(Predicate<O> predicate) {
-            observers.removeIf(predicate);
+            for (O o : observers.removeIf(predicate)) {
+                closeMailbox(o);
+            }
         }
         
         /**
@@ -104,6 +625,9 @@ public class EventsManager {
          */
         public void removeAllObservers() {
             observers.clear();
+            synchronized (mailboxLock) {
+                closeMailboxes();
+            }
         }
         
         /**
@@ -117,6 +641,41 @@ public class EventsManager {
         
     }
     
+    /**
+     * Creates an executor for asynchronous dispatch. Uses virtual threads if supported by the runtime (Java 21 and 
+     * newer), a cached pool of daemon threads else.
+     * 
+     * @return the executor
+     */
+    public static ExecutorService newDispatchExecutor() {
+        return newDispatchExecutor("EventDispatch");
+    }
+
+    /**
+     * Creates an executor for long-running tasks such as event dispatch or elevator engines. Uses virtual threads if 
+     * supported by the runtime (Java 21 and newer), i.e., the tasks share the small carrier pool of the runtime, a 
+     * cached pool of daemon threads else, i.e., idle threads are reused by subsequent tasks.
+     * 
+     * @param name the name of the pool threads
+     * @return the executor
+     * @see EngineMode#AUTO
+     */
+    public static ExecutorService newDispatchExecutor(String name) {
+        return EngineMode.AUTO.newExecutor(name);
+    }
+    
+    /**
+     * Registers the metrics of a global channel, i.e., not of the channels of scenario contexts.
+     * 
+     * @param registry the registry
+     * @param name the channel name
+     * @param channel the channel
+     */
+    private static void registerMetrics(MetricsRegistry registry, String name, EventManager<?, ?> channel) {
+        registry.register("events." + name + ".dispatched", channel.dispatched);
+        registry.register("events." + name + ".observerNanos", channel.observerTimes);
+    }
+    
     /**
      * Removes all observers.
      */
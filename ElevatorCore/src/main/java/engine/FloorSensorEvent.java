@@ -5,7 +5,10 @@ package engine;
  */
 public class FloorSensorEvent extends AbstractElevatorEvent {
 
-    private Position position;
+    private static final EventCache<FloorSensorEvent> CACHE = new EventCache<>(Position.values().length, 
+        (e, f, v) -> new FloorSensorEvent(e, f, Position.values()[v]));
+    
+    private final Position position;
     
     /**
      * Denotes sensor positions.
@@ -43,12 +46,25 @@ public class FloorSensorEvent extends AbstractElevatorEvent {
     }
     
     /**
-     * Creates an event with same settings as <b>this</b> event but position {@link Position#CLEARED}.
+     * Returns a shared floor sensor event instance. Preferred over the constructor on the event paths as it does 
+     * not allocate.
      * 
-     * @return the created event
+     * @param elevator the elevator index
+     * @param floor the floor index
+     * @param position the sensor position
+     * @return the event
+     */
+    public static FloorSensorEvent of(int elevator, int floor, Position position) {
+        return CACHE.get(elevator, floor, position.ordinal());
+    }
+    
+    /**
+     * Returns an event with same settings as <b>this</b> event but position {@link Position#CLEARED}.
+     * 
+     * @return the (shared) event
      */
     public FloorSensorEvent createClearedEvent() {
-        return new FloorSensorEvent(getElevator(), getFloor(), Position.CLEARED);
+        return of(getElevator(), getFloor(), Position.CLEARED);
     }
     
     /**
@@ -60,6 +76,11 @@ public class FloorSensorEvent extends AbstractElevatorEvent {
         return position;
     }
     
+    @Override
+    public Enum<?> getRoutingKind() {
+        return position;
+    }
+
     @Override
     public String toString() {
         return String.format("FloorSensorEvent(%s, position=%s)", toStringPartial(), position); 
@@ -0,0 +1,196 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Lock-free copy-on-write registry of observers. Readers obtain an immutable array snapshot without locking or
+ * allocation, writers replace the snapshot atomically. Membership is determined by identity in constant time.
+ * Observers may be registered multiple times; then they are also notified multiple times.
+ *
+ * @param <O> the observer type
+ * @author SSE
+ */
+final class ObserverRegistry<O> {
+
+    private static final Snapshot EMPTY = new Snapshot(new Object[0], new IdentityHashMap<>());
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(EMPTY);
+
+    /**
+     * Immutable state of the registry.
+     *
+     * @author SSE
+     */
+    private static final class Snapshot {
+
+        private final Object[] observers;
+        private final IdentityHashMap<Object, Integer> counts;
+
+        /**
+         * Creates a snapshot. The given instances must not be modified afterwards.
+         *
+         * @param observers the observers in registration order
+         * @param counts the number of registrations per observer
+         */
+        private Snapshot(Object[] observers, IdentityHashMap<Object, Integer> counts) {
+            this.observers = observers;
+            this.counts = counts;
+        }
+
+    }
+
+    /**
+     * Returns the current observers in registration order. The returned array must not be modified.
+     *
+     * @return the observers
+     */
+    Object[] observers() {
+        return snapshot.get().observers;
+    }
+
+    /**
+     * Returns whether the registry is empty.
+     *
+     * @return {@code true} for empty, {@code false} else
+     */
+    boolean isEmpty() {
+        return snapshot.get().observers.length == 0;
+    }
+
+    /**
+     * Returns whether {@code observer} is registered (by identity).
+     *
+     * @param observer the observer
+     * @return {@code true} for registered, {@code false} else
+     */
+    boolean contains(O observer) {
+        return snapshot.get().counts.containsKey(observer);
+    }
+
+    /**
+     * Registers an observer.
+     *
+     * @param observer the observer, not <b>null</b>
+     * @param ifUnknown add {@code observer} only if it is not already registered
+     * @return {@code true} if {@code observer} was added, {@code false} else
+     */
+    boolean add(O observer, boolean ifUnknown) {
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            Integer count = current.counts.get(observer);
+            if (ifUnknown && null != count) {
+                return false;
+            }
+            Object[] observers = Arrays.copyOf(current.observers, current.observers.length + 1);
+            observers[current.observers.length] = observer;
+            IdentityHashMap<Object, Integer> counts = new IdentityHashMap<>(current.counts);
+            counts.put(observer, null == count ? 1 : count + 1);
+            next = new Snapshot(observers, counts);
+        } while (!snapshot.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Removes the first registration of {@code observer}.
+     *
+     * @param observer the observer
+     * @return {@code true} if {@code observer} was removed, {@code false} if it was not registered
+     */
+    boolean remove(O observer) {
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            Integer count = current.counts.get(observer);
+            if (null == count) {
+                return false;
+            }
+            int pos = 0;
+            while (current.observers[pos] != observer) {
+                pos++;
+            }
+            Object[] observers = new Object[current.observers.length - 1];
+            System.arraycopy(current.observers, 0, observers, 0, pos);
+            System.arraycopy(current.observers, pos + 1, observers, pos, observers.length - pos);
+            IdentityHashMap<Object, Integer> counts = new IdentityHashMap<>(current.counts);
+            if (count > 1) {
+                counts.put(observer, count - 1);
+            } else {
+                counts.remove(observer);
+            }
+            next = new Snapshot(observers, counts);
+        } while (!snapshot.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Removes all registrations of observers satisfying {@code predicate}. {@code predicate} may be evaluated
+     * more than once per observer if concurrent modifications occur.
+     *
+     * @param predicate the predicate
+     * @return the removed observers (each once)
+     */
+    @SuppressWarnings("unchecked")
+    List<O> removeIf(Predicate<? super O> predicate) {
+        Snapshot current;
+        Snapshot next;
+        List<O> removed;
+        do {
+            current = snapshot.get();
+            removed = new ArrayList<>();
+            IdentityHashMap<Object, Boolean> decided = new IdentityHashMap<>();
+            List<Object> kept = new ArrayList<>(current.observers.length);
+            for (Object o : current.observers) {
+                Boolean remove = decided.get(o);
+                if (null == remove) {
+                    remove = predicate.test((O) o);
+                    decided.put(o, remove);
+                    if (remove) {
+                        removed.add((O) o);
+                    }
+                }
+                if (!remove) {
+                    kept.add(o);
+                }
+            }
+            if (removed.isEmpty()) {
+                return removed;
+            }
+            IdentityHashMap<Object, Integer> counts = new IdentityHashMap<>(current.counts);
+            for (O o : removed) {
+                counts.remove(o);
+            }
+            next = new Snapshot(kept.toArray(), counts);
+        } while (!snapshot.compareAndSet(current, next));
+        return removed;
+    }
+
+    /**
+     * Removes all observers.
+     *
+     * @return the removed observers (each once)
+     */
+    @SuppressWarnings("unchecked")
+    List<O> clear() {
+        Snapshot current = snapshot.getAndSet(EMPTY);
+        List<O> result;
+        if (current.counts.isEmpty()) {
+            result = Collections.emptyList();
+        } else {
+            result = new ArrayList<>(current.counts.size());
+            for (Object o : current.counts.keySet()) {
+                result.add((O) o);
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,253 @@
+package engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Routing table of observers keyed by elevator index and/or event kind. Each key combination has an own
+ * {@link ObserverRegistry}, i.e., lookups for dispatching are lock-free and allocation-free. Modifications are
+ * serialized to keep the registries and the overall membership consistent.
+ *
+ * @param <O> the observer type
+ * @author SSE
+ */
+final class ObserverRoutes<O> {
+
+    private final ObserverRegistry<O> members = new ObserverRegistry<>();
+    private final Route<O> anyElevator = new Route<>();
+    private volatile Route<O>[] byElevator = newRoutes(0);
+    // registries per observer in registration order, i.e., in the order of the registrations in members
+    private final IdentityHashMap<O, ArrayDeque<ObserverRegistry<O>>> registrations = new IdentityHashMap<>();
+
+    /**
+     * The registries for one elevator or for any elevator.
+     *
+     * @param <O> the observer type
+     * @author SSE
+     */
+    private static final class Route<O> {
+
+        private final ObserverRegistry<O> anyKind = new ObserverRegistry<>();
+        private volatile ObserverRegistry<O>[] byKind = newRegistries(0);
+
+        /**
+         * Returns the registry for the given kind.
+         *
+         * @param kind the kind, <b>null</b> for any kind
+         * @return the registry, <b>null</b> if there is none
+         */
+        private ObserverRegistry<O> get(Enum<?> kind) {
+            ObserverRegistry<O> result;
+            if (null == kind) {
+                result = anyKind;
+            } else {
+                ObserverRegistry<O>[] kinds = byKind;
+                int ordinal = kind.ordinal();
+                result = ordinal < kinds.length ? kinds[ordinal] : null;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the registry for the given kind, creates it if needed. Caller must synchronize.
+         *
+         * @param kind the kind, <b>null</b> for any kind
+         * @return the registry
+         */
+        private ObserverRegistry<O> obtain(Enum<?> kind) {
+            ObserverRegistry<O> result = get(kind);
+            if (null == result) {
+                int ordinal = kind.ordinal();
+                ObserverRegistry<O>[] kinds = Arrays.copyOf(byKind, Math.max(byKind.length, ordinal + 1));
+                result = new ObserverRegistry<>();
+                kinds[ordinal] = result;
+                byKind = kinds; // publish copy
+            }
+            return result;
+        }
+
+        /**
+         * Adds all registries of this route to {@code result}.
+         *
+         * @param result modified as a side effect
+         */
+        private void collect(List<ObserverRegistry<O>> result) {
+            result.add(anyKind);
+            for (ObserverRegistry<O> r : byKind) {
+                if (null != r) {
+                    result.add(r);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Creates a generic route array.
+     *
+     * @param <O> the observer type
+     * @param size the size
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private static <O> Route<O>[] newRoutes(int size) {
+        return (Route<O>[]) new Route<?>[size];
+    }
+
+    /**
+     * Creates a generic registry array.
+     *
+     * @param <O> the observer type
+     * @param size the size
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private static <O> ObserverRegistry<O>[] newRegistries(int size) {
+        return (ObserverRegistry<O>[]) new ObserverRegistry<?>[size];
+    }
+
+    /**
+     * Returns the registry for the given routing key.
+     *
+     * @param elevator the elevator index, negative for any elevator
+     * @param kind the kind, <b>null</b> for any kind
+     * @return the registry, <b>null</b> if there is none
+     */
+    ObserverRegistry<O> get(int elevator, Enum<?> kind) {
+        ObserverRegistry<O> result = null;
+        if (elevator < 0) {
+            result = anyElevator.get(kind);
+        } else {
+            Route<O>[] routes = byElevator;
+            if (elevator < routes.length && null != routes[elevator]) {
+                result = routes[elevator].get(kind);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all observers, each registration once.
+     *
+     * @return the observers, must not be modified
+     */
+    Object[] observers() {
+        return members.observers();
+    }
+
+    /**
+     * Returns whether {@code observer} is registered (by identity) for any key.
+     *
+     * @param observer the observer
+     * @return {@code true} for registered, {@code false} else
+     */
+    boolean contains(O observer) {
+        return members.contains(observer);
+    }
+
+    /**
+     * Registers an observer.
+     *
+     * @param elevator the elevator index, negative for any elevator
+     * @param kind the kind, <b>null</b> for any kind
+     * @param observer the observer, not <b>null</b>
+     * @param ifUnknown add {@code observer} only if it is not registered for any key
+     * @return {@code true} if {@code observer} was added, {@code false} else
+     */
+    synchronized boolean add(int elevator, Enum<?> kind, O observer, boolean ifUnknown) {
+        boolean added = members.add(observer, ifUnknown);
+        if (added) {
+            Route<O> route;
+            if (elevator < 0) {
+                route = anyElevator;
+            } else {
+                Route<O>[] routes = byElevator;
+                route = elevator < routes.length ? routes[elevator] : null;
+                if (null == route) {
+                    routes = Arrays.copyOf(routes, Math.max(routes.length, elevator + 1));
+                    route = new Route<>();
+                    routes[elevator] = route;
+                    byElevator = routes; // publish copy
+                }
+            }
+            ObserverRegistry<O> registry = route.obtain(kind);
+            registry.add(observer, false);
+            registrations.computeIfAbsent(observer, o -> new ArrayDeque<>()).add(registry);
+        }
+        return added;
+    }
+
+    /**
+     * Removes the first registration of {@code observer}, i.e., from {@link #observers()} and from the registry of 
+     * the routing key it was registered for first.
+     *
+     * @param observer the observer
+     * @return {@code true} if {@code observer} was removed, {@code false} if it was not registered
+     */
+    synchronized boolean remove(O observer) {
+        boolean removed = members.remove(observer);
+        if (removed) {
+            ArrayDeque<ObserverRegistry<O>> registries = registrations.get(observer);
+            registries.poll().remove(observer);
+            if (registries.isEmpty()) {
+                registrations.remove(observer);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all registrations of observers satisfying {@code predicate}.
+     *
+     * @param predicate the predicate
+     * @return the removed observers (each once)
+     */
+    synchronized List<O> removeIf(Predicate<? super O> predicate) {
+        List<O> removed = members.removeIf(predicate);
+        if (!removed.isEmpty()) {
+            IdentityHashMap<O, Boolean> set = new IdentityHashMap<>();
+            for (O o : removed) {
+                set.put(o, Boolean.TRUE);
+                registrations.remove(o);
+            }
+            for (ObserverRegistry<O> r : registries()) {
+                r.removeIf(o -> set.containsKey(o));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all observers.
+     *
+     * @return the removed observers (each once)
+     */
+    synchronized List<O> clear() {
+        for (ObserverRegistry<O> r : registries()) {
+            r.clear();
+        }
+        registrations.clear();
+        return members.clear();
+    }
+
+    /**
+     * Returns all existing registries.
+     *
+     * @return the registries
+     */
+    private List<ObserverRegistry<O>> registries() {
+        List<ObserverRegistry<O>> result = new ArrayList<>();
+        anyElevator.collect(result);
+        for (Route<O> r : byElevator) {
+            if (null != r) {
+                r.collect(result);
+            }
+        }
+        return result;
+    }
+
+}
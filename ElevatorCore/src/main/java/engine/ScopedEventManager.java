@@ -0,0 +1,180 @@
+package engine;
+
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import engine.Event.EventObserver;
+import engine.EventsManager.Backpressure;
+import engine.EventsManager.EventManager;
+import engine.metrics.Histogram;
+import engine.scenario.ScenarioContext;
+
+/**
+ * Event manager for the global {@link EventsManager} channels. Delegates to the respective channel of the
+ * {@link ScenarioContext#current() current scenario context} if there is one, else acts as a plain event manager.
+ *
+ * @param <E> the event type
+ * @param <O> the related event observer type
+ * @author SSE
+ */
+final class ScopedEventManager<E extends Event, O extends EventObserver<E>> extends EventManager<E, O> {
+
+    private final Function<ScenarioContext, EventManager<E, O>> channel;
+
+    /**
+     * Creates a scoped event manager.
+     *
+     * @param channel selects the channel from a scenario context
+     */
+    ScopedEventManager(Function<ScenarioContext, EventManager<E, O>> channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the channel of the current scenario context.
+     *
+     * @return the channel, <b>null</b> for none, i.e., this instance applies
+     */
+    private EventManager<E, O> scoped() {
+        ScenarioContext context = ScenarioContext.current();
+        return null == context ? null : channel.apply(context);
+    }
+
+    @Override
+    public void sendEvent(E event) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.sendEvent(event);
+        } else {
+            scoped.sendEvent(event);
+        }
+    }
+
+    @Override
+    public void setAsynchronous(Executor executor, int capacity, Backpressure backpressure) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.setAsynchronous(executor, capacity, backpressure);
+        } else {
+            scoped.setAsynchronous(executor, capacity, backpressure);
+        }
+    }
+
+    @Override
+    public void setCoalescingKey(Function<? super E, ?> coalescingKey) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.setCoalescingKey(coalescingKey);
+        } else {
+            scoped.setCoalescingKey(coalescingKey);
+        }
+    }
+
+    @Override
+    public void setSynchronous() {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.setSynchronous();
+        } else {
+            scoped.setSynchronous();
+        }
+    }
+
+    @Override
+    public boolean isAsynchronous() {
+        EventManager<E, O> scoped = scoped();
+        return null == scoped ? super.isAsynchronous() : scoped.isAsynchronous();
+    }
+
+    @Override
+    public boolean awaitDrained(long millis) throws InterruptedException {
+        EventManager<E, O> scoped = scoped();
+        return null == scoped ? super.awaitDrained(millis) : scoped.awaitDrained(millis);
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        EventManager<E, O> scoped = scoped();
+        return null == scoped ? super.getDroppedEvents() : scoped.getDroppedEvents();
+    }
+
+    @Override
+    public long getDispatchedEvents() {
+        EventManager<E, O> scoped = scoped();
+        return null == scoped ? super.getDispatchedEvents() : scoped.getDispatchedEvents();
+    }
+
+    @Override
+    public Histogram getObserverTimes() {
+        EventManager<E, O> scoped = scoped();
+        return null == scoped ? super.getObserverTimes() : scoped.getObserverTimes();
+    }
+
+    @Override
+    public boolean containsObserver(O observer) {
+        EventManager<E, O> scoped = scoped();
+        return null == scoped ? super.containsObserver(observer) : scoped.containsObserver(observer);
+    }
+
+    @Override
+    public void addObserverIfUnknown(int elevator, Enum<?> kind, O observer) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.addObserverIfUnknown(elevator, kind, observer);
+        } else {
+            scoped.addObserverIfUnknown(elevator, kind, observer);
+        }
+    }
+
+    @Override
+    public void addObserver(int elevator, Enum<?> kind, O observer) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.addObserver(elevator, kind, observer);
+        } else {
+            scoped.addObserver(elevator, kind, observer);
+        }
+    }
+
+    @Override
+    public void removeObserver(O observer) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.removeObserver(observer);
+        } else {
+            scoped.removeObserver(observer);
+        }
+    }
+
+    @Override
+    public void removeObserverIf(Predicate<O> predicate) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.removeObserverIf(predicate);
+        } else {
+            scoped.removeObserverIf(predicate);
+        }
+    }
+
+    @Override
+    public void removeAllObservers() {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.removeAllObservers();
+        } else {
+            scoped.removeAllObservers();
+        }
+    }
+
+    @Override
+    public void setDebug(boolean debug) {
+        EventManager<E, O> scoped = scoped();
+        if (null == scoped) {
+            super.setDebug(debug);
+        } else {
+            scoped.setDebug(debug);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package engine.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A clock running proportionally to wall-clock time.
+ *
+ * @author SSE
+ */
+public class ScaledClock implements SimulationClock {
+
+    static final ScaledClock REAL_TIME = new ScaledClock(1);
+
+    private final double factor;
+    private final long startNanos;
+
+    /**
+     * Creates a scaled clock starting at simulated time 0.
+     *
+     * @param factor the speedup factor, e.g., 1 for real time or 100 for 100 times faster than wall-clock time
+     * @throws IllegalArgumentException if {@code factor} is not positive
+     */
+    public ScaledClock(double factor) {
+        if (!(factor > 0)) {
+            throw new IllegalArgumentException("Factor must be positive: " + factor);
+        }
+        this.factor = factor;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the speedup factor.
+     *
+     * @return the factor
+     */
+    public double getFactor() {
+        return factor;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return (long) ((System.nanoTime() - startNanos) * factor / 1000000);
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            TimeUnit.NANOSECONDS.sleep(toNanos(millis));
+        }
+    }
+
+    @Override
+    public boolean await(Lock lock, Condition condition, BooleanSupplier predicate, long millis)
+        throws InterruptedException {
+        if (millis < 0) {
+            return SimulationClock.awaitForever(condition, predicate);
+        }
+        long nanos = toNanos(millis);
+        boolean result = predicate.getAsBoolean();
+        while (!result && nanos > 0) {
+            nanos = condition.awaitNanos(nanos);
+            result = predicate.getAsBoolean();
+        }
+        return result;
+    }
+
+    /**
+     * Turns simulated milliseconds into wall-clock nanoseconds.
+     *
+     * @param millis the simulated time in ms
+     * @return the wall-clock time in ns
+     */
+    protected long toNanos(long millis) {
+        return (long) (millis * 1000000 / factor);
+    }
+
+}
@@ -0,0 +1,98 @@
+package engine.clock;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Abstracts the passing of simulated time. All waiting of the simulation engine (elevator moves, door delays)
+ * shall go through a clock so that the simulation can be switched between interactive and batch operation
+ * without touching controller code. Times are given in simulated milliseconds.
+ *
+ * @author SSE
+ */
+public interface SimulationClock {
+
+    /**
+     * Returns the current simulated time.
+     *
+     * @return the simulated time in ms
+     */
+    public long currentTimeMillis();
+
+    /**
+     * Lets the calling thread wait for the given simulated time.
+     *
+     * @param millis the simulated time to wait in ms, ignored if not positive
+     * @throws InterruptedException if waiting is interrupted
+     */
+    public void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Lets the calling thread wait on {@code condition} until {@code predicate} holds or the given simulated time
+     * elapsed. The calling thread must hold {@code lock}, the lock {@code condition} belongs to. Threads changing
+     * the state tested by {@code predicate} shall signal {@code condition} while holding {@code lock}.
+     *
+     * @param lock the lock held by the calling thread
+     * @param condition the condition of {@code lock} to wait on
+     * @param predicate the predicate to wait for
+     * @param millis the maximum simulated time to wait in ms, negative for no timeout
+     * @return the value of {@code predicate} when waiting ends
+     * @throws InterruptedException if waiting is interrupted
+     */
+    public boolean await(Lock lock, Condition condition, BooleanSupplier predicate, long millis)
+        throws InterruptedException;
+
+    /**
+     * Waits without timeout on {@code condition} until {@code predicate} holds. Helper for implementing clocks.
+     *
+     * @param condition the condition to wait on, the lock of the condition must be held by the calling thread
+     * @param predicate the predicate to wait for
+     * @return {@code true}
+     * @throws InterruptedException if waiting is interrupted
+     */
+    static boolean awaitForever(Condition condition, BooleanSupplier predicate) throws InterruptedException {
+        while (!predicate.getAsBoolean()) {
+            condition.await();
+        }
+        return true;
+    }
+
+    /**
+     * Returns a real-time clock, i.e., simulated time equals wall-clock time.
+     *
+     * @return the clock
+     */
+    public static SimulationClock realTime() {
+        return ScaledClock.REAL_TIME;
+    }
+
+    /**
+     * Returns a scaled clock.
+     *
+     * @param factor the speedup factor, e.g., 100 for 100 times faster than wall-clock time
+     * @return the clock
+     */
+    public static SimulationClock scaled(double factor) {
+        return new ScaledClock(factor);
+    }
+
+    /**
+     * Returns a clock that advances only on explicit {@link SteppedClock#step(long) steps}.
+     *
+     * @return the clock
+     */
+    public static SteppedClock stepped() {
+        return new SteppedClock();
+    }
+
+    /**
+     * Returns a clock that does not wait at all, i.e., the simulation runs as fast as possible.
+     *
+     * @return the clock
+     */
+    public static SimulationClock unbounded() {
+        return new UnboundedClock();
+    }
+
+}
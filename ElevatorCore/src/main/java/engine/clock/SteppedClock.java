@@ -0,0 +1,179 @@
+package engine.clock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A clock that advances only on explicit steps, e.g., for debugging a simulation step by step. Sleeping threads
+ * are released when the simulated time reaches their wake-up time.
+ *
+ * @author SSE
+ */
+public class SteppedClock implements SimulationClock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final PriorityQueue<Long> wakeUps = new PriorityQueue<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+    private volatile long time;
+
+    /**
+     * A thread waiting on a foreign condition with simulated timeout.
+     *
+     * @author SSE
+     */
+    private static class Waiter {
+
+        private final Lock lock;
+        private final Condition condition;
+
+        /**
+         * Creates a waiter.
+         *
+         * @param lock the lock of {@code condition}
+         * @param condition the condition the thread is waiting on
+         */
+        private Waiter(Lock lock, Condition condition) {
+            this.lock = lock;
+            this.condition = condition;
+        }
+
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return time;
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            lock.lock();
+            try {
+                Long wakeUp = time + millis;
+                wakeUps.add(wakeUp);
+                try {
+                    while (time < wakeUp) {
+                        advanced.await();
+                    }
+                } finally {
+                    wakeUps.remove(wakeUp);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean await(Lock lock, Condition condition, BooleanSupplier predicate, long millis)
+        throws InterruptedException {
+        if (millis < 0) {
+            return SimulationClock.awaitForever(condition, predicate);
+        }
+        Waiter waiter = new Waiter(lock, condition);
+        Long wakeUp;
+        this.lock.lock();
+        try {
+            wakeUp = time + millis;
+            wakeUps.add(wakeUp);
+            waiters.add(waiter);
+        } finally {
+            this.lock.unlock();
+        }
+        try {
+            boolean result = predicate.getAsBoolean();
+            while (!result && time < wakeUp) {
+                condition.await();
+                result = predicate.getAsBoolean();
+            }
+            return result;
+        } finally {
+            this.lock.lock();
+            try {
+                wakeUps.remove(wakeUp);
+                waiters.remove(waiter);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Advances the simulated time by {@code millis} and releases the threads that are due.
+     *
+     * @param millis the time to advance in ms, ignored if not positive
+     */
+    public void step(long millis) {
+        if (millis > 0) {
+            advance(millis, true);
+        }
+    }
+
+    /**
+     * Advances the simulated time to the earliest wake-up time of a sleeping thread and releases that thread.
+     *
+     * @return {@code true} if a thread was sleeping, {@code false} if no thread was sleeping and the time was not
+     *     changed
+     */
+    public boolean step() {
+        Long next;
+        lock.lock();
+        try {
+            next = wakeUps.peek();
+        } finally {
+            lock.unlock();
+        }
+        if (null != next) {
+            advance(next, false);
+        }
+        return null != next;
+    }
+
+    /**
+     * Advances the time and signals all waiting threads. Foreign conditions are signaled without holding the
+     * lock of this clock to avoid lock-order inversions with waiting threads.
+     *
+     * @param value the new time (ignored if before the actual time) or the time to advance by
+     * @param relative whether {@code value} is relative to the actual time
+     */
+    private void advance(long value, boolean relative) {
+        Waiter[] signal;
+        lock.lock();
+        try {
+            time = relative ? time + value : Math.max(time, value);
+            advanced.signalAll();
+            signal = waiters.toArray(new Waiter[waiters.size()]);
+        } finally {
+            lock.unlock();
+        }
+        for (Waiter w : signal) {
+            w.lock.lock();
+            try {
+                w.condition.signalAll();
+            } finally {
+                w.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of threads currently sleeping or waiting with timeout on this clock.
+     *
+     * @return the number of threads
+     */
+    public int getSleepingCount() {
+        lock.lock();
+        try {
+            return wakeUps.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
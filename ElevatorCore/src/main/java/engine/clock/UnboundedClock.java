@@ -0,0 +1,52 @@
+package engine.clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A clock that does not wait at all. Each thread advances its own simulated time when sleeping, the clock
+ * reports the maximum time reached by any thread. Waiting with timeout on a condition does not block, i.e., the
+ * timeout elapses immediately in simulated time unless the predicate already holds.
+ *
+ * @author SSE
+ */
+public class UnboundedClock implements SimulationClock {
+
+    private final AtomicLong time = new AtomicLong();
+    private final ThreadLocal<long[]> threadTime = ThreadLocal.withInitial(() -> new long[] {time.get()});
+
+    @Override
+    public long currentTimeMillis() {
+        return time.get();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (millis > 0) {
+            long[] local = threadTime.get();
+            local[0] += millis;
+            final long reached = local[0];
+            time.accumulateAndGet(reached, Math::max);
+        }
+    }
+
+    @Override
+    public boolean await(Lock lock, Condition condition, BooleanSupplier predicate, long millis)
+        throws InterruptedException {
+        if (millis < 0) {
+            return SimulationClock.awaitForever(condition, predicate);
+        }
+        boolean result = predicate.getAsBoolean();
+        if (!result) {
+            sleep(millis);
+            result = predicate.getAsBoolean();
+        }
+        return result;
+    }
+
+}
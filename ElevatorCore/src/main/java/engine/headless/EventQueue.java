@@ -0,0 +1,266 @@
+package engine.headless;
+
+import java.util.Arrays;
+
+/**
+ * Time-ordered queue of scheduled simulation events. Entries are ordered by time and, for equal times, by
+ * insertion order so that the simulation is deterministic. Entries are kept in parallel arrays forming a binary
+ * heap, i.e., adding and removing entries does not allocate objects unless the queue has to grow.
+ *
+ * @author SSE
+ */
+public class EventQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Visits queued entries.
+     *
+     * @author SSE
+     */
+    public interface EntryVisitor {
+
+        /**
+         * Visits an entry.
+         *
+         * @param time the (simulated) time the entry is due
+         * @param type the entry type
+         * @param car the car/elevator index the entry refers to
+         * @param arg the additional argument
+         * @param payload the payload, may be <b>null</b>
+         */
+        public void visit(long time, int type, int car, int arg, Object payload);
+
+    }
+
+    private long[] times = new long[INITIAL_CAPACITY];
+    private long[] seqs = new long[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] cars = new int[INITIAL_CAPACITY];
+    private int[] args = new int[INITIAL_CAPACITY];
+    private Object[] payloads = new Object[INITIAL_CAPACITY];
+    private int size;
+    private long seq;
+
+    /**
+     * Adds an entry.
+     *
+     * @param time the (simulated) time the entry is due
+     * @param type the entry type (interpreted by the caller)
+     * @param car the car/elevator index the entry refers to
+     * @param arg an additional argument (interpreted by the caller)
+     * @param payload an optional payload object, may be <b>null</b>
+     */
+    public void add(long time, int type, int car, int arg, Object payload) {
+        if (size == times.length) {
+            grow();
+        }
+        int pos = size++;
+        set(pos, time, seq++, type, car, arg, payload);
+        siftUp(pos);
+    }
+
+    /**
+     * Returns whether the queue is empty.
+     *
+     * @return {@code true} for empty, {@code false} else
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of queued entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the time of the head entry. Fails if the queue {@link #isEmpty() is empty}.
+     *
+     * @return the time
+     */
+    public long peekTime() {
+        return times[0];
+    }
+
+    /**
+     * Returns the type of the head entry. Fails if the queue {@link #isEmpty() is empty}.
+     *
+     * @return the type
+     */
+    public int peekType() {
+        return types[0];
+    }
+
+    /**
+     * Returns the car index of the head entry. Fails if the queue {@link #isEmpty() is empty}.
+     *
+     * @return the car index
+     */
+    public int peekCar() {
+        return cars[0];
+    }
+
+    /**
+     * Returns the argument of the head entry. Fails if the queue {@link #isEmpty() is empty}.
+     *
+     * @return the argument
+     */
+    public int peekArg() {
+        return args[0];
+    }
+
+    /**
+     * Returns the payload of the head entry. Fails if the queue {@link #isEmpty() is empty}.
+     *
+     * @return the payload, may be <b>null</b>
+     */
+    public Object peekPayload() {
+        return payloads[0];
+    }
+
+    /**
+     * Removes the head entry. Ignored if the queue {@link #isEmpty() is empty}.
+     */
+    public void remove() {
+        if (size > 0) {
+            size--;
+            if (size > 0) {
+                set(0, times[size], seqs[size], types[size], cars[size], args[size], payloads[size]);
+                siftDown(0);
+            }
+            payloads[size] = null;
+        }
+    }
+
+    /**
+     * Visits all entries in processing order without removing them. Adding the visited entries in that order to an
+     * empty queue yields the same processing order.
+     *
+     * @param visitor the visitor
+     */
+    public void forEach(EntryVisitor visitor) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i, j) -> before(i, j) ? -1 : (before(j, i) ? 1 : 0));
+        for (int i : order) {
+            visitor.visit(times[i], types[i], cars[i], args[i], payloads[i]);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(payloads, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Sets an entry at the given heap position.
+     *
+     * @param pos the position
+     * @param time the time
+     * @param sq the sequence number
+     * @param type the type
+     * @param car the car index
+     * @param arg the argument
+     * @param payload the payload
+     */
+    private void set(int pos, long time, long sq, int type, int car, int arg, Object payload) {
+        times[pos] = time;
+        seqs[pos] = sq;
+        types[pos] = type;
+        cars[pos] = car;
+        args[pos] = arg;
+        payloads[pos] = payload;
+    }
+
+    /**
+     * Returns whether the entry at {@code i} is due before the entry at {@code j}.
+     *
+     * @param i the first position
+     * @param j the second position
+     * @return {@code true} if {@code i} is before {@code j}, {@code false} else
+     */
+    private boolean before(int i, int j) {
+        return times[i] < times[j] || (times[i] == times[j] && seqs[i] < seqs[j]);
+    }
+
+    /**
+     * Swaps two heap positions.
+     *
+     * @param i the first position
+     * @param j the second position
+     */
+    private void swap(int i, int j) {
+        long tmpTime = times[i];
+        long tmpSeq = seqs[i];
+        int tmpType = types[i];
+        int tmpCar = cars[i];
+        int tmpArg = args[i];
+        Object tmpPayload = payloads[i];
+        set(i, times[j], seqs[j], types[j], cars[j], args[j], payloads[j]);
+        set(j, tmpTime, tmpSeq, tmpType, tmpCar, tmpArg, tmpPayload);
+    }
+
+    /**
+     * Restores the heap property upwards.
+     *
+     * @param pos the position to start at
+     */
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!before(pos, parent)) {
+                break;
+            }
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    /**
+     * Restores the heap property downwards.
+     *
+     * @param pos the position to start at
+     */
+    private void siftDown(int pos) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= size) {
+                break;
+            }
+            int min = left;
+            int right = left + 1;
+            if (right < size && before(right, left)) {
+                min = right;
+            }
+            if (!before(min, pos)) {
+                break;
+            }
+            swap(pos, min);
+            pos = min;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the queue.
+     */
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        seqs = Arrays.copyOf(seqs, capacity);
+        types = Arrays.copyOf(types, capacity);
+        cars = Arrays.copyOf(cars, capacity);
+        args = Arrays.copyOf(args, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+    }
+
+}
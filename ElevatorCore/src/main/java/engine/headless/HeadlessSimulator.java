@@ -0,0 +1,1104 @@
+package engine.headless;
+
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import engine.ButtonEvent;
+import engine.ButtonEvent.ButtonEventObserver;
+import engine.ButtonEvent.Kind;
+import engine.ElevatorDriver;
+import engine.ElevatorEvent;
+import engine.Event;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.clock.SimulationClock;
+import engine.metrics.CarMetrics;
+import engine.metrics.EngineMetrics;
+import engine.metrics.MetricsRegistry;
+import engine.snapshot.SimulatorSnapshot;
+import engine.snapshot.SnapshotParticipant;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+import properties.InstanceFactory;
+import properties.ProgramSettings;
+import simulator.controllers.AbstractController;
+import simulator.controllers.AbstractController.DoorAction;
+import simulator.controllers.AbstractMultiController;
+import simulator.model.Elevator;
+import simulator.model.Motion;
+import simulator.model.Request;
+
+/**
+ * Headless discrete-event simulation kernel. Runs the elevator controllers without any Swing component on a
+ * virtual clock, i.e., instead of moving an elevator image pixel by pixel and sleeping in between, the kernel
+ * schedules the points in time where something happens (sensor hits, door phases) in a time-ordered
+ * {@link EventQueue} and jumps from one to the next. The kernel mimics the loop of {@link engine.ElevatorEngine}
+ * and the door handling of {@link gui.windows.MainWindow}, i.e., controllers receive the same calls and the same
+ * {@link FloorSensorEvent} and {@link ElevatorEvent} stream is sent through {@link EventsManager}.
+ *
+ * The kernel is single-threaded, all controller methods and event observers are executed on the thread calling
+ * {@link #runNext()}, {@link #runUntil(long)} or {@link #runUntilIdle()}. Button presses can be issued directly
+ * ({@link #pressButton(int, int, Kind, int, boolean)}) or be scheduled for a certain simulated time. Cars move
+ * according to the {@link simulator.model.MotionProfile motion profile} of their elevator, i.e., the times of
+ * sensor hits are computed from the current {@link Motion run} of a car. A run leads from rest to the target floor
+ * of the controller; if the target changes during a run, the new run starts at the floor reached.
+ *
+ * By default, the kernel runs {@link SimulationClock#unbounded() unbounded}, i.e., as fast as possible. Setting
+ * another {@link #setClock(SimulationClock) clock} paces the kernel, e.g., to watch a simulation in real time or
+ * to step through it.
+ *
+ * The simulation state can be {@link #snapshot() saved} and {@link #restore(SimulatorSnapshot) restored} at any
+ * point in time between events, e.g., to checkpoint long scenarios or to fork them into multiple what-if branches.
+ *
+ * @author SSE
+ */
+public class HeadlessSimulator implements ElevatorDriver {
+
+    private static final int STEP = 0;
+    private static final int SENSOR_CLEARED = 1;
+    private static final int ARRIVE = 2;
+    private static final int DOORS_OPEN = 3;
+    private static final int DOORS_CLOSE = 4;
+    private static final int DOORS_CLOSED = 5;
+    private static final int BUTTON = 6;
+    private static final int ACTION = 7;
+    private static final int TICK = 8;
+    private static final int CALLS = 9;
+    private static final int PARTICIPANT = 10;
+    private static final Phase[] PHASES = Phase.values();
+    private static final DoorWait[] DOOR_WAITS = DoorWait.values();
+    private static final Kind[] BUTTON_KINDS = Kind.values();
+
+    /**
+     * The phases of a simulated car.
+     *
+     * @author SSE
+     */
+    private enum Phase {
+
+        /**
+         * No engine loop is running, the car waits for {@link AbstractController#startSimulation()}.
+         */
+        IDLE,
+
+        /**
+         * The engine loop is running.
+         */
+        RUNNING,
+
+        /**
+         * The engine loop is done, but the car waits for an explicit door closing request.
+         */
+        WAITING_CLOSE
+    }
+
+    /**
+     * What the doors of a car are waiting for. Door waits are re-checked after each processed event, i.e., they
+     * react on door commands without polling.
+     *
+     * @author SSE
+     */
+    private enum DoorWait {
+
+        /**
+         * Not waiting.
+         */
+        NONE,
+
+        /**
+         * Waiting for the maximum closing delay or {@link Elevator#isCloseDoorsNow()}.
+         */
+        HOLD,
+
+        /**
+         * Waiting while {@link Elevator#isKeepDoorsOpen()} and not {@link Elevator#isCloseDoorsNow()}.
+         */
+        KEEP_OPEN,
+
+        /**
+         * Waiting for an explicit {@link DoorAction#CLOSE}.
+         */
+        CLOSE_REQUEST
+    }
+
+    /**
+     * The simulation state of a car. Corresponds to an {@link engine.ElevatorEngine} instance.
+     *
+     * @author SSE
+     */
+    private static class Car {
+
+        private AbstractController controller;
+        private Elevator elevator;
+        private Phase phase = Phase.IDLE;
+        private int floor;
+        private int travelDirection;
+        private boolean moving;
+        private int runTarget;
+        private boolean sensorHit;
+        private boolean doorsOpened;
+        private DoorWait doorWait = DoorWait.NONE;
+        private int doorEpoch;
+        private boolean continueAfterClose;
+
+        /**
+         * Creates a car.
+         *
+         * @param controller the controller of the car
+         */
+        private Car(AbstractController controller) {
+            this.controller = controller;
+            this.elevator = controller.getElevator();
+        }
+
+    }
+
+    private final EventQueue queue = new EventQueue();
+    private final ArrayList<AbstractController> lControllers = new ArrayList<AbstractController>();
+    private final AbstractMultiController multiController;
+    private final Car[] cars;
+    private final ButtonEventObserver buttonObserver = new HeadlessButtonObserver();
+    private final CarMetrics carMetrics;
+    private final ProgramSettings settings;
+    private final ArrayList<SnapshotParticipant> participants = new ArrayList<>();
+    private SimulationClock clock = SimulationClock.unbounded();
+    private long time;
+    private long processed;
+    private int doorWaiters;
+    private boolean tickScheduled;
+
+    /**
+     * Creates a headless simulator with controllers created by {@link InstanceFactory} for
+     * {@link ProgramSettings#getElevators()} elevators.
+     */
+    public HeadlessSimulator() {
+        this(ProgramSettings.getInstance());
+    }
+
+    /**
+     * Creates a headless simulator with controllers created by {@link InstanceFactory} for the given settings.
+     *
+     * @param settings the settings of the simulation, shall be the {@link ProgramSettings#getInstance() current
+     *     settings} while constructing as the controllers obtain their settings from there
+     */
+    public HeadlessSimulator(ProgramSettings settings) {
+        this(settings, i -> InstanceFactory.createController(i), c -> InstanceFactory.createMultiController(c));
+    }
+
+    /**
+     * Creates a headless simulator for {@link ProgramSettings#getElevators()} elevators. The multi-elevator
+     * controller is only created if {@link ProgramSettings#isSynchronized()} and there is more than one elevator.
+     *
+     * @param controllerFactory creates the controller for a given 0-based elevator index
+     * @param multiControllerFactory creates the multi-elevator controller, may be <b>null</b> for none
+     */
+    public HeadlessSimulator(IntFunction<AbstractController> controllerFactory,
+        Function<ArrayList<AbstractController>, AbstractMultiController> multiControllerFactory) {
+        this(ProgramSettings.getInstance(), controllerFactory, multiControllerFactory);
+    }
+
+    /**
+     * Creates a headless simulator for {@link ProgramSettings#getElevators()} elevators of the given settings. The
+     * settings are kept for the whole simulation, i.e., they are not resolved per event.
+     *
+     * @param settings the settings of the simulation, shall be the {@link ProgramSettings#getInstance() current
+     *     settings} while constructing as the controllers obtain their settings from there
+     * @param controllerFactory creates the controller for a given 0-based elevator index
+     * @param multiControllerFactory creates the multi-elevator controller, may be <b>null</b> for none
+     * @throws IllegalArgumentException if {@code settings} is <b>null</b>
+     */
+    public HeadlessSimulator(ProgramSettings settings, IntFunction<AbstractController> controllerFactory,
+        Function<ArrayList<AbstractController>, AbstractMultiController> multiControllerFactory) {
+        if (null == settings) {
+            throw new IllegalArgumentException("Settings are required");
+        }
+        this.settings = settings;
+        // register before creating controllers so that event-based controllers may clear it as the default buttons
+        EventsManager.BUTTONS.addObserver(buttonObserver);
+        final int elevators = settings.getElevators();
+        cars = new Car[elevators];
+        for (int i = 0; i < elevators; i++) {
+            AbstractController controller = controllerFactory.apply(i);
+            controller.setDriver(this);
+            if (null == controller.getElevator().getMotionProfile()) {
+                controller.getElevator().setMotionProfile(ProgramSettings.createMotionProfile(settings));
+            }
+            lControllers.add(controller);
+            cars[i] = new Car(controller);
+        }
+        if (null != multiControllerFactory && settings.isSynchronized() && elevators > 1) {
+            multiController = multiControllerFactory.apply(lControllers);
+        } else {
+            multiController = null;
+        }
+        carMetrics = new CarMetrics(elevators, this::getTime);
+    }
+
+    /**
+     * Returns the current simulated time.
+     *
+     * @return the time in ms since start of the simulation
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the clock pacing this simulator.
+     *
+     * @return the clock
+     */
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Changes the clock pacing this simulator. Before processing an event, the simulator sleeps on the clock
+     * for the simulated time until the event is due.
+     *
+     * @param clock the clock, ignored if <b>null</b>
+     */
+    public void setClock(SimulationClock clock) {
+        if (null != clock) {
+            this.clock = clock;
+        }
+    }
+
+    /**
+     * Returns the utilization and door cycle metrics of the cars in simulated ms. Not registered in a
+     * {@link MetricsRegistry} by default, see {@link CarMetrics#register(MetricsRegistry, String)}.
+     *
+     * @return the car metrics
+     */
+    public CarMetrics getCarMetrics() {
+        return carMetrics;
+    }
+
+    /**
+     * Returns the number of processed (scheduled) events.
+     *
+     * @return the number of events
+     */
+    public long getProcessedEvents() {
+        return processed;
+    }
+
+    /**
+     * Returns the number of simulated elevators.
+     *
+     * @return the number of elevators
+     */
+    public int getElevatorCount() {
+        return cars.length;
+    }
+
+    /**
+     * Returns the controller for the given elevator.
+     *
+     * @param i the 0-based elevator index
+     * @return the controller
+     */
+    public AbstractController getController(int i) {
+        return lControllers.get(i);
+    }
+
+    /**
+     * Returns the multi elevator controller.
+     *
+     * @return the multi elevator controller (may be <b>null</b> for none)
+     */
+    public AbstractMultiController getMultiController() {
+        return multiController;
+    }
+
+    /**
+     * Returns the floor the sensors of the given car reported last.
+     *
+     * @param i the 0-based elevator index
+     * @return the floor
+     */
+    public int getCarFloor(int i) {
+        return cars[i].floor;
+    }
+
+    /**
+     * Returns whether the simulation is idle, i.e., no events are scheduled anymore.
+     *
+     * @return {@code true} for idle, {@code false} else
+     */
+    public boolean isIdle() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Presses a button at the current simulated time by sending a {@link ButtonEvent}.
+     *
+     * @param elevator the 0-based elevator index
+     * @param floor the 0-based floor index
+     * @param kind the button kind
+     * @param value the button value, see {@link ButtonEvent#getValue()}
+     * @param inside whether the button is inside the elevator or outside
+     */
+    public void pressButton(int elevator, int floor, Kind kind, int value, boolean inside) {
+        sendEvent(EventsManager.BUTTONS, elevator, ButtonEvent.of(elevator, floor, kind, value, false, inside));
+    }
+
+    /**
+     * Schedules a button press.
+     *
+     * @param time the simulated time in ms, the current time if in the past
+     * @param elevator the 0-based elevator index
+     * @param floor the 0-based floor index
+     * @param kind the button kind
+     * @param value the button value, see {@link ButtonEvent#getValue()}
+     * @param inside whether the button is inside the elevator or outside
+     */
+    public void scheduleButton(long time, int elevator, int floor, Kind kind, int value, boolean inside) {
+        queue.add(Math.max(time, this.time), BUTTON, elevator, floor,
+            ButtonEvent.of(elevator, floor, kind, value, false, inside));
+    }
+
+    /**
+     * Schedules an elevator call, i.e., a {@link Kind#BUTTON} press without direction.
+     *
+     * @param time the simulated time in ms, the current time if in the past
+     * @param elevator the 0-based elevator index
+     * @param floor the 0-based floor index
+     * @param inside whether the button is inside the elevator or outside
+     */
+    public void scheduleCall(long time, int elevator, int floor, boolean inside) {
+        scheduleButton(time, elevator, floor, Kind.BUTTON, 0, inside);
+    }
+
+    /**
+     * Schedules a batch of hall calls to be assigned by the multi-elevator controller via
+     * {@link AbstractMultiController#assignCalls(Collection)}.
+     *
+     * @param time the simulated time in ms
+     * @param calls the hall calls
+     * @throws IllegalStateException if there is no multi-elevator controller
+     */
+    public void scheduleCalls(long time, Collection<Request> calls) {
+        if (null == multiController) {
+            throw new IllegalStateException("No multi-elevator controller");
+        }
+        queue.add(Math.max(time, this.time), CALLS, -1, 0, calls);
+    }
+
+    /**
+     * Schedules an action to be executed on the simulation thread. Please note that pending actions prevent taking
+     * a {@link #snapshot()}, see {@link #schedule(long, SnapshotParticipant, int)}.
+     *
+     * @param time the simulated time in ms, the current time if in the past
+     * @param action the action
+     */
+    public void schedule(long time, Runnable action) {
+        queue.add(Math.max(time, this.time), ACTION, -1, 0, action);
+    }
+
+    /**
+     * Schedules an action of a participant, i.e., {@link SnapshotParticipant#execute(int)} is called on the
+     * simulation thread. Unlike other actions, the action is part of a {@link #snapshot()}.
+     *
+     * @param time the simulated time in ms, the current time if in the past
+     * @param participant the {@link #addParticipant(SnapshotParticipant) registered} participant
+     * @param arg the argument passed to {@link SnapshotParticipant#execute(int)}
+     * @throws IllegalArgumentException if the participant is not registered
+     */
+    public void schedule(long time, SnapshotParticipant participant, int arg) {
+        int index = participants.indexOf(participant);
+        if (index < 0) {
+            throw new IllegalArgumentException("Participant is not registered");
+        }
+        queue.add(Math.max(time, this.time), PARTICIPANT, index, arg, null);
+    }
+
+    /**
+     * Registers a participant, i.e., its state becomes part of the {@link #snapshot() snapshots} of this simulator.
+     * Participants stay registered until {@link #dispose()}. Registering a participant twice has no effect.
+     *
+     * @param participant the participant
+     */
+    public void addParticipant(SnapshotParticipant participant) {
+        if (!participants.contains(participant)) {
+            participants.add(participant);
+        }
+    }
+
+    /**
+     * Schedules the next {@link AbstractMultiController#tick() tick} of the multi-elevator controller if it requests
+     * ticks and no tick is scheduled yet. Ticks are repeated while the multi-elevator controller has pending calls.
+     */
+    private void scheduleTick() {
+        if (null != multiController && !tickScheduled && multiController.getTickInterval() > 0) {
+            tickScheduled = true;
+            queue.add(time + multiController.getTickInterval(), TICK, -1, 0, null);
+        }
+    }
+
+    /**
+     * Processes the next scheduled event. Waits on the {@link #getClock() clock} until the event is due.
+     *
+     * @return {@code true} if an event was processed, {@code false} if the simulation is idle or waiting was
+     *     interrupted (the interrupted flag of the thread is set then)
+     */
+    public boolean runNext() {
+        boolean result = !queue.isEmpty();
+        if (result) {
+            long due = queue.peekTime();
+            if (due > time) {
+                try {
+                    clock.sleep(due - time);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            time = due;
+            int type = queue.peekType();
+            int car = queue.peekCar();
+            int arg = queue.peekArg();
+            Object payload = queue.peekPayload();
+            queue.remove();
+            processed++;
+            process(type, car, arg, payload);
+            if (doorWaiters > 0) {
+                checkDoorWaits();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Processes all events scheduled up to the given time and advances the time to {@code time}.
+     *
+     * @param time the simulated time in ms
+     */
+    public void runUntil(long time) {
+        while (!queue.isEmpty() && queue.peekTime() <= time && runNext()) {
+        }
+        this.time = Math.max(this.time, time);
+    }
+
+    /**
+     * Processes events until no event is scheduled anymore. Please note that this may not terminate, e.g., if
+     * an event-based controller moves a car endlessly.
+     */
+    public void runUntilIdle() {
+        while (runNext()) {
+        }
+    }
+
+    /**
+     * Takes a snapshot of the simulation state, i.e., the simulated time, the state of the cars, controllers and
+     * elevators, the state of the {@link #addParticipant(SnapshotParticipant) participants} and the scheduled events.
+     * Shall be called on the simulation thread between events, e.g., after {@link #runUntil(long)}. The clock and
+     * the event observers are not part of the snapshot.
+     *
+     * @return the snapshot
+     * @throws IllegalStateException if {@link #schedule(long, Runnable) actions} are scheduled
+     */
+    public SimulatorSnapshot snapshot() {
+        SnapshotWriter out = new SnapshotWriter(cars.length, settings.getFloors());
+        out.writeLong(time);
+        out.writeLong(processed);
+        out.writeBoolean(tickScheduled);
+        for (Car car : cars) {
+            car.controller.saveState(out);
+            out.writeByte(car.phase.ordinal());
+            out.writeInt(car.floor);
+            out.writeInt(car.travelDirection);
+            out.writeBoolean(car.moving);
+            out.writeInt(car.runTarget);
+            out.writeBoolean(car.sensorHit);
+            out.writeBoolean(car.doorsOpened);
+            out.writeByte(car.doorWait.ordinal());
+            out.writeInt(car.doorEpoch);
+            out.writeBoolean(car.continueAfterClose);
+        }
+        out.writeBoolean(null != multiController);
+        if (null != multiController) {
+            multiController.writeState(out);
+        }
+        carMetrics.writeState(out);
+        out.writeInt(participants.size());
+        for (SnapshotParticipant participant : participants) {
+            out.writeInt(participant.getClass().getName().hashCode());
+            participant.writeState(out);
+        }
+        out.writeInt(queue.size());
+        queue.forEach((t, type, car, arg, payload) -> {
+            if (ACTION == type) {
+                throw new IllegalStateException("Scheduled actions cannot be written to a snapshot");
+            }
+            out.writeLong(t);
+            out.writeByte(type);
+            out.writeInt(car);
+            out.writeInt(arg);
+            if (BUTTON == type) {
+                ButtonEvent event = (ButtonEvent) payload;
+                out.writeInt(event.getElevator());
+                out.writeInt(event.getFloor());
+                out.writeByte(event.getKind().ordinal());
+                out.writeInt(event.getValue());
+                out.writeBoolean(event.isInside());
+            } else if (CALLS == type) {
+                Collection<Request> calls = toCalls(payload);
+                out.writeInt(calls.size());
+                for (Request call : calls) {
+                    out.writeRequest(call);
+                }
+            }
+        });
+        return out.toSnapshot();
+    }
+
+    /**
+     * Replaces the simulation state by the given snapshot. The snapshot may be taken from another simulator with
+     * the same number of cars, floors and the same types of controllers, i.e., a snapshot can be forked into
+     * multiple simulators. Shall be called on the simulation thread between events. Scheduled events are replaced
+     * by the events of the snapshot. The same types of participants must be registered in the same order.
+     *
+     * @param snapshot the snapshot
+     * @throws IllegalArgumentException if the snapshot is malformed or does not fit to this simulator
+     */
+    public void restore(SimulatorSnapshot snapshot) {
+        SnapshotReader in = new SnapshotReader(snapshot);
+        if (in.getCars() != cars.length || in.getFloors() != settings.getFloors()) {
+            throw new IllegalArgumentException("Snapshot of " + in.getCars() + " cars and " + in.getFloors()
+                + " floors does not fit");
+        }
+        try {
+            queue.clear();
+            time = in.readLong();
+            processed = in.readLong();
+            tickScheduled = in.readBoolean();
+            doorWaiters = 0;
+            for (Car car : cars) {
+                car.controller.restoreState(in);
+                car.phase = PHASES[in.readByte()];
+                car.floor = in.readInt();
+                car.travelDirection = in.readInt();
+                car.moving = in.readBoolean();
+                car.runTarget = in.readInt();
+                car.sensorHit = in.readBoolean();
+                car.doorsOpened = in.readBoolean();
+                car.doorWait = DoorWait.NONE;
+                setDoorWait(car, DOOR_WAITS[in.readByte()]);
+                car.doorEpoch = in.readInt();
+                car.continueAfterClose = in.readBoolean();
+            }
+            if (in.readBoolean() != (null != multiController)) {
+                throw new IllegalArgumentException("Multi-elevator controller does not fit");
+            }
+            if (null != multiController) {
+                multiController.readState(in);
+            }
+            carMetrics.readState(in);
+            if (in.readInt() != participants.size()) {
+                throw new IllegalArgumentException("Participants do not fit");
+            }
+            for (SnapshotParticipant participant : participants) {
+                if (in.readInt() != participant.getClass().getName().hashCode()) {
+                    throw new IllegalArgumentException("Participant does not fit: " + participant.getClass());
+                }
+                participant.readState(in);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                long t = in.readLong();
+                int type = in.readByte();
+                int car = in.readInt();
+                int arg = in.readInt();
+                Object payload = null;
+                if (BUTTON == type) {
+                    payload = ButtonEvent.of(in.readInt(), in.readInt(), BUTTON_KINDS[in.readByte()], in.readInt(),
+                        false, in.readBoolean());
+                } else if (CALLS == type) {
+                    ArrayList<Request> calls = new ArrayList<>();
+                    for (int c = in.readInt(); c > 0; c--) {
+                        calls.add(in.readRequest());
+                    }
+                    payload = calls;
+                }
+                queue.add(t, type, car, arg, payload);
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            queue.clear();
+            throw new IllegalArgumentException("Malformed snapshot", e);
+        }
+        if (!in.isAtEnd()) {
+            throw new IllegalArgumentException("Malformed snapshot, unexpected trailing data");
+        }
+    }
+
+    /**
+     * Detaches this simulator from the controllers and the {@link EventsManager}, also the multi-elevator controller
+     * is {@link AbstractMultiController#detach() detached}. Scheduled events are discarded and the participants are
+     * unregistered.
+     */
+    public void dispose() {
+        EventsManager.BUTTONS.removeObserver(buttonObserver);
+        if (null != multiController) {
+            multiController.detach();
+        }
+        for (AbstractController controller : lControllers) {
+            if (controller.getDriver() == this) {
+                controller.setDriver(null);
+            }
+        }
+        queue.clear();
+        participants.clear();
+    }
+
+    @Override
+    public void start(AbstractController controller) {
+        int index = controller.getElevatorIndex();
+        Car car = cars[index];
+        if (Phase.IDLE == car.phase) {
+            car.phase = Phase.RUNNING;
+            carMetrics.busy(index);
+            car.doorsOpened = false;
+            queue.add(time, STEP, index, 0, null);
+        }
+    }
+
+    /**
+     * Processes an event.
+     *
+     * @param type the event type
+     * @param index the car index
+     * @param arg the event argument
+     * @param payload the event payload
+     */
+    private void process(int type, int index, int arg, Object payload) {
+        switch (type) {
+        case STEP:
+            step(index);
+            break;
+        case SENSOR_CLEARED:
+            sendEvent(EventsManager.FLOOR_SENSORS, index,
+                FloorSensorEvent.of(index, arg, FloorSensorEvent.Position.CLEARED));
+            break;
+        case ARRIVE:
+            arrive(index);
+            break;
+        case DOORS_OPEN:
+            doorsOpen(index, arg != 0);
+            break;
+        case DOORS_CLOSE:
+            Car car = cars[index];
+            if (DoorWait.HOLD == car.doorWait && car.doorEpoch == arg) {
+                checkDoors(car, true);
+            }
+            break;
+        case DOORS_CLOSED:
+            doorsClosed(index, arg != 0);
+            break;
+        case BUTTON:
+            ButtonEvent event = (ButtonEvent) payload;
+            sendEvent(EventsManager.BUTTONS, event.getElevator(), event);
+            break;
+        case ACTION:
+            ((Runnable) payload).run();
+            break;
+        case TICK:
+            tickScheduled = false;
+            if (multiController.tick()) {
+                scheduleTick();
+            }
+            break;
+        case CALLS:
+            multiController.assignCalls(toCalls(payload));
+            scheduleTick();
+            break;
+        case PARTICIPANT:
+            participants.get(index).execute(arg);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Casts the payload of a {@link #CALLS} event.
+     *
+     * @param payload the payload
+     * @return the calls
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Request> toCalls(Object payload) {
+        return (Collection<Request>) payload;
+    }
+
+    /**
+     * Executes the head of the engine loop, i.e., moves the car by one floor if there is a request.
+     *
+     * @param index the car index
+     */
+    private void step(int index) {
+        Car car = cars[index];
+        AbstractController controller = car.controller;
+        if (!controller.hasCurrentRequest()) {
+            finishRun(index);
+        } else {
+            if (controller.isUpdateNecessary()) {
+                long start = EngineMetrics.UPDATE_TARGET.start();
+                controller.beginUpdate();
+                try {
+                    controller.updateTarget();
+                } finally {
+                    controller.endUpdate();
+                }
+                EngineMetrics.UPDATE_TARGET.stop(start);
+            }
+            Request request = controller.getCurrentRequest();
+            if (null != request && !controller.deletionQueueContains(request.getFloor())) {
+                int dir = car.elevator.getDirection();
+                car.travelDirection = dir;
+                if (0 == dir) {
+                    stopRun(car);
+                    queue.add(time + (long) settings.getElevatorsSpeed() * settings.getFloorsHeight(), ARRIVE, index,
+                        0, null);
+                } else {
+                    Motion motion = planRun(car, request.getFloor());
+                    double height = motion.getProfile().getFloorHeight();
+                    if (car.sensorHit) {
+                        car.sensorHit = false;
+                        // the sensor is cleared after one pixel of movement
+                        double cleared = car.floor * height + dir * height / settings.getFloorsHeight();
+                        queue.add(Math.max(time, Math.round(motion.getTimeAt(cleared))), SENSOR_CLEARED, index,
+                            car.floor, null);
+                    }
+                    queue.add(Math.max(time, Math.round(motion.getTimeAtFloor(car.floor + dir))), ARRIVE, index,
+                        0, null);
+                }
+            } else {
+                car.travelDirection = 0;
+                arrive(index);
+            }
+        }
+    }
+
+    /**
+     * Called when a car moved by one floor (or did not move at all). Sends the sensor event and executes the
+     * remainder of the engine loop.
+     *
+     * @param index the car index
+     */
+    private void arrive(int index) {
+        Car car = cars[index];
+        if (car.travelDirection != 0) {
+            car.floor += car.travelDirection;
+            car.sensorHit = true;
+            sendEvent(EventsManager.FLOOR_SENSORS, index, FloorSensorEvent.of(index, car.floor,
+                car.travelDirection > 0 ? FloorSensorEvent.Position.TOP : FloorSensorEvent.Position.BOTTOM));
+        }
+        AbstractController controller = car.controller;
+        car.elevator.setCloseDoorsNow(false);
+        car.elevator.setKeepDoorsOpen(false);
+        boolean continueLoop = true;
+        long start = EngineMetrics.SIMULATE.start();
+        boolean targetFound;
+        controller.beginUpdate();
+        try {
+            targetFound = controller.simulate();
+        } finally {
+            controller.endUpdate();
+        }
+        EngineMetrics.SIMULATE.stop(start);
+        if (targetFound || car.floor == car.runTarget) {
+            stopRun(car);
+        }
+        if (targetFound) {
+            DoorAction doorAction = controller.getDoorAction();
+            if (DoorAction.AUTO == doorAction || DoorAction.OPEN == doorAction) {
+                car.doorsOpened = true;
+                carMetrics.doorsOpening(index);
+                sendElevatorEvent(index, ElevatorEvent.Kind.DOORS_OPENING);
+                queue.add(time + settings.getDoorOpeningDelay(), DOORS_OPEN, index,
+                    DoorAction.AUTO == doorAction ? 1 : 0, null);
+                continueLoop = false;
+            }
+        }
+        if (continueLoop) {
+            queue.add(time, STEP, index, 0, null);
+        }
+    }
+
+    /**
+     * Starts a new run of a car towards {@code target} unless the car is already on a run to {@code target}. The
+     * target is clamped to the building, e.g., for endless moves. If the target changes during a run, the run is
+     * {@link Elevator#replanMotion(long, int) replanned} from the current position and velocity of the car.
+     *
+     * @param car the car
+     * @param target the target floor
+     * @return the current run
+     */
+    private Motion planRun(Car car, int target) {
+        int dir = car.travelDirection;
+        int floor = Math.max(0, Math.min(settings.getFloors() - 1, target));
+        if ((floor - car.floor) * dir <= 0) {
+            floor = car.floor + dir;
+        }
+        Motion result = car.elevator.getMotion();
+        if (!car.moving || null == result) {
+            result = car.elevator.startMotion(time, car.floor, floor - car.floor);
+        } else if (floor != car.runTarget) {
+            if (Math.signum(result.getDistance()) != dir) {
+                result = car.elevator.startMotion(time, car.floor, floor - car.floor);
+            } else {
+                result = car.elevator.replanMotion(time, floor);
+            }
+        }
+        car.runTarget = floor;
+        car.moving = true;
+        return result;
+    }
+
+    /**
+     * Stops the run of a car at its current floor.
+     *
+     * @param car the car
+     */
+    private void stopRun(Car car) {
+        if (car.moving) {
+            car.moving = false;
+            car.elevator.stopMotion(time, car.floor);
+        }
+    }
+
+    /**
+     * Called when the doors are open.
+     *
+     * @param index the car index
+     * @param autoClose whether the doors shall be closed automatically
+     */
+    private void doorsOpen(int index, boolean autoClose) {
+        sendElevatorEvent(index, ElevatorEvent.Kind.DOORS_OPEN);
+        if (autoClose) {
+            holdDoors(index, true);
+        } else {
+            queue.add(time, STEP, index, 0, null);
+        }
+    }
+
+    /**
+     * Keeps the doors open for the maximum closing delay or until the doors shall be closed now.
+     *
+     * @param index the car index
+     * @param continueLoop whether the engine loop shall be continued after closing the doors
+     */
+    private void holdDoors(int index, boolean continueLoop) {
+        Car car = cars[index];
+        car.continueAfterClose = continueLoop;
+        setDoorWait(car, DoorWait.HOLD);
+        queue.add(time + settings.getMaxDoorClosingDelay(), DOORS_CLOSE, index,
+            car.doorEpoch, null);
+    }
+
+    /**
+     * Changes the door wait state of a car.
+     *
+     * @param car the car
+     * @param doorWait the new door wait state
+     */
+    private void setDoorWait(Car car, DoorWait doorWait) {
+        if (DoorWait.NONE == car.doorWait && DoorWait.NONE != doorWait) {
+            doorWaiters++;
+        } else if (DoorWait.NONE != car.doorWait && DoorWait.NONE == doorWait) {
+            doorWaiters--;
+        }
+        car.doorWait = doorWait;
+    }
+
+    /**
+     * Re-checks all cars waiting for door commands.
+     */
+    private void checkDoorWaits() {
+        for (int c = 0; c < cars.length && doorWaiters > 0; c++) {
+            if (DoorWait.NONE != cars[c].doorWait) {
+                checkDoors(cars[c], false);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a car waiting for door commands can go on.
+     *
+     * @param car the car
+     * @param timedOut whether the maximum closing delay elapsed
+     */
+    private void checkDoors(Car car, boolean timedOut) {
+        Elevator elevator = car.elevator;
+        switch (car.doorWait) {
+        case HOLD:
+            if (elevator.isCloseDoorsNow()) {
+                closeDoors(car);
+            } else if (timedOut) {
+                if (elevator.isKeepDoorsOpen()) {
+                    setDoorWait(car, DoorWait.KEEP_OPEN);
+                } else {
+                    closeDoors(car);
+                }
+            }
+            break;
+        case KEEP_OPEN:
+            if (!elevator.isKeepDoorsOpen() || elevator.isCloseDoorsNow()) {
+                closeDoors(car);
+            }
+            break;
+        case CLOSE_REQUEST:
+            if (DoorAction.CLOSE == car.controller.getDoorAction()) {
+                car.doorsOpened = false;
+                car.phase = Phase.RUNNING;
+                holdDoors(car.controller.getElevatorIndex(), false);
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Starts closing the doors of a car.
+     *
+     * @param car the car
+     */
+    private void closeDoors(Car car) {
+        int index = car.controller.getElevatorIndex();
+        setDoorWait(car, DoorWait.NONE);
+        car.doorEpoch++;
+        sendElevatorEvent(index, ElevatorEvent.Kind.DOORS_CLOSING);
+        queue.add(time + settings.getDoorClosingDelay(), DOORS_CLOSED, index,
+            car.continueAfterClose ? 1 : 0, null);
+    }
+
+    /**
+     * Called when the doors are closed.
+     *
+     * @param index the car index
+     * @param continueLoop whether the engine loop shall be continued
+     */
+    private void doorsClosed(int index, boolean continueLoop) {
+        Car car = cars[index];
+        carMetrics.doorsClosed(index);
+        sendElevatorEvent(index, ElevatorEvent.Kind.DOORS_CLOSED);
+        car.controller.beginUpdate();
+        try {
+            car.controller.doAfterAnimate();
+        } finally {
+            car.controller.endUpdate();
+        }
+        if (continueLoop) {
+            queue.add(time, STEP, index, 0, null);
+        } else {
+            goIdle(car);
+        }
+    }
+
+    /**
+     * Called when the engine loop ends, i.e., there is no current request anymore. For explicit door control,
+     * waits for the closing request.
+     *
+     * @param index the car index
+     */
+    private void finishRun(int index) {
+        Car car = cars[index];
+        if (car.doorsOpened && DoorAction.AUTO != car.controller.getDoorAction()) {
+            car.phase = Phase.WAITING_CLOSE;
+            setDoorWait(car, DoorWait.CLOSE_REQUEST);
+            checkDoors(car, false);
+        } else {
+            goIdle(car);
+        }
+    }
+
+    /**
+     * Turns a car idle. If a request arrived meanwhile, the engine loop is restarted.
+     *
+     * @param car the car
+     */
+    private void goIdle(Car car) {
+        car.phase = Phase.IDLE;
+        carMetrics.idle(car.controller.getElevatorIndex());
+        if (car.controller.hasCurrentRequest()) {
+            start(car.controller);
+        }
+    }
+
+    /**
+     * Sends an elevator event for the current floor of the given car.
+     *
+     * @param index the car index
+     * @param kind the event kind
+     */
+    private void sendElevatorEvent(int index, ElevatorEvent.Kind kind) {
+        sendEvent(EventsManager.ELEVATORS, index,
+            ElevatorEvent.of(index, cars[index].elevator.getCurrentFloor(), kind));
+    }
+
+    /**
+     * Sends an event while holding the writer token of the controller of the given car, i.e., the observers of the
+     * controller handle the event before the simulation goes on, even if the controller has a
+     * {@link AbstractController#setMailboxExecutor(java.util.concurrent.Executor) mailbox executor}.
+     *
+     * @param <E> the event type
+     * @param manager the event manager
+     * @param index the car index, the event is sent without token if not a valid index
+     * @param event the event
+     */
+    private <E extends Event> void sendEvent(EventsManager.EventManager<E, ?> manager, int index, E event) {
+        if (index >= 0 && index < lControllers.size()) {
+            AbstractController controller = lControllers.get(index);
+            controller.beginUpdate();
+            try {
+                manager.sendEvent(event);
+            } finally {
+                controller.endUpdate();
+            }
+        } else {
+            manager.sendEvent(event);
+        }
+    }
+
+    /**
+     * Default button observer for headless simulation, i.e., {@link gui.buttons.DefaultButton#DEFAULT} and
+     * {@link gui.buttons.DefaultButton#MOUSE} without UI.
+     *
+     * @author SSE
+     */
+    private class HeadlessButtonObserver implements ButtonEventObserver {
+
+        @Override
+        public void notifyReceived(ButtonEvent event) {
+            int index = event.getElevator();
+            if (index >= 0 && index < lControllers.size()) {
+                AbstractController controller = lControllers.get(index);
+                if (Kind.BUTTON == event.getKind()) {
+                    if (!event.isHightlighed()) {
+                        Request target = new Request(event.getFloor(), event.getValue());
+                        if (null != multiController) {
+                            multiController.addRequest(target, index, event.isInside());
+                            scheduleTick();
+                        } else {
+                            controller.submitRequest(target);
+                        }
+                    }
+                    controller.startSimulation();
+                } else if (Kind.CANCEL == event.getKind()) {
+                    controller.ignoreFloor(event.getFloor(), true);
+                }
+            }
+        }
+
+        @Override
+        public Object getHandlingInfo() {
+            return Kind.BUTTON;
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+package engine.metrics;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+
+/**
+ * Per-car metrics of a simulation driver, i.e., the utilization of the cars (share of time the engine loop of a car
+ * is running) and the door cycle durations (from starting to open to closed). Times are taken from the given clock,
+ * i.e., usually in simulated ms. Updated by the drivers, thread-safe.
+ *
+ * @author SSE
+ */
+public class CarMetrics {
+
+    private final LongSupplier clock;
+    private final long startTime;
+    private final long[] busySince; // -1 for idle
+    private final long[] busyMillis;
+    private final long[] doorsOpeningAt; // -1 for closed
+    private final Timer doorCycles = new Timer();
+
+    /**
+     * Creates the metrics.
+     *
+     * @param cars the number of cars
+     * @param clock the time source, e.g., the simulated time
+     */
+    public CarMetrics(int cars, LongSupplier clock) {
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+        busySince = new long[cars];
+        Arrays.fill(busySince, -1);
+        busyMillis = new long[cars];
+        doorsOpeningAt = new long[cars];
+        Arrays.fill(doorsOpeningAt, -1);
+    }
+
+    /**
+     * Called when the engine loop of a car starts.
+     *
+     * @param car the car index
+     */
+    public synchronized void busy(int car) {
+        if (busySince[car] < 0) {
+            busySince[car] = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Called when the engine loop of a car ends.
+     *
+     * @param car the car index
+     */
+    public synchronized void idle(int car) {
+        if (busySince[car] >= 0) {
+            busyMillis[car] += clock.getAsLong() - busySince[car];
+            busySince[car] = -1;
+        }
+    }
+
+    /**
+     * Called when the doors of a car start opening.
+     *
+     * @param car the car index
+     */
+    public synchronized void doorsOpening(int car) {
+        doorsOpeningAt[car] = clock.getAsLong();
+    }
+
+    /**
+     * Called when the doors of a car are closed. Records the door cycle.
+     *
+     * @param car the car index
+     */
+    public synchronized void doorsClosed(int car) {
+        if (doorsOpeningAt[car] >= 0) {
+            doorCycles.record(clock.getAsLong() - doorsOpeningAt[car]);
+            doorsOpeningAt[car] = -1;
+        }
+    }
+
+    /**
+     * Returns the number of cars.
+     *
+     * @return the number of cars
+     */
+    public int getCarCount() {
+        return busyMillis.length;
+    }
+
+    /**
+     * Returns the busy time of a car up to now.
+     *
+     * @param car the car index
+     * @return the busy time
+     */
+    public synchronized long getBusyMillis(int car) {
+        return busyMillis[car] + (busySince[car] >= 0 ? clock.getAsLong() - busySince[car] : 0);
+    }
+
+    /**
+     * Returns the utilization of a car since creation of this instance.
+     *
+     * @param car the car index
+     * @return the utilization in [0; 1], {@code 0} if no time elapsed
+     */
+    public synchronized double getUtilization(int car) {
+        long elapsed = clock.getAsLong() - startTime;
+        return elapsed <= 0 ? 0 : getBusyMillis(car) / (double) elapsed;
+    }
+
+    /**
+     * Returns the mean utilization of all cars since creation of this instance.
+     *
+     * @return the utilization in [0; 1]
+     */
+    public synchronized double getUtilization() {
+        double result = 0;
+        for (int c = 0; c < busyMillis.length; c++) {
+            result += getUtilization(c);
+        }
+        return busyMillis.length == 0 ? 0 : result / busyMillis.length;
+    }
+
+    /**
+     * Returns the door cycle durations.
+     *
+     * @return the door cycles
+     */
+    public Timer getDoorCycles() {
+        return doorCycles;
+    }
+
+    /**
+     * Writes the busy times and door states of the cars. The door cycle durations are not written.
+     *
+     * @param out the snapshot writer
+     */
+    public synchronized void writeState(SnapshotWriter out) {
+        for (int c = 0; c < busyMillis.length; c++) {
+            out.writeLong(busySince[c]);
+            out.writeLong(busyMillis[c]);
+            out.writeLong(doorsOpeningAt[c]);
+        }
+    }
+
+    /**
+     * Replaces the busy times and door states of the cars by the state written by 
+     * {@link #writeState(SnapshotWriter)}.
+     *
+     * @param in the snapshot reader
+     */
+    public synchronized void readState(SnapshotReader in) {
+        for (int c = 0; c < busyMillis.length; c++) {
+            busySince[c] = in.readLong();
+            busyMillis[c] = in.readLong();
+            doorsOpeningAt[c] = in.readLong();
+        }
+    }
+
+    /**
+     * Registers these metrics as {@code <prefix>car.<i>.utilization}, {@code <prefix>cars.utilization} and
+     * {@code <prefix>doors.cycleMillis}.
+     *
+     * @param registry the registry
+     * @param prefix the name prefix, e.g., empty or identifying the simulator
+     */
+    public void register(MetricsRegistry registry, String prefix) {
+        for (int c = 0; c < busyMillis.length; c++) {
+            final int car = c;
+            registry.gauge(prefix + "car." + c + ".utilization", () -> getUtilization(car));
+        }
+        registry.gauge(prefix + "cars.utilization", this::getUtilization);
+        registry.register(prefix + "doors.cycleMillis", doorCycles);
+    }
+
+}
@@ -0,0 +1,47 @@
+package engine.metrics;
+
+import java.util.List;
+
+import simulator.controllers.AbstractController;
+
+/**
+ * The well-known metrics of the simulation engine in the {@link MetricsRegistry#getInstance() global registry}.
+ *
+ * @author SSE
+ */
+public final class EngineMetrics {
+
+    /**
+     * Execution time of {@link AbstractController#simulate()} in ns.
+     */
+    public static final Timer SIMULATE = MetricsRegistry.getInstance().timer("controller.simulate.nanos");
+
+    /**
+     * Execution time of {@link AbstractController#updateTarget()} in ns.
+     */
+    public static final Timer UPDATE_TARGET = MetricsRegistry.getInstance().timer("controller.updateTarget.nanos");
+
+    /**
+     * Prevents external creation.
+     */
+    private EngineMetrics() {
+    }
+
+    /**
+     * Registers the queue depths of controllers as {@code <prefix>controller.<i>.priorityQueue} and
+     * {@code <prefix>controller.<i>.deletionQueue}.
+     *
+     * @param registry the registry
+     * @param prefix the name prefix, e.g., empty or identifying the simulator
+     * @param controllers the controllers
+     */
+    public static void registerControllers(MetricsRegistry registry, String prefix,
+        List<? extends AbstractController> controllers) {
+        for (AbstractController controller : controllers) {
+            String name = prefix + "controller." + controller.getElevatorIndex() + ".";
+            registry.gauge(name + "priorityQueue", controller::getPriorityQueueSize);
+            registry.gauge(name + "deletionQueue", controller::getDeletionQueueSize);
+        }
+    }
+
+}
@@ -0,0 +1,270 @@
+package engine.metrics;
+
+import java.util.Arrays;
+
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+
+/**
+ * Streaming histogram of non-negative long values with bounded relative error (HDR-style, log-linear buckets), e.g.,
+ * for waiting times. Values below 2<sup>precision</sup> are recorded exactly, larger values in buckets of relative
+ * width 2<sup>1-precision</sup>. Memory is constant and independent of the number of recorded values. Not thread-safe,
+ * i.e., shall be recorded from a single thread, e.g., the simulation thread.
+ *
+ * @author SSE
+ */
+public class Histogram {
+
+    /**
+     * The default precision in bits, i.e., a relative error below 1%.
+     */
+    public static final int DEFAULT_PRECISION = 8;
+
+    private final int precision;
+    private final int half; // sub-buckets per exponent
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = -1;
+
+    /**
+     * Creates a histogram with {@link #DEFAULT_PRECISION}.
+     */
+    public Histogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Creates a histogram.
+     *
+     * @param precision the precision in bits, in [2; 16]
+     * @throws IllegalArgumentException if {@code precision} is out of range
+     */
+    public Histogram(int precision) {
+        if (precision < 2 || precision > 16) {
+            throw new IllegalArgumentException("Precision out of range [2; 16]: " + precision);
+        }
+        this.precision = precision;
+        this.half = 1 << (precision - 1);
+        this.counts = new long[(Long.SIZE - precision + 2) * half];
+    }
+
+    /**
+     * Returns the bucket index for a value.
+     *
+     * @param value the value, non-negative
+     * @return the bucket index
+     */
+    private int bucket(long value) {
+        int result;
+        if (value < 2L * half) {
+            result = (int) value;
+        } else {
+            int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (precision - 1);
+            result = shift * half + (int) (value >>> shift);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the highest value of a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the highest value
+     */
+    private long highestValue(int bucket) {
+        long result;
+        if (bucket < 2 * half) {
+            result = bucket;
+        } else {
+            int shift = bucket / half - 1;
+            long sub = bucket - (long) shift * half;
+            result = ((sub + 1) << shift) - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[bucket(v)]++;
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    /**
+     * Adds all values recorded in {@code other} to this histogram.
+     *
+     * @param other the other histogram
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public void add(Histogram other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Precisions differ");
+        }
+        for (int b = 0; b < counts.length; b++) {
+            counts[b] += other.counts[b];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = -1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the (exact) mean of the recorded values.
+     *
+     * @return the mean, {@code 0} if there are no values
+     */
+    public double getMean() {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /**
+     * Returns the (exact) minimum of the recorded values.
+     *
+     * @return the minimum, {@code -1} if there are no values
+     */
+    public long getMin() {
+        return count == 0 ? -1 : min;
+    }
+
+    /**
+     * Returns the (exact) maximum of the recorded values.
+     *
+     * @return the maximum, {@code -1} if there are no values
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value at the given percentile, i.e., the highest value equivalent to the value with the given rank
+     * within the precision of this histogram.
+     *
+     * @param percentile the percentile in [0; 100]
+     * @return the value, {@code -1} if there are no values
+     */
+    public long getValueAtPercentile(double percentile) {
+        long result = -1;
+        if (count > 0) {
+            double p = Math.min(100, Math.max(0, percentile));
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+            long seen = 0;
+            for (int b = 0; b < counts.length && result < 0; b++) {
+                seen += counts[b];
+                if (seen >= rank) {
+                    result = Math.min(max, highestValue(b));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of recorded values above {@code threshold} within the precision of this histogram, e.g., the
+     * number of long waits.
+     *
+     * @param threshold the threshold
+     * @return the number of values above
+     */
+    public long getCountAbove(long threshold) {
+        long result = 0;
+        if (threshold < 0) {
+            result = count;
+        } else {
+            for (int b = bucket(threshold) + 1; b < counts.length; b++) {
+                result += counts[b];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the percentage of recorded values above {@code threshold} within the precision of this histogram.
+     *
+     * @param threshold the threshold
+     * @return the percentage in [0; 100], {@code 0} if there are no values
+     */
+    public double getPercentageAbove(long threshold) {
+        return count == 0 ? 0 : 100.0 * getCountAbove(threshold) / count;
+    }
+
+    /**
+     * Writes the recorded values, i.e., the non-empty buckets.
+     *
+     * @param out the snapshot writer
+     */
+    public void writeState(SnapshotWriter out) {
+        out.writeByte(precision);
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(min);
+        out.writeLong(max);
+        int buckets = 0;
+        for (long c : counts) {
+            buckets += c > 0 ? 1 : 0;
+        }
+        out.writeInt(buckets);
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] > 0) {
+                out.writeInt(b);
+                out.writeLong(counts[b]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the recorded values by the values written by {@link #writeState(SnapshotWriter)}.
+     *
+     * @param in the snapshot reader
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public void readState(SnapshotReader in) {
+        if (in.readByte() != precision) {
+            throw new IllegalArgumentException("Precisions differ");
+        }
+        reset();
+        count = in.readLong();
+        sum = in.readLong();
+        min = in.readLong();
+        max = in.readLong();
+        for (int i = in.readInt(); i > 0; i--) {
+            counts[in.readInt()] = in.readLong();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram(count=" + count + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50) + ", p95="
+            + getValueAtPercentile(95) + ", max=" + max + ")";
+    }
+
+}
@@ -0,0 +1,110 @@
+package engine.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Exposes a {@link MetricsRegistry} as read-only JMX attributes. Counters and gauges are exposed by name, timers
+ * via the statistics {@code <name>.count}, {@code .mean}, {@code .p50}, {@code .p99} and {@code .max}. Operation
+ * {@code reset} resets all timers.
+ *
+ * @author SSE
+ */
+class MetricsMBean implements DynamicMBean {
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Creates the MBean.
+     *
+     * @param registry the registry to expose
+     */
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Flattens a snapshot into attribute values.
+     *
+     * @param snapshot the snapshot
+     * @return the attribute values by name
+     */
+    private static Map<String, Object> flatten(MetricsSnapshot snapshot) {
+        Map<String, Object> result = new LinkedHashMap<>(snapshot.getValues());
+        for (Map.Entry<String, Histogram> ent : snapshot.getHistograms().entrySet()) {
+            Histogram h = ent.getValue();
+            result.put(ent.getKey() + ".count", h.getCount());
+            result.put(ent.getKey() + ".mean", h.getMean());
+            result.put(ent.getKey() + ".p50", h.getValueAtPercentile(50));
+            result.put(ent.getKey() + ".p99", h.getValueAtPercentile(99));
+            result.put(ent.getKey() + ".max", h.getMax());
+        }
+        return result;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Object result = flatten(registry.snapshot()).get(attribute);
+        if (null == result) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return result;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Object> values = flatten(registry.snapshot());
+        AttributeList result = new AttributeList();
+        for (String name : attributes) {
+            if (values.containsKey(name)) {
+                result.add(new Attribute(name, values.get(name)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList(); // read-only
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if (!"reset".equals(actionName)) {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+        registry.resetTimers();
+        return null;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, Object> ent : flatten(registry.snapshot()).entrySet()) {
+            attributes.add(new MBeanAttributeInfo(ent.getKey(), ent.getValue().getClass().getName(), ent.getKey(),
+                true, false, false));
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Resets all timers", null, "void",
+            MBeanOperationInfo.ACTION);
+        return new MBeanInfo(getClass().getName(), "Elevator simulator metrics",
+            attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null,
+            new MBeanOperationInfo[] {reset}, null);
+    }
+
+}
@@ -0,0 +1,187 @@
+package engine.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of named metrics, i.e., {@link Counter counters}, gauges and {@link Timer timers}. Metrics are updated
+ * by the instrumented code without involving the registry; the registry is only consulted when reading, i.e., via
+ * {@link #snapshot()} (pull-based) or via JMX after {@link #registerMBean()}. Names are dot-separated, e.g.,
+ * {@code events.buttons.dispatched}. Thread-safe.
+ *
+ * @author SSE
+ */
+public class MetricsRegistry {
+
+    /**
+     * The JMX object name of the global registry.
+     */
+    public static final String OBJECT_NAME = "elevator:type=Metrics";
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static volatile boolean timingEnabled;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the global registry.
+     *
+     * @return the global registry
+     */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns whether {@link Timer timers} measure.
+     *
+     * @return {@code true} for enabled, {@code false} else (default)
+     */
+    public static boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+
+    /**
+     * Changes whether {@link Timer timers} measure. Disabled by default to avoid reading the system timer on the
+     * event paths and in the simulation loop, i.e., shall be enabled while observing.
+     *
+     * @param enabled {@code true} for enabled, {@code false} else
+     */
+    public static void setTimingEnabled(boolean enabled) {
+        timingEnabled = enabled;
+    }
+
+    /**
+     * Returns the counter with the given name, creates it if needed.
+     *
+     * @param name the name
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Returns the timer with the given name, creates it if needed.
+     *
+     * @param name the name
+     * @return the timer
+     */
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    /**
+     * Registers an existing counter, replacing a counter with the same name.
+     *
+     * @param name the name
+     * @param counter the counter
+     */
+    public void register(String name, Counter counter) {
+        counters.put(name, counter);
+    }
+
+    /**
+     * Registers an existing timer, replacing a timer with the same name.
+     *
+     * @param name the name
+     * @param timer the timer
+     */
+    public void register(String name, Timer timer) {
+        timers.put(name, timer);
+    }
+
+    /**
+     * Registers a gauge, replacing a gauge with the same name. Gauges are evaluated when reading the metrics.
+     *
+     * @param name the name
+     * @param gauge the gauge, shall be cheap and thread-safe
+     */
+    public void gauge(String name, DoubleSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Removes all metrics whose name starts with {@code prefix}, e.g., of a disposed simulator.
+     *
+     * @param prefix the name prefix
+     */
+    public void removeAll(String prefix) {
+        counters.keySet().removeIf(n -> n.startsWith(prefix));
+        gauges.keySet().removeIf(n -> n.startsWith(prefix));
+        timers.keySet().removeIf(n -> n.startsWith(prefix));
+    }
+
+    /**
+     * Resets all timers, e.g., to start a new observation period.
+     */
+    public void resetTimers() {
+        for (Timer timer : timers.values()) {
+            timer.reset();
+        }
+    }
+
+    /**
+     * Returns an immutable snapshot of all metrics.
+     *
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        for (Map.Entry<String, Counter> ent : counters.entrySet()) {
+            values.put(ent.getKey(), ent.getValue().get());
+        }
+        for (Map.Entry<String, DoubleSupplier> ent : gauges.entrySet()) {
+            values.put(ent.getKey(), ent.getValue().getAsDouble());
+        }
+        Map<String, Histogram> histograms = new TreeMap<>();
+        for (Map.Entry<String, Timer> ent : timers.entrySet()) {
+            histograms.put(ent.getKey(), ent.getValue().snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), values, histograms);
+    }
+
+    /**
+     * Registers this registry with the platform MBean server under {@link #OBJECT_NAME}. Replaces a registry
+     * registered before.
+     *
+     * @throws IllegalStateException if registering fails
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new MetricsMBean(this), name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBean", e);
+        }
+    }
+
+    /**
+     * Unregisters the registry from the platform MBean server if registered.
+     */
+    public void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            // not registered
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package engine.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable snapshot of the metrics of a {@link MetricsRegistry}. Counters are reported as {@link Long}, gauges
+ * as {@link Double}, timers as (copied) {@link Histogram histograms}.
+ *
+ * @author SSE
+ */
+public class MetricsSnapshot {
+
+    private final long timestamp;
+    private final Map<String, Number> values;
+    private final Map<String, Histogram> histograms;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param timestamp the wall-clock time of the snapshot in ms
+     * @param values the counter and gauge values, not copied
+     * @param histograms the timer histograms, not copied
+     */
+    MetricsSnapshot(long timestamp, Map<String, Number> values, Map<String, Histogram> histograms) {
+        this.timestamp = timestamp;
+        this.values = Collections.unmodifiableMap(values);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Returns the wall-clock time of this snapshot.
+     *
+     * @return the time in ms
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the names of all metrics.
+     *
+     * @return the names, sorted
+     */
+    public Set<String> getNames() {
+        Set<String> result = new TreeSet<>(values.keySet());
+        result.addAll(histograms.keySet());
+        return result;
+    }
+
+    /**
+     * Returns the value of a counter or gauge.
+     *
+     * @param name the name
+     * @return the value, <b>null</b> if there is no such counter or gauge
+     */
+    public Number getValue(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Returns the counter and gauge values.
+     *
+     * @return the values by name, unmodifiable
+     */
+    public Map<String, Number> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the histogram of a timer. Please do not modify the histogram.
+     *
+     * @param name the name
+     * @return the histogram, <b>null</b> if there is no such timer
+     */
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Returns the timer histograms.
+     *
+     * @return the histograms by name, unmodifiable
+     */
+    public Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (String name : getNames()) {
+            Object value = values.containsKey(name) ? values.get(name) : histograms.get(name);
+            result.append(name).append(" = ").append(value).append(System.lineSeparator());
+        }
+        return result.toString();
+    }
+
+}
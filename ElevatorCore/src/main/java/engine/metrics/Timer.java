@@ -0,0 +1,101 @@
+package engine.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe latency histogram, e.g., for the execution time of observers or controller methods. Timing is
+ * switched off by default and can be switched on globally via {@link MetricsRegistry#setTimingEnabled(boolean)};
+ * while off, {@link #start()} and {@link #stop(long)} do not even read the system timer. Values are recorded into
+ * stripes selected by the recording thread, i.e., timers shared by parallel simulations (such as
+ * {@link EngineMetrics#SIMULATE}) do not serialize the simulation threads. The stripes are merged by
+ * {@link #snapshot()}.
+ *
+ * @author SSE
+ */
+public class Timer {
+
+    private static final int STRIPES = Integer.highestOneBit(
+        Math.min(63, 2 * Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+    private final AtomicReferenceArray<Histogram> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    /**
+     * Starts a measurement.
+     *
+     * @return the start time in ns to pass to {@link #stop(long)}, {@code -1} if timing is disabled
+     */
+    public long start() {
+        return MetricsRegistry.isTimingEnabled() ? System.nanoTime() : -1;
+    }
+
+    /**
+     * Ends a measurement and records the elapsed time.
+     *
+     * @param start the result of {@link #start()}, ignored if {@code -1}
+     */
+    public void stop(long start) {
+        if (start != -1) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the stripe of the current thread, creates it if needed.
+     *
+     * @return the stripe
+     */
+    private Histogram stripe() {
+        int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        Histogram result = stripes.get(index);
+        if (null == result) { // allocated lazily as a histogram takes some KB
+            stripes.compareAndSet(index, null, new Histogram());
+            result = stripes.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * Records a value directly, e.g., a duration in simulated ms.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        Histogram stripe = stripe();
+        synchronized (stripe) { // uncontended unless threads share a stripe
+            stripe.record(value);
+        }
+    }
+
+    /**
+     * Returns a copy of the recorded values, i.e., the merged stripes.
+     *
+     * @return the copy
+     */
+    public Histogram snapshot() {
+        Histogram result = new Histogram();
+        for (int s = 0; s < STRIPES; s++) {
+            Histogram stripe = stripes.get(s);
+            if (null != stripe) {
+                synchronized (stripe) {
+                    result.add(stripe);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        for (int s = 0; s < STRIPES; s++) {
+            Histogram stripe = stripes.get(s);
+            if (null != stripe) {
+                synchronized (stripe) {
+                    stripe.reset();
+                }
+            }
+        }
+    }
+
+}
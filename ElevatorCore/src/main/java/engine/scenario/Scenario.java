@@ -0,0 +1,260 @@
+package engine.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gui.buttons.DefaultButton;
+import gui.buttons.ElevatorOuterButton;
+import properties.InstanceFactory;
+import properties.ProgramSettings;
+import properties.Speed;
+import simulator.controllers.AbstractController;
+import simulator.controllers.AbstractMultiController;
+
+/**
+ * A headless simulation scenario, i.e., the settings of a building and the controller classes to use. Scenarios are
+ * executed in an own {@link ScenarioContext}, e.g., by {@link ScenarioRunner}.
+ *
+ * @author SSE
+ */
+public class Scenario extends ProgramSettings {
+
+    public static final int DEFAULT_FLOORS_HEIGHT = 50;
+
+    private final int floors;
+    private final int elevators;
+    private final Speed speed;
+    private final Class<? extends AbstractController> controllerClass;
+    private final Class<? extends AbstractMultiController> multiControllerClass;
+
+    /**
+     * Creates a scenario. The controller classes must follow the constructor conventions of
+     * {@link AbstractController} and {@link AbstractMultiController}.
+     *
+     * @param floors the number of floors
+     * @param elevators the number of elevators
+     * @param speed the elevator speed
+     * @param controllerClass the elevator controller class
+     * @param multiControllerClass the multi-elevator controller class, <b>null</b> for unsynchronized elevators
+     * @throws IllegalArgumentException if a parameter is invalid or a class does not provide the required
+     *     constructor
+     */
+    public Scenario(int floors, int elevators, Speed speed, Class<? extends AbstractController> controllerClass,
+        Class<? extends AbstractMultiController> multiControllerClass) {
+        if (floors < 2 || elevators < 1 || null == speed || null == controllerClass) {
+            throw new IllegalArgumentException("At least two floors, one elevator, a speed and a controller class "
+                + "are required");
+        }
+        try {
+            controllerClass.getConstructor(Integer.TYPE);
+            if (null != multiControllerClass) {
+                multiControllerClass.getConstructor(ArrayList.class);
+            }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Missing controller constructor: " + e.getMessage());
+        }
+        this.floors = floors;
+        this.elevators = elevators;
+        this.speed = speed;
+        this.controllerClass = controllerClass;
+        this.multiControllerClass = multiControllerClass;
+    }
+
+    /**
+     * Creates the cross product of the given parameter values as scenarios, e.g., for a parameter sweep.
+     *
+     * @param floors the numbers of floors
+     * @param elevators the numbers of elevators
+     * @param speeds the elevator speeds
+     * @param controllerClasses the elevator controller classes
+     * @param multiControllerClass the multi-elevator controller class, <b>null</b> for unsynchronized elevators
+     * @return the scenarios
+     * @throws IllegalArgumentException if a parameter combination is invalid
+     */
+    public static List<Scenario> sweep(int[] floors, int[] elevators, Speed[] speeds,
+        List<Class<? extends AbstractController>> controllerClasses,
+        Class<? extends AbstractMultiController> multiControllerClass) {
+        List<Scenario> result = new ArrayList<>();
+        for (int f : floors) {
+            for (int e : elevators) {
+                for (Speed s : speeds) {
+                    for (Class<? extends AbstractController> c : controllerClasses) {
+                        result.add(new Scenario(f, e, s, c, multiControllerClass));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new context for executing this scenario.
+     *
+     * @return the context
+     */
+    public ScenarioContext createContext() {
+        return new ScenarioContext(this, new InstanceFactory() {
+
+            @Override
+            public Class<? extends ElevatorOuterButton> getOuterButtonClass() {
+                return DefaultButton.class;
+            }
+
+            @Override
+            public AbstractController createControllerInstance(int iElevatorIndex) {
+                return create(controllerClass, Integer.TYPE, iElevatorIndex);
+            }
+
+            @Override
+            public AbstractMultiController createMultiControllerInstance(
+                ArrayList<AbstractController> lControllers) {
+                return null == multiControllerClass ? null
+                    : create(multiControllerClass, ArrayList.class, lControllers);
+            }
+
+        });
+    }
+
+    /**
+     * Creates an instance via the one-argument constructor of {@code cls}.
+     *
+     * @param <T> the instance type
+     * @param cls the class
+     * @param paramType the parameter type of the constructor
+     * @param arg the argument
+     * @return the instance
+     * @throws IllegalStateException if the instance cannot be created
+     */
+    private static <T> T create(Class<T> cls, Class<?> paramType, Object arg) {
+        try {
+            return cls.getConstructor(paramType).newInstance(arg);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + cls.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the elevator speed.
+     *
+     * @return the speed
+     */
+    public Speed getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Returns the elevator controller class.
+     *
+     * @return the class
+     */
+    public Class<? extends AbstractController> getControllerClass() {
+        return controllerClass;
+    }
+
+    /**
+     * Returns the multi-elevator controller class.
+     *
+     * @return the class, <b>null</b> for unsynchronized elevators
+     */
+    public Class<? extends AbstractMultiController> getMultiControllerClass() {
+        return multiControllerClass;
+    }
+
+    @Override
+    public int getFloors() {
+        return floors;
+    }
+
+    @Override
+    public int getElevators() {
+        return elevators;
+    }
+
+    @Override
+    public int getElevatorsSpeed() {
+        return speed.getValue();
+    }
+
+    @Override
+    public int getFloorsHeight() {
+        return DEFAULT_FLOORS_HEIGHT;
+    }
+
+    @Override
+    public boolean isSynchronized() {
+        return null != multiControllerClass;
+    }
+
+    @Override
+    public int getFloorsButtons() {
+        return 1;
+    }
+
+    @Override
+    public boolean isAccelerated() {
+        return false;
+    }
+
+    @Override
+    public boolean isOuterviewCancel() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewDoorButton() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewAuthorization() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayDirection() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayFloorNumber() {
+        return false;
+    }
+
+    @Override
+    public boolean isFloorSliderDisplay() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayTarget() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayDoorstate() {
+        return false;
+    }
+
+    @Override
+    public boolean isOuterviewEmergency() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewEmergency() {
+        return false;
+    }
+
+    @Override
+    public boolean isAutoscroll() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Scenario(floors=" + floors + ", elevators=" + elevators + ", speed=" + speed + ", controller="
+            + controllerClass.getSimpleName() + ", multiController="
+            + (null == multiControllerClass ? "none" : multiControllerClass.getSimpleName()) + ")";
+    }
+
+}
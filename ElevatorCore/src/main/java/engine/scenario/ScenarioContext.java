@@ -0,0 +1,158 @@
+package engine.scenario;
+
+import java.util.function.Supplier;
+
+import engine.ButtonEvent;
+import engine.ButtonEvent.ButtonEventObserver;
+import engine.ElevatorEvent;
+import engine.ElevatorEvent.ElevatorEventObserver;
+import engine.EventsManager;
+import engine.EventsManager.EventManager;
+import engine.FloorSensorEvent;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+import properties.InstanceFactory;
+import properties.ProgramSettings;
+
+/**
+ * Replaces the global singletons of a headless simulation for the threads the context is {@link #call(Supplier)
+ * bound to}, i.e., {@link ProgramSettings#getInstance()}, the {@link InstanceFactory} and the {@link EventsManager}
+ * channels refer to the context instead of the global instances. Thus, multiple independent buildings can be
+ * simulated in one JVM, e.g., by {@link ScenarioRunner}. UI singletons such as the simulator and the main window
+ * are not covered, i.e., a context is intended for {@link engine.headless.HeadlessSimulator headless} runs.
+ *
+ * @author SSE
+ */
+public class ScenarioContext {
+
+    private static final ThreadLocal<ScenarioContext> CURRENT = new ThreadLocal<>();
+    private static volatile boolean used;
+
+    private final ProgramSettings settings;
+    private final InstanceFactory factory;
+    private final EventManager<FloorSensorEvent, FloorSensorEventObserver> floorSensors = new EventManager<>();
+    private final EventManager<ButtonEvent, ButtonEventObserver> buttons = new EventManager<>();
+    private final EventManager<ElevatorEvent, ElevatorEventObserver> elevators = new EventManager<>();
+    private boolean buttonObserversCleared;
+
+    /**
+     * Creates a context.
+     *
+     * @param settings the settings of the context
+     * @param factory the instance factory of the context, may be <b>null</b> for the global one
+     * @throws IllegalArgumentException if {@code settings} is <b>null</b>
+     */
+    public ScenarioContext(ProgramSettings settings, InstanceFactory factory) {
+        if (null == settings) {
+            throw new IllegalArgumentException("Settings are required");
+        }
+        this.settings = settings;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the context bound to the current thread.
+     *
+     * @return the context, <b>null</b> for none, i.e., the global singletons apply
+     */
+    public static ScenarioContext current() {
+        return used ? CURRENT.get() : null; // avoid the thread local lookup if contexts are not used at all
+    }
+
+    /**
+     * Binds this context to the current thread while executing {@code task}. The previously bound context is
+     * restored afterwards.
+     *
+     * @param <R> the result type
+     * @param task the task to execute
+     * @return the result of {@code task}
+     */
+    public <R> R call(Supplier<R> task) {
+        used = true;
+        ScenarioContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (null == previous) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Binds this context to the current thread while executing {@code task}.
+     *
+     * @param task the task to execute
+     * @see #call(Supplier)
+     */
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the settings of this context.
+     *
+     * @return the settings
+     */
+    public ProgramSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Returns the instance factory of this context.
+     *
+     * @return the factory, <b>null</b> for the global one
+     */
+    public InstanceFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Returns the floor sensors channel of this context.
+     *
+     * @return the channel replacing {@link EventsManager#FLOOR_SENSORS}
+     */
+    public EventManager<FloorSensorEvent, FloorSensorEventObserver> getFloorSensors() {
+        return floorSensors;
+    }
+
+    /**
+     * Returns the buttons channel of this context.
+     *
+     * @return the channel replacing {@link EventsManager#BUTTONS}
+     */
+    public EventManager<ButtonEvent, ButtonEventObserver> getButtons() {
+        return buttons;
+    }
+
+    /**
+     * Returns the elevators channel of this context.
+     *
+     * @return the channel replacing {@link EventsManager#ELEVATORS}
+     */
+    public EventManager<ElevatorEvent, ElevatorEventObserver> getElevators() {
+        return elevators;
+    }
+
+    /**
+     * Returns whether an event-based controller already cleared the button observers in this context.
+     *
+     * @return {@code true} for cleared, {@code false} else
+     */
+    public boolean isButtonObserversCleared() {
+        return buttonObserversCleared;
+    }
+
+    /**
+     * Marks that an event-based controller cleared the button observers in this context.
+     */
+    public void setButtonObserversCleared() {
+        buttonObserversCleared = true;
+    }
+
+}
@@ -0,0 +1,124 @@
+package engine.scenario;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+
+import engine.headless.HeadlessSimulator;
+
+/**
+ * Runs independent scenarios in parallel on a {@link ForkJoinPool}. Each scenario runs in an own
+ * {@link ScenarioContext} on a {@link HeadlessSimulator} created via the controller classes of the scenario, i.e.,
+ * scenarios do not share settings, controllers or observers.
+ *
+ * @author SSE
+ */
+public class ScenarioRunner implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a runner using all available processors.
+     */
+    public ScenarioRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner.
+     *
+     * @param parallelism the number of worker threads
+     */
+    public ScenarioRunner(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Runs the scenarios. For each scenario, {@code experiment} is called within the context of the scenario with a
+     * fresh simulator, which is disposed afterwards.
+     *
+     * @param <R> the result type
+     * @param scenarios the scenarios
+     * @param experiment the experiment, e.g., schedules calls, runs the simulator and returns measures
+     * @return the results in the order of {@code scenarios}
+     * @throws RuntimeException the first exception thrown by an experiment
+     */
+    @SuppressWarnings("unchecked")
+    public <R> List<R> run(List<Scenario> scenarios, BiFunction<Scenario, HeadlessSimulator, R> experiment) {
+        Object[] results = new Object[scenarios.size()];
+        pool.invoke(new RunAction(scenarios, experiment, results, 0, results.length));
+        return (List<R>) Arrays.asList(results);
+    }
+
+    /**
+     * Runs a single scenario on the current thread.
+     *
+     * @param <R> the result type
+     * @param scenario the scenario
+     * @param experiment the experiment
+     * @return the result of {@code experiment}
+     */
+    public static <R> R runScenario(Scenario scenario, BiFunction<Scenario, HeadlessSimulator, R> experiment) {
+        return scenario.createContext().call(() -> {
+            HeadlessSimulator sim = new HeadlessSimulator(scenario);
+            try {
+                return experiment.apply(scenario, sim);
+            } finally {
+                sim.dispose();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Splits the scenarios recursively, runs a single scenario per leaf.
+     *
+     * @author SSE
+     */
+    private static class RunAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<Scenario> scenarios;
+        private final BiFunction<Scenario, HeadlessSimulator, ?> experiment;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates an action.
+         *
+         * @param scenarios the scenarios
+         * @param experiment the experiment
+         * @param results the results
+         * @param from the first scenario index (inclusive)
+         * @param to the last scenario index (exclusive)
+         */
+        private RunAction(List<Scenario> scenarios, BiFunction<Scenario, HeadlessSimulator, ?> experiment,
+            Object[] results, int from, int to) {
+            this.scenarios = scenarios;
+            this.experiment = experiment;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = runScenario(scenarios.get(from), experiment);
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RunAction(scenarios, experiment, results, from, mid),
+                    new RunAction(scenarios, experiment, results, mid, to));
+            }
+        }
+
+    }
+
+}
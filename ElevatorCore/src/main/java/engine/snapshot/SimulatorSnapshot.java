@@ -0,0 +1,98 @@
+package engine.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Immutable binary snapshot of the state of a {@link engine.headless.HeadlessSimulator headless simulation}, i.e.,
+ * the simulated time, the scheduled events, the simulation state of the cars, the state of the controllers (queues,
+ * request tables, current requests, controller-specific fields), the elevators (floor, direction, doors, load,
+ * current run), the state of the multi-elevator controller and the state of the {@link SnapshotParticipant
+ * participants}, e.g., traffic generators, trace replayers and passenger trackers. Snapshots allow checkpointing
+ * long scenarios and forking them into multiple branches, i.e., the same snapshot can be restored into several
+ * simulators. Since the position of a car is given by its restored {@link simulator.model.Motion run}, also the
+ * image position of a car in the GUI is determined by the snapshot.
+ *
+ * The format is big-endian and starts with a header ({@link #MAGIC}, {@link #VERSION}, number of cars, number of
+ * floors), followed by the state in the order defined by {@link engine.headless.HeadlessSimulator#snapshot()}.
+ * Requests are stored once per instance, see {@link SnapshotWriter#writeRequest(simulator.model.Request)}.
+ *
+ * @author SSE
+ */
+public final class SimulatorSnapshot {
+
+    public static final int MAGIC = 0x454C534E; // ELSN
+    public static final short VERSION = 3;
+    public static final String SUFFIX = ".snapshot";
+
+    private final byte[] data;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param data the snapshot data, not copied
+     */
+    SimulatorSnapshot(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns the data without copying.
+     *
+     * @return the data
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the size of this snapshot.
+     *
+     * @return the size in bytes
+     */
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * Returns a copy of the snapshot data.
+     *
+     * @return the data
+     */
+    public byte[] toByteArray() {
+        return data.clone();
+    }
+
+    /**
+     * Creates a snapshot from data obtained via {@link #toByteArray()}. The data is validated when restoring.
+     *
+     * @param data the data, copied
+     * @return the snapshot
+     */
+    public static SimulatorSnapshot fromByteArray(byte[] data) {
+        return new SimulatorSnapshot(data.clone());
+    }
+
+    /**
+     * Writes this snapshot to a file.
+     *
+     * @param file the file
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        Files.write(file, data);
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     *
+     * @param file the file
+     * @return the snapshot
+     * @throws IOException if reading fails
+     */
+    public static SimulatorSnapshot read(Path file) throws IOException {
+        return new SimulatorSnapshot(Files.readAllBytes(file));
+    }
+
+}
@@ -0,0 +1,41 @@
+package engine.snapshot;
+
+/**
+ * State outside of a {@link engine.headless.HeadlessSimulator headless simulator} which is part of its snapshots,
+ * e.g., a traffic generator feeding calls or a passenger tracker. Participants are
+ * {@link engine.headless.HeadlessSimulator#addParticipant(SnapshotParticipant) registered} at the simulator, which
+ * writes their states after its own state. A snapshot can only be restored into a simulator with participants of
+ * the same types registered in the same order. Unlike arbitrary actions, the actions a participant
+ * {@link engine.headless.HeadlessSimulator#schedule(long, SnapshotParticipant, int) schedules} are part of the
+ * snapshot.
+ *
+ * @author SSE
+ */
+public interface SnapshotParticipant {
+
+    /**
+     * Writes the state of this participant.
+     *
+     * @param out the snapshot writer
+     */
+    void writeState(SnapshotWriter out);
+
+    /**
+     * Replaces the state of this participant by the state written by {@link #writeState(SnapshotWriter)}. Shall not
+     * schedule actions, the scheduled actions are restored by the simulator.
+     *
+     * @param in the snapshot reader
+     * @throws IllegalArgumentException if the state does not fit to this participant
+     */
+    void readState(SnapshotReader in);
+
+    /**
+     * Executes an action scheduled by this participant. Called on the simulation thread. The default implementation
+     * does nothing.
+     *
+     * @param arg the argument given when scheduling the action
+     */
+    default void execute(int arg) {
+    }
+
+}
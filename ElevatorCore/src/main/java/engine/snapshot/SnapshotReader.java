@@ -0,0 +1,147 @@
+package engine.snapshot;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import simulator.model.Request;
+
+/**
+ * Reads simulator state written by {@link SnapshotWriter} in the same order. Requests written once are restored as
+ * a single instance. Not thread-safe.
+ *
+ * @author SSE
+ */
+public class SnapshotReader {
+
+    private final ArrayList<Request> requests = new ArrayList<>();
+    private final ByteBuffer buffer;
+    private final int cars;
+    private final int floors;
+
+    /**
+     * Creates a reader and reads the snapshot header.
+     *
+     * @param snapshot the snapshot to read
+     * @throws IllegalArgumentException if the snapshot has no valid header
+     */
+    public SnapshotReader(SimulatorSnapshot snapshot) {
+        buffer = ByteBuffer.wrap(snapshot.getData()).asReadOnlyBuffer();
+        try {
+            if (buffer.getInt() != SimulatorSnapshot.MAGIC) {
+                throw new IllegalArgumentException("Not a simulator snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != SimulatorSnapshot.VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version: " + version);
+            }
+            cars = buffer.getInt();
+            floors = buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated snapshot");
+        }
+    }
+
+    /**
+     * Returns the number of cars stored in the header.
+     *
+     * @return the number of cars
+     */
+    public int getCars() {
+        return cars;
+    }
+
+    /**
+     * Returns the number of floors stored in the header.
+     *
+     * @return the number of floors
+     */
+    public int getFloors() {
+        return floors;
+    }
+
+    /**
+     * Returns whether all data was read.
+     *
+     * @return {@code true} for all, {@code false} else
+     */
+    public boolean isAtEnd() {
+        return !buffer.hasRemaining();
+    }
+
+    /**
+     * Reads a boolean.
+     *
+     * @return the value
+     * @throws BufferUnderflowException if the snapshot is truncated
+     */
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    /**
+     * Reads a byte.
+     *
+     * @return the value
+     * @throws BufferUnderflowException if the snapshot is truncated
+     */
+    public int readByte() {
+        return buffer.get();
+    }
+
+    /**
+     * Reads an int.
+     *
+     * @return the value
+     * @throws BufferUnderflowException if the snapshot is truncated
+     */
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a long.
+     *
+     * @return the value
+     * @throws BufferUnderflowException if the snapshot is truncated
+     */
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads a double.
+     *
+     * @return the value
+     * @throws BufferUnderflowException if the snapshot is truncated
+     */
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads a request.
+     *
+     * @return the request, the same instance for back references, <b>null</b> if <b>null</b> was written
+     * @throws BufferUnderflowException if the snapshot is truncated
+     * @throws IllegalArgumentException if the request reference is invalid
+     */
+    public Request readRequest() {
+        int id = buffer.getInt();
+        Request result;
+        if (id < 0) {
+            result = null;
+        } else if (id < requests.size()) {
+            result = requests.get(id);
+        } else if (id == requests.size()) {
+            int floor = buffer.getInt();
+            int direction = buffer.getInt();
+            result = new Request(floor, direction, buffer.getInt());
+            requests.add(result);
+        } else {
+            throw new IllegalArgumentException("Invalid request reference: " + id);
+        }
+        return result;
+    }
+
+}
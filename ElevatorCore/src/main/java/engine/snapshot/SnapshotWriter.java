@@ -0,0 +1,142 @@
+package engine.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+
+import simulator.model.Request;
+
+/**
+ * Writes simulator state into a growing byte buffer in big-endian order. {@link Request Requests} are written by
+ * identity, i.e., a request referenced from multiple places (e.g., the request table and the current request of a
+ * controller) is written once and restored as a single instance by {@link SnapshotReader#readRequest()}. Not
+ * thread-safe.
+ *
+ * @author SSE
+ */
+public class SnapshotWriter {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final IdentityHashMap<Request, Integer> requests = new IdentityHashMap<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Creates a writer and writes the snapshot header.
+     *
+     * @param cars the number of cars
+     * @param floors the number of floors
+     */
+    public SnapshotWriter(int cars, int floors) {
+        writeInt(SimulatorSnapshot.MAGIC);
+        writeShort(SimulatorSnapshot.VERSION);
+        writeInt(cars);
+        writeInt(floors);
+    }
+
+    /**
+     * Ensures that {@code bytes} can be written.
+     *
+     * @param bytes the number of bytes
+     */
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer tmp = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+            buffer.flip();
+            tmp.put(buffer);
+            buffer = tmp;
+        }
+    }
+
+    /**
+     * Writes a boolean as one byte.
+     *
+     * @param value the value
+     */
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a byte.
+     *
+     * @param value the value, only the lowest 8 bits are written
+     */
+    public void writeByte(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a short.
+     *
+     * @param value the value
+     */
+    public void writeShort(short value) {
+        ensure(2);
+        buffer.putShort(value);
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param value the value
+     */
+    public void writeInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Writes a long.
+     *
+     * @param value the value
+     */
+    public void writeLong(long value) {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes a double.
+     *
+     * @param value the value
+     */
+    public void writeDouble(double value) {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes a request. A request written before is written as back reference only.
+     *
+     * @param request the request, may be <b>null</b>
+     */
+    public void writeRequest(Request request) {
+        if (null == request) {
+            writeInt(-1);
+        } else {
+            Integer id = requests.get(request);
+            if (null != id) {
+                writeInt(id);
+            } else {
+                writeInt(requests.size());
+                requests.put(request, requests.size());
+                writeInt(request.getFloor());
+                writeInt(request.getDirection());
+                writeInt(request.getPriority());
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot written so far.
+     *
+     * @return the snapshot
+     */
+    public SimulatorSnapshot toSnapshot() {
+        byte[] data = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, data, 0, data.length);
+        return new SimulatorSnapshot(data);
+    }
+
+}
@@ -0,0 +1,268 @@
+package engine.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import engine.ButtonEvent;
+import engine.ElevatorEvent;
+import engine.Event;
+import engine.FloorSensorEvent;
+
+/**
+ * Reads a trace written by {@link TraceRecorder} record by record, starting at the oldest segment kept. Events are
+ * obtained via the event flyweights, i.e., reading does not allocate for the usual event values. Not thread-safe.
+ *
+ * @author SSE
+ */
+public class TraceReader implements Closeable {
+
+    private static final FloorSensorEvent.Position[] POSITIONS = FloorSensorEvent.Position.values();
+    private static final ButtonEvent.Kind[] BUTTON_KINDS = ButtonEvent.Kind.values();
+    private static final ElevatorEvent.Kind[] ELEVATOR_KINDS = ElevatorEvent.Kind.values();
+
+    private final List<Path> segments;
+    private int segment = -1;
+    private MappedByteBuffer buffer;
+    private long time;
+    private byte type;
+    private int kind;
+    private int flags;
+    private int elevator;
+    private int floor;
+    private int value;
+
+    /**
+     * Creates a reader for the segments of a recorder.
+     *
+     * @param directory the trace directory
+     * @param prefix the file name prefix of the segments
+     * @throws IOException if the directory cannot be listed
+     */
+    public TraceReader(Path directory, String prefix) throws IOException {
+        this(listSegments(directory, prefix));
+    }
+
+    /**
+     * Creates a reader for the given segments.
+     *
+     * @param segments the segment files in recording order
+     */
+    public TraceReader(List<Path> segments) {
+        this.segments = new ArrayList<>(segments);
+    }
+
+    /**
+     * Lists the segments of a recorder in recording order. Matches the prefix exactly, i.e., the segments of prefix
+     * {@code sim} do not include the segments of prefix {@code sim-2}.
+     *
+     * @param directory the trace directory
+     * @param prefix the file name prefix of the segments
+     * @return the segment files
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> listSegments(Path directory, String prefix) throws IOException {
+        Pattern pattern = Pattern.compile(Pattern.quote(prefix) + "-(\\d{6,})" + Pattern.quote(TraceRecorder.SUFFIX));
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(p -> pattern.matcher(p.getFileName().toString()).matches())
+                .sorted(Comparator.comparingLong(p -> getSegmentNumber(pattern, p)))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the segment number of a segment file.
+     *
+     * @param pattern the file name pattern with the segment number as first group
+     * @param file the segment file
+     * @return the segment number
+     */
+    private static long getSegmentNumber(Pattern pattern, Path file) {
+        Matcher matcher = pattern.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Maps the next segment and checks its header.
+     *
+     * @return {@code true} if there is a next segment, {@code false} else
+     * @throws IOException if the segment cannot be read or is not a trace segment
+     */
+    private boolean nextSegment() throws IOException {
+        buffer = null;
+        segment = Math.min(segment + 1, segments.size());
+        if (segment < segments.size()) {
+            Path file = segments.get(segment);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.remaining() < TraceRecorder.HEADER_SIZE || buffer.getInt() != TraceRecorder.MAGIC
+                || buffer.getShort() != TraceRecorder.VERSION || buffer.getShort() != TraceRecorder.RECORD_SIZE) {
+                throw new IOException("Not a trace segment: " + file);
+            }
+            buffer.getLong(); // segment number
+        }
+        return null != buffer;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return {@code true} if there is a next record, {@code false} at the end of the trace
+     * @throws IOException if a segment cannot be read
+     */
+    public boolean next() throws IOException {
+        boolean found = false;
+        boolean more = null != buffer || nextSegment();
+        while (!found && more) {
+            if (buffer.remaining() >= TraceRecorder.RECORD_SIZE
+                && buffer.get(buffer.position() + Long.BYTES) != 0) {
+                time = buffer.getLong();
+                type = buffer.get();
+                kind = buffer.get();
+                flags = buffer.get();
+                buffer.get();
+                elevator = buffer.getInt();
+                floor = buffer.getInt();
+                value = buffer.getInt();
+                found = true;
+            } else {
+                more = nextSegment(); // unused tail of a segment
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the index of the current segment, e.g., to {@link #seek(int, int) continue} reading later.
+     *
+     * @return the index in the segment list, {@code -1} before reading, the number of segments at the end
+     */
+    public int getSegmentIndex() {
+        return segment;
+    }
+
+    /**
+     * Returns the position after the current record within the current segment.
+     *
+     * @return the position in bytes, {@code 0} before reading or at the end
+     */
+    public int getPosition() {
+        return null == buffer ? 0 : buffer.position();
+    }
+
+    /**
+     * Continues reading at a position returned by {@link #getSegmentIndex()} and {@link #getPosition()}, e.g., when
+     * restoring a replay from a snapshot. The next call of {@link #next()} reads the record at that position.
+     *
+     * @param segmentIndex the segment index
+     * @param position the position within the segment
+     * @throws IOException if the segment cannot be read
+     * @throws IllegalArgumentException if the segment index or the position are out of range
+     */
+    public void seek(int segmentIndex, int position) throws IOException {
+        if (segmentIndex < -1 || segmentIndex > segments.size()) {
+            throw new IllegalArgumentException("Segment index out of range: " + segmentIndex);
+        }
+        segment = segmentIndex - 1;
+        buffer = null;
+        if (segmentIndex >= 0 && nextSegment()) {
+            if (position < TraceRecorder.HEADER_SIZE || position > buffer.limit()) {
+                throw new IllegalArgumentException("Position out of range: " + position);
+            }
+            buffer.position(position);
+        } else {
+            segment = segmentIndex;
+        }
+    }
+
+    /**
+     * Returns the time of the current record.
+     *
+     * @return the time as given by the clock of the recorder
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the type of the current record.
+     *
+     * @return {@link TraceRecorder#TYPE_FLOOR_SENSOR}, {@link TraceRecorder#TYPE_BUTTON} or
+     *     {@link TraceRecorder#TYPE_ELEVATOR}
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Returns the event of the current record as floor sensor event.
+     *
+     * @return the event, <b>null</b> if the current record is not a floor sensor event
+     */
+    public FloorSensorEvent getFloorSensorEvent() {
+        return type == TraceRecorder.TYPE_FLOOR_SENSOR ? FloorSensorEvent.of(elevator, floor, POSITIONS[kind]) : null;
+    }
+
+    /**
+     * Returns the event of the current record as button event.
+     *
+     * @return the event, <b>null</b> if the current record is not a button event
+     */
+    public ButtonEvent getButtonEvent() {
+        return type == TraceRecorder.TYPE_BUTTON ? ButtonEvent.of(elevator, floor, BUTTON_KINDS[kind], value,
+            (flags & TraceRecorder.FLAG_HIGHLIGHTED) != 0, (flags & TraceRecorder.FLAG_INSIDE) != 0) : null;
+    }
+
+    /**
+     * Returns the event of the current record as elevator event.
+     *
+     * @return the event, <b>null</b> if the current record is not an elevator event
+     */
+    public ElevatorEvent getElevatorEvent() {
+        return type == TraceRecorder.TYPE_ELEVATOR ? ElevatorEvent.of(elevator, floor, ELEVATOR_KINDS[kind]) : null;
+    }
+
+    /**
+     * Returns the event of the current record.
+     *
+     * @return the event, <b>null</b> for an unknown record type
+     */
+    public Event getEvent() {
+        Event result;
+        switch (type) {
+        case TraceRecorder.TYPE_FLOOR_SENSOR:
+            result = getFloorSensorEvent();
+            break;
+        case TraceRecorder.TYPE_BUTTON:
+            result = getButtonEvent();
+            break;
+        case TraceRecorder.TYPE_ELEVATOR:
+            result = getElevatorEvent();
+            break;
+        default:
+            result = null;
+            break;
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        segment = segments.size();
+    }
+
+}
@@ -0,0 +1,241 @@
+package engine.trace;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import engine.ButtonEvent;
+import engine.ButtonEvent.ButtonEventObserver;
+import engine.ElevatorEvent;
+import engine.ElevatorEvent.ElevatorEventObserver;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+
+/**
+ * Records all events sent via {@link EventsManager} in a compact fixed-width binary format into memory-mapped
+ * segment files. Recording does not allocate apart from mapping the next segment. Each segment starts with a header
+ * ({@link #MAGIC}, {@link #VERSION}, {@link #RECORD_SIZE}, segment number) followed by records of
+ * {@link #RECORD_SIZE} bytes:
+ * <pre>
+ *  0 long  time
+ *  8 byte  type ({@link #TYPE_FLOOR_SENSOR}, {@link #TYPE_BUTTON}, {@link #TYPE_ELEVATOR}, 0 marks the end)
+ *  9 byte  kind/position ordinal
+ * 10 byte  flags ({@link #FLAG_HIGHLIGHTED}, {@link #FLAG_INSIDE})
+ * 11 byte  reserved
+ * 12 int   elevator
+ * 16 int   floor
+ * 20 int   value (button events only)
+ * </pre>
+ * Use {@link TraceReader} to read traces.
+ *
+ * @author SSE
+ */
+public class TraceRecorder implements AutoCloseable {
+
+    public static final int MAGIC = 0x454C5452; // ELTR
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final short RECORD_SIZE = 24;
+    public static final byte TYPE_FLOOR_SENSOR = 1;
+    public static final byte TYPE_BUTTON = 2;
+    public static final byte TYPE_ELEVATOR = 3;
+    public static final byte FLAG_HIGHLIGHTED = 1;
+    public static final byte FLAG_INSIDE = 2;
+    public static final String SUFFIX = ".trace";
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final LongSupplier clock;
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private MappedByteBuffer buffer;
+    private long segment = -1;
+    private long records;
+    private boolean closed;
+
+    private final FloorSensorEventObserver sensorObserver = new FloorSensorEventObserver() {
+
+        @Override
+        public void notifyReceived(FloorSensorEvent event) {
+            write(TYPE_FLOOR_SENSOR, event.getPosition().ordinal(), 0, event.getElevator(), event.getFloor(), 0);
+        }
+
+    };
+
+    private final ButtonEventObserver buttonObserver = new ButtonEventObserver() {
+
+        @Override
+        public void notifyReceived(ButtonEvent event) {
+            int flags = (event.isHightlighed() ? FLAG_HIGHLIGHTED : 0) | (event.isInside() ? FLAG_INSIDE : 0);
+            write(TYPE_BUTTON, event.getKind().ordinal(), flags, event.getElevator(), event.getFloor(),
+                event.getValue());
+        }
+
+    };
+
+    private final ElevatorEventObserver elevatorObserver = new ElevatorEventObserver() {
+
+        @Override
+        public void notifyReceived(ElevatorEvent event) {
+            write(TYPE_ELEVATOR, event.getKind().ordinal(), 0, event.getElevator(), event.getFloor(), 0);
+        }
+
+    };
+
+    /**
+     * Creates a recorder. Call {@link #attach()} to start recording. As segments are numbered from 0 for each 
+     * recording, the segments of an earlier recording with the same prefix are deleted, i.e., a shorter recording 
+     * does not leave stale segments of a longer one.
+     *
+     * @param directory the directory to write the segments to
+     * @param prefix the file name prefix of the segments
+     * @param recordsPerSegment the number of records per segment
+     * @param maxSegments the maximum number of segments to keep, older segments are deleted, {@code 0} for all
+     * @param clock the time source for the records, e.g., the simulated time
+     * @throws IOException if the directory cannot be created or earlier segments cannot be deleted
+     * @throws IllegalArgumentException if {@code recordsPerSegment} or {@code maxSegments} are out of range
+     */
+    public TraceRecorder(Path directory, String prefix, int recordsPerSegment, int maxSegments, LongSupplier clock)
+        throws IOException {
+        if (recordsPerSegment < 1 || (long) recordsPerSegment * RECORD_SIZE + HEADER_SIZE > Integer.MAX_VALUE
+            || maxSegments < 0) {
+            throw new IllegalArgumentException("Invalid segment configuration");
+        }
+        this.directory = Files.createDirectories(directory);
+        for (Path file : TraceReader.listSegments(directory, prefix)) {
+            Files.delete(file);
+        }
+        this.prefix = prefix;
+        this.segmentSize = HEADER_SIZE + recordsPerSegment * RECORD_SIZE;
+        this.maxSegments = maxSegments;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the file of a segment.
+     *
+     * @param directory the trace directory
+     * @param prefix the file name prefix
+     * @param segment the segment number
+     * @return the file
+     */
+    static Path getSegmentFile(Path directory, String prefix, long segment) {
+        return directory.resolve(String.format("%s-%06d%s", prefix, segment, SUFFIX));
+    }
+
+    /**
+     * Registers this recorder for all events.
+     */
+    public void attach() {
+        EventsManager.FLOOR_SENSORS.addObserverIfUnknown(sensorObserver);
+        EventsManager.BUTTONS.addObserverIfUnknown(buttonObserver);
+        EventsManager.ELEVATORS.addObserverIfUnknown(elevatorObserver);
+    }
+
+    /**
+     * Unregisters this recorder.
+     */
+    public void detach() {
+        EventsManager.FLOOR_SENSORS.removeObserver(sensorObserver);
+        EventsManager.BUTTONS.removeObserver(buttonObserver);
+        EventsManager.ELEVATORS.removeObserver(elevatorObserver);
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param type the record type
+     * @param kind the kind/position ordinal
+     * @param flags the flags
+     * @param elevator the elevator index
+     * @param floor the floor index
+     * @param value the value
+     */
+    private synchronized void write(byte type, int kind, int flags, int elevator, int floor, int value) {
+        if (!closed) {
+            try {
+                if (null == buffer || buffer.remaining() < RECORD_SIZE) {
+                    rotate();
+                }
+                buffer.putLong(clock.getAsLong());
+                buffer.put(type);
+                buffer.put((byte) kind);
+                buffer.put((byte) flags);
+                buffer.put((byte) 0);
+                buffer.putInt(elevator);
+                buffer.putInt(floor);
+                buffer.putInt(value);
+                records++;
+            } catch (IOException e) {
+                System.err.println("Cannot write trace, stopping: " + e.getMessage());
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Maps the next segment and deletes the oldest segments exceeding {@link #maxSegments}.
+     *
+     * @throws IOException if the segment cannot be created
+     */
+    private void rotate() throws IOException {
+        if (null != buffer) {
+            buffer.force();
+        }
+        segment++;
+        Path file = getSegmentFile(directory, prefix, segment);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize); // stays valid after closing
+        }
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort(RECORD_SIZE);
+        buffer.putLong(segment);
+        segments.add(file);
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.poll());
+        }
+    }
+
+    /**
+     * Returns the number of records written so far.
+     *
+     * @return the number of records
+     */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Returns the segment files kept, the oldest first.
+     *
+     * @return the segment files
+     */
+    public synchronized List<Path> getSegments() {
+        return new ArrayList<>(segments);
+    }
+
+    /**
+     * Detaches this recorder and flushes the current segment.
+     */
+    @Override
+    public synchronized void close() {
+        detach();
+        if (!closed && null != buffer) {
+            buffer.force();
+        }
+        closed = true;
+        buffer = null;
+    }
+
+}
@@ -0,0 +1,191 @@
+package engine.trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import engine.ButtonEvent;
+import engine.EventsManager;
+import engine.headless.HeadlessSimulator;
+import engine.snapshot.SnapshotParticipant;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+
+/**
+ * Replays the button events of a trace deterministically into a {@link HeadlessSimulator}, e.g., to compare
+ * controllers on recorded building traffic or to reproduce an incident. Button events are the inputs of a
+ * simulation and are sent at their recorded time (relative to the first record) via {@link EventsManager#BUTTONS};
+ * floor sensor and elevator events are outputs of the recorded controllers and are skipped, i.e., the controllers of
+ * {@code sim} produce their own. The trace is streamed, i.e., only the next button event is pending in the event
+ * queue of the simulator and traces of arbitrary length can be replayed in constant memory. Replay speed depends only
+ * on the {@link HeadlessSimulator#getClock() clock} of the simulator, unbounded for the default clock. The replay
+ * position is part of the {@link HeadlessSimulator#snapshot() snapshots} of the simulator; to restore a snapshot
+ * into another simulator, create a replayer for the same trace and that simulator before.
+ *
+ * @author SSE
+ */
+public class TraceReplayer {
+
+    private static final ButtonEvent.Kind[] BUTTON_KINDS = ButtonEvent.Kind.values();
+
+    private final TraceReader reader;
+    private final HeadlessSimulator sim;
+    private final SnapshotParticipant send = new SnapshotParticipant() { // scheduled, no allocation per event
+
+        @Override
+        public void execute(int arg) {
+            EventsManager.BUTTONS.sendEvent(next);
+            replayed++;
+            scheduleNext();
+        }
+
+        @Override
+        public void writeState(SnapshotWriter out) {
+            out.writeBoolean(started);
+            out.writeLong(offset);
+            out.writeLong(replayed);
+            out.writeLong(skipped);
+            out.writeInt(reader.getSegmentIndex());
+            out.writeInt(reader.getPosition());
+            out.writeBoolean(null != next);
+            if (null != next) {
+                out.writeInt(next.getElevator());
+                out.writeInt(next.getFloor());
+                out.writeByte(next.getKind().ordinal());
+                out.writeInt(next.getValue());
+                out.writeBoolean(next.isHightlighed());
+                out.writeBoolean(next.isInside());
+            }
+        }
+
+        @Override
+        public void readState(SnapshotReader in) {
+            started = in.readBoolean();
+            offset = in.readLong();
+            replayed = in.readLong();
+            skipped = in.readLong();
+            int segment = in.readInt();
+            int position = in.readInt();
+            next = null;
+            if (in.readBoolean()) {
+                next = ButtonEvent.of(in.readInt(), in.readInt(), BUTTON_KINDS[in.readByte()], in.readInt(),
+                    in.readBoolean(), in.readBoolean());
+            }
+            try {
+                reader.seek(segment, position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    };
+    private ButtonEvent next;
+    private long offset;
+    private boolean started;
+    private long replayed;
+    private long skipped;
+
+    /**
+     * Creates a replayer and registers it as participant of the snapshots of {@code sim}.
+     *
+     * @param reader the trace to replay, closed at the end of the trace
+     * @param sim the simulator to replay into
+     */
+    public TraceReplayer(TraceReader reader, HeadlessSimulator sim) {
+        this.reader = reader;
+        this.sim = sim;
+        sim.addParticipant(send);
+    }
+
+    /**
+     * Schedules the first button event of the trace. The first record of the trace is mapped to the current
+     * simulated time. Run the simulator to replay the trace.
+     *
+     * @throws IOException if the trace cannot be read
+     * @throws IllegalStateException if the replay was already started
+     */
+    public void start() throws IOException {
+        if (started) {
+            throw new IllegalStateException("Replay already started");
+        }
+        started = true;
+        if (reader.next()) {
+            offset = sim.getTime() - reader.getTime();
+            if (!schedule()) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Replays the whole trace, i.e., {@link #start() starts} the replay and runs the simulator until it is idle.
+     *
+     * @return the number of replayed button events
+     * @throws IOException if the trace cannot be read
+     * @throws IllegalStateException if the replay was already started
+     */
+    public long replay() throws IOException {
+        start();
+        try {
+            sim.runUntilIdle();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return replayed;
+    }
+
+    /**
+     * Schedules the button event of the current record or the next one.
+     *
+     * @return {@code true} if an event was scheduled, {@code false} at the end of the trace
+     * @throws IOException if the trace cannot be read
+     */
+    private boolean schedule() throws IOException {
+        boolean more = true;
+        next = null;
+        while (null == next && more) {
+            next = reader.getButtonEvent();
+            if (null == next) {
+                skipped++;
+                more = reader.next();
+            }
+        }
+        if (null != next) {
+            sim.schedule(reader.getTime() + offset, send, 0);
+        }
+        return null != next;
+    }
+
+    /**
+     * Advances to the next record and schedules the next button event. Called on the simulation thread.
+     *
+     * @throws UncheckedIOException if the trace cannot be read
+     */
+    private void scheduleNext() {
+        try {
+            if (!reader.next() || !schedule()) {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of button events replayed so far.
+     *
+     * @return the number of events
+     */
+    public long getReplayedCount() {
+        return replayed;
+    }
+
+    /**
+     * Returns the number of skipped records so far, i.e., the recorded outputs.
+     *
+     * @return the number of records
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+}
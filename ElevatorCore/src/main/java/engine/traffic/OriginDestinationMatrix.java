@@ -0,0 +1,174 @@
+package engine.traffic;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Relative frequencies of trips from origin to destination floors. Trips are sampled in O(1) via the alias method,
+ * the alias tables are (re-)built lazily after changes. Trips from a floor to itself are not allowed.
+ *
+ * @author SSE
+ */
+public class OriginDestinationMatrix {
+
+    private final int floors;
+    private final double[] weights;
+    private double[] probabilities;
+    private int[] aliases;
+
+    /**
+     * Creates an empty matrix, i.e., all weights are 0.
+     *
+     * @param floors the number of floors
+     * @throws IllegalArgumentException if there are less than two floors
+     */
+    public OriginDestinationMatrix(int floors) {
+        if (floors < 2) {
+            throw new IllegalArgumentException("At least two floors are required");
+        }
+        this.floors = floors;
+        this.weights = new double[floors * floors];
+    }
+
+    /**
+     * Returns the number of floors.
+     *
+     * @return the number of floors
+     */
+    public int getFloors() {
+        return floors;
+    }
+
+    /**
+     * Changes the relative frequency of trips from {@code origin} to {@code destination}.
+     *
+     * @param origin the origin floor
+     * @param destination the destination floor
+     * @param weight the weight, non-negative
+     * @throws IllegalArgumentException if the floors are equal or invalid or the weight is negative
+     */
+    public void setWeight(int origin, int destination, double weight) {
+        if (origin == destination || origin < 0 || destination < 0 || origin >= floors || destination >= floors
+            || !(weight >= 0)) {
+            throw new IllegalArgumentException("Invalid trip " + origin + " -> " + destination + ": " + weight);
+        }
+        weights[origin * floors + destination] = weight;
+        probabilities = null;
+    }
+
+    /**
+     * Adds to the relative frequency of trips from {@code origin} to {@code destination}.
+     *
+     * @param origin the origin floor
+     * @param destination the destination floor
+     * @param weight the weight to add
+     * @throws IllegalArgumentException if the floors are equal or invalid or the resulting weight is negative
+     */
+    public void addWeight(int origin, int destination, double weight) {
+        setWeight(origin, destination, getWeight(origin, destination) + weight);
+    }
+
+    /**
+     * Returns the relative frequency of trips from {@code origin} to {@code destination}.
+     *
+     * @param origin the origin floor
+     * @param destination the destination floor
+     * @return the weight
+     */
+    public double getWeight(int origin, int destination) {
+        return weights[origin * floors + destination];
+    }
+
+    /**
+     * Samples a trip.
+     *
+     * @param random the random number generator
+     * @return the trip encoded as {@code origin * floors + destination}
+     * @throws IllegalStateException if all weights are 0
+     * @see #getOrigin(int)
+     * @see #getDestination(int)
+     */
+    public int sample(Random random) {
+        if (null == probabilities) {
+            buildAliases();
+        }
+        int i = random.nextInt(weights.length);
+        return random.nextDouble() < probabilities[i] ? i : aliases[i];
+    }
+
+    /**
+     * Returns the origin floor of a sampled trip.
+     *
+     * @param trip the trip
+     * @return the origin floor
+     */
+    public int getOrigin(int trip) {
+        return trip / floors;
+    }
+
+    /**
+     * Returns the destination floor of a sampled trip.
+     *
+     * @param trip the trip
+     * @return the destination floor
+     */
+    public int getDestination(int trip) {
+        return trip % floors;
+    }
+
+    /**
+     * Builds the alias tables (Vose).
+     *
+     * @throws IllegalStateException if all weights are 0
+     */
+    private void buildAliases() {
+        int n = weights.length;
+        double sum = 0;
+        int positive = -1;
+        for (int i = 0; i < n; i++) {
+            sum += weights[i];
+            if (weights[i] > 0) {
+                positive = i;
+            }
+        }
+        if (sum <= 0) {
+            throw new IllegalStateException("No trips defined");
+        }
+        double[] prob = new double[n];
+        int[] alias = new int[n];
+        double[] scaled = new double[n];
+        ArrayDeque<Integer> small = new ArrayDeque<>();
+        ArrayDeque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int s = small.pop();
+            int l = large.pop();
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - 1;
+            if (scaled[l] < 1) {
+                small.push(l);
+            } else {
+                large.push(l);
+            }
+        }
+        while (!large.isEmpty()) {
+            prob[large.pop()] = 1;
+        }
+        while (!small.isEmpty()) { // numerical rest
+            int s = small.pop();
+            prob[s] = weights[s] > 0 ? 1 : 0;
+            alias[s] = positive;
+        }
+        aliases = alias;
+        probabilities = prob;
+    }
+
+}
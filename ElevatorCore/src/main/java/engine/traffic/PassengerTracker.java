@@ -0,0 +1,292 @@
+package engine.traffic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import engine.ButtonEvent;
+import engine.ElevatorEvent;
+import engine.ElevatorEvent.ElevatorEventObserver;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+import engine.headless.HeadlessSimulator;
+import engine.metrics.Histogram;
+import engine.snapshot.SnapshotParticipant;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+import properties.ProgramSettings;
+import simulator.model.Elevator;
+import simulator.model.Passenger;
+
+/**
+ * Tracks passengers through a headless simulation based on the door events. When the doors of a car are open,
+ * riding passengers with that destination alight and waiting passengers board as long as the car is not full
+ * (regardless of their direction, then pressing their destination button inside the car). Passengers arriving
+ * while the doors are open board immediately. Passengers left behind press the hall button again when the full car
+ * leaves, i.e., after the controller removed the served stop. Waiting, transit and journey times of completed trips
+ * are recorded in {@link Histogram histograms}, completed passengers are not kept, i.e., memory depends only on the
+ * number of passengers in the building. The passengers and times are part of the {@link HeadlessSimulator#snapshot()
+ * snapshots} of the simulator, i.e., restoring a snapshot keeps the passengers consistent with the load of the cars.
+ *
+ * @author SSE
+ */
+public class PassengerTracker implements ElevatorEventObserver, SnapshotParticipant {
+
+    private final HeadlessSimulator sim;
+    private final ArrayDeque<Passenger>[] waiting;
+    private final List<Passenger>[] riding;
+    private final int[] leftBehind; // per car, floor with passengers left behind, -1 for none
+    private final int[] doorsOpenAt; // per car, floor the doors are open at, -1 for none
+    private final FloorSensorEventObserver departures = new FloorSensorEventObserver() {
+
+        @Override
+        public void notifyReceived(FloorSensorEvent event) {
+            int car = event.getElevator();
+            if (car >= 0 && car < leftBehind.length && leftBehind[car] >= 0) {
+                int floor = leftBehind[car];
+                leftBehind[car] = -1;
+                if (!waiting[floor].isEmpty()) { // call again
+                    sim.pressButton(car, floor, ButtonEvent.Kind.BUTTON, waiting[floor].peek().getDirection(), 
+                        false);
+                }
+            }
+        }
+
+    };
+    private final Histogram waitingTimes = new Histogram();
+    private final Histogram transitTimes = new Histogram();
+    private final Histogram journeyTimes = new Histogram();
+    private long arrived;
+    private long waitingCount;
+    private long ridingCount;
+
+    /**
+     * Creates a tracker, registers it for the elevator events and as participant of the snapshots of {@code sim}.
+     *
+     * @param sim the simulator to track the passengers of
+     */
+    @SuppressWarnings("unchecked")
+    public PassengerTracker(HeadlessSimulator sim) {
+        this.sim = sim;
+        int floors = ProgramSettings.getInstance().getFloors();
+        waiting = (ArrayDeque<Passenger>[]) new ArrayDeque<?>[floors];
+        for (int f = 0; f < floors; f++) {
+            waiting[f] = new ArrayDeque<>();
+        }
+        riding = (List<Passenger>[]) new List<?>[sim.getElevatorCount()];
+        for (int c = 0; c < riding.length; c++) {
+            riding[c] = new ArrayList<>();
+        }
+        leftBehind = new int[riding.length];
+        Arrays.fill(leftBehind, -1);
+        doorsOpenAt = new int[riding.length];
+        Arrays.fill(doorsOpenAt, -1);
+        EventsManager.ELEVATORS.addObserver(this);
+        EventsManager.FLOOR_SENSORS.addObserver(departures);
+        sim.addParticipant(this);
+    }
+
+    /**
+     * Unregisters this tracker from the events. The tracker stays a participant of the snapshots until the simulator
+     * is disposed.
+     */
+    public void detach() {
+        EventsManager.ELEVATORS.removeObserver(this);
+        EventsManager.FLOOR_SENSORS.removeObserver(departures);
+    }
+
+    /**
+     * Lets a passenger arrive at the current simulated time and press the hall button, e.g., as arrival consumer of
+     * {@link TrafficGenerator#feed(HeadlessSimulator, java.util.function.Consumer)}.
+     *
+     * @param call the call describing the passenger
+     * @return the passenger
+     */
+    public Passenger arrive(TrafficCall call) {
+        int origin = call.getOrigin();
+        Passenger passenger = new Passenger(sim.getTime(), origin, call.getDestination());
+        waiting[origin].add(passenger);
+        arrived++;
+        waitingCount++;
+        boolean stopping = false;
+        for (int c = 0; c < doorsOpenAt.length && !stopping; c++) {
+            if (doorsOpenAt[c] == origin) { // board now or call again when the car leaves
+                stopping = true;
+                exchange(c, origin);
+                leftBehind[c] = waiting[origin].isEmpty() ? -1 : origin;
+            }
+        }
+        if (!stopping) {
+            sim.pressButton(call.getElevator(), origin, ButtonEvent.Kind.BUTTON, call.getDirection(), false);
+        }
+        return passenger;
+    }
+
+    @Override
+    public void notifyReceived(ElevatorEvent event) {
+        int car = event.getElevator();
+        int floor = event.getFloor();
+        if (car >= 0 && car < riding.length && floor >= 0 && floor < waiting.length) {
+            if (ElevatorEvent.Kind.DOORS_OPEN == event.getKind()) {
+                doorsOpenAt[car] = floor;
+                exchange(car, floor);
+                leftBehind[car] = waiting[floor].isEmpty() ? -1 : floor;
+            } else if (ElevatorEvent.Kind.DOORS_CLOSING == event.getKind()) {
+                doorsOpenAt[car] = -1;
+            }
+        }
+    }
+
+    /**
+     * Lets passengers alight and board.
+     *
+     * @param car the car index
+     * @param floor the floor the doors are open at
+     */
+    private void exchange(int car, int floor) {
+        long now = sim.getTime();
+        Elevator elevator = sim.getController(car).getElevator();
+        for (Iterator<Passenger> iter = riding[car].iterator(); iter.hasNext(); ) {
+            Passenger passenger = iter.next();
+            if (passenger.getDestination() == floor) {
+                iter.remove();
+                elevator.alight();
+                ridingCount--;
+                passenger.alight(now);
+                transitTimes.record(passenger.getTransitTime());
+                journeyTimes.record(passenger.getJourneyTime());
+            }
+        }
+        ArrayDeque<Passenger> queue = waiting[floor];
+        while (!queue.isEmpty() && elevator.board()) {
+            Passenger passenger = queue.poll();
+            waitingCount--;
+            ridingCount++;
+            passenger.board(now, car);
+            riding[car].add(passenger);
+            waitingTimes.record(passenger.getWaitingTime());
+            sim.pressButton(car, passenger.getDestination(), ButtonEvent.Kind.BUTTON, 0, true);
+        }
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) {
+        out.writeLong(arrived);
+        out.writeLong(waitingCount);
+        out.writeLong(ridingCount);
+        for (ArrayDeque<Passenger> queue : waiting) {
+            out.writeInt(queue.size());
+            for (Passenger passenger : queue) {
+                out.writeLong(passenger.getArrivalTime());
+                out.writeInt(passenger.getDestination());
+            }
+        }
+        for (int c = 0; c < riding.length; c++) {
+            out.writeInt(leftBehind[c]);
+            out.writeInt(doorsOpenAt[c]);
+            out.writeInt(riding[c].size());
+            for (Passenger passenger : riding[c]) {
+                out.writeLong(passenger.getArrivalTime());
+                out.writeInt(passenger.getOrigin());
+                out.writeInt(passenger.getDestination());
+                out.writeLong(passenger.getBoardingTime());
+            }
+        }
+        waitingTimes.writeState(out);
+        transitTimes.writeState(out);
+        journeyTimes.writeState(out);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) {
+        arrived = in.readLong();
+        waitingCount = in.readLong();
+        ridingCount = in.readLong();
+        for (int f = 0; f < waiting.length; f++) {
+            waiting[f].clear();
+            for (int i = in.readInt(); i > 0; i--) {
+                waiting[f].add(new Passenger(in.readLong(), f, in.readInt()));
+            }
+        }
+        for (int c = 0; c < riding.length; c++) {
+            leftBehind[c] = in.readInt();
+            doorsOpenAt[c] = in.readInt();
+            riding[c].clear();
+            for (int i = in.readInt(); i > 0; i--) {
+                Passenger passenger = new Passenger(in.readLong(), in.readInt(), in.readInt());
+                passenger.board(in.readLong(), c);
+                riding[c].add(passenger);
+            }
+        }
+        waitingTimes.readState(in);
+        transitTimes.readState(in);
+        journeyTimes.readState(in);
+    }
+
+    /**
+     * Returns the number of passengers arrived so far.
+     *
+     * @return the number of passengers
+     */
+    public long getArrivedCount() {
+        return arrived;
+    }
+
+    /**
+     * Returns the number of passengers waiting at a floor.
+     *
+     * @return the number of passengers
+     */
+    public long getWaitingCount() {
+        return waitingCount;
+    }
+
+    /**
+     * Returns the number of passengers riding in a car.
+     *
+     * @return the number of passengers
+     */
+    public long getRidingCount() {
+        return ridingCount;
+    }
+
+    /**
+     * Returns the number of passengers that reached their destination.
+     *
+     * @return the number of passengers
+     */
+    public long getCompletedCount() {
+        return journeyTimes.getCount();
+    }
+
+    /**
+     * Returns the waiting times, i.e., from arrival to boarding.
+     *
+     * @return the waiting times in ms
+     */
+    public Histogram getWaitingTimes() {
+        return waitingTimes;
+    }
+
+    /**
+     * Returns the transit times, i.e., from boarding to alighting.
+     *
+     * @return the transit times in ms
+     */
+    public Histogram getTransitTimes() {
+        return transitTimes;
+    }
+
+    /**
+     * Returns the journey times, i.e., from arrival to alighting.
+     *
+     * @return the journey times in ms
+     */
+    public Histogram getJourneyTimes() {
+        return journeyTimes;
+    }
+
+}
@@ -0,0 +1,104 @@
+package engine.traffic;
+
+import engine.ButtonEvent;
+
+/**
+ * A generated call, i.e., a passenger arriving at the origin floor and heading for the destination floor.
+ *
+ * @author SSE
+ */
+public class TrafficCall {
+
+    private final long time;
+    private final int elevator;
+    private final int origin;
+    private final int destination;
+
+    /**
+     * Creates a call.
+     *
+     * @param time the arrival time in (simulated) ms
+     * @param elevator the elevator whose hall button is pressed
+     * @param origin the origin floor
+     * @param destination the destination floor
+     */
+    public TrafficCall(long time, int elevator, int origin, int destination) {
+        this.time = time;
+        this.elevator = elevator;
+        this.origin = origin;
+        this.destination = destination;
+    }
+
+    /**
+     * Returns the arrival time.
+     *
+     * @return the time in (simulated) ms
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the elevator whose hall button is pressed. In synchronized mode, the multi-elevator controller assigns
+     * the call anyway.
+     *
+     * @return the elevator index
+     */
+    public int getElevator() {
+        return elevator;
+    }
+
+    /**
+     * Returns the origin floor.
+     *
+     * @return the origin floor
+     */
+    public int getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Returns the destination floor.
+     *
+     * @return the destination floor
+     */
+    public int getDestination() {
+        return destination;
+    }
+
+    /**
+     * Returns the travel direction.
+     *
+     * @return 1 for up, -1 for down
+     */
+    public int getDirection() {
+        return destination > origin ? 1 : -1;
+    }
+
+    /**
+     * Returns the hall call event for this call, i.e., pressing the button at the origin floor outside the elevator.
+     *
+     * @return the (shared) event
+     */
+    public ButtonEvent toHallCallEvent() {
+        return ButtonEvent.of(elevator, origin, ButtonEvent.Kind.BUTTON, getDirection(), false, false);
+    }
+
+    /**
+     * Returns the car call event for this call, i.e., pressing the button for the destination floor inside the
+     * given elevator.
+     *
+     * @param elevator the elevator the passenger boarded
+     * @return the (shared) event
+     */
+    public ButtonEvent toCarCallEvent(int elevator) {
+        return ButtonEvent.of(elevator, destination, ButtonEvent.Kind.BUTTON, 0, false, true);
+    }
+
+    @Override
+    public String toString() {
+        return "TrafficCall(time=" + time + ", elevator=" + elevator + ", origin=" + origin + ", destination=" 
+            + destination + ")";
+    }
+
+}
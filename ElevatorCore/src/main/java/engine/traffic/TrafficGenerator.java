@@ -0,0 +1,354 @@
+package engine.traffic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import engine.ButtonEvent;
+import engine.headless.HeadlessSimulator;
+import engine.snapshot.SnapshotParticipant;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+
+/**
+ * Generates calls lazily from a sequence of phases, e.g., the time-of-day profiles of a working day. Within a phase,
+ * calls arrive as Poisson process with the rate of the phase and trips are sampled from the origin/destination
+ * matrix of the phase. Calls are created on demand, i.e., arbitrarily many calls can be generated in constant
+ * memory. Generation is reproducible for a given seed. The calls {@link #feed(HeadlessSimulator, Consumer) fed} into a
+ * simulator are part of its {@link HeadlessSimulator#snapshot() snapshots}, i.e., the state of the generator is
+ * written and restored with the simulator.
+ *
+ * @author SSE
+ */
+public class TrafficGenerator implements Iterator<TrafficCall> {
+
+    private static final double MILLIS_PER_MINUTE = 60000.0;
+
+    private final StatefulRandom random;
+    private final int elevators;
+    private final List<Phase> phases = new ArrayList<>();
+    private boolean repeat;
+    private int phase;
+    private long phaseStart;
+    private double time;
+    private TrafficCall next;
+
+    /**
+     * The generator of {@link Random} with accessible state, i.e., it generates the same numbers for a seed, but its
+     * state can be written into snapshots.
+     *
+     * @author SSE
+     */
+    private static class StatefulRandom extends Random {
+
+        private static final long serialVersionUID = 1L;
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND = 0xBL;
+        private static final long MASK = (1L << 48) - 1;
+
+        private long state; // set by the super constructor via setSeed, no initializer
+
+        /**
+         * Creates a generator.
+         *
+         * @param seed the seed
+         */
+        private StatefulRandom(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            state = (seed ^ MULTIPLIER) & MASK;
+            super.setSeed(seed);
+        }
+
+        @Override
+        protected int next(int bits) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int) (state >>> (48 - bits));
+        }
+
+    }
+
+    /**
+     * Feeds the calls into a simulator one by one. Writes the state of the generator and the pending call into the
+     * snapshots of the simulator.
+     *
+     * @author SSE
+     */
+    private class Feeder implements SnapshotParticipant {
+
+        private final HeadlessSimulator sim;
+        private final Consumer<TrafficCall> arrival;
+        private TrafficCall pending;
+
+        /**
+         * Creates a feeder.
+         *
+         * @param sim the simulator
+         * @param arrival called at the arrival time of a call
+         */
+        private Feeder(HeadlessSimulator sim, Consumer<TrafficCall> arrival) {
+            this.sim = sim;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Schedules the next call, if any.
+         */
+        private void scheduleNext() {
+            pending = hasNext() ? next() : null;
+            if (null != pending) {
+                sim.schedule(pending.getTime(), this, 0);
+            }
+        }
+
+        @Override
+        public void execute(int arg) {
+            arrival.accept(pending);
+            scheduleNext();
+        }
+
+        @Override
+        public void writeState(SnapshotWriter out) {
+            out.writeLong(random.state);
+            out.writeInt(phase);
+            out.writeLong(phaseStart);
+            out.writeDouble(time);
+            writeCall(out, next);
+            writeCall(out, pending);
+        }
+
+        @Override
+        public void readState(SnapshotReader in) {
+            random.state = in.readLong();
+            phase = in.readInt();
+            if (phase < 0 || phase > phases.size()) {
+                throw new IllegalArgumentException("Phase out of range: " + phase);
+            }
+            phaseStart = in.readLong();
+            time = in.readDouble();
+            next = readCall(in);
+            pending = readCall(in);
+        }
+
+    }
+
+    /**
+     * A phase of constant traffic.
+     *
+     * @author SSE
+     */
+    private static class Phase {
+
+        private final long duration;
+        private final double ratePerMilli;
+        private final OriginDestinationMatrix matrix;
+
+        /**
+         * Creates a phase.
+         *
+         * @param duration the duration in ms
+         * @param ratePerMilli the arrival rate per ms
+         * @param matrix the trip distribution
+         */
+        private Phase(long duration, double ratePerMilli, OriginDestinationMatrix matrix) {
+            this.duration = duration;
+            this.ratePerMilli = ratePerMilli;
+            this.matrix = matrix;
+        }
+
+    }
+
+    /**
+     * Creates a generator without phases.
+     *
+     * @param seed the seed of the random number generator
+     * @param elevators the number of elevators, hall buttons are chosen randomly among them
+     * @throws IllegalArgumentException if there is no elevator
+     */
+    public TrafficGenerator(long seed, int elevators) {
+        if (elevators < 1) {
+            throw new IllegalArgumentException("At least one elevator is required");
+        }
+        this.random = new StatefulRandom(seed);
+        this.elevators = elevators;
+    }
+
+    /**
+     * Adds a phase.
+     *
+     * @param duration the duration in ms
+     * @param callsPerMinute the mean number of calls per (simulated) minute, 0 for no calls
+     * @param matrix the trip distribution
+     * @return <b>this</b>
+     * @throws IllegalArgumentException if the duration or the rate is negative or the matrix is missing
+     */
+    public TrafficGenerator addPhase(long duration, double callsPerMinute, OriginDestinationMatrix matrix) {
+        if (duration < 0 || !(callsPerMinute >= 0) || null == matrix) {
+            throw new IllegalArgumentException("Invalid phase");
+        }
+        phases.add(new Phase(duration, callsPerMinute / MILLIS_PER_MINUTE, matrix));
+        return this;
+    }
+
+    /**
+     * Adds a phase for a profile.
+     *
+     * @param duration the duration in ms
+     * @param callsPerMinute the mean number of calls per (simulated) minute
+     * @param profile the traffic profile
+     * @param floors the number of floors
+     * @return <b>this</b>
+     * @throws IllegalArgumentException if the duration or the rate is negative
+     */
+    public TrafficGenerator addPhase(long duration, double callsPerMinute, TrafficProfile profile, int floors) {
+        return addPhase(duration, callsPerMinute, profile.createMatrix(floors));
+    }
+
+    /**
+     * Changes whether the phases shall be repeated, e.g., to simulate multiple days.
+     *
+     * @param repeat {@code true} for repeating, {@code false} for ending after the last phase (default)
+     * @return <b>this</b>
+     */
+    public TrafficGenerator setRepeat(boolean repeat) {
+        this.repeat = repeat;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (null == next) {
+            next = generate();
+        }
+        return null != next;
+    }
+
+    @Override
+    public TrafficCall next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TrafficCall result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Generates the next call. As Poisson processes are memoryless, the inter-arrival time is sampled anew at each
+     * phase boundary.
+     *
+     * @return the call, <b>null</b> if there are no further calls
+     */
+    private TrafficCall generate() {
+        TrafficCall result = null;
+        int idle = 0; // phases without calls in a row, stop repeating if none has calls
+        while (null == result && phase < phases.size() && idle <= phases.size()) {
+            Phase p = phases.get(phase);
+            double end = phaseStart + p.duration;
+            double arrival = p.ratePerMilli > 0
+                ? time - Math.log(1 - random.nextDouble()) / p.ratePerMilli : Double.POSITIVE_INFINITY;
+            if (arrival < end) {
+                time = arrival;
+                int trip = p.matrix.sample(random);
+                result = new TrafficCall((long) time, random.nextInt(elevators), p.matrix.getOrigin(trip),
+                    p.matrix.getDestination(trip));
+            } else {
+                idle = p.ratePerMilli > 0 && p.duration > 0 ? 0 : idle + 1;
+                time = end;
+                phaseStart += p.duration;
+                phase++;
+                if (repeat && phase == phases.size()) {
+                    phase = 0;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the remaining calls as (lazy) stream.
+     *
+     * @return the calls
+     */
+    public Stream<TrafficCall> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the remaining calls as (lazy) stream of hall call button events.
+     *
+     * @return the events
+     * @see TrafficCall#toHallCallEvent()
+     */
+    public Stream<ButtonEvent> hallCallEvents() {
+        return stream().map(TrafficCall::toHallCallEvent);
+    }
+
+    /**
+     * Feeds the remaining calls into a simulator by pressing the hall buttons. Calls are scheduled one by one, i.e.,
+     * only the next call is pending in the event queue of {@code sim}.
+     *
+     * @param sim the simulator
+     */
+    public void feed(HeadlessSimulator sim) {
+        feed(sim, c -> sim.pressButton(c.getElevator(), c.getOrigin(), ButtonEvent.Kind.BUTTON, c.getDirection(),
+            false));
+    }
+
+    /**
+     * Feeds the remaining calls into a simulator. Calls are scheduled one by one, i.e., only the next call is
+     * pending in the event queue of {@code sim}. The generator becomes a
+     * {@link HeadlessSimulator#addParticipant(SnapshotParticipant) participant} of the snapshots of {@code sim}; to
+     * restore a snapshot into another simulator, feed a generator with the same phases into it before.
+     *
+     * @param sim the simulator
+     * @param arrival called on the simulation thread at the arrival time of a call, e.g., to create a passenger
+     */
+    public void feed(HeadlessSimulator sim, Consumer<TrafficCall> arrival) {
+        Feeder feeder = new Feeder(sim, arrival);
+        sim.addParticipant(feeder);
+        feeder.scheduleNext();
+    }
+
+    /**
+     * Writes a call.
+     *
+     * @param out the snapshot writer
+     * @param call the call, may be <b>null</b>
+     */
+    private static void writeCall(SnapshotWriter out, TrafficCall call) {
+        out.writeBoolean(null != call);
+        if (null != call) {
+            out.writeLong(call.getTime());
+            out.writeInt(call.getElevator());
+            out.writeInt(call.getOrigin());
+            out.writeInt(call.getDestination());
+        }
+    }
+
+    /**
+     * Reads a call written by {@link #writeCall(SnapshotWriter, TrafficCall)}.
+     *
+     * @param in the snapshot reader
+     * @return the call, may be <b>null</b>
+     */
+    private static TrafficCall readCall(SnapshotReader in) {
+        TrafficCall result = null;
+        if (in.readBoolean()) {
+            result = new TrafficCall(in.readLong(), in.readInt(), in.readInt(), in.readInt());
+        }
+        return result;
+    }
+
+}
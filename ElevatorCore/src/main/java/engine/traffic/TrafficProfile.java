@@ -0,0 +1,99 @@
+package engine.traffic;
+
+/**
+ * Typical traffic patterns of office buildings as origin/destination matrices. The lobby is the ground floor (0).
+ *
+ * @author SSE
+ */
+public enum TrafficProfile {
+
+    /**
+     * Morning up-peak, most passengers arrive at the lobby and travel up.
+     */
+    UP_PEAK(0.9, 0.05),
+
+    /**
+     * Evening down-peak, most passengers travel down to the lobby.
+     */
+    DOWN_PEAK(0.05, 0.9),
+
+    /**
+     * Lunch time, passengers travel to and from the lobby in similar numbers.
+     */
+    LUNCH(0.45, 0.45),
+
+    /**
+     * Inter-floor traffic, all trips are equally likely.
+     */
+    INTER_FLOOR(0, 0);
+
+    private final double fromLobby;
+    private final double toLobby;
+
+    /**
+     * Creates a profile.
+     *
+     * @param fromLobby the share of trips from the lobby
+     * @param toLobby the share of trips to the lobby
+     */
+    private TrafficProfile(double fromLobby, double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+
+    /**
+     * Returns the share of trips starting at the lobby, apart from the inter-floor share.
+     *
+     * @return the share in [0; 1]
+     */
+    public double getFromLobby() {
+        return fromLobby;
+    }
+
+    /**
+     * Returns the share of trips ending at the lobby, apart from the inter-floor share.
+     *
+     * @return the share in [0; 1]
+     */
+    public double getToLobby() {
+        return toLobby;
+    }
+
+    /**
+     * Creates the origin/destination matrix of this profile. The remaining share of trips, i.e., neither from nor to
+     * the lobby, is spread evenly over all trips between upper floors, the lobby shares evenly over the upper floors.
+     * With two floors, there are only lobby trips.
+     *
+     * @param floors the number of floors
+     * @return the matrix
+     */
+    public OriginDestinationMatrix createMatrix(int floors) {
+        OriginDestinationMatrix result = new OriginDestinationMatrix(floors);
+        int upper = floors - 1;
+        double interFloor = 1 - fromLobby - toLobby;
+        if (upper < 2) {
+            result.setWeight(0, 1, Math.max(fromLobby, interFloor / 2));
+            result.setWeight(1, 0, Math.max(toLobby, interFloor / 2));
+        } else if (fromLobby == 0 && toLobby == 0) {
+            for (int o = 0; o < floors; o++) {
+                for (int d = 0; d < floors; d++) {
+                    if (o != d) {
+                        result.setWeight(o, d, 1.0 / (floors * (floors - 1)));
+                    }
+                }
+            }
+        } else {
+            for (int f = 1; f < floors; f++) {
+                result.setWeight(0, f, fromLobby / upper);
+                result.setWeight(f, 0, toLobby / upper);
+                for (int d = 1; d < floors; d++) {
+                    if (f != d) {
+                        result.setWeight(f, d, interFloor / (upper * (upper - 1)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+}
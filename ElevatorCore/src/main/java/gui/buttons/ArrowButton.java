@@ -50,7 +50,7 @@ public class ArrowButton extends JSpinner implements ElevatorOuterArrowButton {
                     if (ProgramSettings.getInstance().isSynchronized()) {
                         sim.getMultiController().addRequest(target, iElevatorIndex, false);
                     } else {
-                        sim.getController(iElevatorIndex).addRequest(target);
+                        sim.getController(iElevatorIndex).submitRequest(target);
                     }
                 }
             }
@@ -201,7 +201,7 @@ public class ArrowButton extends JSpinner implements ElevatorOuterArrowButton {
                 // switch highlights
                 if (self.isHighlighted(iComp)) {
                     if (ProgramSettings.getInstance().isOuterviewCancel()) {
-                        EventsManager.BUTTONS.sendEvent(new ButtonEvent(iElevatorIndex, floorId, Kind.BUTTON, 0, 
+                        EventsManager.BUTTONS.sendEvent(ButtonEvent.of(iElevatorIndex, floorId, Kind.BUTTON, 0, 
                             true, false));
                         if (ProgramSettings.getInstance().isSynchronized()) {
                             MainWindow.getInstance().highlightFloorButtons(floorId, false, iComp);
@@ -212,7 +212,7 @@ public class ArrowButton extends JSpinner implements ElevatorOuterArrowButton {
                         }
                     }
                 } else {
-                    EventsManager.BUTTONS.sendEvent(new ButtonEvent(iElevatorIndex, floorId, Kind.BUTTON, (int) self.getValue(), 
+                    EventsManager.BUTTONS.sendEvent(ButtonEvent.of(iElevatorIndex, floorId, Kind.BUTTON, (int) self.getValue(), 
                         false, false));
                     if (ProgramSettings.getInstance().isSynchronized()) {
                         MainWindow.getInstance().highlightFloorButtons(floorId, true, iComp);
@@ -232,7 +232,7 @@ public class ArrowButton extends JSpinner implements ElevatorOuterArrowButton {
                 if (!self.isIgnored() || !downButton.isIgnored()) {
                     self.setIgnored(true);
                     self.setEnabled(false);
-                    EventsManager.BUTTONS.sendEvent(new ButtonEvent(iElevatorIndex, self.getFloorId(), Kind.CANCEL, 0,
+                    EventsManager.BUTTONS.sendEvent(ButtonEvent.of(iElevatorIndex, self.getFloorId(), Kind.CANCEL, 0,
                         false, false));
                     downButton.setIgnored(true);
                     downButton.setEnabled(false);
@@ -271,7 +271,7 @@ public class ArrowButton extends JSpinner implements ElevatorOuterArrowButton {
                         MainWindow.getInstance().highlightFloorButtons(id, true, iComp);
                         MainWindow.getInstance().highlightFloorButtons(id, false, Math.abs(iComp - 1));
                     } else {
-                        ElevatorSimulator.getInstance().getController(iElevatorIndex).addRequest(target);
+                        ElevatorSimulator.getInstance().getController(iElevatorIndex).submitRequest(target);
                         setHighlight(iComp, true);
                         setHighlight(Math.abs(iComp - 1), false);
                     }
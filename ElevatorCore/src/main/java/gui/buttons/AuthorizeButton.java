@@ -69,7 +69,7 @@ public class AuthorizeButton extends JButton {
                     JOptionPane.showMessageDialog(null, "Invalid authorization level", "Fehler",
                             JOptionPane.ERROR_MESSAGE);
                 } else {
-                    EventsManager.BUTTONS.sendEvent(new ButtonEvent(-1, -1, Kind.AUTHORIZE, result, 
+                    EventsManager.BUTTONS.sendEvent(ButtonEvent.of(-1, -1, Kind.AUTHORIZE, result, 
                         false, false));
                 }
             } catch (NumberFormatException e) {
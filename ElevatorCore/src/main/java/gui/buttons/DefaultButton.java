@@ -63,10 +63,10 @@ public class DefaultButton extends JButton implements ElevatorOuterButton {
                             if (bInside && controlPanel.getEmergencyButton().isActivated()) {
                                 controller.addPriorityCall(floorId);
                             } else {
-                                controller.addRequest(target);
+                                controller.submitRequest(target);
                             }
                         } else {
-                            controller.addRequest(target);
+                            controller.submitRequest(target);
                         }
                     }
                 }
@@ -267,7 +267,7 @@ public class DefaultButton extends JButton implements ElevatorOuterButton {
                     getControlPanel().getButtons().get(floorId).setHighlight(true);
                 }
             }
-            EventsManager.BUTTONS.sendEvent(new ButtonEvent(iElevatorIndex, floorId, Kind.BUTTON, 0, 
+            EventsManager.BUTTONS.sendEvent(ButtonEvent.of(iElevatorIndex, floorId, Kind.BUTTON, 0, 
                 isHighlighted, bInside));
 
             // TODO cleanup
@@ -313,10 +313,10 @@ public class DefaultButton extends JButton implements ElevatorOuterButton {
                         if (bInside && getControlPanel().getEmergencyButton().isActivated()) {
                             getController().addPriorityCall(id);
                         } else {
-                            controller.addRequest(target);
+                            controller.submitRequest(target);
                         }
                     } else {
-                        controller.addRequest(target);
+                        controller.submitRequest(target);
                     }
                     getControlPanel().getButtons().get(id).setHighlight(true);
                 }
@@ -341,7 +341,7 @@ public class DefaultButton extends JButton implements ElevatorOuterButton {
                 if (!self.isIgnored() || !downButton.isIgnored()) {
                     self.setIgnored(true);
                     self.setEnabled(false);
-                    EventsManager.BUTTONS.sendEvent(new ButtonEvent(iElevatorIndex, floorId, Kind.CANCEL, 0,
+                    EventsManager.BUTTONS.sendEvent(ButtonEvent.of(iElevatorIndex, floorId, Kind.CANCEL, 0,
                         isHighlighted(), bInside));
                     //getController().ignoreFloor(self.getId(), true); // TODO remove
                     downButton.setIgnored(true);
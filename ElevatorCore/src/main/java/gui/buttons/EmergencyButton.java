@@ -15,6 +15,7 @@ import engine.ButtonEvent.ButtonEventObserver;
 import engine.ButtonEvent.Kind;
 import properties.ProgramSettings;
 import simulator.ElevatorSimulator;
+import simulator.controllers.AbstractController;
 
 /**
  * An emergency button.
@@ -33,8 +34,8 @@ public class EmergencyButton extends JButton {
                     ElevatorSimulator.getInstance().getMultiController()
                         .addPriorityCall(event.getElevator(), event.getFloor(), event.isInside());
                 } else {
-                    ElevatorSimulator.getInstance().getController(event.getElevator())
-                        .addPriorityCall(event.getFloor());
+                    AbstractController controller = ElevatorSimulator.getInstance().getController(event.getElevator());
+                    controller.addPriorityCall(event.getFloor());
                 }
             }
         }
@@ -80,12 +81,12 @@ public class EmergencyButton extends JButton {
             public void actionPerformed(ActionEvent e) {
                 if (isActivated()) {
                     setActivated(false);
-                    EventsManager.BUTTONS.sendEvent(new ButtonEvent(EmergencyButton.this.iElevatorIndex, 
+                    EventsManager.BUTTONS.sendEvent(ButtonEvent.of(EmergencyButton.this.iElevatorIndex, 
                         EmergencyButton.this.floorId, Kind.EMERGENCY_RESOLVED, 0, false, EmergencyButton.this.inside));
                 } else {
                     setActivated(true);
                     if (!isInside()) {
-                        EventsManager.BUTTONS.sendEvent(new ButtonEvent(EmergencyButton.this.iElevatorIndex, 
+                        EventsManager.BUTTONS.sendEvent(ButtonEvent.of(EmergencyButton.this.iElevatorIndex, 
                             EmergencyButton.this.floorId, Kind.EMERGENCY, 0, false, EmergencyButton.this.inside));
                         if (ProgramSettings.getInstance().isSynchronized()) {
                             MainWindow.getInstance().activateEmergencyButtons(
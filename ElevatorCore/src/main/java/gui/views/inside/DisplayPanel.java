@@ -12,6 +12,7 @@ import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import engine.CarStateBuffer;
 import properties.ProgramSettings;
 
 import simulator.model.Elevator;
@@ -143,21 +144,32 @@ public class DisplayPanel extends JPanel {
      * Changes the elevator status.
      */
     public void updateValues(Elevator elevator, Request currentTarget) {
-        int iCurrentFloor = elevator.getCurrentFloor();
-        int iDirection = elevator.getDirection();
+        updateValues(elevator.getCurrentFloor() + elevator.getDirection(), 
+            null == currentTarget ? CarStateBuffer.NONE : currentTarget.getFloor());
+    }
+
+    /**
+     * Changes the elevator status. Shall be called on the event dispatch thread.
+     * 
+     * @param iFloor the floor to display, ignored if {@link CarStateBuffer#NONE}
+     * @param iTarget the target floor to display, ignored if {@link CarStateBuffer#NONE}
+     */
+    public void updateValues(int iFloor, int iTarget) {
         ProgramSettings settings = ProgramSettings.getInstance();
 
-        if (settings.isDisplayFloorNumber()) {
-            lblCurrentFloor.setText(Integer.toString(iCurrentFloor + iDirection));
-        }
+        if (iFloor != CarStateBuffer.NONE) {
+            if (settings.isDisplayFloorNumber()) {
+                lblCurrentFloor.setText(Integer.toString(iFloor));
+            }
 
-        if (settings.isFloorSliderDisplay()) {
-            floorSliderDisplay.setValue(iCurrentFloor + iDirection);
+            if (settings.isFloorSliderDisplay()) {
+                floorSliderDisplay.setValue(iFloor);
+            }
         }
 
         if (settings.isDisplayTarget()) {
-            if (currentTarget != null) {
-                lblTargetFloor.setText(Integer.toString(currentTarget.getFloor()));
+            if (iTarget != CarStateBuffer.NONE) {
+                lblTargetFloor.setText(Integer.toString(iTarget));
             }
         }
     }
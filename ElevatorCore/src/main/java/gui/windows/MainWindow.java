@@ -33,16 +33,20 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.border.Border;
 import javax.swing.border.TitledBorder;
 
+import engine.CarStateBuffer;
 import engine.ElevatorEvent;
 import engine.ElevatorEvent.Kind;
 import engine.EventsManager;
+import engine.clock.SimulationClock;
 import properties.InstanceFactory;
 import properties.ProgramSettings;
 import simulator.ElevatorSimulator;
+import simulator.controllers.AbstractController;
 import simulator.model.Elevator;
 
 /**
@@ -58,6 +62,8 @@ public class MainWindow {
     private ArrayList<DisplayPanel> lDisplayPanels = ProgramSettings.createElevatorsList(DisplayPanel.class);
     private ArrayList<ControlPanel> lControlPanels = ProgramSettings.createElevatorsList(ControlPanel.class);
     private ArrayList<JScrollPane> lScrollPanes = ProgramSettings.createElevatorsList(JScrollPane.class);
+    private CarStateBuffer carStates = new CarStateBuffer(Math.max(1, ProgramSettings.getInstance().getElevators()));
+    private RenderLoop renderLoop;
 
     /**
      * Creates an instance.
@@ -100,6 +106,15 @@ public class MainWindow {
         return frame;
     }
 
+    /**
+     * Returns the buffer of car states rendered by this window.
+     * 
+     * @return the car states
+     */
+    public CarStateBuffer getCarStates() {
+        return carStates;
+    }
+
     /**
      * @return the lElevatorPanels
      */
@@ -218,6 +233,8 @@ public class MainWindow {
 
         frame.setVisible(true);
 
+        renderLoop = new RenderLoop(this, carStates);
+        renderLoop.start();
     }
 
     public ScrollPanel createTopArea() {
@@ -348,38 +365,40 @@ public class MainWindow {
         // disable buttons so that no further elevator call on the same floor
         // can happen during door opening/closing
         if (pnlElevator.getCallButtons().size() != 0) {
-            if (ProgramSettings.getInstance().isSynchronized()) {
-                setFloorButtonsEnabled(iTargetIndex, false);
-                highlightFloorButtons(iTargetIndex, false, 0);
-                if (InstanceFactory.isOuterArrowButton()) {
-                    highlightFloorButtons(iTargetIndex, false, 1);
-                }
-            } else { // remove highlight
-                pnlElevator.getCallButtons().get(iTargetIndex).setEnabled(false);
-                if (InstanceFactory.isOuterArrowButton()) {
-                    pnlElevator.getCallButtons().get(iTargetIndex).setHighlight(0, false);
-                    pnlElevator.getCallButtons().get(iTargetIndex).setHighlight(1, false);
-                } else {
-                    pnlElevator.getCallButtons().get(iTargetIndex).setHighlight(false);
+            invokeOnEdt(() -> {
+                if (ProgramSettings.getInstance().isSynchronized()) {
+                    setFloorButtonsEnabled(iTargetIndex, false);
+                    highlightFloorButtons(iTargetIndex, false, 0);
+                    if (InstanceFactory.isOuterArrowButton()) {
+                        highlightFloorButtons(iTargetIndex, false, 1);
+                    }
+                } else { // remove highlight
+                    pnlElevator.getCallButtons().get(iTargetIndex).setEnabled(false);
+                    if (InstanceFactory.isOuterArrowButton()) {
+                        pnlElevator.getCallButtons().get(iTargetIndex).setHighlight(0, false);
+                        pnlElevator.getCallButtons().get(iTargetIndex).setHighlight(1, false);
+                    } else {
+                        pnlElevator.getCallButtons().get(iTargetIndex).setHighlight(false);
+                    }
                 }
-            }
 
-            // Removes highlights in status panel and disables buttons
-            pnlControls.getButtons().get(iTargetIndex).setHighlight(false);
-            pnlControls.getButtons().get(iTargetIndex).setEnabled(false);
+                // Removes highlights in status panel and disables buttons
+                pnlControls.getButtons().get(iTargetIndex).setHighlight(false);
+                pnlControls.getButtons().get(iTargetIndex).setEnabled(false);
+            });
 
             ProgramSettings settings = ProgramSettings.getInstance();
+            SimulationClock clock = settings.getSimulationClock();
 
             try {
                 // Animate opening of doors
                 changeImage("../../doorsOpening.gif", iControllerIndex);
-                EventsManager.ELEVATORS
-                                .sendEvent(new ElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_OPENING));
-                Thread.sleep(settings.getDoorOpeningDelay());
+                sendElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_OPENING);
+                clock.sleep(settings.getDoorOpeningDelay());
 
                 // single image displaying opened doors
                 changeImage("../../doorsOpened.gif", iControllerIndex);
-                EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_OPEN));
+                sendElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_OPEN);
             } catch (InterruptedException e) {
             }
         }
@@ -400,54 +419,69 @@ public class MainWindow {
         if (pnlElevator.getCallButtons().size() != 0) {
             Elevator elevator = ElevatorSimulator.getInstance().getController(iControllerIndex).getElevator();
             ProgramSettings settings = ProgramSettings.getInstance();
+            SimulationClock clock = settings.getSimulationClock();
 
             try {
                 // wait maximum closing delay before closing the doors. Cancel
                 // if door button is pressed
-                final int closingDelay = settings.getMaxDoorClosingDelay();
-                for (int i = 1; i <= closingDelay; i++) {
-                    Thread.sleep(1);
-                    if (elevator.isCloseDoorsNow()) {
-                        break;
-                    }
-                }
+                elevator.awaitCloseDoorsNow(clock, settings.getMaxDoorClosingDelay());
 
                 // if doors shall remain open, wait until doors shall be closed
                 // through button
-                while (elevator.isKeepDoorsOpen() && !elevator.isCloseDoorsNow()) {
-                    Thread.sleep(1);
-                }
+                elevator.awaitDoorsReleased(clock);
 
                 changeImage("../../doorsClosing.gif", iControllerIndex);
-                EventsManager.ELEVATORS
-                                .sendEvent(new ElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_CLOSING));
-                Thread.sleep(settings.getDoorClosingDelay());
+                sendElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_CLOSING);
+                clock.sleep(settings.getDoorClosingDelay());
 
                 changeImage("../../doorsClosed.gif", iControllerIndex);
-                EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_CLOSED));
+                sendElevatorEvent(iControllerIndex, iTargetIndex, Kind.DOORS_CLOSED);
             } catch (InterruptedException e) {
 
             }
 
-            pnlControls.getButtons().get(iTargetIndex).setEnabled(true);
+            invokeOnEdt(() -> {
+                pnlControls.getButtons().get(iTargetIndex).setEnabled(true);
 
-            // re-enable buttons
-            if (ProgramSettings.getInstance().isSynchronized()) {
-                setFloorButtonsEnabled(iTargetIndex, true);
-            } else {
-                if (pnlElevator.getCallButtons().size() != 0) {
-                    pnlElevator.getCallButtons().get(iTargetIndex).setEnabled(true);
+                // re-enable buttons
+                if (ProgramSettings.getInstance().isSynchronized()) {
+                    setFloorButtonsEnabled(iTargetIndex, true);
+                } else {
+                    if (pnlElevator.getCallButtons().size() != 0) {
+                        pnlElevator.getCallButtons().get(iTargetIndex).setEnabled(true);
+                    }
                 }
-            }
 
-            if (ProgramSettings.getInstance().isOuterviewEmergency()) {
+                if (ProgramSettings.getInstance().isOuterviewEmergency()) {
 
-                if (ProgramSettings.getInstance().isSynchronized()) {
-                    activateEmergencyButtons(iTargetIndex, false);
-                } else {
-                    pnlElevator.getEmergencyButtons().get(iTargetIndex).setActivated(false);
+                    if (ProgramSettings.getInstance().isSynchronized()) {
+                        activateEmergencyButtons(iTargetIndex, false);
+                    } else {
+                        pnlElevator.getEmergencyButtons().get(iTargetIndex).setActivated(false);
+                    }
                 }
-            }
+            });
+        }
+    }
+
+    /**
+     * Sends a door event while holding the writer token of the respective controller, i.e., the controller handles
+     * the event before the engine goes on, even if the controller has a mailbox executor.
+     * 
+     * @param iControllerIndex
+     *            elevator controller index
+     * @param iTargetIndex
+     *            current Floor of the elevator
+     * @param kind
+     *            the event kind
+     */
+    private void sendElevatorEvent(int iControllerIndex, int iTargetIndex, Kind kind) {
+        AbstractController controller = ElevatorSimulator.getInstance().getController(iControllerIndex);
+        controller.beginUpdate();
+        try {
+            EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(iControllerIndex, iTargetIndex, kind));
+        } finally {
+            controller.endUpdate();
         }
     }
 
@@ -462,7 +496,22 @@ public class MainWindow {
     private void changeImage(String path, int iControllerIndex) {
         Icon icon = new ImageIcon(getClass().getResource(path));
         ElevatorPanel panel = getElevatorPanel(iControllerIndex);
-        panel.getElevatorImage().setIcon(icon);
+        invokeOnEdt(() -> panel.getElevatorImage().setIcon(icon));
+    }
+
+    /**
+     * Performs a component update on the event dispatch thread, directly if called there, else queued without
+     * waiting, i.e., engine threads are not blocked by the GUI. Updates queued by one thread are performed in order.
+     * 
+     * @param update
+     *            the update
+     */
+    public static void invokeOnEdt(Runnable update) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeLater(update);
+        }
     }
 
     /**
@@ -527,7 +576,12 @@ public class MainWindow {
      * Closes the window.
      */
     public void close() {
-        frame.dispose();
+        if (null != renderLoop) { // null if creating the window failed
+            renderLoop.stop();
+        }
+        if (null != frame) {
+            frame.dispose();
+        }
         instance = null;
     }
 
@@ -0,0 +1,134 @@
+package gui.windows;
+
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Arrays;
+
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.Timer;
+
+import engine.CarStateBuffer;
+import gui.views.inside.DisplayPanel;
+import properties.ProgramSettings;
+import simulator.model.Motion;
+
+/**
+ * Renders the car states published by the engines into a {@link CarStateBuffer} at a fixed frame rate on the event
+ * dispatch thread. Car images are placed according to the position of the published {@link Motion run} at the 
+ * current simulated time, i.e., cars move smoothly although the engines only wake up for sensor events. Only 
+ * components whose values changed since the last frame are updated, i.e., Swing repaints only the old and new bounds
+ * of moved car images.
+ *
+ * @author SSE
+ */
+public class RenderLoop implements ActionListener {
+
+    /**
+     * The frame rate in frames per second.
+     */
+    public static final int FRAME_RATE = 60;
+
+    private static final int VALUES = 4; // position, floor, target, direction
+
+    private final MainWindow mw;
+    private final CarStateBuffer buffer;
+    private final int[] rendered;
+    private final Timer timer;
+
+    /**
+     * Creates a render loop.
+     *
+     * @param mw the main window to render into
+     * @param buffer the buffer to sample
+     */
+    public RenderLoop(MainWindow mw, CarStateBuffer buffer) {
+        this.mw = mw;
+        this.buffer = buffer;
+        this.rendered = new int[buffer.getCars() * VALUES];
+        Arrays.fill(rendered, CarStateBuffer.NONE);
+        this.timer = new Timer(1000 / FRAME_RATE, this);
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Starts rendering.
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops rendering.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent evt) {
+        long now = ProgramSettings.getInstance().getSimulationClock().currentTimeMillis();
+        for (int car = 0; car < buffer.getCars(); car++) {
+            render(car, now);
+        }
+    }
+
+    /**
+     * Renders the changed values of a car.
+     *
+     * @param car the car index
+     * @param now the current simulated time
+     */
+    private void render(int car, long now) {
+        ProgramSettings settings = ProgramSettings.getInstance();
+        int pos = car * VALUES;
+        int direction = buffer.getDirection(car);
+        int y = buffer.getOrigin(car);
+        Motion motion = buffer.getMotion(car);
+        if (CarStateBuffer.NONE != y && null != motion) {
+            y -= (int) Math.round(motion.getPosition(now) * settings.getFloorsHeight() 
+                / motion.getProfile().getFloorHeight());
+        }
+        if (y != rendered[pos]) {
+            JLabel image = mw.getElevatorPanel(car).getElevatorImage();
+            image.setLocation(image.getX(), y);
+            if (settings.isAutoscroll()) {
+                scrollWithElevator(car, y, direction);
+            }
+            rendered[pos] = y;
+        }
+        DisplayPanel displays = mw.getDisplayPanel(car);
+        int floor = buffer.getFloor(car);
+        int target = buffer.getTarget(car);
+        if (floor != rendered[pos + 1] || target != rendered[pos + 2]) {
+            displays.updateValues(floor, target);
+            rendered[pos + 1] = floor;
+            rendered[pos + 2] = target;
+        }
+        if (direction != rendered[pos + 3]) {
+            if (settings.isDisplayDirection()) {
+                displays.changeImageDirection(direction);
+            }
+            rendered[pos + 3] = direction;
+        }
+    }
+
+    /**
+     * Scrolls scrollbar with elevator. When the elevator leaves the viewpoint, the scrollbar shall follow.
+     *
+     * @param car the car index
+     * @param y the top position of the car image
+     * @param direction the direction of the car
+     */
+    private void scrollWithElevator(int car, int y, int direction) {
+        JScrollPane jscroll = mw.getScrollPane(car);
+        JViewport viewport = jscroll.getViewport();
+        int viewY = viewport.getViewPosition().y;
+        if ((direction == 1 && y < viewY) || (direction == -1 && y > viewY + 500)) {
+            viewport.setViewPosition(new Point(1, viewY - (direction * jscroll.getHeight())));
+        }
+    }
+
+}
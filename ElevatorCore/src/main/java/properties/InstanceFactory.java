@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 
+import engine.scenario.ScenarioContext;
 import gui.buttons.DefaultButton;
 import gui.buttons.ElevatorOuterArrowButton;
 import gui.buttons.ElevatorOuterButton;
@@ -104,7 +105,7 @@ public abstract class InstanceFactory {
      * @return the elevator controller
      */
     public static AbstractController createController(int iElevatorIndex) {
-        return INSTANCE.createControllerInstance(iElevatorIndex);
+        return getInstance().createControllerInstance(iElevatorIndex);
     }
     
     /**
@@ -115,7 +116,18 @@ public abstract class InstanceFactory {
      * @return the multi-elevator controller
      */
     public static AbstractMultiController createMultiController(ArrayList<AbstractController> lControllers) {
-        return INSTANCE.createMultiControllerInstance(lControllers);
+        return getInstance().createMultiControllerInstance(lControllers);
+    }
+
+    /**
+     * Returns the instance to be used for creating controllers, the factory of the {@link ScenarioContext#current()
+     * current scenario context} if there is one.
+     * 
+     * @return the instance
+     */
+    private static InstanceFactory getInstance() {
+        ScenarioContext context = ScenarioContext.current();
+        return null == context || null == context.getFactory() ? INSTANCE : context.getFactory();
     }
 
 }
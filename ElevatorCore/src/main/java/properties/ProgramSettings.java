@@ -2,7 +2,11 @@ package properties;
 
 import java.util.ArrayList;
 
+import engine.EngineMode;
+import engine.clock.SimulationClock;
+import engine.scenario.ScenarioContext;
 import simulator.controllers.AbstractMultiController;
+import simulator.model.MotionProfile;
 
 /**
  * Provides relevant configuration settings. Before starting the Elevator simulator, set your implementation
@@ -26,12 +30,15 @@ public abstract class ProgramSettings {
     }
     
     /**
-     * Returns the singleton instance of this class.
+     * Returns the singleton instance of this class, the settings of the {@link ScenarioContext#current() current
+     * scenario context} if there is one. As resolving the context requires a thread local lookup, simulation code
+     * shall obtain the settings once at construction rather than per call.
      * 
      * @return the singleton settings instance
      */
     public static ProgramSettings getInstance() {
-        return INSTANCE;
+        ScenarioContext context = ScenarioContext.current();
+        return null == context ? INSTANCE : context.getSettings();
     }
 
     /**
@@ -186,6 +193,24 @@ public abstract class ProgramSettings {
         return 800;
     }
 
+    /**
+     * Returns the clock all simulation delays (elevator moves, door handling) go through.
+     * 
+     * @return the clock, by default {@link SimulationClock#realTime() real time}
+     */
+    public SimulationClock getSimulationClock() {
+        return SimulationClock.realTime();
+    }
+
+    /**
+     * Returns the threading mode of the elevator engines.
+     * 
+     * @return the mode, by default {@link EngineMode#AUTO}, i.e., virtual threads if supported by the runtime
+     */
+    public EngineMode getEngineMode() {
+        return EngineMode.AUTO;
+    }
+
     // ------------------------- simulation program ------------------------
     
     /**
@@ -208,7 +233,37 @@ public abstract class ProgramSettings {
      * @see #getFloorsHeight()
      */
     public static int getTotalHeight(int iFloor) {
-        return iFloor * INSTANCE.getFloorsHeight();
+        return iFloor * getInstance().getFloorsHeight();
+    }
+
+    /**
+     * Creates the motion profile of the cars according to the {@link #getInstance() current settings}.
+     * 
+     * @return the profile
+     * @see #createMotionProfile(ProgramSettings)
+     */
+    public static MotionProfile createMotionProfile() {
+        return createMotionProfile(getInstance());
+    }
+
+    /**
+     * Creates the motion profile of the cars. The velocity limit corresponds to {@link #getElevatorsSpeed()} ms per
+     * pixel of {@link #getFloorsHeight()}. Cars move with constant velocity unless {@link #isAccelerated()}.
+     * 
+     * @param settings the settings to create the profile for
+     * @return the profile
+     */
+    public static MotionProfile createMotionProfile(ProgramSettings settings) {
+        double height = MotionProfile.DEFAULT_FLOOR_HEIGHT;
+        double velocity = height * 1000.0 / ((double) settings.getElevatorsSpeed() * settings.getFloorsHeight());
+        MotionProfile result;
+        if (settings.isAccelerated()) {
+            result = new MotionProfile(height, velocity, MotionProfile.DEFAULT_ACCELERATION, 
+                MotionProfile.DEFAULT_JERK);
+        } else {
+            result = MotionProfile.constant(height, velocity);
+        }
+        return result;
     }
 
 }
@@ -6,6 +6,10 @@ import properties.ProgramSettings;
 
 import java.util.ArrayList;
 
+import engine.ElevatorEngine;
+import engine.metrics.CarMetrics;
+import engine.metrics.EngineMetrics;
+import engine.metrics.MetricsRegistry;
 import simulator.controllers.AbstractController;
 import simulator.controllers.AbstractMultiController;
 
@@ -20,6 +24,7 @@ public class ElevatorSimulator {
 
     private ArrayList<AbstractController> lControllers;
     private AbstractMultiController multiController;
+    private CarMetrics carMetrics;
 
     /**
      * Creates the simulator. Prevents external creation.
@@ -48,6 +53,15 @@ public class ElevatorSimulator {
         return multiController;
     }
 
+    /**
+     * Returns the car metrics, which are also registered in the {@link MetricsRegistry#getInstance() global registry}.
+     * 
+     * @return the car metrics
+     */
+    public CarMetrics getCarMetrics() {
+        return carMetrics;
+    }
+
     /**
      * Returns the singleton instance of the simulator.
      * 
@@ -74,12 +88,42 @@ public class ElevatorSimulator {
         final int elevators = ProgramSettings.getInstance().getElevators();
         lControllers = new ArrayList<AbstractController>();
         for (int i = 0; i < elevators; i++) {
-            lControllers.add(InstanceFactory.createController(i));
+            AbstractController controller = InstanceFactory.createController(i);
+            controller.setMailboxExecutor(ElevatorEngine.getMailboxExecutor());
+            lControllers.add(controller);
         }
+        carMetrics = new CarMetrics(elevators, 
+            () -> ProgramSettings.getInstance().getSimulationClock().currentTimeMillis());
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        carMetrics.register(registry, "");
+        EngineMetrics.registerControllers(registry, "", lControllers);
+        registry.registerMBean();
 
         if (ProgramSettings.getInstance().isSynchronized() && elevators > 1) {
             this.multiController = InstanceFactory.createMultiController(lControllers);
+            if (multiController.getTickInterval() > 0) {
+                startTicks();
+            }
         }
     }
 
+    /**
+     * Starts a daemon thread calling {@link AbstractMultiController#tick()} in the requested interval on the
+     * simulation clock.
+     */
+    private void startTicks() {
+        Thread ticker = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    ProgramSettings.getInstance().getSimulationClock().sleep(multiController.getTickInterval());
+                    multiController.tick();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "MultiControllerTicks");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
 }
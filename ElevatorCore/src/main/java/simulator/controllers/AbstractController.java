@@ -1,18 +1,39 @@
 package simulator.controllers;
 
-import java.util.ArrayList;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import simulator.model.ControllerState;
 import simulator.model.Elevator;
 import simulator.model.Request;
+import simulator.model.RequestTable;
+import engine.ElevatorDriver;
 import engine.ElevatorEngine;
+import engine.clock.SimulationClock;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
 import properties.ProgramSettings;
 
 /**
  * An abstract elevator controller with priority queue.
  * 
+ * The target state (current request, update and priority call flags) is kept in an immutable 
+ * {@link ControllerState} that is replaced atomically on each change. Modifications of the controller are 
+ * serialized by a single-writer token: the engine holds the token while calling the controller methods (see 
+ * {@link #beginUpdate()}), other threads, e.g., the Swing EDT or a multi-elevator controller, 
+ * {@link #submit(Runnable) submit} their commands into the mailbox of the controller, which are executed 
+ * immediately if the token is free or else by the token holder when it releases the token. With a 
+ * {@link #setMailboxExecutor(Executor) mailbox executor}, the mailbox is processed like an actor, i.e., serially
+ * on a (shared) executor instead of the submitting threads. The request table is
+ * only accessed by the token holder; when releasing the token after modifications, an immutable copy of the table
+ * is published for all other threads, see {@link #getRequests()}.
+ * 
  * @author SSE
  */
 public abstract class AbstractController {
@@ -20,14 +41,24 @@ public abstract class AbstractController {
     private int iElevator;
     private ConcurrentLinkedQueue<Request> clqPriorityQueue = new ConcurrentLinkedQueue<Request>();
     private ConcurrentLinkedQueue<Integer> clqDeletionQueue = new ConcurrentLinkedQueue<Integer>();    
-    private boolean hasPriorityCall = false;
-    private Thread simuThread = null;
-    private ArrayList<Request> lRequestList = new ArrayList<Request>();
-    private Request currentRequest = null;
-    private ArrayList<Boolean> lIgnoreList = new ArrayList<Boolean>();
-    private boolean updateNecessary = false;
+    private volatile Thread simuThread = null;
+    private final AtomicBoolean engineRunning = new AtomicBoolean();
+    private final Runnable engineTask = this::runEngine;
+    private ElevatorEngine engine; // created on first run, reused
+    private RequestTable requestTable;
+    private volatile RequestTable publishedRequests;
+    private final ProgramSettings settings;
+    private final AtomicReference<ControllerState> state = new AtomicReference<>(ControllerState.INITIAL);
+    private final ConcurrentLinkedQueue<Runnable> mailbox = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicReference<Thread> writer = new AtomicReference<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainTask = this::drainMailbox;
+    private volatile Executor mailboxExecutor;
+    private int writerHolds; // accessed by the writer only
     private Elevator eElevator = new Elevator();
-    private int baseY = -1; // initialize by engine on first run
+    private ElevatorDriver driver;
+    private final ReentrantLock doorLock = new ReentrantLock();
+    private final Condition doorActionChanged = doorLock.newCondition();
     
     /**
      * Creates a controller instance.
@@ -36,11 +67,19 @@ public abstract class AbstractController {
      */
     protected AbstractController(int iElevator) {
         this.iElevator = iElevator;
-        final int floors = ProgramSettings.getInstance().getFloors();
-        for (int i = 0; i <= floors; i++) {
-            lRequestList.add(null);            
-            lIgnoreList.add(false);
-        }
+        settings = ProgramSettings.getInstance();
+        requestTable = new RequestTable(settings.getFloors() + 1);
+        publishedRequests = requestTable.copy();
+    }
+
+    /**
+     * Returns the settings this controller was created for. Shall be used instead of
+     * {@link ProgramSettings#getInstance()} while simulating.
+     * 
+     * @return the settings
+     */
+    protected final ProgramSettings getSettings() {
+        return settings;
     }
     
     /**
@@ -132,6 +171,24 @@ public abstract class AbstractController {
         return clqPriorityQueue.isEmpty();
     }
     
+    /**
+     * Returns the number of targets in the priority queue, e.g., for monitoring. Takes linear time.
+     * 
+     * @return the number of targets
+     */
+    public int getPriorityQueueSize() {
+        return clqPriorityQueue.size();
+    }
+    
+    /**
+     * Returns the number of floors in the deletion queue, e.g., for monitoring. Takes linear time.
+     * 
+     * @return the number of floors
+     */
+    public int getDeletionQueueSize() {
+        return clqDeletionQueue.size();
+    }
+    
     /**
      * Returns whether the deletion queue contains the given floor.
      * 
@@ -160,7 +217,7 @@ public abstract class AbstractController {
      * @return {@code true} if there is a priority call, {@code false} else
      */
     public final boolean hasPriorityCall() {
-        return hasPriorityCall;
+        return state.get().hasPriorityCall();
     }
     
     /**
@@ -169,7 +226,10 @@ public abstract class AbstractController {
      * @param hasPriorityCall {@code true} if there is a priority call, {@code false} else
      */
     protected void setHasPriorityCall(boolean hasPriorityCall) {
-        this.hasPriorityCall = hasPriorityCall;
+        ControllerState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withPriorityCall(hasPriorityCall)));
     }
 
     /**
@@ -178,7 +238,7 @@ public abstract class AbstractController {
      * @return {code true} if there is a request, {@code false} else
      */
     public final boolean hasCurrentRequest() {
-        return currentRequest != null;
+        return state.get().getCurrentRequest() != null;
     }
     
     /**
@@ -187,7 +247,7 @@ public abstract class AbstractController {
      * @return the current request, may be <b>null</b> for none
      */
     public final Request getCurrentRequest() {
-        return currentRequest;
+        return state.get().getCurrentRequest();
     }
 
     /**
@@ -198,7 +258,7 @@ public abstract class AbstractController {
      * @see #hasCurrentRequest()
      */
     public final int getCurrentRequestedFloor() {
-        return currentRequest.getFloor();
+        return state.get().getCurrentRequest().getFloor();
     }
 
     /**
@@ -207,40 +267,258 @@ public abstract class AbstractController {
      * @param request the request to set, may be <b>null</b> for none
      */
     protected final void setCurrentRequest(Request request) {
-        this.currentRequest = request;
+        ControllerState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withCurrentRequest(request)));
+    }
+    
+    /**
+     * Returns a consistent snapshot of the target state.
+     * 
+     * @return the state
+     */
+    public final ControllerState getState() {
+        return state.get();
+    }
+
+    /**
+     * Writes the state of this controller and its elevator into a snapshot while holding the writer token. Shall
+     * only be called while the engine of this controller is not running, e.g., from the thread of a headless
+     * simulation.
+     * 
+     * @param out the snapshot writer
+     * @see #writeState(SnapshotWriter)
+     */
+    public final void saveState(SnapshotWriter out) {
+        beginUpdate();
+        try {
+            writeState(out);
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Replaces the state of this controller and its elevator by the state written by 
+     * {@link #saveState(SnapshotWriter)} while holding the writer token. Shall only be called while the engine of 
+     * this controller is not running.
+     * 
+     * @param in the snapshot reader
+     * @see #readState(SnapshotReader)
+     */
+    public final void restoreState(SnapshotReader in) {
+        beginUpdate();
+        try {
+            readState(in);
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Writes the priority queue, the deletion queue, the request table, the target state and the elevator. 
+     * Controllers with own state shall override this method and {@link #readState(SnapshotReader)} and call the 
+     * super implementation first.
+     * 
+     * @param out the snapshot writer
+     */
+    protected void writeState(SnapshotWriter out) {
+        out.writeInt(clqPriorityQueue.size());
+        for (Request request : clqPriorityQueue) {
+            out.writeRequest(request);
+        }
+        out.writeInt(clqDeletionQueue.size());
+        for (Integer floor : clqDeletionQueue) {
+            out.writeInt(floor);
+        }
+        requestTable.writeState(out);
+        ControllerState s = state.get();
+        out.writeRequest(s.getCurrentRequest());
+        out.writeBoolean(s.isUpdateNecessary());
+        out.writeBoolean(s.hasPriorityCall());
+        eElevator.writeState(out);
+    }
+
+    /**
+     * Reads the state written by {@link #writeState(SnapshotWriter)}.
+     * 
+     * @param in the snapshot reader
+     */
+    protected void readState(SnapshotReader in) {
+        clqPriorityQueue.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            clqPriorityQueue.add(in.readRequest());
+        }
+        clqDeletionQueue.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            clqDeletionQueue.add(in.readInt());
+        }
+        requestTable.readState(in);
+        state.set(ControllerState.INITIAL
+            .withCurrentRequest(in.readRequest())
+            .withUpdateNecessary(in.readBoolean())
+            .withPriorityCall(in.readBoolean()));
+        eElevator.readState(in);
+    }
+
+    /**
+     * Executes a command modifying this controller, e.g., adding a request from the Swing EDT. If the calling thread
+     * holds the writer token, the command is executed immediately. Else, the command is queued into the mailbox, 
+     * which is drained by the {@link #setMailboxExecutor(Executor) mailbox executor} if set, else immediately on the
+     * calling thread if the token is free. If the token is held, the token holder executes the command when 
+     * releasing the token, i.e., commands never block and are executed in submission order without interfering 
+     * with the engine.
+     * 
+     * @param command the command
+     */
+    public final void submit(Runnable command) {
+        Thread current = Thread.currentThread();
+        if (writer.get() == current) {
+            command.run();
+        } else {
+            mailbox.add(command);
+            Executor executor = mailboxExecutor;
+            if (null != executor) {
+                if (drainScheduled.compareAndSet(false, true)) {
+                    executor.execute(drainTask);
+                }
+            } else if (writer.compareAndSet(null, current)) {
+                writerHolds = 1;
+                endUpdate(); // drains the mailbox
+            }
+        }
+    }
+
+    /**
+     * Drains the mailbox on the mailbox executor unless the writer token is held. Then, the token holder drains the
+     * mailbox when releasing the token, i.e., the executor thread never waits.
+     */
+    private void drainMailbox() {
+        drainScheduled.set(false);
+        if (!mailbox.isEmpty() && writer.compareAndSet(null, Thread.currentThread())) {
+            writerHolds = 1;
+            endUpdate();
+        }
+    }
+
+    /**
+     * Changes the executor draining the mailbox. As commands never block, the executor may be a small bounded pool
+     * shared by all controllers; the commands of a controller are still executed serially.
+     * 
+     * @param executor the executor, <b>null</b> for draining on the submitting threads (default, deterministic for
+     *     headless simulations)
+     */
+    public final void setMailboxExecutor(Executor executor) {
+        mailboxExecutor = executor;
+    }
+
+    /**
+     * Returns the executor draining the mailbox.
+     * 
+     * @return the executor, <b>null</b> for draining on the submitting threads
+     */
+    public final Executor getMailboxExecutor() {
+        return mailboxExecutor;
+    }
+
+    /**
+     * Submits adding a request.
+     * 
+     * @param target the target
+     * @see #submit(Runnable)
+     * @see #addRequest(Request)
+     */
+    public final void submitRequest(Request target) {
+        submit(() -> addRequest(target));
+    }
+
+    /**
+     * Acquires the writer token, e.g., before the engine calls {@link #simulate()}. Waits (spinning) while another
+     * thread executes submitted commands, which takes only short. Reentrant. Shall be followed by 
+     * {@link #endUpdate()}.
+     */
+    public final void beginUpdate() {
+        Thread current = Thread.currentThread();
+        if (writer.get() == current) {
+            writerHolds++;
+        } else {
+            while (!writer.compareAndSet(null, current)) {
+                Thread.onSpinWait();
+            }
+            writerHolds = 1;
+        }
+    }
+
+    /**
+     * Releases the writer token acquired by {@link #beginUpdate()}. Executes the commands submitted meanwhile before.
+     */
+    public final void endUpdate() {
+        if (writerHolds > 1) {
+            writerHolds--;
+        } else {
+            try {
+                Runnable command = mailbox.poll();
+                while (null != command) {
+                    command.run();
+                    command = mailbox.poll();
+                }
+            } finally {
+                if (requestTable.getModifications() != publishedRequests.getModifications()) {
+                    publishedRequests = requestTable.copy();
+                }
+                writerHolds = 0;
+                writer.set(null);
+            }
+            if (!mailbox.isEmpty() && writer.compareAndSet(null, Thread.currentThread())) {
+                writerHolds = 1; // submitted after draining, before releasing
+                endUpdate();
+            }
+        }
     }
     
     /**
-     * Returns the simulation thread.
+     * Returns the thread currently running the engine of this controller.
      * 
-     * @return the simulation thread
+     * @return the simulation thread, <b>null</b> if the engine is not running
      */
     protected final Thread getSimuThread() {
         return simuThread;
     }
 
     /**
-     * Locks the request list for concurrent modifications and lets {@code consumer} operate on the request list.
+     * Returns the request table as seen by the calling thread, i.e., the table itself if the calling thread holds
+     * the writer token, else the immutable copy published when the token was released last. Thus, multi-elevator 
+     * controllers and the engine read a consistent table without locking.
+     * 
+     * @return the table, read-only unless the calling thread holds the writer token
+     * @see RequestTable#copy()
+     */
+    public final RequestTable getRequests() {
+        return writer.get() == Thread.currentThread() ? requestTable : publishedRequests;
+    }
+
+    /**
+     * Lets {@code consumer} operate on the request table as the writer of this controller, i.e., the consumer is
+     * {@link #submit(Runnable) submitted} and may modify the table.
      * 
      * @param consumer the consumer
      */
-    public final void lockRequestList(Consumer<ArrayList<Request>> consumer) {
-        synchronized(lRequestList) {
-            consumer.accept(lRequestList);
-        }
+    public final void lockRequestList(Consumer<RequestTable> consumer) {
+        submit(() -> consumer.accept(requestTable));
     }
 
     /**
-     * Locks the request list for concurrent modifications and lets {@code function} operate on the request list, 
-     * returning the result of {@code function}.
+     * Lets {@code function} operate on the {@link #getRequests() request table}, returning the result of 
+     * {@code function}. Threads not holding the writer token operate on the published copy, i.e., modifications 
+     * are only possible for the writer.
      * 
      * @param function the function to execute
      * @return the value of {@code function}
+     * @throws IllegalStateException if {@code function} modifies the published copy
      */
-    public final <R> R lockRequestList(Function<ArrayList<Request>, R> function) {
-        synchronized(lRequestList) {
-            return function.apply(lRequestList);
-        }
+    public final <R> R lockRequestList(Function<RequestTable, R> function) {
+        return function.apply(getRequests());
     }
     
     /**
@@ -248,9 +526,10 @@ public abstract class AbstractController {
      * 
      * @param iFloor the floor
      * @return the request, may be <b>null</b> for none
+     * @see #getRequests()
      */
     public Request getRequest(int iFloor) {
-        return lRequestList.get(iFloor);
+        return getRequests().get(iFloor);
     }
     
     /**
@@ -260,31 +539,71 @@ public abstract class AbstractController {
      * @return {@code true} for ignored, {@code false} for not ignored
      */
     public boolean isFloorIgnored(int iFloor) {
-        return lIgnoreList.get(iFloor);
+        return getRequests().isIgnored(iFloor);
     }
     
     /**
-     * Ignores the given floor or not.
+     * Ignores the given floor or not. The change is {@link #submit(Runnable) submitted}.
      * 
      * @param iFloor the floor to ignore
      * @param ignore {@code true} for ignore, {@code false} for not ignore
      */
     public final void ignoreFloor(int iFloor, boolean ignore) {
-        this.lIgnoreList.set(iFloor, ignore);
+        submit(() -> requestTable.setIgnored(iFloor, ignore));
     }
     
     /**
-     * Starts the simulation (thread).
+     * Returns the driver executing the engine loop for this controller.
+     * 
+     * @return the driver, <b>null</b> for the default {@link ElevatorEngine} thread
+     */
+    public final ElevatorDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Changes the driver executing the engine loop for this controller, e.g., to run the controller headless.
+     * 
+     * @param driver the driver, <b>null</b> for the default {@link ElevatorEngine} thread
+     */
+    public final void setDriver(ElevatorDriver driver) {
+        this.driver = driver;
+    }
+    
+    /**
+     * Starts the simulation. Passes control to the {@link #getDriver() driver} if set. Else, submits the (reused) 
+     * engine of this controller to the {@link ElevatorEngine#getExecutor() engine executor} unless it is already 
+     * running, i.e., bursts of calls do not create threads.
      */
     public final void startSimulation() {
-        if (simuThread == null || !simuThread.isAlive()) {
-            ElevatorEngine engine = new ElevatorEngine(this, baseY);
-            simuThread = new Thread(engine);
-            simuThread.start();
-            baseY = engine.getBaseY();
+        if (null != driver) {
+            driver.start(this);
+        } else if (engineRunning.compareAndSet(false, true)) {
+            ElevatorEngine.getExecutor().execute(engineTask);
         }
     }
 
+    /**
+     * Runs the engine until there is no current request anymore. Re-runs the engine if a request arrived while the
+     * engine was finishing, as {@link #startSimulation()} did not submit the engine again then.
+     */
+    private void runEngine() {
+        boolean again;
+        do {
+            simuThread = Thread.currentThread();
+            try {
+                if (null == engine) {
+                    engine = new ElevatorEngine(this, -1);
+                }
+                engine.run();
+            } finally {
+                simuThread = null;
+                engineRunning.set(false);
+            }
+            again = hasCurrentRequest() && engineRunning.compareAndSet(false, true);
+        } while (again);
+    }
+
     /**
      * Adds a priority call.
      * 
@@ -292,9 +611,11 @@ public abstract class AbstractController {
      */
     public final void addPriorityCall(int floor) {
         clqPriorityQueue.add(new Request(floor, 0));
-        if (currentRequest == null) {
-            processPriorityCall();
-        }
+        submit(() -> {
+            if (!hasCurrentRequest()) {
+                processPriorityCall();
+            }
+        });
         startSimulation();
     }
     
@@ -329,7 +650,7 @@ public abstract class AbstractController {
      * @see #updateTarget()
      */
     public final boolean isUpdateNecessary() {
-        return updateNecessary;
+        return state.get().isUpdateNecessary();
     }
     
     /**
@@ -338,7 +659,10 @@ public abstract class AbstractController {
      * @param updateNecessary the new state
      */
     protected void setUpdateNecessary(boolean updateNecessary) {
-        this.updateNecessary = updateNecessary;
+        ControllerState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withUpdateNecessary(updateNecessary)));
     }
 
     /**
@@ -374,9 +698,51 @@ public abstract class AbstractController {
         NONE
     }
     
+    /**
+     * Returns the door action. Subclasses returning changing door actions shall change them via 
+     * {@link #updateDoorAction(Runnable)} so that waiting threads are signaled.
+     * 
+     * @return the door action, {@link DoorAction#AUTO} by default
+     */
     public DoorAction getDoorAction() {
         return DoorAction.AUTO;
     }
+
+    /**
+     * Executes a change of the door action and signals threads waiting in 
+     * {@link #awaitDoorAction(DoorAction, SimulationClock, long)}.
+     * 
+     * @param update the change of the state {@link #getDoorAction()} is based on
+     */
+    protected final void updateDoorAction(Runnable update) {
+        doorLock.lock();
+        try {
+            update.run();
+            doorActionChanged.signalAll();
+        } finally {
+            doorLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks the calling thread until {@link #getDoorAction()} returns {@code action} or the given simulated time
+     * elapsed. Waits on a condition signaled by {@link #updateDoorAction(Runnable)}, i.e., without polling.
+     * 
+     * @param action the door action to wait for
+     * @param clock the simulation clock
+     * @param millis the maximum time to wait in simulated ms, negative for no timeout
+     * @return {@code true} if {@code action} is the actual door action, {@code false} if the time elapsed
+     * @throws InterruptedException if waiting is interrupted
+     */
+    public boolean awaitDoorAction(DoorAction action, SimulationClock clock, long millis) 
+        throws InterruptedException {
+        doorLock.lock();
+        try {
+            return clock.await(doorLock, doorActionChanged, () -> getDoorAction() == action, millis);
+        } finally {
+            doorLock.unlock();
+        }
+    }
     
     /**
      * Returns the signum of {@code value}, e.g., to turn a value into a direction.
@@ -7,13 +7,21 @@ import engine.ButtonEvent.ButtonEventObserver;
 import engine.EventsManager;
 import engine.FloorSensorEvent;
 import engine.FloorSensorEvent.FloorSensorEventObserver;
+import engine.clock.SimulationClock;
+import engine.scenario.ScenarioContext;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
 import simulator.model.Elevator;
 import simulator.model.Request;
 
 /**
  * Basic event-based elevator controller including basic event handling (passed on to controller methods),
  * and simple endless elevator move methods (for translating event handling to elevator requests). Disables
- * automatic door handling by default and provides methods to explicitly open/close the elevator doors.
+ * automatic door handling by default and provides methods to explicitly open/close the elevator doors. Door action
+ * changes are signaled to threads waiting in {@link #awaitDoorAction(DoorAction, SimulationClock, long)}. Button,
+ * sensor and door events are {@link #submit(Runnable) submitted} to the mailbox, i.e., they are handled serially.
+ * The engines send sensor and door events while holding the writer token, i.e., they are handled before the engine
+ * goes on; the simulation is started after a button event was handled.
  * 
  * @author SSE
  */
@@ -21,7 +29,7 @@ public abstract class AbstractEventBasedController extends AbstractController {
 
     private static boolean eventManagerCleaned = false;
     private boolean stop = false;
-    private DoorAction doorAction = DoorAction.NONE;
+    private volatile DoorAction doorAction = DoorAction.NONE;
 
     /**
      * Creates an instance.
@@ -32,47 +40,47 @@ public abstract class AbstractEventBasedController extends AbstractController {
      */
     protected AbstractEventBasedController(int index, boolean clearButtonObservers) {
         super(index);
-        if (!eventManagerCleaned && clearButtonObservers) {
+        ScenarioContext context = ScenarioContext.current();
+        if (clearButtonObservers && (null == context ? !eventManagerCleaned : !context.isButtonObserversCleared())) {
             EventsManager.BUTTONS.removeAllObservers();
-            eventManagerCleaned = true;
+            if (null == context) {
+                eventManagerCleaned = true;
+            } else {
+                context.setButtonObserversCleared();
+            }
         }
-        EventsManager.BUTTONS.addObserver(new ButtonEventObserver() {
+        // observers are routed per elevator, i.e., receive only events for this elevator
+        EventsManager.BUTTONS.addObserver(index, null, new ButtonEventObserver() {
 
             @Override
             public void notifyReceived(ButtonEvent event) {
-                if (event.getElevator() == index) {
+                submit(() -> {
                     buttonEventReceived(event);
-                    startSimulation(); // must be called once
-                }
+                    startSimulation(); // must be called once, after the handler set the current request
+                });
             }
 
         });
-        EventsManager.FLOOR_SENSORS.addObserver(new FloorSensorEventObserver() {
+        EventsManager.FLOOR_SENSORS.addObserver(index, null, new FloorSensorEventObserver() {
 
             @Override
             public void notifyReceived(FloorSensorEvent event) {
-                if (event.getElevator() == index) {
-                    floorSensorEventReceived(event);
-                }
+                submit(() -> floorSensorEventReceived(event));
             }
 
         });
-        EventsManager.ELEVATORS.addObserver(new ElevatorEventObserver() {
+        EventsManager.ELEVATORS.addObserver(index, null, new ElevatorEventObserver() {
             
             @Override
             public void notifyReceived(ElevatorEvent event) {
-                if (event.getElevator() == index) {
+                submit(() -> {
                     if (ElevatorEvent.Kind.DOORS_OPEN == event.getKind()) {
-                        if (DoorAction.OPEN == doorAction) {
-                            doorAction = DoorAction.NONE;
-                        }
+                        changeDoorAction(DoorAction.OPEN, DoorAction.NONE);
                     } else if (ElevatorEvent.Kind.DOORS_CLOSED == event.getKind()) {
-                        if (DoorAction.CLOSE == doorAction) {
-                            doorAction = DoorAction.NONE;
-                        }            
+                        changeDoorAction(DoorAction.CLOSE, DoorAction.NONE);
                     }
                     elevatorEventReceived(event);
-                }
+                });
             }
         });
     }
@@ -135,12 +143,32 @@ public abstract class AbstractEventBasedController extends AbstractController {
         }        
     }
     
+    /**
+     * Requests closing the doors.
+     */
     protected void closeDoors() {
-        doorAction = DoorAction.CLOSE;
+        changeDoorAction(null, DoorAction.CLOSE);
     }
     
+    /**
+     * Requests opening the doors.
+     */
     protected void openDoors() {
-        doorAction = DoorAction.OPEN;
+        changeDoorAction(null, DoorAction.OPEN);
+    }
+
+    /**
+     * Changes the door action and signals waiting threads.
+     * 
+     * @param expected the expected actual door action, <b>null</b> for any
+     * @param action the new door action
+     */
+    private void changeDoorAction(DoorAction expected, DoorAction action) {
+        updateDoorAction(() -> {
+            if (null == expected || expected == doorAction) {
+                doorAction = action;
+            }
+        });
     }
     
     /**
@@ -162,6 +190,20 @@ public abstract class AbstractEventBasedController extends AbstractController {
         this.stop = stop;
     }
 
+    @Override
+    protected void writeState(SnapshotWriter out) {
+        super.writeState(out);
+        out.writeBoolean(stop);
+        out.writeByte(doorAction.ordinal());
+    }
+
+    @Override
+    protected void readState(SnapshotReader in) {
+        super.readState(in);
+        stop = in.readBoolean();
+        changeDoorAction(null, DoorAction.values()[in.readByte()]);
+    }
+
     @Override
     public boolean simulate() {
         return false; // target found?
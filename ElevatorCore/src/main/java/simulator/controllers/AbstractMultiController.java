@@ -1,5 +1,11 @@
 package simulator.controllers;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
 import simulator.model.Request;
 
 /**
@@ -10,6 +16,11 @@ import simulator.model.Request;
  */
 public abstract class AbstractMultiController {
 
+    /**
+     * Denotes an unknown/pending car in an assignment plan.
+     */
+    public static final int UNASSIGNED = -1;
+
     /**
      * Adds the request, either here or directly to the specific controller.
      * 
@@ -38,4 +49,65 @@ public abstract class AbstractMultiController {
      */
     public abstract void addPriorityCall(int iControllerIndex, int iFloor, boolean insideElevator);
     
+    /**
+     * Assigns a batch of hall calls, e.g., the calls of a time window, and returns the assignment plan. Allows for
+     * assignment strategies that consider multiple calls jointly. The default implementation assigns the calls one by
+     * one via {@link #addRequest(Request, int, boolean)}, i.e., the target cars are not known.
+     * 
+     * @param calls the hall calls
+     * @return the assignment plan, the car index per call in iteration order of {@code calls},
+     *     {@link #UNASSIGNED} if not (yet) known
+     */
+    public Map<Request, Integer> assignCalls(Collection<Request> calls) {
+        Map<Request, Integer> plan = new LinkedHashMap<>();
+        for (Request call : calls) {
+            addRequest(call, 0, false);
+            plan.put(call, UNASSIGNED);
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the interval the engine shall call {@link #tick()} in.
+     * 
+     * @return the interval in (simulated) ms, {@code 0} for no ticks (default)
+     */
+    public long getTickInterval() {
+        return 0;
+    }
+
+    /**
+     * Called by the engine every {@link #getTickInterval()} ms, e.g., to reassign pending calls.
+     * 
+     * @return {@code true} if there are pending calls, i.e., further ticks are needed, {@code false} else (default)
+     */
+    public boolean tick() {
+        return false;
+    }
+
+    /**
+     * Writes the state of this controller into a snapshot. Controllers with own state shall override this method
+     * and {@link #readState(SnapshotReader)}. The default implementation writes nothing.
+     * 
+     * @param out the snapshot writer
+     */
+    public void writeState(SnapshotWriter out) {
+    }
+
+    /**
+     * Replaces the state of this controller by the state written by {@link #writeState(SnapshotWriter)}. Called
+     * after restoring the elevator controllers. The default implementation reads nothing.
+     * 
+     * @param in the snapshot reader
+     */
+    public void readState(SnapshotReader in) {
+    }
+
+    /**
+     * Unregisters this controller from the events, e.g., when the simulator is disposed. Controllers observing events
+     * shall override this method. The default implementation does nothing.
+     */
+    public void detach() {
+    }
+
 }
@@ -1,5 +1,7 @@
 package simulator.controllers;
 
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
 import simulator.model.Request;
 
 /**
@@ -128,20 +130,20 @@ public class DefaultEController extends AbstractController {
      */
     private boolean updateTarget(int iDir, boolean bAttendTargetDir) {
         return lockRequestList(lTargetList -> {
-            // search for target depending on direction
-            for (int i = getElevatorCurrentFloor(); i < lTargetList.size() && i >= 0
-                && getElevatorCurrentDirection() != 0; i += iDir) {
-                if (bAttendTargetDir) {
-                    if (lTargetList.get(i) != null && ((lTargetList.get(i).getDirection() == getElevatorCurrentDirection())
-                        || lTargetList.get(i).getDirection() == 0)) {
+            // search for target depending on direction, visiting only pending floors
+            if (getElevatorCurrentDirection() != 0) {
+                int i = getElevatorCurrentFloor();
+                i = iDir < 0 ? lTargetList.previousPending(i) : lTargetList.nextPending(i);
+                while (i >= 0 && (iDir != 0 || i == getElevatorCurrentFloor())) {
+                    if (!bAttendTargetDir || lTargetList.getDirection(i) == getElevatorCurrentDirection()
+                        || lTargetList.getDirection(i) == 0) {
                         setCurrentRequest(lTargetList.get(i));
                         return true;
                     }
-                } else {
-                    if (lTargetList.get(i) != null) {
-                        setCurrentRequest(lTargetList.get(i));
-                        return true;
+                    if (iDir == 0) {
+                        break;
                     }
+                    i = iDir < 0 ? lTargetList.previousPending(i - 1) : lTargetList.nextPending(i + 1);
                 }
             }
             return false;
@@ -194,4 +196,16 @@ public class DefaultEController extends AbstractController {
         return false;
     }
 
+    @Override
+    protected void writeState(SnapshotWriter out) {
+        super.writeState(out);
+        out.writeBoolean(bSameFloor);
+    }
+
+    @Override
+    protected void readState(SnapshotReader in) {
+        super.readState(in);
+        bSameFloor = in.readBoolean();
+    }
+
 }
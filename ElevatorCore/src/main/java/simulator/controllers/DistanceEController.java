@@ -1,5 +1,7 @@
 package simulator.controllers;
 
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
 import properties.ProgramSettings;
 import simulator.model.Request;
 
@@ -20,7 +22,7 @@ public class DistanceEController extends AbstractController {
      */
     public DistanceEController(int iElevator) {
         super(iElevator);
-        final int floors = ProgramSettings.getInstance().getFloors();
+        final int floors = getSettings().getFloors();
         iPriorityThreshold = floors / 2;
         setCurrentRequest(null);
     }
@@ -61,11 +63,7 @@ public class DistanceEController extends AbstractController {
                         processPriorityCall();
                     }
 
-                    for (int i = 0; i < lTargetList.size(); i++) {
-                        if (lTargetList.get(i) != null) {
-                            lTargetList.get(i).adjustPriority(iTravelledDistance);
-                        }
-                    }
+                    lTargetList.adjustPriorities(iTravelledDistance, -1);
                     updateTargetByPriority();
                     // if there is no target, stay here
                     if (!hasCurrentRequest()) {
@@ -100,11 +98,7 @@ public class DistanceEController extends AbstractController {
             }
 
             // actualize priorities
-            for (int i = 0; i < lTargetList.size(); i++) {
-                if (lTargetList.get(i) != null && i != target.getFloor()) {
-                    lTargetList.get(i).adjustPriority(iTravelledDistance);
-                }
-            }
+            lTargetList.adjustPriorities(iTravelledDistance, target.getFloor());
             iTravelledDistance = 0;
 
             // if there is no target, set this floor as target to move the elevator
@@ -125,13 +119,11 @@ public class DistanceEController extends AbstractController {
         if (!hasPriorityCall()) {
             if (!hasCurrentRequest()) {
                 return lockRequestList(lTargetList -> {
-                    for (int i = 0; i < lTargetList.size(); i++) {
-                        if (lTargetList.get(i) != null) {
-                            setCurrentRequest(lTargetList.get(i));
-                            return true;
-                        }
+                    int floor = lTargetList.nextPending(0);
+                    if (floor >= 0) {
+                        setCurrentRequest(lTargetList.get(floor));
                     }
-                    return false;
+                    return floor >= 0;
                 });
             } else {
                 return updateTargetByPriority();
@@ -151,13 +143,10 @@ public class DistanceEController extends AbstractController {
     private boolean updateTargetByPriority() {
         return lockRequestList(lTargetList -> {
             Request bestPriority = null;
-            // search for target with highest priority over threshold
-            for (int i = 0; i < lTargetList.size(); i++) {
-                if (lTargetList.get(i) != null && lTargetList.get(i).getPriority() >= iPriorityThreshold) {
-                    if (bestPriority == null || lTargetList.get(i).getPriority() > bestPriority.getPriority()) {
-                        bestPriority = lTargetList.get(i);
-                    }
-                }
+            // search for target with highest priority over threshold, priorities age lazily in the table
+            int bestFloor = lTargetList.highestPriority();
+            if (bestFloor >= 0 && lTargetList.getPriority(bestFloor) >= iPriorityThreshold) {
+                bestPriority = lTargetList.get(bestFloor);
             }
 
             // if target over threshold found, set this to next target
@@ -170,28 +159,13 @@ public class DistanceEController extends AbstractController {
                 }
                 return true;
             } else {
-                // else select next target by distance
-                int down;
-                int up;
-                for (int i = 1; i < lTargetList.size(); i++) {
-                    down = getElevatorCurrentFloor() - i;
-                    up = getElevatorCurrentFloor() + i;
-
-                    // check above current floor whether the target is there
-                    if (up < lTargetList.size() && lTargetList.get(up) != null) {
-                        setCurrentRequest(lTargetList.get(up));
-                        setElevatorCurrentDirection(1);
-                        return true;
-                    }
-
-                    // check below current floor whether the target is there
-                    if (down >= 0 && lTargetList.get(down) != null) {
-                        setCurrentRequest(lTargetList.get(down));
-                        setElevatorCurrentDirection(-1);
-                        return true;
-                    }
+                // else select next target by distance, above current floor first if equally distant
+                int nearest = lTargetList.nearestPending(getElevatorCurrentFloor());
+                if (nearest >= 0) {
+                    setCurrentRequest(lTargetList.get(nearest));
+                    setElevatorCurrentDirection(nearest > getElevatorCurrentFloor() ? 1 : -1);
                 }
-                return false;
+                return nearest >= 0;
             }
         });
     }
@@ -236,5 +210,19 @@ public class DistanceEController extends AbstractController {
     @Override
     public void doAfterAnimate() {
     }
+
+    @Override
+    protected void writeState(SnapshotWriter out) {
+        super.writeState(out);
+        out.writeInt(iTravelledDistance);
+        out.writeBoolean(bSameFloor);
+    }
+
+    @Override
+    protected void readState(SnapshotReader in) {
+        super.readState(in);
+        iTravelledDistance = in.readInt();
+        bSameFloor = in.readBoolean();
+    }
     
 }
@@ -0,0 +1,397 @@
+package simulator.controllers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import engine.ElevatorEvent;
+import engine.ElevatorEvent.ElevatorEventObserver;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+import properties.ProgramSettings;
+import simulator.model.Request;
+import simulator.model.RequestTable;
+
+/**
+ * Cost-based group dispatcher for synchronized elevators. Assigns each hall call to the car with the lowest
+ * estimated time-to-serve. The estimate is based on cached per-car state (floor, direction, number of queued stops,
+ * highest/lowest queued stop), which is updated incrementally from the floor sensor and elevator events of the
+ * respective car and upon assignments, i.e., an assignment takes O(cars) arithmetic operations without scanning
+ * the request tables. Unlike {@link SuperController}, a call is always assigned, preferring cars that do not ignore
+ * the requested floor. The cached state of a car is an immutable {@link CarCost} that is replaced atomically, i.e.,
+ * the observers on the engine thread and assignments from other threads do not race.
+ *
+ * @author SSE
+ */
+public class GroupDispatchController extends AbstractMultiController {
+
+    private static final long UNREACHABLE = Long.MAX_VALUE / 4;
+
+    private ArrayList<AbstractController> lControllers;
+    private final int floorMillis;
+    private final int stopMillis;
+    private final AtomicReferenceArray<CarCost> costs;
+    private final FloorSensorEventObserver[] sensorObservers;
+    private final ElevatorEventObserver[] elevatorObservers;
+
+    /**
+     * Immutable cached state of a car.
+     *
+     * @author SSE
+     */
+    private static final class CarCost {
+
+        private final int floor;
+        private final int direction;
+        private final int stops;
+        private final int highestStop;
+        private final int lowestStop;
+
+        /**
+         * Creates a cached car state.
+         *
+         * @param floor the current floor
+         * @param direction the current direction (0 none, 1 up, -1 down)
+         * @param stops the number of queued stops
+         * @param highestStop the highest queued stop, negative for none
+         * @param lowestStop the lowest queued stop, negative for none
+         */
+        private CarCost(int floor, int direction, int stops, int highestStop, int lowestStop) {
+            this.floor = floor;
+            this.direction = direction;
+            this.stops = stops;
+            this.highestStop = highestStop;
+            this.lowestStop = lowestStop;
+        }
+
+        /**
+         * Returns this state with a new position.
+         *
+         * @param floor the current floor
+         * @param direction the current direction
+         * @return the state
+         */
+        private CarCost withPosition(int floor, int direction) {
+            return floor == this.floor && direction == this.direction ? this
+                : new CarCost(floor, direction, stops, highestStop, lowestStop);
+        }
+
+        /**
+         * Returns this state with an additional stop.
+         *
+         * @param stop the floor of the stop
+         * @param pending whether {@code stop} is already queued, i.e., does not count as additional stop
+         * @param direction the current direction
+         * @return the state
+         */
+        private CarCost withStop(int stop, boolean pending, int direction) {
+            return new CarCost(floor, direction, pending ? stops : stops + 1, Math.max(highestStop, stop),
+                lowestStop < 0 ? stop : Math.min(lowestStop, stop));
+        }
+
+        /**
+         * Returns this state with one stop less. The bounds are kept until the next refresh.
+         *
+         * @return the state
+         */
+        private CarCost withoutStop() {
+            return stops == 0 ? this : new CarCost(floor, direction, stops - 1, highestStop, lowestStop);
+        }
+
+    }
+
+    /**
+     * Creates a group dispatcher on the given elevator controllers.
+     *
+     * @param controllers the elevator controllers
+     */
+    public GroupDispatchController(ArrayList<AbstractController> controllers) {
+        lControllers = controllers;
+        ProgramSettings settings = ProgramSettings.getInstance();
+        floorMillis = Math.max(1, settings.getElevatorsSpeed() * settings.getFloorsHeight());
+        stopMillis = settings.getDoorOpeningDelay() + settings.getMaxDoorClosingDelay()
+            + settings.getDoorClosingDelay();
+        final int cars = controllers.size();
+        costs = new AtomicReferenceArray<>(cars);
+        sensorObservers = new FloorSensorEventObserver[cars];
+        elevatorObservers = new ElevatorEventObserver[cars];
+        for (int c = 0; c < cars; c++) {
+            final int car = c;
+            refresh(car, controllers.get(c).getElevatorCurrentFloor(), false);
+            int index = controllers.get(c).getElevatorIndex();
+            sensorObservers[c] = new FloorSensorEventObserver() {
+
+                @Override
+                public void notifyReceived(FloorSensorEvent event) {
+                    if (FloorSensorEvent.Position.CLEARED != event.getPosition()) {
+                        int direction = lControllers.get(car).getElevatorCurrentDirection();
+                        costs.updateAndGet(car, cost -> cost.withPosition(event.getFloor(), direction));
+                    }
+                }
+
+            };
+            EventsManager.FLOOR_SENSORS.addObserver(index, null, sensorObservers[c]);
+            elevatorObservers[c] = new ElevatorEventObserver() {
+
+                @Override
+                public void notifyReceived(ElevatorEvent event) {
+                    if (ElevatorEvent.Kind.DOORS_OPENING == event.getKind()
+                        || ElevatorEvent.Kind.DOORS_CLOSED == event.getKind()) { // stopping, stop is served
+                        refresh(car, event.getFloor(), true);
+                    }
+                }
+
+            };
+            EventsManager.ELEVATORS.addObserver(index, null, elevatorObservers[c]);
+        }
+    }
+
+    @Override
+    public void detach() {
+        for (int c = 0; c < sensorObservers.length; c++) {
+            EventsManager.FLOOR_SENSORS.removeObserver(sensorObservers[c]);
+            EventsManager.ELEVATORS.removeObserver(elevatorObservers[c]);
+        }
+    }
+
+    /**
+     * Refreshes the cached state of a car from its controller.
+     *
+     * @param car the car index
+     * @param floor the current floor of the car
+     * @param served whether the car is stopping at {@code floor}, i.e., a request for {@code floor} is already served
+     *     but may not be removed by the controller yet
+     */
+    private void refresh(int car, int floor, boolean served) {
+        AbstractController controller = lControllers.get(car);
+        int direction = controller.getElevatorCurrentDirection();
+        RequestTable table = controller.getRequests(); // published copy unless called by the writer
+        int highest = table.previousPending(table.size() - 1);
+        int lowest = table.nextPending(0);
+        int count = table.count();
+        if (served && table.isPending(floor)) {
+            count--;
+            highest = highest == floor ? table.previousPending(floor - 1) : highest;
+            lowest = lowest == floor ? table.nextPending(floor + 1) : lowest;
+        }
+        costs.set(car, new CarCost(floor, direction, count, highest, lowest));
+    }
+
+    /**
+     * Returns the estimated time for {@code car} to serve a call, i.e., the travel time along the route of the car
+     * to the call floor plus the door cycles of the queued stops before. Stops are assumed to be spread evenly over
+     * the route of the car if the call is on the way.
+     *
+     * @param car the car index
+     * @param floor the call floor
+     * @param direction the requested direction (0 none, 1 up, -1 down)
+     * @return the estimated time in ms
+     */
+    public long estimateTimeToServe(int car, int floor, int direction) {
+        CarCost cost = costs.get(car);
+        int pos = cost.floor;
+        int dir = cost.direction;
+        int queued = cost.stops;
+        long distance;
+        long stopsBefore = queued;
+        if (dir == 0 || queued == 0) {
+            distance = Math.abs(floor - pos);
+        } else if (dir > 0) {
+            int turn = Math.max(pos, cost.highestStop);
+            if (floor >= pos && direction >= 0) {
+                distance = floor - pos; // on the way
+                if (floor < turn) {
+                    stopsBefore = queued * distance / (turn - pos);
+                }
+            } else {
+                turn = Math.max(turn, floor);
+                distance = (turn - pos) + (turn - floor); // up to the highest stop, then back
+            }
+        } else {
+            int turn = cost.lowestStop < 0 ? pos : Math.min(pos, cost.lowestStop);
+            if (floor <= pos && direction <= 0) {
+                distance = pos - floor; // on the way
+                if (floor > turn) {
+                    stopsBefore = queued * distance / (pos - turn);
+                }
+            } else {
+                turn = Math.min(turn, floor);
+                distance = (pos - turn) + (floor - turn); // down to the lowest stop, then back
+            }
+        }
+        return distance * floorMillis + stopsBefore * stopMillis;
+    }
+
+    /**
+     * Selects the car with the lowest estimated time-to-serve for {@code call}. Cars ignoring the call floor are
+     * only considered if all cars ignore it.
+     *
+     * @param call the call
+     * @return the selected car index
+     */
+    public int selectCar(Request call) {
+        int best = 0;
+        long bestCost = UNREACHABLE * 2;
+        for (int c = 0; c < costs.length(); c++) {
+            long cost = estimateTimeToServe(c, call.getFloor(), call.getDirection());
+            if (lControllers.get(c).isFloorIgnored(call.getFloor())) {
+                cost += UNREACHABLE;
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Assigns a call to the given car and updates the cached state of the car. The call counts as additional stop
+     * only if its floor is not pending at the car yet.
+     *
+     * @param car the car index
+     * @param target the call
+     * @param priority is it a priority call
+     */
+    protected void assign(int car, Request target, boolean priority) {
+        AbstractController controller = lControllers.get(car);
+        int floor = target.getFloor();
+        boolean pending = controller.getRequest(floor) != null;
+        if (priority) {
+            controller.submit(() -> {
+                controller.addToPriorityQueue(target);
+                controller.processPriorityCall();
+            });
+        } else {
+            controller.submitRequest(target);
+        }
+        int direction = controller.getElevatorCurrentDirection();
+        costs.updateAndGet(car, cost -> cost.withStop(floor, pending, direction));
+        controller.startSimulation();
+    }
+
+    @Override
+    public void addRequest(Request target, int iControllerIndex, boolean insideElevator) {
+        if (insideElevator) {
+            assign(iControllerIndex, target, false);
+        } else {
+            assign(selectCar(target), target, false);
+        }
+    }
+
+    @Override
+    public Map<Request, Integer> assignCalls(Collection<Request> calls) {
+        Map<Request, Integer> plan = new LinkedHashMap<>();
+        for (Request call : calls) { // greedy, state is updated per assignment
+            int car = selectCar(call);
+            assign(car, call, false);
+            plan.put(call, car);
+        }
+        return plan;
+    }
+
+    @Override
+    public void deleteRequest(int iControllerIndex, int iFloor) {
+        for (int c = 0; c < lControllers.size(); c++) {
+            AbstractController controller = lControllers.get(c);
+            if (controller.getRequest(iFloor) != null) {
+                controller.deleteTarget(iFloor);
+                costs.updateAndGet(c, CarCost::withoutStop); // bounds are refreshed at the next stop
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void addPriorityCall(int iControllerIndex, int iFloor, boolean insideElevator) {
+        Request target = new Request(iFloor, 0);
+        if (insideElevator) {
+            assign(iControllerIndex, target, true);
+        } else {
+            assign(selectCar(target), target, true);
+        }
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) {
+        for (int c = 0; c < costs.length(); c++) {
+            CarCost cost = costs.get(c);
+            out.writeInt(cost.floor);
+            out.writeInt(cost.direction);
+            out.writeInt(cost.stops);
+            out.writeInt(cost.highestStop);
+            out.writeInt(cost.lowestStop);
+        }
+    }
+
+    @Override
+    public void readState(SnapshotReader in) {
+        for (int c = 0; c < costs.length(); c++) {
+            costs.set(c, new CarCost(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+        }
+    }
+
+    /**
+     * Returns the number of cars.
+     *
+     * @return the number of cars
+     */
+    protected int getCarCount() {
+        return costs.length();
+    }
+
+    /**
+     * Returns the controller of a car.
+     *
+     * @param car the car index
+     * @return the controller
+     */
+    protected AbstractController getController(int car) {
+        return lControllers.get(car);
+    }
+
+    /**
+     * Returns the estimated travel time per floor.
+     *
+     * @return the time in ms
+     */
+    protected int getFloorMillis() {
+        return floorMillis;
+    }
+
+    /**
+     * Returns the estimated time per stop, i.e., a full door cycle.
+     *
+     * @return the time in ms
+     */
+    protected int getStopMillis() {
+        return stopMillis;
+    }
+
+    /**
+     * Returns whether a car is idle, i.e., has no queued stops and no direction.
+     *
+     * @param car the car index
+     * @return {@code true} for idle, {@code false} else
+     */
+    protected boolean isIdle(int car) {
+        return costs.get(car).stops == 0 && lControllers.get(car).getElevatorCurrentDirection() == 0;
+    }
+
+    /**
+     * Returns the cached number of queued stops of a car.
+     *
+     * @param car the car index
+     * @return the number of queued stops
+     * @see RequestTable#count()
+     */
+    public int getQueuedStops(int car) {
+        return costs.get(car).stops;
+    }
+
+}
@@ -0,0 +1,87 @@
+package simulator.controllers;
+
+import java.util.Arrays;
+
+/**
+ * Solves the (rectangular) assignment problem with the Hungarian method in O(n<sup>2</sup>m) for n rows and m
+ * columns, n &lt;= m.
+ *
+ * @author SSE
+ */
+final class HungarianAssignment {
+
+    /**
+     * Prevents external creation.
+     */
+    private HungarianAssignment() {
+    }
+
+    /**
+     * Assigns each row to a distinct column so that the sum of the costs is minimal.
+     *
+     * @param cost the cost matrix, rows &lt;= columns, costs shall be far below {@link Long#MAX_VALUE}
+     * @return the column index per row
+     * @throws IllegalArgumentException if there are more rows than columns
+     */
+    static int[] solve(long[][] cost) {
+        int n = cost.length;
+        int m = n == 0 ? 0 : cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("More rows (" + n + ") than columns (" + m + ")");
+        }
+        // potentials and matching are 1-based, column 0 is a virtual column for the row being added
+        long[] u = new long[n + 1];
+        long[] v = new long[m + 1];
+        int[] rowOf = new int[m + 1];
+        int[] way = new int[m + 1];
+        long[] minV = new long[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            rowOf[0] = i;
+            int col = 0;
+            Arrays.fill(minV, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[col] = true;
+                int row = rowOf[col];
+                long delta = Long.MAX_VALUE;
+                int next = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        long reduced = cost[row - 1][j - 1] - u[row] - v[j];
+                        if (reduced < minV[j]) {
+                            minV[j] = reduced;
+                            way[j] = col;
+                        }
+                        if (minV[j] < delta) {
+                            delta = minV[j];
+                            next = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOf[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minV[j] -= delta;
+                    }
+                }
+                col = next;
+            } while (rowOf[col] != 0);
+            do { // augment along the alternating path
+                int prev = way[col];
+                rowOf[col] = rowOf[prev];
+                col = prev;
+            } while (col != 0);
+        }
+        int[] result = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOf[j] != 0) {
+                result[rowOf[j] - 1] = j - 1;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,215 @@
+package simulator.controllers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+import simulator.model.Request;
+
+/**
+ * Reference implementation of joint call assignment. Hall calls are not committed to a car immediately, but kept
+ * pending and reassigned jointly every tick by solving an assignment problem (Hungarian method) over all pending
+ * calls and the cars, where each car offers one slot per call it may take and each further slot costs an additional
+ * stop. A pending call is committed to its car if the car is idle and the call is its first slot, or if the car
+ * will reach the call within {@link #getReleaseMillis()}, i.e., up to then the call may move to a better car, e.g.,
+ * when further calls arrive during up-peak.
+ *
+ * @author SSE
+ */
+public class JointDispatchController extends GroupDispatchController {
+
+    /**
+     * The default tick interval in ms.
+     */
+    public static final long DEFAULT_TICK_INTERVAL = 500;
+
+    private static final long IGNORED_PENALTY = 1L << 40;
+
+    private final long tickInterval;
+    private final long releaseMillis;
+    private final List<Request> lPendingCalls = new ArrayList<Request>();
+    private Map<Request, Integer> plan = new LinkedHashMap<>();
+
+    /**
+     * Creates a joint dispatcher on the given elevator controllers with {@link #DEFAULT_TICK_INTERVAL}.
+     *
+     * @param controllers the elevator controllers
+     */
+    public JointDispatchController(ArrayList<AbstractController> controllers) {
+        this(controllers, DEFAULT_TICK_INTERVAL);
+    }
+
+    /**
+     * Creates a joint dispatcher on the given elevator controllers.
+     *
+     * @param controllers the elevator controllers
+     * @param tickInterval the interval to reassign pending calls in ms
+     */
+    public JointDispatchController(ArrayList<AbstractController> controllers, long tickInterval) {
+        super(controllers);
+        this.tickInterval = tickInterval;
+        this.releaseMillis = Math.max(tickInterval, 2L * getFloorMillis());
+    }
+
+    /**
+     * Returns the time-to-serve below which a pending call is committed to its car.
+     *
+     * @return the time in ms
+     */
+    public long getReleaseMillis() {
+        return releaseMillis;
+    }
+
+    /**
+     * Returns the number of pending, i.e., not yet committed, calls.
+     *
+     * @return the number of pending calls
+     */
+    public synchronized int getPendingCallCount() {
+        return lPendingCalls.size();
+    }
+
+    @Override
+    public void addRequest(Request target, int iControllerIndex, boolean insideElevator) {
+        if (insideElevator) {
+            super.addRequest(target, iControllerIndex, true);
+        } else {
+            synchronized (this) {
+                lPendingCalls.add(target);
+                reassign();
+            }
+        }
+    }
+
+    /**
+     * Adds the calls to the pending calls and reassigns all pending calls jointly. The plan contains the car each call
+     * is committed or (for pending calls) currently planned to.
+     *
+     * @param calls the hall calls
+     * @return the assignment plan
+     */
+    @Override
+    public synchronized Map<Request, Integer> assignCalls(Collection<Request> calls) {
+        lPendingCalls.addAll(calls);
+        Map<Request, Integer> current = reassign();
+        Map<Request, Integer> result = new LinkedHashMap<>();
+        for (Request call : calls) {
+            result.put(call, current.getOrDefault(call, UNASSIGNED));
+        }
+        return result;
+    }
+
+    @Override
+    public void deleteRequest(int iControllerIndex, int iFloor) {
+        boolean removed = false;
+        synchronized (this) {
+            for (Iterator<Request> iter = lPendingCalls.iterator(); iter.hasNext(); ) {
+                if (iter.next().getFloor() == iFloor) {
+                    iter.remove();
+                    removed = true;
+                }
+            }
+        }
+        if (!removed) {
+            super.deleteRequest(iControllerIndex, iFloor);
+        }
+    }
+
+    @Override
+    public long getTickInterval() {
+        return tickInterval;
+    }
+
+    @Override
+    public synchronized boolean tick() {
+        if (!lPendingCalls.isEmpty()) {
+            reassign();
+        }
+        return !lPendingCalls.isEmpty();
+    }
+
+    @Override
+    public synchronized void writeState(SnapshotWriter out) {
+        super.writeState(out);
+        out.writeInt(lPendingCalls.size());
+        for (Request call : lPendingCalls) {
+            out.writeRequest(call);
+        }
+        out.writeInt(plan.size());
+        for (Map.Entry<Request, Integer> entry : plan.entrySet()) {
+            out.writeRequest(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    @Override
+    public synchronized void readState(SnapshotReader in) {
+        super.readState(in);
+        lPendingCalls.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            lPendingCalls.add(in.readRequest());
+        }
+        plan = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Request call = in.readRequest();
+            plan.put(call, in.readInt());
+        }
+    }
+
+    /**
+     * Returns the last assignment plan of the pending and the thereby committed calls.
+     *
+     * @return the plan
+     */
+    public synchronized Map<Request, Integer> getPlan() {
+        return new LinkedHashMap<>(plan);
+    }
+
+    /**
+     * Reassigns all pending calls jointly and commits the calls that shall be served now.
+     *
+     * @return the plan
+     */
+    private Map<Request, Integer> reassign() {
+        int calls = lPendingCalls.size();
+        int cars = getCarCount();
+        int slots = (calls + cars - 1) / cars;
+        long[][] cost = new long[calls][cars * slots];
+        for (int i = 0; i < calls; i++) {
+            Request call = lPendingCalls.get(i);
+            for (int c = 0; c < cars; c++) {
+                long base = estimateTimeToServe(c, call.getFloor(), call.getDirection());
+                if (getController(c).isFloorIgnored(call.getFloor())) {
+                    base += IGNORED_PENALTY;
+                }
+                for (int s = 0; s < slots; s++) {
+                    cost[i][c * slots + s] = base + (long) s * getStopMillis();
+                }
+            }
+        }
+        int[] columns = HungarianAssignment.solve(cost);
+        plan = new LinkedHashMap<>();
+        List<Request> lRemaining = new ArrayList<Request>();
+        for (int i = 0; i < calls; i++) {
+            Request call = lPendingCalls.get(i);
+            int car = columns[i] / slots;
+            int slot = columns[i] % slots;
+            long timeToServe = estimateTimeToServe(car, call.getFloor(), call.getDirection());
+            plan.put(call, car);
+            if ((slot == 0 && isIdle(car)) || timeToServe <= releaseMillis) {
+                assign(car, call, false);
+            } else {
+                lRemaining.add(call);
+            }
+        }
+        lPendingCalls.clear();
+        lPendingCalls.addAll(lRemaining);
+        return plan;
+    }
+
+}
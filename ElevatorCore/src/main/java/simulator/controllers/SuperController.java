@@ -1,6 +1,9 @@
 package simulator.controllers;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import properties.ProgramSettings;
@@ -13,6 +16,7 @@ import simulator.model.Request;
 public class SuperController extends AbstractMultiController {
 
     private ArrayList<AbstractController> lControllers;
+    private final boolean emergency;
 
     private ConcurrentLinkedQueue<Request> clqPriorityTargets = new ConcurrentLinkedQueue<Request>();;
 
@@ -23,6 +27,8 @@ public class SuperController extends AbstractMultiController {
      */
     public SuperController(ArrayList<AbstractController> controllers) {
         lControllers = controllers;
+        ProgramSettings settings = ProgramSettings.getInstance();
+        emergency = settings.isOuterviewEmergency() || settings.isInnerviewEmergency();
     }
 
     /**
@@ -31,8 +37,9 @@ public class SuperController extends AbstractMultiController {
      * 
      * @param target the target
      * @param priority is it a priority call
+     * @return the index of the assigned controller
      */
-    private void delegateCall(Request target, boolean priority) {
+    private int delegateCall(Request target, boolean priority) {
         int bestMatch = Integer.MAX_VALUE;
         int iCurrent = Integer.MAX_VALUE;
         for (int i = 0; i < lControllers.size(); i++) {
@@ -57,38 +64,78 @@ public class SuperController extends AbstractMultiController {
             }
         }
 
+        if (Integer.MAX_VALUE == bestMatch) {
+            bestMatch = nearest(target, true);
+        }
+        if (Integer.MAX_VALUE == bestMatch) {
+            bestMatch = nearest(target, false);
+        }
         AbstractController bestController = lControllers.get(bestMatch);
 
-        if (ProgramSettings.getInstance().isOuterviewEmergency()
-            || ProgramSettings.getInstance().isInnerviewEmergency()) {
+        if (emergency) {
 
             // is it a priority call, transfer target to priority queue and process there
             if (priority) {
-                bestController.addToPriorityQueue(target);
-                bestController.processPriorityCall();
+                bestController.submit(() -> {
+                    bestController.addToPriorityQueue(target);
+                    bestController.processPriorityCall();
+                });
             } else {
                 // else just add the target to the best match controller
-                bestController.addRequest(target);
+                bestController.submitRequest(target);
             }
         } else {
-            bestController.addRequest(target);
+            bestController.submitRequest(target);
         }
 
         bestController.startSimulation();
+        return bestMatch;
     }
     
+    /**
+     * Returns the controller with the elevator nearest to the target floor regardless of its direction. Fallback if
+     * no elevator is on its way to the target floor.
+     * 
+     * @param target the target
+     * @param skipIgnoring whether controllers ignoring the target floor shall be skipped
+     * @return the controller index, {@link Integer#MAX_VALUE} if there is none
+     */
+    private int nearest(Request target, boolean skipIgnoring) {
+        int result = Integer.MAX_VALUE;
+        int iCurrent = Integer.MAX_VALUE;
+        for (int i = 0; i < lControllers.size(); i++) {
+            if (!skipIgnoring || !lControllers.get(i).isFloorIgnored(target.getFloor())) {
+                int iNext = Math.abs(target.getFloor() - lControllers.get(i).getElevator().getCurrentFloor());
+                if (iCurrent > iNext) {
+                    iCurrent = iNext;
+                    result = i;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public void addRequest(Request target, int iControllerIndex, boolean insideElevator) {
         AbstractController controller = lControllers.get(iControllerIndex);
         // check whether the elevators move synchronously
         if (insideElevator) {
-            controller.addRequest(target);
+            controller.submitRequest(target);
             controller.startSimulation();
         } else {
             delegateCall(target, false);
         }
     }
 
+    @Override
+    public Map<Request, Integer> assignCalls(Collection<Request> calls) {
+        Map<Request, Integer> plan = new LinkedHashMap<>();
+        for (Request call : calls) {
+            plan.put(call, delegateCall(call, false));
+        }
+        return plan;
+    }
+
     @Override
     public void deleteRequest(int iControllerIndex, int iFloor) {
         // as synchronized, search for the elevator that goes for the specified floor and delete the target
@@ -105,8 +152,10 @@ public class SuperController extends AbstractMultiController {
         Request target = new Request(iFloor, 0);
         AbstractController controller = lControllers.get(iControllerIndex);
         if (insideElevator) {
-            controller.addToPriorityQueue(target);
-            controller.processPriorityCall();
+            controller.submit(() -> {
+                controller.addToPriorityQueue(target);
+                controller.processPriorityCall();
+            });
             controller.startSimulation();
         } else {
             clqPriorityTargets.add(target);
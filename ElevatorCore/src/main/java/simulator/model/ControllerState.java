@@ -0,0 +1,90 @@
+package simulator.model;
+
+/**
+ * Immutable snapshot of the target state of an elevator controller, i.e., the current request and the related
+ * flags. Published atomically by the controller.
+ *
+ * @author SSE
+ */
+public class ControllerState {
+
+    /**
+     * The initial state, i.e., without request.
+     */
+    public static final ControllerState INITIAL = new ControllerState(null, false, false);
+
+    private final Request currentRequest;
+    private final boolean updateNecessary;
+    private final boolean priorityCall;
+
+    /**
+     * Creates a state.
+     *
+     * @param currentRequest the current request, may be <b>null</b> for none
+     * @param updateNecessary whether the target shall be updated before moving
+     * @param priorityCall whether there is a priority call
+     */
+    private ControllerState(Request currentRequest, boolean updateNecessary, boolean priorityCall) {
+        this.currentRequest = currentRequest;
+        this.updateNecessary = updateNecessary;
+        this.priorityCall = priorityCall;
+    }
+
+    /**
+     * Returns the current request.
+     *
+     * @return the current request, may be <b>null</b> for none
+     */
+    public Request getCurrentRequest() {
+        return currentRequest;
+    }
+
+    /**
+     * Returns whether the target shall be updated before moving.
+     *
+     * @return {@code true} for update, {@code false} else
+     */
+    public boolean isUpdateNecessary() {
+        return updateNecessary;
+    }
+
+    /**
+     * Returns whether there is a priority call.
+     *
+     * @return {@code true} for priority call, {@code false} else
+     */
+    public boolean hasPriorityCall() {
+        return priorityCall;
+    }
+
+    /**
+     * Returns a state with changed current request.
+     *
+     * @param request the request, may be <b>null</b> for none
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ControllerState withCurrentRequest(Request request) {
+        return request == currentRequest ? this : new ControllerState(request, updateNecessary, priorityCall);
+    }
+
+    /**
+     * Returns a state with changed update flag.
+     *
+     * @param update whether the target shall be updated before moving
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ControllerState withUpdateNecessary(boolean update) {
+        return update == updateNecessary ? this : new ControllerState(currentRequest, update, priorityCall);
+    }
+
+    /**
+     * Returns a state with changed priority call flag.
+     *
+     * @param priority whether there is a priority call
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ControllerState withPriorityCall(boolean priority) {
+        return priority == priorityCall ? this : new ControllerState(currentRequest, updateNecessary, priority);
+    }
+
+}
@@ -1,15 +1,43 @@
 package simulator.model;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import engine.clock.SimulationClock;
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+
 /**
- * Represents an elevator.
+ * Represents an elevator. Changes of the door commands ({@link #setKeepDoorsOpen(boolean)}, 
+ * {@link #setCloseDoorsNow(boolean)}) are signaled to threads waiting in {@link #awaitCloseDoorsNow(SimulationClock, 
+ * long)} or {@link #awaitDoorsReleased(SimulationClock)}. Floor, direction, door state, capacity and load are kept
+ * in an immutable {@link ElevatorState} that is replaced atomically on each change, i.e., they can be read and 
+ * written from different threads without data races and {@link #getState()} returns a consistent snapshot. The 
+ * physical position and velocity of the car are given by its current {@link Motion run} according to its 
+ * {@link MotionProfile motion profile}.
  */
 public class Elevator {
+
+    /**
+     * The default capacity in passengers.
+     */
+    public static final int DEFAULT_CAPACITY = 8;
     
-    private boolean bDoorOpen = false;
-    private int iDirection = 0;
-    private int iCurrentFloor = 0;
-    private boolean bKeepDoorsOpen = false;
-    private boolean bCloseDoorsNow = false;
+    private final AtomicReference<ElevatorState> state = new AtomicReference<>(ElevatorState.INITIAL);
+    private final ReentrantLock doorLock = new ReentrantLock();
+    private final Condition doorCommand = doorLock.newCondition();
+    private volatile MotionProfile motionProfile;
+    private volatile Motion motion;
+
+    /**
+     * Returns a consistent snapshot of floor, direction, door state, capacity and load.
+     * 
+     * @return the state
+     */
+    public ElevatorState getState() {
+        return state.get();
+    }
 
     /**
      * Is the door open?
@@ -17,7 +45,7 @@ public class Elevator {
      * @return {@code true} for open, else {@code false}
      */    
     public boolean isDoorOpen() {
-        return bDoorOpen;
+        return state.get().isDoorOpen();
     }
 
     /**
@@ -26,7 +54,10 @@ public class Elevator {
      * @param bDoorOpen {@code true} for open, else {@code false}
      */    
     public void setDoorOpen(boolean bDoorOpen) {
-        this.bDoorOpen = bDoorOpen;
+        ElevatorState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withDoorOpen(bDoorOpen)));
     }
 
     /**
@@ -35,7 +66,7 @@ public class Elevator {
      * @return {@code true} for keep open, else {@code false}
      */
     public boolean isKeepDoorsOpen() {
-        return bKeepDoorsOpen;
+        return state.get().isKeepDoorsOpen();
     }
     
     /**
@@ -44,7 +75,16 @@ public class Elevator {
      * @param bKeepDoorsOpen {@code true} for keep open, else {@code false}
      */
     public void setKeepDoorsOpen(boolean bKeepDoorsOpen) {
-        this.bKeepDoorsOpen = bKeepDoorsOpen;
+        doorLock.lock();
+        try {
+            ElevatorState s;
+            do {
+                s = state.get();
+            } while (!state.compareAndSet(s, s.withKeepDoorsOpen(bKeepDoorsOpen)));
+            doorCommand.signalAll();
+        } finally {
+            doorLock.unlock();
+        }
     }
     
     /**
@@ -53,7 +93,7 @@ public class Elevator {
      * @return {@code true} for close now, else {@code false}
      */
     public boolean isCloseDoorsNow() {
-        return bCloseDoorsNow;
+        return state.get().isCloseDoorsNow();
     }
     
     /**
@@ -62,7 +102,50 @@ public class Elevator {
      * @param bCloseDoorsNow {@code true} for close now, else {@code false}
      */
     public void setCloseDoorsNow(boolean bCloseDoorsNow) {
-        this.bCloseDoorsNow = bCloseDoorsNow;
+        doorLock.lock();
+        try {
+            ElevatorState s;
+            do {
+                s = state.get();
+            } while (!state.compareAndSet(s, s.withCloseDoorsNow(bCloseDoorsNow)));
+            doorCommand.signalAll();
+        } finally {
+            doorLock.unlock();
+        }
+    }
+    
+    /**
+     * Blocks the calling thread until the doors shall be {@link #isCloseDoorsNow() closed now} or the given 
+     * simulated time elapsed.
+     * 
+     * @param clock the simulation clock
+     * @param millis the maximum time to wait in simulated ms
+     * @return {@code true} if the doors shall be closed now, {@code false} if the time elapsed
+     * @throws InterruptedException if waiting is interrupted
+     */
+    public boolean awaitCloseDoorsNow(SimulationClock clock, long millis) throws InterruptedException {
+        doorLock.lock();
+        try {
+            return clock.await(doorLock, doorCommand, () -> state.get().isCloseDoorsNow(), millis);
+        } finally {
+            doorLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks the calling thread while the doors shall be {@link #isKeepDoorsOpen() kept open} and shall not be 
+     * {@link #isCloseDoorsNow() closed now}.
+     * 
+     * @param clock the simulation clock
+     * @throws InterruptedException if waiting is interrupted
+     */
+    public void awaitDoorsReleased(SimulationClock clock) throws InterruptedException {
+        doorLock.lock();
+        try {
+            clock.await(doorLock, doorCommand, () -> !isKeepDoorsOpen() || isCloseDoorsNow(), -1);
+        } finally {
+            doorLock.unlock();
+        }
     }
     
     /**
@@ -71,7 +154,7 @@ public class Elevator {
      * @return the iDirection (0 none, 1 up, -1 down)
      */
     public int getDirection() {
-        return iDirection;
+        return state.get().getDirection();
     }
     
     /**
@@ -80,7 +163,10 @@ public class Elevator {
      * @param iDirection the direction to set (0 none, 1 up, -1 down)
      */
     public void setDirection(int iDirection) {
-        this.iDirection = iDirection;
+        ElevatorState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withDirection(iDirection)));
     }
     
     /**
@@ -89,7 +175,7 @@ public class Elevator {
      * @return the current floor
      */
     public int getCurrentFloor() {
-        return iCurrentFloor;
+        return state.get().getCurrentFloor();
     }
     
     /**
@@ -98,7 +184,277 @@ public class Elevator {
      * @param iCurrentFloor the new current floor
      */
     public void setCurrentFloor(int iCurrentFloor) {
-        this.iCurrentFloor = iCurrentFloor;
+        ElevatorState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withCurrentFloor(iCurrentFloor)));
+    }
+
+    /**
+     * Returns the motion profile.
+     * 
+     * @return the profile, <b>null</b> if not set, i.e., the engine determines the profile
+     */
+    public MotionProfile getMotionProfile() {
+        return motionProfile;
+    }
+
+    /**
+     * Changes the motion profile. Takes effect with the next run.
+     * 
+     * @param motionProfile the profile
+     */
+    public void setMotionProfile(MotionProfile motionProfile) {
+        this.motionProfile = motionProfile;
+    }
+
+    /**
+     * Returns the current or last run.
+     * 
+     * @return the run, <b>null</b> if the car did not move yet
+     */
+    public Motion getMotion() {
+        return motion;
+    }
+
+    /**
+     * Starts a rest-to-rest run from the given floor.
+     * 
+     * @param time the simulated start time in ms
+     * @param fromFloor the start floor
+     * @param floors the signed number of floors to travel, negative for downwards
+     * @return the run
+     * @throws IllegalStateException if there is no {@link #getMotionProfile() motion profile}
+     */
+    public Motion startMotion(long time, int fromFloor, int floors) {
+        MotionProfile profile = motionProfile;
+        if (null == profile) {
+            throw new IllegalStateException("No motion profile");
+        }
+        Motion result = new Motion(profile, time, fromFloor * profile.getFloorHeight(), 
+            floors * profile.getFloorHeight());
+        motion = result;
+        return result;
+    }
+
+    /**
+     * Replans the current run towards the given floor so that position and velocity of the car do not jump, e.g., 
+     * if the target changes during a run. Starts a rest-to-rest run if the car does not move.
+     * 
+     * @param time the simulated time in ms
+     * @param toFloor the new target floor, shall be ahead of the car if it moves
+     * @return the run
+     * @throws IllegalStateException if there is no current run
+     * @see Motion#replan(long, double)
+     */
+    public Motion replanMotion(long time, int toFloor) {
+        Motion current = motion;
+        if (null == current) {
+            throw new IllegalStateException("No run");
+        }
+        Motion result = current.replan(time, toFloor * current.getProfile().getFloorHeight());
+        motion = result;
+        return result;
+    }
+
+    /**
+     * Stops the car at the given floor, e.g., if the controller decides to stop before the end of the current run.
+     * 
+     * @param time the simulated time in ms
+     * @param floor the floor
+     */
+    public void stopMotion(long time, int floor) {
+        MotionProfile profile = motionProfile;
+        if (null != profile) {
+            motion = new Motion(profile, time, floor * profile.getFloorHeight(), 0);
+        }
+    }
+
+    /**
+     * Returns the position of the car.
+     * 
+     * @param time the simulated time in ms
+     * @return the height above floor 0 in m, 0 if the car did not move yet
+     */
+    public double getPosition(long time) {
+        Motion m = motion;
+        return null == m ? 0 : m.getPosition(time);
+    }
+
+    /**
+     * Returns the velocity of the car.
+     * 
+     * @param time the simulated time in ms
+     * @return the signed velocity in m/s
+     */
+    public double getVelocity(long time) {
+        Motion m = motion;
+        return null == m ? 0 : m.getVelocity(time);
+    }
+
+    /**
+     * Returns the capacity.
+     * 
+     * @return the maximum number of passengers
+     */
+    public int getCapacity() {
+        return state.get().getCapacity();
+    }
+
+    /**
+     * Changes the capacity.
+     * 
+     * @param iCapacity the maximum number of passengers, at least 1
+     * @throws IllegalArgumentException if {@code iCapacity} is less than 1
+     */
+    public void setCapacity(int iCapacity) {
+        if (iCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + iCapacity);
+        }
+        ElevatorState s;
+        do {
+            s = state.get();
+        } while (!state.compareAndSet(s, s.withCapacity(iCapacity)));
+    }
+
+    /**
+     * Returns the load.
+     * 
+     * @return the number of passengers in the elevator
+     */
+    public int getLoad() {
+        return state.get().getLoad();
+    }
+
+    /**
+     * Returns whether the elevator is full.
+     * 
+     * @return {@code true} for full, {@code false} else
+     */
+    public boolean isFull() {
+        return state.get().isFull();
+    }
+
+    /**
+     * Boards a passenger if the elevator is not full.
+     * 
+     * @return {@code true} if boarded, {@code false} if the elevator is full
+     */
+    public boolean board() {
+        ElevatorState s;
+        do {
+            s = state.get();
+            if (s.isFull()) {
+                return false;
+            }
+        } while (!state.compareAndSet(s, s.withLoad(s.getLoad() + 1)));
+        return true;
+    }
+
+    /**
+     * Lets a passenger alight.
+     * 
+     * @throws IllegalStateException if the elevator is empty
+     */
+    public void alight() {
+        ElevatorState s;
+        do {
+            s = state.get();
+            if (s.getLoad() == 0) {
+                throw new IllegalStateException("Elevator is empty");
+            }
+        } while (!state.compareAndSet(s, s.withLoad(s.getLoad() - 1)));
+    }
+
+    /**
+     * Writes floor, direction, door state, capacity, load, motion profile and current run.
+     * 
+     * @param out the snapshot writer
+     */
+    public void writeState(SnapshotWriter out) {
+        ElevatorState s = state.get();
+        out.writeInt(s.getCurrentFloor());
+        out.writeInt(s.getDirection());
+        out.writeBoolean(s.isDoorOpen());
+        out.writeBoolean(s.isKeepDoorsOpen());
+        out.writeBoolean(s.isCloseDoorsNow());
+        out.writeInt(s.getCapacity());
+        out.writeInt(s.getLoad());
+        writeProfile(out, motionProfile);
+        Motion m = motion;
+        out.writeBoolean(null != m);
+        if (null != m) {
+            writeProfile(out, m.getProfile());
+            out.writeLong(m.getStartTime());
+            out.writeDouble(m.getStartPosition());
+            out.writeDouble(m.getDistance());
+            out.writeDouble(m.getInitialVelocity());
+            out.writeDouble(m.getBrakingDistance());
+        }
+    }
+
+    /**
+     * Replaces the state of this elevator by the state written by {@link #writeState(SnapshotWriter)}. Keeps the
+     * motion profile if none was written. Threads waiting for door commands are signaled.
+     * 
+     * @param in the snapshot reader
+     */
+    public void readState(SnapshotReader in) {
+        ElevatorState s = ElevatorState.INITIAL
+            .withCurrentFloor(in.readInt())
+            .withDirection(in.readInt())
+            .withDoorOpen(in.readBoolean())
+            .withKeepDoorsOpen(in.readBoolean())
+            .withCloseDoorsNow(in.readBoolean())
+            .withCapacity(in.readInt())
+            .withLoad(in.readInt());
+        MotionProfile profile = readProfile(in);
+        if (null != profile) {
+            motionProfile = profile;
+        }
+        Motion m = null;
+        if (in.readBoolean()) {
+            m = new Motion(readProfile(in), in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(), 
+                in.readDouble());
+        }
+        motion = m;
+        doorLock.lock();
+        try {
+            state.set(s);
+            doorCommand.signalAll();
+        } finally {
+            doorLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a motion profile.
+     * 
+     * @param out the snapshot writer
+     * @param profile the profile, may be <b>null</b>
+     */
+    private static void writeProfile(SnapshotWriter out, MotionProfile profile) {
+        out.writeBoolean(null != profile);
+        if (null != profile) {
+            out.writeDouble(profile.getFloorHeight());
+            out.writeDouble(profile.getMaxVelocity());
+            out.writeDouble(profile.getMaxAcceleration());
+            out.writeDouble(profile.getMaxJerk());
+        }
+    }
+
+    /**
+     * Reads a motion profile written by {@link #writeProfile(SnapshotWriter, MotionProfile)}.
+     * 
+     * @param in the snapshot reader
+     * @return the profile, may be <b>null</b>
+     */
+    private static MotionProfile readProfile(SnapshotReader in) {
+        MotionProfile result = null;
+        if (in.readBoolean()) {
+            result = new MotionProfile(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+        }
+        return result;
     }
 
 }
@@ -0,0 +1,205 @@
+package simulator.model;
+
+/**
+ * Immutable snapshot of the movement, door and load state of an {@link Elevator}. Published atomically by the
+ * elevator, i.e., readers on other threads, e.g., a multi-elevator controller, see consistent floor/direction pairs
+ * and load/capacity pairs.
+ *
+ * @author SSE
+ */
+public class ElevatorState {
+
+    /**
+     * The initial state, i.e., in floor 0 without direction, with closed doors, empty and with
+     * {@link Elevator#DEFAULT_CAPACITY}.
+     */
+    public static final ElevatorState INITIAL = new ElevatorState(0, 0, false, false, false, 
+        Elevator.DEFAULT_CAPACITY, 0);
+
+    private final int iCurrentFloor;
+    private final int iDirection;
+    private final boolean bDoorOpen;
+    private final boolean bKeepDoorsOpen;
+    private final boolean bCloseDoorsNow;
+    private final int iCapacity;
+    private final int iLoad;
+
+    /**
+     * Creates a state.
+     *
+     * @param iCurrentFloor the current static floor
+     * @param iDirection the direction (0 none, 1 up, -1 down)
+     * @param bDoorOpen whether the door is open
+     * @param bKeepDoorsOpen whether the doors shall be kept open
+     * @param bCloseDoorsNow whether the doors shall be closed now
+     * @param iCapacity the maximum number of passengers
+     * @param iLoad the number of passengers
+     */
+    private ElevatorState(int iCurrentFloor, int iDirection, boolean bDoorOpen, boolean bKeepDoorsOpen,
+        boolean bCloseDoorsNow, int iCapacity, int iLoad) {
+        this.iCurrentFloor = iCurrentFloor;
+        this.iDirection = iDirection;
+        this.bDoorOpen = bDoorOpen;
+        this.bKeepDoorsOpen = bKeepDoorsOpen;
+        this.bCloseDoorsNow = bCloseDoorsNow;
+        this.iCapacity = iCapacity;
+        this.iLoad = iLoad;
+    }
+
+    /**
+     * Returns the current static floor.
+     *
+     * @return the floor
+     */
+    public int getCurrentFloor() {
+        return iCurrentFloor;
+    }
+
+    /**
+     * Returns the direction.
+     *
+     * @return the direction (0 none, 1 up, -1 down)
+     */
+    public int getDirection() {
+        return iDirection;
+    }
+
+    /**
+     * Returns whether the door is open.
+     *
+     * @return {@code true} for open, {@code false} else
+     */
+    public boolean isDoorOpen() {
+        return bDoorOpen;
+    }
+
+    /**
+     * Returns whether the doors shall be kept open.
+     *
+     * @return {@code true} for keep open, {@code false} else
+     */
+    public boolean isKeepDoorsOpen() {
+        return bKeepDoorsOpen;
+    }
+
+    /**
+     * Returns whether the doors shall be closed now.
+     *
+     * @return {@code true} for close now, {@code false} else
+     */
+    public boolean isCloseDoorsNow() {
+        return bCloseDoorsNow;
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return the maximum number of passengers
+     */
+    public int getCapacity() {
+        return iCapacity;
+    }
+
+    /**
+     * Returns the load.
+     *
+     * @return the number of passengers
+     */
+    public int getLoad() {
+        return iLoad;
+    }
+
+    /**
+     * Returns whether the elevator is full.
+     *
+     * @return {@code true} for full, {@code false} else
+     */
+    public boolean isFull() {
+        return iLoad >= iCapacity;
+    }
+
+    /**
+     * Returns a state with changed floor.
+     *
+     * @param floor the new floor
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withCurrentFloor(int floor) {
+        return floor == iCurrentFloor ? this
+            : new ElevatorState(floor, iDirection, bDoorOpen, bKeepDoorsOpen, bCloseDoorsNow, iCapacity, iLoad);
+    }
+
+    /**
+     * Returns a state with changed direction.
+     *
+     * @param direction the new direction
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withDirection(int direction) {
+        return direction == iDirection ? this
+            : new ElevatorState(iCurrentFloor, direction, bDoorOpen, bKeepDoorsOpen, bCloseDoorsNow, iCapacity, iLoad);
+    }
+
+    /**
+     * Returns a state with changed door state.
+     *
+     * @param open whether the door is open
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withDoorOpen(boolean open) {
+        return open == bDoorOpen ? this
+            : new ElevatorState(iCurrentFloor, iDirection, open, bKeepDoorsOpen, bCloseDoorsNow, iCapacity, iLoad);
+    }
+
+    /**
+     * Returns a state with changed keep-open command.
+     *
+     * @param keepOpen whether the doors shall be kept open
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withKeepDoorsOpen(boolean keepOpen) {
+        return keepOpen == bKeepDoorsOpen ? this
+            : new ElevatorState(iCurrentFloor, iDirection, bDoorOpen, keepOpen, bCloseDoorsNow, iCapacity, iLoad);
+    }
+
+    /**
+     * Returns a state with changed close-now command.
+     *
+     * @param closeNow whether the doors shall be closed now
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withCloseDoorsNow(boolean closeNow) {
+        return closeNow == bCloseDoorsNow ? this
+            : new ElevatorState(iCurrentFloor, iDirection, bDoorOpen, bKeepDoorsOpen, closeNow, iCapacity, iLoad);
+    }
+
+    /**
+     * Returns a state with changed capacity.
+     *
+     * @param capacity the maximum number of passengers
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withCapacity(int capacity) {
+        return capacity == iCapacity ? this
+            : new ElevatorState(iCurrentFloor, iDirection, bDoorOpen, bKeepDoorsOpen, bCloseDoorsNow, capacity, iLoad);
+    }
+
+    /**
+     * Returns a state with changed load.
+     *
+     * @param load the number of passengers
+     * @return the state, <b>this</b> if unchanged
+     */
+    public ElevatorState withLoad(int load) {
+        return load == iLoad ? this
+            : new ElevatorState(iCurrentFloor, iDirection, bDoorOpen, bKeepDoorsOpen, bCloseDoorsNow, iCapacity, load);
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorState(floor=" + iCurrentFloor + ", direction=" + iDirection + ", doorOpen=" + bDoorOpen
+            + ", keepDoorsOpen=" + bKeepDoorsOpen + ", closeDoorsNow=" + bCloseDoorsNow + ", capacity=" + iCapacity
+            + ", load=" + iLoad + ")";
+    }
+
+}
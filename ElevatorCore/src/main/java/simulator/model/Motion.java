@@ -0,0 +1,310 @@
+package simulator.model;
+
+/**
+ * A run of an elevator car according to a {@link MotionProfile}, i.e., position and velocity of the car as functions
+ * of the simulated time. Usually a rest-to-rest run; a run {@link #replan(long, double) replanned} while the car
+ * moves may also be a continued run, which starts with the velocity of the car, cruises and brakes with constant
+ * deceleration. Positions are absolute heights above floor 0 in m, the distance is signed (negative for downwards).
+ * Immutable.
+ *
+ * @author SSE
+ */
+public final class Motion {
+
+    private final MotionProfile profile;
+    private final long startTime;
+    private final double startPosition;
+    private final double distance;
+    private final double velocity; // initial speed of a continued run, 0 for rest-to-rest
+    private final double brakingDistance; // of a continued run
+
+    /**
+     * Creates a rest-to-rest run.
+     *
+     * @param profile the motion profile
+     * @param startTime the simulated start time in ms
+     * @param startPosition the start position in m
+     * @param distance the signed distance in m, 0 for a car at rest
+     */
+    public Motion(MotionProfile profile, long startTime, double startPosition, double distance) {
+        this(profile, startTime, startPosition, distance, 0, 0);
+    }
+
+    /**
+     * Creates a continued run, i.e., the car starts with the given speed, cruises and brakes over the last
+     * {@code brakingDistance} m with constant deceleration.
+     *
+     * @param profile the motion profile
+     * @param startTime the simulated start time in ms
+     * @param startPosition the start position in m
+     * @param distance the signed distance in m
+     * @param velocity the initial speed in m/s, 0 for a rest-to-rest run
+     * @param brakingDistance the braking distance in m, at most {@code |distance|}
+     * @throws IllegalArgumentException if the speed is negative or the braking distance is out of range
+     */
+    public Motion(MotionProfile profile, long startTime, double startPosition, double distance, double velocity,
+        double brakingDistance) {
+        if (velocity < 0 || brakingDistance < 0 || brakingDistance > Math.abs(distance)) {
+            throw new IllegalArgumentException("Invalid continued run: " + velocity + " " + brakingDistance);
+        }
+        this.profile = profile;
+        this.startTime = startTime;
+        this.startPosition = startPosition;
+        this.distance = distance;
+        this.velocity = 0 == distance ? 0 : velocity;
+        this.brakingDistance = brakingDistance;
+    }
+
+    /**
+     * Returns the motion profile.
+     *
+     * @return the profile
+     */
+    public MotionProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the start time.
+     *
+     * @return the simulated start time in ms
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the start position.
+     *
+     * @return the position in m
+     */
+    public double getStartPosition() {
+        return startPosition;
+    }
+
+    /**
+     * Returns the end position.
+     *
+     * @return the position in m
+     */
+    public double getEndPosition() {
+        return startPosition + distance;
+    }
+
+    /**
+     * Returns the signed distance.
+     *
+     * @return the distance in m, negative for downwards
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns the initial speed of a continued run.
+     *
+     * @return the speed in m/s, 0 for a rest-to-rest run
+     */
+    public double getInitialVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Returns the braking distance of a continued run.
+     *
+     * @return the distance in m, 0 for a rest-to-rest run
+     */
+    public double getBrakingDistance() {
+        return brakingDistance;
+    }
+
+    /**
+     * Returns whether this is a rest-to-rest run.
+     *
+     * @return {@code true} for rest-to-rest, {@code false} for a continued run
+     */
+    public boolean isRestToRest() {
+        return 0 == velocity;
+    }
+
+    /**
+     * Returns the time when the car stops.
+     *
+     * @return the simulated time in ms
+     */
+    public double getEndTime() {
+        double duration;
+        if (isRestToRest()) {
+            duration = profile.getTravelTime(Math.abs(distance));
+        } else {
+            duration = 1000 * (cruiseTime() + brakingTime());
+        }
+        return startTime + duration;
+    }
+
+    /**
+     * Returns the position of the car.
+     *
+     * @param time the simulated time in ms
+     * @return the position in m
+     */
+    public double getPosition(long time) {
+        double covered;
+        if (isRestToRest()) {
+            covered = profile.getPosition(Math.abs(distance), time - startTime);
+        } else {
+            double t = (time - startTime) / 1000.0;
+            double tc = cruiseTime();
+            double tau = t - tc;
+            if (t <= 0) {
+                covered = 0;
+            } else if (t <= tc) {
+                covered = velocity * t;
+            } else if (tau < brakingTime()) {
+                covered = cruiseDistance() + velocity * tau - deceleration() * tau * tau / 2;
+            } else {
+                covered = Math.abs(distance);
+            }
+        }
+        return startPosition + Math.signum(distance) * covered;
+    }
+
+    /**
+     * Returns the velocity of the car.
+     *
+     * @param time the simulated time in ms
+     * @return the signed velocity in m/s
+     */
+    public double getVelocity(long time) {
+        double speed;
+        if (isRestToRest()) {
+            speed = profile.getVelocity(Math.abs(distance), time - startTime);
+        } else {
+            double t = (time - startTime) / 1000.0;
+            double tau = t - cruiseTime();
+            if (tau <= 0) {
+                speed = velocity;
+            } else if (tau < brakingTime()) {
+                speed = velocity - deceleration() * tau;
+            } else {
+                speed = 0;
+            }
+        }
+        return Math.signum(distance) * speed;
+    }
+
+    /**
+     * Returns the time when the car passes a position.
+     *
+     * @param position the position in m, clipped to the run
+     * @return the simulated time in ms
+     */
+    public double getTimeAt(double position) {
+        double covered = Math.signum(distance) * (position - startPosition);
+        double result;
+        if (isRestToRest()) {
+            result = profile.getTimeAt(Math.abs(distance), covered);
+        } else {
+            double dc = cruiseDistance();
+            double t;
+            if (covered <= 0) {
+                t = 0;
+            } else if (covered <= dc) {
+                t = covered / velocity;
+            } else if (covered >= Math.abs(distance)) {
+                t = cruiseTime() + brakingTime();
+            } else {
+                double a = deceleration();
+                t = cruiseTime() + (velocity - Math.sqrt(Math.max(0, velocity * velocity - 2 * a * (covered - dc))))
+                    / a;
+            }
+            result = 1000 * t;
+        }
+        return startTime + result;
+    }
+
+    /**
+     * Returns the time when the car passes a floor.
+     *
+     * @param floor the floor
+     * @return the simulated time in ms
+     */
+    public double getTimeAtFloor(int floor) {
+        return getTimeAt(floor * profile.getFloorHeight());
+    }
+
+    /**
+     * Returns a run that continues this run at the given time towards a new end position, i.e., position and
+     * velocity of the car do not jump. If the car cruises with the velocity limit and did not start braking, only
+     * the length of the rest-to-rest run changes. Else, the car cruises with its current speed and brakes with the
+     * acceleration limit, or harder if the end position is closer than the braking distance. A car at rest starts a
+     * new rest-to-rest run.
+     *
+     * @param time the simulated time in ms
+     * @param endPosition the new end position in m
+     * @return the replanned run
+     * @throws IllegalArgumentException if the car moves and the end position is behind the car
+     */
+    public Motion replan(long time, double endPosition) {
+        double position = getPosition(time);
+        double speed = Math.abs(getVelocity(time));
+        double dir = Math.signum(distance);
+        double remaining = dir * (endPosition - position);
+        Motion result;
+        if (0 == speed) {
+            result = new Motion(profile, time, position, endPosition - position);
+        } else if (remaining <= 0) {
+            throw new IllegalArgumentException("End position " + endPosition + " is behind the car at " + position);
+        } else {
+            double total = Math.abs(endPosition - startPosition);
+            double vmax = profile.getMaxVelocity();
+            double elapsed = (time - startTime) / 1000.0;
+            if (isRestToRest() && profile.getPeakVelocity(Math.abs(distance)) >= vmax
+                && profile.getPeakVelocity(total) >= vmax && elapsed <= Math.min(Math.abs(distance), total) / vmax) {
+                // same acceleration phase and cruise velocity, braking starts at distance / vmax
+                result = new Motion(profile, startTime, startPosition, dir * total);
+            } else {
+                double braking = Math.min(remaining, speed * speed / (2 * profile.getMaxAcceleration()));
+                result = new Motion(profile, time, position, dir * remaining, speed, braking);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cruise distance of a continued run.
+     *
+     * @return the distance in m
+     */
+    private double cruiseDistance() {
+        return Math.abs(distance) - brakingDistance;
+    }
+
+    /**
+     * Returns the cruise time of a continued run.
+     *
+     * @return the time in s
+     */
+    private double cruiseTime() {
+        return cruiseDistance() / velocity;
+    }
+
+    /**
+     * Returns the braking time of a continued run.
+     *
+     * @return the time in s
+     */
+    private double brakingTime() {
+        return 2 * brakingDistance / velocity;
+    }
+
+    /**
+     * Returns the deceleration of a continued run.
+     *
+     * @return the deceleration in m/s^2
+     */
+    private double deceleration() {
+        return velocity * velocity / (2 * brakingDistance);
+    }
+
+}
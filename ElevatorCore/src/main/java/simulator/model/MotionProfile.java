@@ -0,0 +1,336 @@
+package simulator.model;
+
+/**
+ * Kinematic limits of an elevator car, i.e., the maximum velocity, acceleration and jerk, plus the height of a
+ * floor. Describes rest-to-rest runs as jerk-limited (S-curve) profiles: the car accelerates with limited jerk to the
+ * peak velocity, cruises and decelerates symmetrically. The peak velocity, the phase durations and thus position,
+ * velocity and total travel time of a run are computed in closed form, i.e., engines can compute the time when a
+ * car passes a floor instead of moving the car in small steps. Infinite acceleration and jerk limits are permitted
+ * and describe a car moving with constant velocity. Immutable.
+ *
+ * @author SSE
+ */
+public final class MotionProfile {
+
+    /**
+     * The default floor height in m.
+     */
+    public static final double DEFAULT_FLOOR_HEIGHT = 3.0;
+
+    /**
+     * The default acceleration limit in m/s^2.
+     */
+    public static final double DEFAULT_ACCELERATION = 1.0;
+
+    /**
+     * The default jerk limit in m/s^3.
+     */
+    public static final double DEFAULT_JERK = 1.5;
+
+    private final double floorHeight;
+    private final double maxVelocity;
+    private final double maxAcceleration;
+    private final double maxJerk;
+
+    /**
+     * Creates a profile.
+     *
+     * @param floorHeight the height of a floor in m
+     * @param maxVelocity the velocity limit in m/s, may be {@link Double#POSITIVE_INFINITY} for instant runs
+     * @param maxAcceleration the acceleration limit in m/s^2, may be {@link Double#POSITIVE_INFINITY}
+     * @param maxJerk the jerk limit in m/s^3, may be {@link Double#POSITIVE_INFINITY}
+     * @throws IllegalArgumentException if a value is not positive
+     */
+    public MotionProfile(double floorHeight, double maxVelocity, double maxAcceleration, double maxJerk) {
+        if (!(floorHeight > 0) || Double.isInfinite(floorHeight)) {
+            throw new IllegalArgumentException("Floor height must be positive: " + floorHeight);
+        }
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0) || !(maxJerk > 0)) {
+            throw new IllegalArgumentException("Limits must be positive: " + maxVelocity + " " + maxAcceleration
+                + " " + maxJerk);
+        }
+        this.floorHeight = floorHeight;
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxJerk = maxJerk;
+    }
+
+    /**
+     * Creates a profile for a car moving with constant velocity, i.e., unlimited acceleration and jerk.
+     *
+     * @param floorHeight the height of a floor in m
+     * @param velocity the velocity in m/s
+     * @return the profile
+     */
+    public static MotionProfile constant(double floorHeight, double velocity) {
+        return new MotionProfile(floorHeight, velocity, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the height of a floor.
+     *
+     * @return the height in m
+     */
+    public double getFloorHeight() {
+        return floorHeight;
+    }
+
+    /**
+     * Returns the velocity limit.
+     *
+     * @return the limit in m/s
+     */
+    public double getMaxVelocity() {
+        return maxVelocity;
+    }
+
+    /**
+     * Returns the acceleration limit.
+     *
+     * @return the limit in m/s^2
+     */
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+
+    /**
+     * Returns the jerk limit.
+     *
+     * @return the limit in m/s^3
+     */
+    public double getMaxJerk() {
+        return maxJerk;
+    }
+
+    /**
+     * Returns the peak velocity of a rest-to-rest run, i.e., the velocity limit or less for short runs.
+     *
+     * @param distance the distance of the run in m
+     * @return the peak velocity in m/s
+     */
+    public double getPeakVelocity(double distance) {
+        double result;
+        double ta = accelerationTime(maxVelocity);
+        if (distance <= 0) {
+            result = 0;
+        } else if (0 == ta || maxVelocity * ta <= distance) {
+            result = maxVelocity;
+        } else if (Double.isInfinite(maxJerk)) {
+            result = Math.sqrt(maxAcceleration * distance);
+        } else if (Double.isInfinite(maxAcceleration)) {
+            result = Math.cbrt(distance * distance * maxJerk / 4);
+        } else {
+            // constant acceleration phase if the peak velocity is at least a^2/j, else pure jerk phases
+            double b = maxAcceleration * maxAcceleration / maxJerk;
+            result = (-b + Math.sqrt(b * b + 4 * maxAcceleration * distance)) / 2;
+            if (result < b) {
+                result = Math.cbrt(distance * distance * maxJerk / 4);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duration of a rest-to-rest run.
+     *
+     * @param distance the distance of the run in m
+     * @return the duration in ms
+     */
+    public double getTravelTime(double distance) {
+        double result = 0;
+        if (distance > 0) {
+            double vp = getPeakVelocity(distance);
+            result = 1000 * (accelerationTime(vp) + distance / vp);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position of the car during a rest-to-rest run.
+     *
+     * @param distance the distance of the run in m
+     * @param time the time since start of the run in ms
+     * @return the distance covered in m
+     */
+    public double getPosition(double distance, double time) {
+        double result;
+        double t = time / 1000;
+        double vp = getPeakVelocity(distance);
+        double ta = accelerationTime(vp);
+        double total = 0 == vp ? 0 : ta + distance / vp;
+        if (t <= 0 || distance <= 0) {
+            result = 0;
+        } else if (t >= total) {
+            result = distance;
+        } else if (t <= ta) {
+            result = accelerationPosition(vp, ta, t);
+        } else if (t <= total - ta) {
+            result = vp * ta / 2 + vp * (t - ta);
+        } else {
+            result = distance - accelerationPosition(vp, ta, total - t);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the velocity of the car during a rest-to-rest run.
+     *
+     * @param distance the distance of the run in m
+     * @param time the time since start of the run in ms
+     * @return the velocity in m/s
+     */
+    public double getVelocity(double distance, double time) {
+        double result;
+        double t = time / 1000;
+        double vp = getPeakVelocity(distance);
+        double ta = accelerationTime(vp);
+        double total = 0 == vp ? 0 : ta + distance / vp;
+        if (t <= 0 || t >= total) {
+            result = 0;
+        } else if (t <= ta) {
+            result = accelerationVelocity(vp, ta, t);
+        } else if (t <= total - ta) {
+            result = vp;
+        } else {
+            result = accelerationVelocity(vp, ta, total - t);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time when the car reaches a position during a rest-to-rest run. As the position is strictly
+     * increasing during the run, the (piecewise polynomial) position is inverted by a safeguarded Newton iteration
+     * that converges in a few steps.
+     *
+     * @param distance the distance of the run in m
+     * @param position the position in m, clipped to {@code [0, distance]}
+     * @return the time since start of the run in ms
+     */
+    public double getTimeAt(double distance, double position) {
+        double result;
+        double total = getTravelTime(distance);
+        if (position <= 0) {
+            result = 0;
+        } else if (position >= distance) {
+            result = total;
+        } else {
+            double lo = 0;
+            double hi = total;
+            result = total * position / distance; // exact for constant velocity
+            for (int i = 0; i < 64; i++) {
+                double f = getPosition(distance, result) - position;
+                if (Math.abs(f) < 1e-9) {
+                    break;
+                }
+                if (f > 0) {
+                    hi = result;
+                } else {
+                    lo = result;
+                }
+                double v = getVelocity(distance, result) / 1000; // m/ms
+                double next = v > 0 ? result - f / v : -1;
+                result = next > lo && next < hi ? next : (lo + hi) / 2;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duration of a jerk phase when accelerating from rest to the given velocity.
+     *
+     * @param vp the velocity in m/s
+     * @return the duration in s
+     */
+    private double jerkTime(double vp) {
+        double result;
+        if (Double.isInfinite(maxJerk)) {
+            result = 0;
+        } else if (Double.isInfinite(maxAcceleration) || vp < maxAcceleration * maxAcceleration / maxJerk) {
+            result = Math.sqrt(vp / maxJerk);
+        } else {
+            result = maxAcceleration / maxJerk;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duration of accelerating from rest to the given velocity.
+     *
+     * @param vp the velocity in m/s
+     * @return the duration in s
+     */
+    private double accelerationTime(double vp) {
+        double result;
+        if (Double.isInfinite(maxJerk)) {
+            result = Double.isInfinite(maxAcceleration) ? 0 : vp / maxAcceleration;
+        } else if (Double.isInfinite(maxAcceleration) || vp < maxAcceleration * maxAcceleration / maxJerk) {
+            result = 2 * jerkTime(vp);
+        } else {
+            result = vp / maxAcceleration + jerkTime(vp);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position while accelerating from rest to {@code vp}. The acceleration phase is point-symmetric
+     * in its center, i.e., the second half is derived from the first one.
+     *
+     * @param vp the velocity at the end of the phase in m/s
+     * @param ta the duration of the phase in s
+     * @param t the time since start of the phase in s
+     * @return the distance covered in m
+     */
+    private double accelerationPosition(double vp, double ta, double t) {
+        double result;
+        if (0 == ta) {
+            result = 0;
+        } else if (t > ta / 2) {
+            result = vp * t - vp * ta / 2 + accelerationPosition(vp, ta, ta - t);
+        } else {
+            double tj = jerkTime(vp);
+            if (t <= tj) {
+                result = maxJerk * t * t * t / 6;
+            } else if (0 == tj) {
+                result = vp / ta * t * t / 2;
+            } else {
+                double tau = t - tj;
+                result = maxJerk * tj * tj * tj / 6 + maxJerk * tj * tj / 2 * tau + maxJerk * tj * tau * tau / 2;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the velocity while accelerating from rest to {@code vp}.
+     *
+     * @param vp the velocity at the end of the phase in m/s
+     * @param ta the duration of the phase in s
+     * @param t the time since start of the phase in s
+     * @return the velocity in m/s
+     */
+    private double accelerationVelocity(double vp, double ta, double t) {
+        double result;
+        if (0 == ta) {
+            result = vp;
+        } else if (t > ta / 2) {
+            result = vp - accelerationVelocity(vp, ta, ta - t);
+        } else {
+            double tj = jerkTime(vp);
+            if (t <= tj) {
+                result = maxJerk * t * t / 2;
+            } else if (0 == tj) {
+                result = vp / ta * t;
+            } else {
+                result = maxJerk * tj * tj / 2 + maxJerk * tj * (t - tj);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "MotionProfile(floorHeight=" + floorHeight + ", v=" + maxVelocity + ", a=" + maxAcceleration
+            + ", j=" + maxJerk + ")";
+    }
+
+}
@@ -0,0 +1,152 @@
+package simulator.model;
+
+/**
+ * A passenger traveling from an origin to a destination floor. Times are (simulated) ms, {@code -1} for not yet.
+ *
+ * @author SSE
+ */
+public class Passenger {
+
+    private final long arrivalTime;
+    private final int iOrigin;
+    private final int iDestination;
+    private long boardingTime = -1;
+    private long alightingTime = -1;
+    private int iElevator = -1;
+
+    /**
+     * Creates a passenger.
+     *
+     * @param arrivalTime the time the passenger arrives at the origin floor
+     * @param origin the origin floor
+     * @param destination the destination floor
+     * @throws IllegalArgumentException if origin and destination are equal
+     */
+    public Passenger(long arrivalTime, int origin, int destination) {
+        if (origin == destination) {
+            throw new IllegalArgumentException("Origin and destination must differ: " + origin);
+        }
+        this.arrivalTime = arrivalTime;
+        this.iOrigin = origin;
+        this.iDestination = destination;
+    }
+
+    /**
+     * Returns the time the passenger arrived at the origin floor.
+     *
+     * @return the arrival time
+     */
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    /**
+     * Returns the origin floor.
+     *
+     * @return the origin floor
+     */
+    public int getOrigin() {
+        return iOrigin;
+    }
+
+    /**
+     * Returns the destination floor.
+     *
+     * @return the destination floor
+     */
+    public int getDestination() {
+        return iDestination;
+    }
+
+    /**
+     * Returns the travel direction.
+     *
+     * @return 1 for up, -1 for down
+     */
+    public int getDirection() {
+        return iDestination > iOrigin ? 1 : -1;
+    }
+
+    /**
+     * Returns the elevator the passenger boarded.
+     *
+     * @return the elevator index, {@code -1} if not yet boarded
+     */
+    public int getElevator() {
+        return iElevator;
+    }
+
+    /**
+     * Returns the boarding time.
+     *
+     * @return the boarding time, {@code -1} if not yet boarded
+     */
+    public long getBoardingTime() {
+        return boardingTime;
+    }
+
+    /**
+     * Returns the alighting time.
+     *
+     * @return the alighting time, {@code -1} if not yet alighted
+     */
+    public long getAlightingTime() {
+        return alightingTime;
+    }
+
+    /**
+     * Called when the passenger boards an elevator.
+     *
+     * @param time the boarding time
+     * @param elevator the elevator index
+     * @throws IllegalStateException if the passenger already boarded
+     */
+    public void board(long time, int elevator) {
+        if (boardingTime >= 0) {
+            throw new IllegalStateException("Already boarded");
+        }
+        boardingTime = time;
+        iElevator = elevator;
+    }
+
+    /**
+     * Called when the passenger alights at the destination floor.
+     *
+     * @param time the alighting time
+     * @throws IllegalStateException if the passenger did not board or already alighted
+     */
+    public void alight(long time) {
+        if (boardingTime < 0 || alightingTime >= 0) {
+            throw new IllegalStateException("Not riding");
+        }
+        alightingTime = time;
+    }
+
+    /**
+     * Returns the waiting time, i.e., from arrival to boarding.
+     *
+     * @return the waiting time, {@code -1} if not yet boarded
+     */
+    public long getWaitingTime() {
+        return boardingTime < 0 ? -1 : boardingTime - arrivalTime;
+    }
+
+    /**
+     * Returns the transit time, i.e., from boarding to alighting.
+     *
+     * @return the transit time, {@code -1} if not yet alighted
+     */
+    public long getTransitTime() {
+        return alightingTime < 0 ? -1 : alightingTime - boardingTime;
+    }
+
+    /**
+     * Returns the journey time, i.e., from arrival to alighting.
+     *
+     * @return the journey time, {@code -1} if not yet alighted
+     */
+    public long getJourneyTime() {
+        return alightingTime < 0 ? -1 : alightingTime - arrivalTime;
+    }
+
+}
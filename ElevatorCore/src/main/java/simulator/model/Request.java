@@ -30,6 +30,19 @@ public class Request {
         iDirection = direction;
         iPriority = 1;
     }
+
+    /**
+     * Creates a request with given values.
+     * 
+     * @param floor the target floor
+     * @param direction the requested direction (may be 0 for none)
+     * @param priority the priority, 1 for normal
+     */
+    public Request(int floor, int direction, int priority) {
+        iFloor = floor;
+        iDirection = direction;
+        iPriority = priority;
+    }
     
     /**
      * Creates a new request with changed target floor.
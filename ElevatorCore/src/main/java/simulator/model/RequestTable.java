@@ -0,0 +1,550 @@
+package simulator.model;
+
+import java.util.Arrays;
+
+import engine.snapshot.SnapshotReader;
+import engine.snapshot.SnapshotWriter;
+
+/**
+ * Per-floor request table of an elevator controller. Pending floors and ignored floors are kept as bitsets, priorities
+ * and directions of pending requests in primitive arrays, so that searching the next pending floor in a direction
+ * skips empty floors word-wise via {@link #nextPending(int)} and {@link #previousPending(int)}. The requests are kept
+ * as well so that controllers can compare requests by identity.
+ *
+ * Priorities age lazily: {@link #adjustPriorities(int, int)} just advances a global aging counter, the priority of a
+ * request is its priority when entering the table plus the aging since then. Pending floors are kept in an indexed
+ * max-heap on that difference so that {@link #highestPriority()} is O(1) and all updates are O(log n). The 
+ * priority of a request object is updated when it leaves the table.
+ *
+ * A table is not thread-safe. It is modified only by the thread holding the writer token of its controller, other
+ * threads read an immutable {@link #copy() copy} published by the controller after modifications, see
+ * {@link simulator.controllers.AbstractController#getRequests()}.
+ *
+ * @author SSE
+ */
+public class RequestTable {
+
+    private static final int WORD_BITS = 64;
+
+    private final int size;
+    private final long[] pending;
+    private final long[] ignored;
+    private final long[] keys; // priority minus aging at enqueue
+    private final int[] directions;
+    private final Request[] requests;
+    private final int[] heap; // floors, max-heap on keys, ties by lower floor
+    private final int[] heapPos; // position of floor in heap, -1 if not pending
+    private final boolean readOnly;
+    private int count;
+    private long aging;
+    private long modifications;
+
+    /**
+     * Creates a request table.
+     *
+     * @param size the number of floor entries
+     */
+    public RequestTable(int size) {
+        this.size = size;
+        int words = (size + WORD_BITS - 1) / WORD_BITS;
+        pending = new long[words];
+        ignored = new long[words];
+        keys = new long[size];
+        directions = new int[size];
+        requests = new Request[size];
+        heap = new int[size];
+        heapPos = new int[size];
+        Arrays.fill(heapPos, -1);
+        readOnly = false;
+    }
+
+    /**
+     * Creates a read-only copy.
+     *
+     * @param source the table to copy
+     */
+    private RequestTable(RequestTable source) {
+        size = source.size;
+        pending = source.pending.clone();
+        ignored = source.ignored.clone();
+        keys = source.keys.clone();
+        directions = source.directions.clone();
+        requests = source.requests.clone();
+        heap = source.heap.clone();
+        heapPos = source.heapPos.clone();
+        count = source.count;
+        aging = source.aging;
+        modifications = source.modifications;
+        readOnly = true;
+    }
+
+    /**
+     * Returns an immutable copy of this table, e.g., to be published to other threads. Modifying the copy fails.
+     *
+     * @return the copy
+     */
+    public RequestTable copy() {
+        return new RequestTable(this);
+    }
+
+    /**
+     * Returns whether this table is an immutable {@link #copy()}.
+     *
+     * @return {@code true} for read-only, {@code false} else
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns the number of modifications so far, e.g., to determine whether a published copy is outdated.
+     *
+     * @return the number of modifications
+     */
+    public long getModifications() {
+        return modifications;
+    }
+
+    /**
+     * Returns the number of floor entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of pending requests.
+     *
+     * @return the number of pending requests
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns whether there are no pending requests.
+     *
+     * @return {@code true} for none, {@code false} else
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the request for the given floor.
+     *
+     * @param floor the floor
+     * @return the request, <b>null</b> for none
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     */
+    public Request get(int floor) {
+        return requests[floor];
+    }
+
+    /**
+     * Returns whether there is a request for the given floor.
+     *
+     * @param floor the floor
+     * @return {@code true} for pending, {@code false} else (also if {@code floor} is not valid)
+     */
+    public boolean isPending(int floor) {
+        return floor >= 0 && floor < size && (pending[floor / WORD_BITS] & (1L << floor)) != 0;
+    }
+
+    /**
+     * Changes the request for the given floor.
+     *
+     * @param floor the floor
+     * @param request the request, <b>null</b> for removing the request
+     * @return the previous request, may be <b>null</b>
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     * @throws IllegalStateException if this table is read-only
+     */
+    public Request set(int floor, Request request) {
+        checkWritable();
+        modifications++;
+        Request old = requests[floor];
+        if (null != old) { // materialize lazy aging
+            old.adjustPriority(getPriority(floor) - old.getPriority());
+        }
+        requests[floor] = request;
+        if (null == request) {
+            if (null != old) {
+                pending[floor / WORD_BITS] &= ~(1L << floor);
+                count--;
+                heapRemove(floor);
+            }
+            keys[floor] = 0;
+            directions[floor] = 0;
+        } else {
+            keys[floor] = request.getPriority() - aging;
+            directions[floor] = request.getDirection();
+            if (null == old) {
+                pending[floor / WORD_BITS] |= 1L << floor;
+                count++;
+                heapPos[floor] = count - 1;
+                heap[count - 1] = floor;
+                siftUp(count - 1);
+            } else {
+                siftUp(heapPos[floor]);
+                siftDown(heapPos[floor]);
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Removes all requests. Ignored floors stay ignored.
+     *
+     * @throws IllegalStateException if this table is read-only
+     */
+    public void clear() {
+        for (int f = nextPending(0); f >= 0; f = nextPending(f + 1)) {
+            set(f, null);
+        }
+    }
+
+    /**
+     * Returns the (aged) priority of the request for the given floor.
+     *
+     * @param floor the floor
+     * @return the priority, {@code 0} if there is no request
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     */
+    public int getPriority(int floor) {
+        return null == requests[floor] ? 0 : (int) (keys[floor] + aging);
+    }
+
+    /**
+     * Returns the pending floor with the highest priority, the lowest floor if there are multiple.
+     *
+     * @return the floor, {@code -1} if there is no request
+     */
+    public int highestPriority() {
+        return count > 0 ? heap[0] : -1;
+    }
+
+    /**
+     * Returns the requested direction for the given floor.
+     *
+     * @param floor the floor
+     * @return the direction (0 none, 1 up, -1 down), {@code 0} if there is no request
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     */
+    public int getDirection(int floor) {
+        return directions[floor];
+    }
+
+    /**
+     * Adjusts the priorities of all pending requests by the given distance. Takes O(1) time, O(log n) if 
+     * {@code exceptFloor} is pending.
+     *
+     * @param distance the distance to adjust the priority by
+     * @param exceptFloor a floor to leave unchanged, negative for none
+     * @throws IllegalStateException if this table is read-only
+     * @see Request#adjustPriority(int)
+     */
+    public void adjustPriorities(int distance, int exceptFloor) {
+        checkWritable();
+        if (distance != 0) {
+            modifications++;
+            aging += distance;
+            if (isPending(exceptFloor)) {
+                keys[exceptFloor] -= distance;
+                siftUp(heapPos[exceptFloor]);
+                siftDown(heapPos[exceptFloor]);
+            }
+        }
+    }
+
+    /**
+     * Returns the first pending floor at or above {@code from}.
+     *
+     * @param from the floor to start searching at
+     * @return the floor, {@code -1} if there is none
+     */
+    public int nextPending(int from) {
+        return nextSetBit(pending, from);
+    }
+
+    /**
+     * Returns the first pending floor at or below {@code from}.
+     *
+     * @param from the floor to start searching at
+     * @return the floor, {@code -1} if there is none
+     */
+    public int previousPending(int from) {
+        return previousSetBit(pending, from);
+    }
+
+    /**
+     * Returns the nearest pending floor above or below {@code floor}, excluding {@code floor}. If two floors have the
+     * same distance, the upper floor is returned.
+     *
+     * @param floor the floor to start from
+     * @return the nearest floor, {@code -1} if there is none
+     */
+    public int nearestPending(int floor) {
+        int up = nextPending(floor + 1);
+        int down = floor > 0 ? previousPending(floor - 1) : -1;
+        int result;
+        if (up < 0) {
+            result = down;
+        } else if (down < 0) {
+            result = up;
+        } else {
+            result = up - floor <= floor - down ? up : down;
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the given floor is ignored.
+     *
+     * @param floor the floor
+     * @return {@code true} for ignored, {@code false} else
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     */
+    public boolean isIgnored(int floor) {
+        checkIndex(floor);
+        return (ignored[floor / WORD_BITS] & (1L << floor)) != 0;
+    }
+
+    /**
+     * Changes whether the given floor is ignored.
+     *
+     * @param floor the floor
+     * @param ignore {@code true} for ignored, {@code false} else
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     * @throws IllegalStateException if this table is read-only
+     */
+    public void setIgnored(int floor, boolean ignore) {
+        checkIndex(floor);
+        checkWritable();
+        modifications++;
+        if (ignore) {
+            ignored[floor / WORD_BITS] |= 1L << floor;
+        } else {
+            ignored[floor / WORD_BITS] &= ~(1L << floor);
+        }
+    }
+
+    /**
+     * Writes the pending requests, their aged priorities and the ignored floors.
+     *
+     * @param out the snapshot writer
+     */
+    public void writeState(SnapshotWriter out) {
+        out.writeInt(size);
+        out.writeLong(aging);
+        for (long word : ignored) {
+            out.writeLong(word);
+        }
+        out.writeInt(count);
+        for (int f = nextPending(0); f >= 0; f = nextPending(f + 1)) {
+            out.writeInt(f);
+            out.writeLong(keys[f]);
+            out.writeRequest(requests[f]);
+        }
+    }
+
+    /**
+     * Replaces the requests and ignored floors by the state written by {@link #writeState(SnapshotWriter)}.
+     *
+     * @param in the snapshot reader
+     * @throws IllegalArgumentException if the snapshot was taken from a table with a different size
+     * @throws IllegalStateException if this table is read-only
+     */
+    public void readState(SnapshotReader in) {
+        checkWritable();
+        modifications++;
+        int entries = in.readInt();
+        if (entries != size) {
+            throw new IllegalArgumentException("Request table size mismatch: " + entries + " vs. " + size);
+        }
+        clear();
+        aging = in.readLong();
+        for (int w = 0; w < ignored.length; w++) {
+            ignored[w] = in.readLong();
+        }
+        int pendingCount = in.readInt();
+        for (int i = 0; i < pendingCount; i++) {
+            int floor = in.readInt();
+            long key = in.readLong();
+            Request request = in.readRequest();
+            checkIndex(floor);
+            set(floor, request);
+            keys[floor] = key;
+            siftUp(heapPos[floor]);
+            siftDown(heapPos[floor]);
+        }
+    }
+
+    /**
+     * Returns whether the floor at heap position {@code i} has a higher priority than the one at {@code j}.
+     *
+     * @param i the first heap position
+     * @param j the second heap position
+     * @return {@code true} if {@code i} is before {@code j}, {@code false} else
+     */
+    private boolean before(int i, int j) {
+        int fi = heap[i];
+        int fj = heap[j];
+        return keys[fi] > keys[fj] || (keys[fi] == keys[fj] && fi < fj);
+    }
+
+    /**
+     * Swaps two heap positions.
+     *
+     * @param i the first position
+     * @param j the second position
+     */
+    private void swap(int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+        heapPos[heap[i]] = i;
+        heapPos[heap[j]] = j;
+    }
+
+    /**
+     * Restores the heap property upwards.
+     *
+     * @param pos the position to start at
+     */
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!before(pos, parent)) {
+                break;
+            }
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    /**
+     * Restores the heap property downwards.
+     *
+     * @param pos the position to start at
+     */
+    private void siftDown(int pos) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= count) {
+                break;
+            }
+            int max = left;
+            int right = left + 1;
+            if (right < count && before(right, left)) {
+                max = right;
+            }
+            if (!before(max, pos)) {
+                break;
+            }
+            swap(pos, max);
+            pos = max;
+        }
+    }
+
+    /**
+     * Removes a floor from the heap. {@link #count} must already be decremented.
+     *
+     * @param floor the floor
+     */
+    private void heapRemove(int floor) {
+        int pos = heapPos[floor];
+        heapPos[floor] = -1;
+        if (pos != count) { // move last into the gap
+            int moved = heap[count];
+            heap[pos] = moved;
+            heapPos[moved] = pos;
+            siftUp(pos);
+            siftDown(heapPos[moved]);
+        }
+    }
+
+    /**
+     * Checks that this table may be modified.
+     *
+     * @throws IllegalStateException if this table is read-only
+     */
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("Read-only request table");
+        }
+    }
+
+    /**
+     * Checks a floor index.
+     *
+     * @param floor the floor
+     * @throws IndexOutOfBoundsException if {@code floor} is not valid
+     */
+    private void checkIndex(int floor) {
+        if (floor < 0 || floor >= size) {
+            throw new IndexOutOfBoundsException("Floor " + floor + " out of range [0;" + size + ")");
+        }
+    }
+
+    /**
+     * Returns the index of the first set bit at or above {@code from}.
+     *
+     * @param bits the bitset
+     * @param from the index to start at
+     * @return the index, {@code -1} if there is none
+     */
+    private int nextSetBit(long[] bits, int from) {
+        int result = -1;
+        if (from < 0) {
+            from = 0;
+        }
+        if (from < size) {
+            int w = from / WORD_BITS;
+            long word = bits[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    result = w * WORD_BITS + Long.numberOfTrailingZeros(word);
+                    break;
+                }
+                if (++w == bits.length) {
+                    break;
+                }
+                word = bits[w];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first set bit at or below {@code from}.
+     *
+     * @param bits the bitset
+     * @param from the index to start at
+     * @return the index, {@code -1} if there is none
+     */
+    private int previousSetBit(long[] bits, int from) {
+        int result = -1;
+        if (from >= size) {
+            from = size - 1;
+        }
+        if (from >= 0) {
+            int w = from / WORD_BITS;
+            long word = bits[w] & (-1L >>> (WORD_BITS - 1 - from % WORD_BITS));
+            while (true) {
+                if (word != 0) {
+                    result = w * WORD_BITS + WORD_BITS - 1 - Long.numberOfLeadingZeros(word);
+                    break;
+                }
+                if (w-- == 0) {
+                    break;
+                }
+                word = bits[w];
+            }
+        }
+        return result;
+    }
+
+}
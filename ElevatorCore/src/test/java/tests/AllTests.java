@@ -8,7 +8,11 @@ import org.junit.runners.Suite.SuiteClasses;
  * Selects the tests to run.
  */
 @RunWith(Suite.class)
-@SuiteClasses({EventsManagerTest.class})
+@SuiteClasses({EventsManagerTest.class, HeadlessSimulatorTest.class,
+    SimulationClockTest.class, RequestTableTest.class, GroupDispatchControllerTest.class,
+    ScenarioRunnerTest.class, TrafficGeneratorTest.class, PassengerTrackerTest.class,
+    TraceRecorderTest.class, MetricsRegistryTest.class, ControllerMailboxTest.class,
+    MotionProfileTest.class, SimulatorSnapshotTest.class})
 public class AllTests {
 
 }
@@ -0,0 +1,294 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.ElevatorEngine;
+import engine.EngineMode;
+import simulator.controllers.AbstractController;
+import simulator.controllers.DefaultEController;
+import simulator.model.ControllerState;
+import simulator.model.Elevator;
+import simulator.model.ElevatorState;
+import simulator.model.Request;
+import simulator.model.RequestTable;
+
+/**
+ * Tests the single-writer mailbox of {@link AbstractController} and the state snapshots.
+ *
+ * @author SSE
+ */
+public class ControllerMailboxTest {
+
+    private int counter; // deliberately not volatile, guarded by the writer token
+
+    /**
+     * Installs the settings.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+    }
+
+    /**
+     * Tests that commands are executed immediately if the writer token is free or held by the caller.
+     */
+    @Test
+    public void testSubmitImmediate() {
+        AbstractController controller = new DefaultEController(0);
+        List<Integer> done = new ArrayList<>();
+        controller.submit(() -> done.add(1));
+        Assert.assertEquals(1, done.size());
+        controller.beginUpdate();
+        controller.submit(() -> done.add(2));
+        Assert.assertEquals(2, done.size());
+        controller.endUpdate();
+    }
+
+    /**
+     * Tests that commands of other threads are deferred until the writer token is released.
+     *
+     * @throws InterruptedException shall not occur
+     */
+    @Test
+    public void testSubmitDeferred() throws InterruptedException {
+        AbstractController controller = new DefaultEController(0);
+        List<String> done = new ArrayList<>();
+        controller.beginUpdate();
+        Thread other = new Thread(() -> {
+            controller.submit(() -> done.add("first " + Thread.currentThread().getName()));
+            controller.submit(() -> done.add("second " + Thread.currentThread().getName()));
+        }, "other");
+        other.start();
+        other.join();
+        Assert.assertTrue(done.isEmpty());
+        controller.endUpdate();
+        Assert.assertEquals(2, done.size());
+        String engine = Thread.currentThread().getName(); // executed by the token holder
+        Assert.assertEquals("first " + engine, done.get(0));
+        Assert.assertEquals("second " + engine, done.get(1));
+    }
+
+    /**
+     * Tests that commands submitted concurrently are executed exactly once and never concurrently with the engine.
+     *
+     * @throws InterruptedException shall not occur
+     */
+    @Test
+    public void testConcurrentSubmit() throws InterruptedException {
+        AbstractController controller = new DefaultEController(0);
+        final int threads = 4;
+        final int commands = 20000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int c = 0; c < commands; c++) {
+                    controller.submit(() -> counter++);
+                }
+            });
+            thread.start();
+            submitters.add(thread);
+        }
+        start.countDown();
+        int engine = 0;
+        while (submitters.stream().anyMatch(Thread::isAlive)) {
+            controller.beginUpdate(); // "engine" steps
+            counter++;
+            engine++;
+            controller.endUpdate();
+        }
+        for (Thread thread : submitters) {
+            thread.join();
+        }
+        controller.beginUpdate();
+        Assert.assertEquals(threads * commands + engine, counter);
+        controller.endUpdate();
+    }
+
+    /**
+     * Tests that the mailboxes of multiple controllers are drained serially by a shared bounded executor, but by the
+     * token holder while the token is held.
+     *
+     * @throws Exception shall not occur
+     */
+    @Test(timeout = 10000)
+    public void testMailboxExecutor() throws Exception {
+        ExecutorService carrier = Executors.newSingleThreadExecutor(r -> new Thread(r, "carrier"));
+        try {
+            final int commands = 1000;
+            List<AbstractController> controllers = new ArrayList<>();
+            List<List<String>> done = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                AbstractController controller = new DefaultEController(c);
+                controller.setMailboxExecutor(carrier);
+                Assert.assertSame(carrier, controller.getMailboxExecutor());
+                controllers.add(controller);
+                done.add(new ArrayList<>());
+            }
+            for (int i = 0; i < commands; i++) {
+                for (int c = 0; c < controllers.size(); c++) {
+                    List<String> log = done.get(c);
+                    controllers.get(c).submit(() -> log.add(Thread.currentThread().getName()));
+                }
+            }
+            carrier.submit(() -> { }).get(); // all drains before are done
+            for (List<String> log : done) {
+                Assert.assertEquals(commands, log.size());
+                Assert.assertTrue(log.stream().allMatch("carrier"::equals));
+            }
+
+            AbstractController controller = controllers.get(0);
+            List<String> log = new ArrayList<>();
+            controller.beginUpdate();
+            controller.submit(() -> log.add("writer"));
+            Thread other = new Thread(() -> controller.submit(() -> log.add(Thread.currentThread().getName())));
+            other.start();
+            other.join();
+            carrier.submit(() -> { }).get();
+            Assert.assertEquals(1, log.size()); // the carrier does not wait for the token
+            controller.endUpdate();
+            String engine = Thread.currentThread().getName();
+            Assert.assertEquals(Arrays.asList("writer", engine), log);
+        } finally {
+            carrier.shutdown();
+        }
+    }
+
+    /**
+     * Tests that bursts of simulation starts submit the engine only once to the engine executor.
+     */
+    @Test
+    public void testEngineSubmittedOnce() {
+        List<Runnable> submitted = new ArrayList<>();
+        ElevatorEngine.setExecutor(submitted::add); // do not run the engine
+        try {
+            AbstractController controller = new DefaultEController(0);
+            for (int i = 0; i < 10; i++) {
+                controller.startSimulation();
+            }
+            Assert.assertEquals(1, submitted.size());
+        } finally {
+            ElevatorEngine.setExecutor(null);
+        }
+    }
+
+    /**
+     * Tests the executors of the engine modes.
+     *
+     * @throws Exception shall not occur
+     */
+    @Test
+    public void testEngineModes() throws Exception {
+        ExecutorService platform = EngineMode.PLATFORM.newExecutor("engine");
+        Future<String> name = platform.submit(() -> Thread.currentThread().getName());
+        Assert.assertEquals("engine", name.get());
+        Assert.assertTrue(platform.submit(() -> Thread.currentThread().isDaemon()).get());
+        platform.shutdown();
+
+        ExecutorService auto = EngineMode.AUTO.newExecutor("engine");
+        Assert.assertEquals(Boolean.TRUE, auto.submit(() -> true).get());
+        auto.shutdown();
+        if (!EngineMode.isVirtualThreadSupported()) {
+            try {
+                EngineMode.VIRTUAL.newExecutor("engine");
+                Assert.fail("virtual threads are not supported");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Tests the state snapshots.
+     */
+    @Test
+    public void testSnapshots() {
+        Elevator elevator = new Elevator();
+        ElevatorState initial = elevator.getState();
+        Assert.assertSame(ElevatorState.INITIAL, initial);
+        elevator.setCurrentFloor(0);
+        elevator.setCloseDoorsNow(false);
+        Assert.assertSame(initial, elevator.getState()); // unchanged, no new snapshot
+        elevator.setCurrentFloor(3);
+        elevator.setDirection(-1);
+        ElevatorState state = elevator.getState();
+        Assert.assertEquals(3, state.getCurrentFloor());
+        Assert.assertEquals(-1, state.getDirection());
+        elevator.setCurrentFloor(2);
+        Assert.assertEquals(3, state.getCurrentFloor()); // immutable
+        Assert.assertEquals(2, elevator.getCurrentFloor());
+        Assert.assertEquals(0, initial.getCurrentFloor());
+
+        AbstractController controller = new DefaultEController(0);
+        controller.setDriver(c -> { }); // do not start an engine
+        Assert.assertSame(ControllerState.INITIAL, controller.getState());
+        controller.submitRequest(new Request(5, 0));
+        ControllerState cState = controller.getState();
+        Assert.assertEquals(5, cState.getCurrentRequest().getFloor());
+        Assert.assertEquals(1, controller.getElevatorCurrentDirection());
+        Assert.assertFalse(cState.hasPriorityCall());
+
+        elevator.setCapacity(2);
+        Assert.assertTrue(elevator.board());
+        ElevatorState loaded = elevator.getState();
+        Assert.assertTrue(elevator.board());
+        Assert.assertFalse(elevator.board());
+        Assert.assertEquals(1, loaded.getLoad()); // immutable
+        Assert.assertEquals(2, loaded.getCapacity());
+        Assert.assertTrue(elevator.getState().isFull());
+        elevator.alight();
+        Assert.assertEquals(1, elevator.getLoad());
+    }
+
+    /**
+     * Tests that other threads read the request table published when the writer token is released.
+     *
+     * @throws InterruptedException shall not occur
+     */
+    @Test
+    public void testPublishedRequests() throws InterruptedException {
+        AbstractController controller = new DefaultEController(0);
+        controller.setDriver(c -> { }); // do not start an engine
+        RequestTable initial = controller.getRequests();
+        Assert.assertTrue(initial.isReadOnly());
+        controller.beginUpdate();
+        controller.submitRequest(new Request(4, 0));
+        Assert.assertFalse(controller.getRequests().isReadOnly()); // the writer sees its own table
+        Assert.assertNotNull(controller.getRequest(4));
+        List<RequestTable> seen = new ArrayList<>();
+        Thread other = new Thread(() -> seen.add(controller.getRequests()));
+        other.start();
+        other.join();
+        Assert.assertSame(initial, seen.get(0)); // not yet published
+        controller.endUpdate();
+        RequestTable published = controller.getRequests();
+        Assert.assertTrue(published.isReadOnly());
+        Assert.assertNotNull(published.get(4));
+        Assert.assertNull(initial.get(4));
+        try {
+            controller.lockRequestList((RequestTable t) -> t.set(4, null));
+            Assert.fail("Exception expected");
+        } catch (IllegalStateException e) {
+            // expected, only the writer modifies
+        }
+        controller.ignoreFloor(7, true);
+        Assert.assertTrue(controller.isFloorIgnored(7));
+        Assert.assertFalse(published.isIgnored(7));
+    }
+
+}
@@ -1,5 +1,11 @@
 package tests;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
@@ -13,6 +19,7 @@ import engine.FloorSensorEvent;
 import engine.FloorSensorEvent.FloorSensorEventObserver;
 
 import org.junit.Assert;
+import org.junit.Assume;
 
 /**
  * Tests {@link EventsManager} and some events.
@@ -129,5 +136,297 @@ public class EventsManagerTest {
         EventsManager.FLOOR_SENSORS.removeObserverIf(o -> o.declaringClass() != EventsManagerTest.class); // shall hold
         EventsManager.FLOOR_SENSORS.removeObserver(obs); // no effect
     }
-    
+
+    /**
+     * Tests asynchronous dispatch with a blocked observer, i.e., that the sender and other observers are not blocked,
+     * that the order is kept and that the backpressure policies apply.
+     * 
+     * @throws InterruptedException shall not occur
+     */
+    @Test
+    public void testAsynchronousDispatch() throws InterruptedException {
+        ExecutorService executor = EventsManager.newDispatchExecutor();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> slowFloors = new ArrayList<>();
+        AtomicInteger fastCount = new AtomicInteger();
+        ElevatorEventObserver slow = e -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (slowFloors) {
+                slowFloors.add(e.getFloor());
+            }
+        };
+        ElevatorEventObserver fast = e -> fastCount.incrementAndGet();
+        EventsManager.ELEVATORS.removeAllObservers();
+        EventsManager.ELEVATORS.addObserver(slow);
+        EventsManager.ELEVATORS.addObserver(fast);
+        try {
+            Assert.assertFalse(EventsManager.ELEVATORS.isAsynchronous());
+            EventsManager.ELEVATORS.setAsynchronous(executor, 4, EventsManager.Backpressure.DROP_OLDEST);
+            Assert.assertTrue(EventsManager.ELEVATORS.isAsynchronous());
+            EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(0, 0, ElevatorEvent.Kind.DOORS_OPEN));
+            Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+            for (int f = 1; f < 10; f++) { // shall not block although slow observer is stuck
+                EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(0, f, ElevatorEvent.Kind.DOORS_OPEN));
+                awaitCount(fastCount, f + 1); // fast observer is not blocked by slow one
+            }
+            Assert.assertFalse(EventsManager.ELEVATORS.awaitDrained(10)); // slow observer is stuck
+            release.countDown();
+            Assert.assertTrue(EventsManager.ELEVATORS.awaitDrained(5000));
+            Assert.assertEquals(10, fastCount.get());
+            // first one was taken before blocking, then the 4 latest ones in order
+            Assert.assertEquals(List.of(0, 6, 7, 8, 9), slowFloors);
+            Assert.assertEquals(5, EventsManager.ELEVATORS.getDroppedEvents());
+
+            EventsManager.ELEVATORS.removeObserver(slow);
+            CountDownLatch entered2 = new CountDownLatch(1);
+            CountDownLatch release2 = new CountDownLatch(1);
+            List<ElevatorEvent> coalesced = new ArrayList<>();
+            ElevatorEventObserver blocked = e -> {
+                entered2.countDown();
+                try {
+                    release2.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                synchronized (coalesced) {
+                    coalesced.add(e);
+                }
+            };
+            EventsManager.ELEVATORS.removeObserver(fast);
+            EventsManager.ELEVATORS.setAsynchronous(executor, 2, EventsManager.Backpressure.COALESCE);
+            EventsManager.ELEVATORS.addObserver(blocked);
+            EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(0, 0, ElevatorEvent.Kind.DOORS_OPEN));
+            Assert.assertTrue(entered2.await(5, TimeUnit.SECONDS));
+            EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(0, 1, ElevatorEvent.Kind.DOORS_OPEN));
+            EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(1, 1, ElevatorEvent.Kind.DOORS_OPEN));
+            EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(0, 2, ElevatorEvent.Kind.DOORS_OPEN)); // replaces 0/1
+            release2.countDown();
+            Assert.assertTrue(EventsManager.ELEVATORS.awaitDrained(5000));
+            Assert.assertEquals(3, coalesced.size());
+            Assert.assertEquals(1, coalesced.get(1).getElevator());
+            Assert.assertEquals(0, coalesced.get(2).getElevator());
+            Assert.assertEquals(2, coalesced.get(2).getFloor());
+        } finally {
+            EventsManager.ELEVATORS.setSynchronous();
+            EventsManager.ELEVATORS.removeAllObservers();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests concurrent registration/removal of observers while sending events, which failed with a
+     * {@code ConcurrentModificationException} before.
+     * 
+     * @throws InterruptedException shall not occur
+     */
+    @Test
+    public void testConcurrentRegistration() throws InterruptedException {
+        EventsManager.FLOOR_SENSORS.removeAllObservers();
+        AtomicInteger count = new AtomicInteger();
+        FloorSensorEventObserver permanent = e -> count.incrementAndGet();
+        EventsManager.FLOOR_SENSORS.addObserver(permanent);
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final boolean sender = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5000; i++) {
+                        if (sender) {
+                            EventsManager.FLOOR_SENSORS.sendEvent(
+                                new FloorSensorEvent(0, 1, FloorSensorEvent.Position.TOP));
+                        } else {
+                            FloorSensorEventObserver obs = new FloorSensorEventObserver() { // fresh instance
+                                
+                                @Override
+                                public void notifyReceived(FloorSensorEvent event) {
+                                }
+                                
+                            };
+                            EventsManager.FLOOR_SENSORS.addObserverIfUnknown(obs);
+                            Assert.assertTrue(EventsManager.FLOOR_SENSORS.containsObserver(obs));
+                            EventsManager.FLOOR_SENSORS.removeObserver(obs);
+                            Assert.assertFalse(EventsManager.FLOOR_SENSORS.containsObserver(obs));
+                        }
+                    }
+                } catch (RuntimeException | AssertionError e) {
+                    e.printStackTrace();
+                    failures.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assert.assertEquals(0, failures.get());
+        Assert.assertEquals(10000, count.get());
+        Assert.assertTrue(EventsManager.FLOOR_SENSORS.containsObserver(permanent));
+        EventsManager.FLOOR_SENSORS.removeObserverIf(o -> o == permanent);
+        Assert.assertFalse(EventsManager.FLOOR_SENSORS.containsObserver(permanent));
+    }
+
+    /**
+     * Tests routing of events to observers subscribed per elevator and/or kind.
+     */
+    @Test
+    public void testKeyedRouting() {
+        EventsManager.ELEVATORS.removeAllObservers();
+        AtomicInteger all = new AtomicInteger();
+        AtomicInteger elevator1 = new AtomicInteger();
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger elevator1Opened = new AtomicInteger();
+        ElevatorEventObserver allObs = e -> all.incrementAndGet();
+        ElevatorEventObserver elevator1Obs = e -> {
+            Assert.assertEquals(1, e.getElevator());
+            elevator1.incrementAndGet();
+        };
+        ElevatorEventObserver openedObs = e -> {
+            Assert.assertEquals(ElevatorEvent.Kind.DOORS_OPEN, e.getKind());
+            opened.incrementAndGet();
+        };
+        ElevatorEventObserver elevator1OpenedObs = e -> elevator1Opened.incrementAndGet();
+        EventsManager.ELEVATORS.addObserver(allObs);
+        EventsManager.ELEVATORS.addObserver(1, null, elevator1Obs);
+        EventsManager.ELEVATORS.addObserver(EventsManager.ANY_ELEVATOR, ElevatorEvent.Kind.DOORS_OPEN, openedObs);
+        EventsManager.ELEVATORS.addObserverIfUnknown(1, ElevatorEvent.Kind.DOORS_OPEN, elevator1OpenedObs);
+        EventsManager.ELEVATORS.addObserverIfUnknown(1, ElevatorEvent.Kind.DOORS_OPEN, elevator1OpenedObs); // ignore
+        Assert.assertTrue(EventsManager.ELEVATORS.containsObserver(elevator1OpenedObs));
+
+        for (int e = 0; e < 3; e++) {
+            for (ElevatorEvent.Kind k : ElevatorEvent.Kind.values()) {
+                EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(e, 0, k));
+            }
+        }
+        int kinds = ElevatorEvent.Kind.values().length;
+        Assert.assertEquals(3 * kinds, all.get());
+        Assert.assertEquals(kinds, elevator1.get());
+        Assert.assertEquals(3, opened.get());
+        Assert.assertEquals(1, elevator1Opened.get());
+
+        EventsManager.ELEVATORS.removeObserver(elevator1Obs);
+        EventsManager.ELEVATORS.removeObserverIf(o -> o == openedObs);
+        Assert.assertFalse(EventsManager.ELEVATORS.containsObserver(elevator1Obs));
+        Assert.assertFalse(EventsManager.ELEVATORS.containsObserver(openedObs));
+        EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(1, 0, ElevatorEvent.Kind.DOORS_OPEN));
+        Assert.assertEquals(kinds, elevator1.get());
+        Assert.assertEquals(3, opened.get());
+        Assert.assertEquals(2, elevator1Opened.get());
+        EventsManager.ELEVATORS.removeAllObservers();
+        EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(1, 0, ElevatorEvent.Kind.DOORS_OPEN));
+        Assert.assertEquals(2, elevator1Opened.get());
+
+        // removing an observer registered for multiple keys removes its first registration
+        EventsManager.ELEVATORS.addObserver(1, null, allObs);
+        EventsManager.ELEVATORS.addObserver(allObs);
+        EventsManager.ELEVATORS.removeObserver(allObs);
+        all.set(0);
+        EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(0, 0, ElevatorEvent.Kind.DOORS_OPEN));
+        EventsManager.ELEVATORS.sendEvent(new ElevatorEvent(1, 0, ElevatorEvent.Kind.DOORS_OPEN));
+        Assert.assertEquals(2, all.get());
+        EventsManager.ELEVATORS.removeAllObservers();
+    }
+
+    /**
+     * Tests the flyweight event instances.
+     */
+    @Test
+    public void testFlyweights() {
+        FloorSensorEvent sensor = FloorSensorEvent.of(3, 7, FloorSensorEvent.Position.TOP);
+        Assert.assertSame(sensor, FloorSensorEvent.of(3, 7, FloorSensorEvent.Position.TOP));
+        Assert.assertEquals(3, sensor.getElevator());
+        Assert.assertEquals(7, sensor.getFloor());
+        Assert.assertEquals(FloorSensorEvent.Position.TOP, sensor.getPosition());
+        FloorSensorEvent cleared = sensor.createClearedEvent();
+        Assert.assertSame(cleared, FloorSensorEvent.of(3, 7, FloorSensorEvent.Position.CLEARED));
+        Assert.assertEquals(FloorSensorEvent.Position.CLEARED, cleared.getPosition());
+        Assert.assertEquals(-1, FloorSensorEvent.of(-1, 2, FloorSensorEvent.Position.TOP).getElevator()); // uncached
+
+        ElevatorEvent elevator = ElevatorEvent.of(100, 400, ElevatorEvent.Kind.DOORS_CLOSING);
+        Assert.assertSame(elevator, ElevatorEvent.of(100, 400, ElevatorEvent.Kind.DOORS_CLOSING));
+        Assert.assertEquals(100, elevator.getElevator());
+        Assert.assertEquals(400, elevator.getFloor());
+        Assert.assertEquals(ElevatorEvent.Kind.DOORS_CLOSING, elevator.getKind());
+
+        for (ButtonEvent.Kind k : ButtonEvent.Kind.values()) {
+            for (int v = -1; v <= 1; v++) {
+                ButtonEvent button = ButtonEvent.of(2, 5, k, v, v == 0, v > 0);
+                Assert.assertSame(button, ButtonEvent.of(2, 5, k, v, v == 0, v > 0));
+                Assert.assertEquals(2, button.getElevator());
+                Assert.assertEquals(5, button.getFloor());
+                Assert.assertEquals(k, button.getKind());
+                Assert.assertEquals(v, button.getValue());
+                Assert.assertEquals(v == 0, button.isHightlighed());
+                Assert.assertEquals(v > 0, button.isInside());
+            }
+        }
+        ButtonEvent authorize = ButtonEvent.of(-1, -1, ButtonEvent.Kind.AUTHORIZE, 5, false, false);
+        Assert.assertEquals(5, authorize.getValue());
+        Assert.assertNotSame(authorize, ButtonEvent.of(-1, -1, ButtonEvent.Kind.AUTHORIZE, 5, false, false));
+    }
+
+    /**
+     * Tests that sending cached events to routed observers does not allocate.
+     */
+    @Test
+    public void testAllocationFreeSending() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean tBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(tBean.isThreadAllocatedMemorySupported() && tBean.isThreadAllocatedMemoryEnabled());
+        EventsManager.FLOOR_SENSORS.removeAllObservers();
+        AtomicInteger count = new AtomicInteger();
+        EventsManager.FLOOR_SENSORS.addObserver(1, null, e -> count.incrementAndGet());
+        EventsManager.FLOOR_SENSORS.addObserver(e -> count.incrementAndGet());
+        final int floors = 50;
+        final int rounds = 2000;
+        for (int f = 0; f < floors; f++) { // fill cache
+            send(f);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = tBean.getThreadAllocatedBytes(threadId);
+        for (int r = 0; r < rounds; r++) {
+            for (int f = 0; f < floors; f++) {
+                send(f);
+            }
+        }
+        long allocated = tBean.getThreadAllocatedBytes(threadId) - before;
+        EventsManager.FLOOR_SENSORS.removeAllObservers();
+        Assert.assertEquals(4 * floors * (rounds + 1), count.get());
+        // 200000 events would take several MBytes, allow for some unrelated allocation, e.g., by the bean
+        Assert.assertTrue("allocated " + allocated, allocated < 64 * 1024);
+    }
+
+    /**
+     * Sends a TOP and a CLEARED event for elevator 1 and the given floor.
+     * 
+     * @param floor the floor
+     */
+    private static void send(int floor) {
+        FloorSensorEvent evt = FloorSensorEvent.of(1, floor, FloorSensorEvent.Position.TOP);
+        EventsManager.FLOOR_SENSORS.sendEvent(evt);
+        EventsManager.FLOOR_SENSORS.sendEvent(evt.createClearedEvent());
+    }
+
+    /**
+     * Waits until {@code count} reaches {@code expected}, fails after 5 seconds.
+     * 
+     * @param count the counter
+     * @param expected the expected value
+     * @throws InterruptedException shall not occur
+     */
+    private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(expected, count.get());
+    }
+
 }
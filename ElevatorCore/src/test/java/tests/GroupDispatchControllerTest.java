@@ -0,0 +1,248 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.EventsManager;
+import engine.headless.HeadlessSimulator;
+import properties.ProgramSettings;
+import simulator.controllers.AbstractController;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.GroupDispatchController;
+import simulator.controllers.JointDispatchController;
+import simulator.controllers.SuperController;
+import simulator.model.Request;
+import simulator.model.RequestTable;
+
+/**
+ * Tests {@link GroupDispatchController}, {@link JointDispatchController} and the fallback of {@link SuperController}.
+ * 
+ * @author SSE
+ */
+public class GroupDispatchControllerTest {
+
+    /**
+     * Installs the settings.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Cleans up the observers.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Creates a simulator with group dispatching.
+     * 
+     * @return the simulator
+     */
+    private static HeadlessSimulator createSimulator() {
+        return new HeadlessSimulator(i -> new DefaultEController(i), c -> new GroupDispatchController(c));
+    }
+
+    /**
+     * Tests that the cached car state follows the simulation and that the nearest idle car is selected.
+     */
+    @Test
+    public void testSelection() {
+        HeadlessSimulator sim = createSimulator();
+        GroupDispatchController dispatcher = (GroupDispatchController) sim.getMultiController();
+        Request call = new Request(7, 1);
+        Assert.assertEquals(0, dispatcher.selectCar(call)); // all idle in ground floor, first one
+        sim.scheduleCall(0, 0, 7, false);
+        sim.runUntilIdle();
+        Assert.assertEquals(7, sim.getCarFloor(0));
+        for (int c = 0; c < sim.getElevatorCount(); c++) {
+            Assert.assertEquals(0, dispatcher.getQueuedStops(c));
+        }
+        
+        Assert.assertEquals(0, dispatcher.selectCar(new Request(8, -1)));
+        Assert.assertEquals(1, dispatcher.selectCar(new Request(2, 1)));
+        Assert.assertTrue(dispatcher.estimateTimeToServe(0, 5, 0) < dispatcher.estimateTimeToServe(1, 5, 0));
+        
+        sim.getController(0).ignoreFloor(8, true);
+        Assert.assertEquals(1, dispatcher.selectCar(new Request(8, -1)));
+        for (int c = 0; c < sim.getElevatorCount(); c++) {
+            sim.getController(c).ignoreFloor(8, true);
+        }
+        Assert.assertEquals(0, dispatcher.selectCar(new Request(8, -1))); // always assigned
+        sim.dispose();
+    }
+
+    /**
+     * Tests that a car moving away from a call is more expensive than one moving towards it.
+     */
+    @Test
+    public void testDirection() {
+        ProgramSettings settings = ProgramSettings.getInstance();
+        HeadlessSimulator sim = createSimulator();
+        GroupDispatchController dispatcher = (GroupDispatchController) sim.getMultiController();
+        sim.scheduleCall(0, 0, 9, false);
+        sim.runUntil(3L * settings.getFloorsHeight() * settings.getElevatorsSpeed());
+        Assert.assertEquals(1, dispatcher.getQueuedStops(0));
+        // car 0 is on its way up, a down call at floor 1 requires turning at floor 9
+        Assert.assertNotEquals(0, dispatcher.selectCar(new Request(1, -1)));
+        Assert.assertEquals(0, dispatcher.selectCar(new Request(6, 1)));
+        sim.runUntilIdle();
+        Assert.assertEquals(9, sim.getCarFloor(0));
+        sim.dispose();
+    }
+
+    /**
+     * Tests that assigning a floor already pending at a car does not count as additional stop.
+     */
+    @Test
+    public void testPendingCall() {
+        HeadlessSimulator sim = createSimulator();
+        GroupDispatchController dispatcher = (GroupDispatchController) sim.getMultiController();
+        dispatcher.addRequest(new Request(6, 0), 0, true);
+        dispatcher.addRequest(new Request(6, 0), 0, true);
+        Assert.assertEquals(1, dispatcher.getQueuedStops(0));
+        dispatcher.addRequest(new Request(3, 0), 0, true);
+        Assert.assertEquals(2, dispatcher.getQueuedStops(0));
+        sim.runUntilIdle();
+        Assert.assertEquals(6, sim.getCarFloor(0));
+        Assert.assertEquals(0, dispatcher.getQueuedStops(0));
+        sim.dispose();
+    }
+
+    /**
+     * Tests that disposing the simulator detaches the dispatcher, i.e., it does not follow later simulations.
+     */
+    @Test
+    public void testDetach() {
+        HeadlessSimulator sim = createSimulator();
+        GroupDispatchController dispatcher = (GroupDispatchController) sim.getMultiController();
+        long estimate = dispatcher.estimateTimeToServe(0, 7, 0);
+        sim.dispose();
+        HeadlessSimulator other = createSimulator();
+        other.scheduleCall(0, 0, 7, false);
+        other.runUntilIdle();
+        Assert.assertEquals(7, other.getCarFloor(0));
+        Assert.assertEquals(estimate, dispatcher.estimateTimeToServe(0, 7, 0));
+        other.dispose();
+    }
+
+    /**
+     * Tests that all calls are served with group dispatching.
+     */
+    @Test(timeout = 10000)
+    public void testManyCalls() {
+        HeadlessSimulator sim = createSimulator();
+        final int calls = 2000;
+        long time = 0;
+        for (int i = 0; i < calls; i++) {
+            time += 500;
+            sim.scheduleCall(time, 0, (i * 7) % TestSettings.FLOORS, false);
+        }
+        sim.runUntilIdle();
+        Assert.assertTrue(sim.getTime() >= time);
+        assertServed(sim);
+        sim.dispose();
+    }
+
+    /**
+     * Tests that {@link SuperController} assigns a call even if no elevator qualifies.
+     */
+    @Test
+    public void testSuperControllerFallback() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        for (int c = 0; c < sim.getElevatorCount(); c++) {
+            sim.getController(c).ignoreFloor(4, true);
+        }
+        sim.scheduleCall(0, 0, 4, false);
+        sim.runUntilIdle();
+        Assert.assertEquals(4, sim.getCarFloor(0));
+        sim.dispose();
+    }
+
+    /**
+     * Creates hall calls up for the given floors.
+     * 
+     * @param floors the floors
+     * @return the calls
+     */
+    private static List<Request> callsUp(int... floors) {
+        List<Request> result = new ArrayList<>();
+        for (int f : floors) {
+            result.add(new Request(f, 1));
+        }
+        return result;
+    }
+
+    /**
+     * Asserts that all requests were served.
+     * 
+     * @param sim the simulator
+     */
+    private static void assertServed(HeadlessSimulator sim) {
+        for (int c = 0; c < sim.getElevatorCount(); c++) {
+            AbstractController controller = sim.getController(c);
+            Assert.assertFalse(controller.hasCurrentRequest());
+            Assert.assertEquals(-1, controller.lockRequestList((RequestTable l) -> l.nextPending(0)).intValue());
+        }
+    }
+
+    /**
+     * Tests the (sequential) batch assignment of {@link SuperController} and {@link GroupDispatchController}.
+     */
+    @Test
+    public void testAssignCalls() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        List<Request> calls = callsUp(3, 5);
+        Map<Request, Integer> plan = sim.getMultiController().assignCalls(calls);
+        Assert.assertEquals(calls, new ArrayList<>(plan.keySet()));
+        Assert.assertEquals(0, plan.get(calls.get(0)).intValue());
+        sim.runUntilIdle();
+        assertServed(sim);
+        sim.dispose();
+        
+        EventsManager.removeAllObservers();
+        sim = createSimulator();
+        plan = sim.getMultiController().assignCalls(callsUp(2, 6, 8));
+        Assert.assertEquals(3, new HashSet<>(plan.values()).size()); // idle cars, one per call
+        sim.runUntilIdle();
+        assertServed(sim);
+        sim.dispose();
+    }
+
+    /**
+     * Tests the joint assignment of {@link JointDispatchController} with more calls than cars.
+     */
+    @Test
+    public void testJointDispatch() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), 
+            c -> new JointDispatchController(c));
+        JointDispatchController dispatcher = (JointDispatchController) sim.getMultiController();
+        sim.scheduleCalls(0, callsUp(1, 2, 3, 4, 5, 6, 7, 8));
+        sim.runUntil(1);
+        Map<Request, Integer> plan = dispatcher.getPlan();
+        Assert.assertEquals(8, plan.size());
+        Assert.assertEquals(4, new HashSet<>(plan.values()).size()); // all cars used
+        Assert.assertTrue(dispatcher.getPendingCallCount() > 0); // not all committed yet
+        sim.runUntilIdle();
+        Assert.assertEquals(0, dispatcher.getPendingCallCount());
+        assertServed(sim);
+        
+        sim.scheduleCall(sim.getTime() + 1, 0, 2, false); // single calls also pass through
+        sim.runUntilIdle();
+        Assert.assertEquals(0, dispatcher.getPendingCallCount());
+        assertServed(sim);
+        sim.dispose();
+    }
+
+}
@@ -0,0 +1,235 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import demo.SimpleEventController;
+import engine.ButtonEvent;
+import engine.ElevatorEvent;
+import engine.ElevatorEvent.ElevatorEventObserver;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+import engine.headless.HeadlessSimulator;
+import properties.ProgramSettings;
+import simulator.controllers.AbstractController;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.DistanceEController;
+import simulator.controllers.SuperController;
+
+/**
+ * Tests {@link HeadlessSimulator}.
+ * 
+ * @author SSE
+ */
+public class HeadlessSimulatorTest {
+
+    private List<FloorSensorEvent> sensorEvents = new ArrayList<>();
+    private List<ElevatorEvent> elevatorEvents = new ArrayList<>();
+    
+    /**
+     * Installs the settings and event recorders.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+        EventsManager.FLOOR_SENSORS.addObserver(new FloorSensorEventObserver() {
+            
+            @Override
+            public void notifyReceived(FloorSensorEvent event) {
+                sensorEvents.add(event);
+            }
+        });
+        EventsManager.ELEVATORS.addObserver(new ElevatorEventObserver() {
+            
+            @Override
+            public void notifyReceived(ElevatorEvent event) {
+                elevatorEvents.add(event);
+            }
+        });
+    }
+
+    /**
+     * Cleans up the observers.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+    }
+    
+    /**
+     * Returns the simulated time a car needs to travel {@code floors} floors.
+     * 
+     * @param floors the number of floors
+     * @return the time in ms
+     */
+    private static long travelTime(int floors) {
+        ProgramSettings settings = ProgramSettings.getInstance();
+        return (long) floors * settings.getFloorsHeight() * settings.getElevatorsSpeed();
+    }
+
+    /**
+     * Returns the simulated time for a full (automatic) door cycle.
+     * 
+     * @return the time in ms
+     */
+    private static long doorCycleTime() {
+        ProgramSettings settings = ProgramSettings.getInstance();
+        return settings.getDoorOpeningDelay() + settings.getMaxDoorClosingDelay() + settings.getDoorClosingDelay();
+    }
+
+    /**
+     * Tests a single call with the default controller and the super controller.
+     */
+    @Test
+    public void testDefaultController() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        Assert.assertNotNull(sim.getMultiController());
+        sim.scheduleCall(0, 0, 7, false);
+        sim.runUntilIdle();
+        
+        Assert.assertEquals(travelTime(7) + doorCycleTime(), sim.getTime());
+        Assert.assertEquals(7, sim.getController(0).getElevatorCurrentFloor());
+        Assert.assertEquals(7, sim.getCarFloor(0));
+        Assert.assertEquals(0, sim.getController(0).getElevatorCurrentDirection());
+        Assert.assertFalse(sim.getController(0).hasCurrentRequest());
+        
+        Assert.assertEquals(7 + 6, sensorEvents.size()); // 7 hits, 6 cleared
+        Assert.assertEquals(FloorSensorEvent.Position.TOP, sensorEvents.get(0).getPosition());
+        Assert.assertEquals(1, sensorEvents.get(0).getFloor());
+        Assert.assertEquals(FloorSensorEvent.Position.CLEARED, sensorEvents.get(1).getPosition());
+        Assert.assertEquals(7, sensorEvents.get(sensorEvents.size() - 1).getFloor());
+        
+        Assert.assertEquals(4, elevatorEvents.size());
+        Assert.assertEquals(ElevatorEvent.Kind.DOORS_OPENING, elevatorEvents.get(0).getKind());
+        Assert.assertEquals(ElevatorEvent.Kind.DOORS_OPEN, elevatorEvents.get(1).getKind());
+        Assert.assertEquals(ElevatorEvent.Kind.DOORS_CLOSING, elevatorEvents.get(2).getKind());
+        Assert.assertEquals(ElevatorEvent.Kind.DOORS_CLOSED, elevatorEvents.get(3).getKind());
+        Assert.assertEquals(7, elevatorEvents.get(3).getFloor());
+        sim.dispose();
+    }
+
+    /**
+     * Tests multiple calls in both directions with the distance controller (not synchronized).
+     */
+    @Test
+    public void testDistanceController() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DistanceEController(i), null);
+        Assert.assertNull(sim.getMultiController());
+        sim.scheduleCall(0, 1, 5, true);
+        sim.scheduleCall(100, 1, 2, true);
+        sim.scheduleCall(travelTime(5) + doorCycleTime() + 1, 1, 0, true);
+        sim.runUntilIdle();
+        Assert.assertEquals(0, sim.getController(1).getElevatorCurrentFloor());
+        Assert.assertEquals(0, sim.getCarFloor(1));
+        Assert.assertEquals(0, sim.getCarFloor(0));
+        Assert.assertEquals(3 * 4, elevatorEvents.size());
+        for (ElevatorEvent evt : elevatorEvents) {
+            Assert.assertEquals(1, evt.getElevator());
+        }
+        sim.dispose();
+    }
+
+    /**
+     * Tests an event-based controller, which moves on until a cancel request is received.
+     */
+    @Test
+    public void testEventBasedController() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new SimpleEventController(i), null);
+        sim.scheduleCall(0, 2, 6, false);
+        sim.scheduleButton(travelTime(2), 2, 3, ButtonEvent.Kind.CANCEL, 0, false);
+        sim.runUntilIdle();
+        Assert.assertEquals(3, sim.getController(2).getElevatorCurrentFloor());
+        Assert.assertEquals(3, sim.getCarFloor(2));
+        Assert.assertEquals(ElevatorEvent.Kind.DOORS_CLOSED, elevatorEvents.get(elevatorEvents.size() - 1).getKind());
+        sim.dispose();
+    }
+    
+    /**
+     * Tests an event-based controller draining its mailbox on an executor. The simulator holds the writer token while
+     * sending sensor and door events, i.e., they are handled before the simulation goes on, and a button handler
+     * sets the current request before the engine is started.
+     *
+     * @throws Exception shall not occur
+     */
+    @Test(timeout = 10000)
+    public void testEventBasedControllerMailbox() throws Exception {
+        ExecutorService carrier = Executors.newSingleThreadExecutor(r -> new Thread(r, "carrier"));
+        try {
+            HeadlessSimulator sim = new HeadlessSimulator(i -> {
+                AbstractController controller = new SimpleEventController(i);
+                controller.setMailboxExecutor(carrier);
+                return controller;
+            }, null);
+            sim.scheduleCall(0, 2, 6, false);
+            sim.scheduleButton(travelTime(2), 2, 3, ButtonEvent.Kind.CANCEL, 0, false);
+            sim.runUntilIdle();
+            Assert.assertEquals(3, sim.getController(2).getElevatorCurrentFloor());
+            Assert.assertEquals(3, sim.getCarFloor(2));
+            sim.dispose();
+
+            // button pressed on another thread, e.g., the Swing EDT
+            EventsManager.BUTTONS.removeAllObservers(); // the controllers of the simulator
+            AbstractController controller = new SimpleEventController(0);
+            controller.setMailboxExecutor(carrier);
+            List<Boolean> started = new ArrayList<>();
+            controller.setDriver(c -> started.add(c.hasCurrentRequest()));
+            EventsManager.BUTTONS.sendEvent(ButtonEvent.of(0, 5, ButtonEvent.Kind.BUTTON, 0, false, false));
+            carrier.submit(() -> { }).get(); // the drain before is done
+            Assert.assertEquals(Arrays.asList(true), started);
+            Assert.assertEquals(Integer.MAX_VALUE, controller.getCurrentRequestedFloor());
+        } finally {
+            carrier.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a run over several floors is simulated via (about) three scheduled events per floor, i.e., sensor
+     * hit, sensor cleared and engine loop, instead of pixel steps.
+     */
+    @Test
+    public void testSensorEventScheduling() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), null);
+        final int floors = TestSettings.FLOORS - 1;
+        sim.scheduleCall(0, 0, floors, true);
+        sim.runUntilIdle();
+        Assert.assertEquals(floors + floors - 1, sensorEvents.size()); // no cleared event at start and target
+        for (int f = 1; f <= floors; f++) {
+            FloorSensorEvent hit = sensorEvents.get(2 * (f - 1));
+            Assert.assertEquals(f, hit.getFloor());
+            Assert.assertEquals(FloorSensorEvent.Position.TOP, hit.getPosition());
+        }
+        Assert.assertEquals(FloorSensorEvent.Position.CLEARED, sensorEvents.get(1).getPosition());
+        Assert.assertTrue(sim.getProcessedEvents() <= 3 * floors + 8); // + call and door events
+        Assert.assertTrue(sim.getTime() >= travelTime(floors));
+        sim.dispose();
+    }
+
+    /**
+     * Runs many calls to ensure that simulated time is decoupled from wall-clock time.
+     */
+    @Test(timeout = 10000)
+    public void testManyCalls() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        final int calls = 2000;
+        long time = 0;
+        for (int i = 0; i < calls; i++) {
+            time += 5000;
+            sim.scheduleCall(time, 0, (i * 7) % TestSettings.FLOORS, false);
+        }
+        sim.runUntilIdle();
+        Assert.assertTrue(sim.getTime() >= time);
+        Assert.assertTrue(sim.getProcessedEvents() > calls);
+        sim.dispose();
+    }
+
+}
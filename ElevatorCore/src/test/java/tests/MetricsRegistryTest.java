@@ -0,0 +1,189 @@
+package tests;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.ElevatorEvent;
+import engine.EventsManager;
+import engine.headless.HeadlessSimulator;
+import engine.metrics.CarMetrics;
+import engine.metrics.Counter;
+import engine.metrics.EngineMetrics;
+import engine.metrics.Histogram;
+import engine.metrics.MetricsRegistry;
+import engine.metrics.MetricsSnapshot;
+import engine.metrics.Timer;
+import properties.ProgramSettings;
+import simulator.controllers.DefaultEController;
+
+/**
+ * Tests {@link MetricsRegistry} and the engine instrumentation.
+ *
+ * @author SSE
+ */
+public class MetricsRegistryTest {
+
+    /**
+     * Installs the settings.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+        MetricsRegistry.setTimingEnabled(true);
+    }
+
+    /**
+     * Cleans up.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+        MetricsRegistry.getInstance().removeAll("test.");
+        MetricsRegistry.setTimingEnabled(false);
+    }
+
+    /**
+     * Tests counters, gauges, timers and snapshots.
+     */
+    @Test
+    public void testSnapshot() {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        Counter counter = registry.counter("test.counter");
+        Assert.assertSame(counter, registry.counter("test.counter"));
+        counter.add(41);
+        counter.increment();
+        registry.gauge("test.gauge", () -> 0.5);
+        Timer timer = registry.timer("test.timer");
+        timer.record(10);
+        timer.record(30);
+        MetricsSnapshot snapshot = registry.snapshot();
+        counter.increment();
+        timer.record(50);
+        Assert.assertEquals(42L, snapshot.getValue("test.counter"));
+        Assert.assertEquals(0.5, snapshot.getValue("test.gauge").doubleValue(), 0);
+        Assert.assertEquals(2, snapshot.getHistogram("test.timer").getCount());
+        Assert.assertEquals(20.0, snapshot.getHistogram("test.timer").getMean(), 0);
+        Assert.assertTrue(snapshot.getNames().contains("events.buttons.dispatched"));
+        Assert.assertEquals(3, registry.snapshot().getHistogram("test.timer").getCount());
+
+        MetricsRegistry.setTimingEnabled(false);
+        Assert.assertEquals(-1, timer.start());
+        timer.stop(-1);
+        Assert.assertEquals(3, timer.snapshot().getCount());
+
+        registry.removeAll("test.");
+        Assert.assertNull(registry.snapshot().getValue("test.counter"));
+    }
+
+    /**
+     * Tests that values recorded concurrently by multiple threads are merged by snapshots.
+     *
+     * @throws InterruptedException shall not occur
+     */
+    @Test(timeout = 10000)
+    public void testConcurrentRecording() throws InterruptedException {
+        Timer timer = MetricsRegistry.getInstance().timer("test.concurrent");
+        final int threads = 8;
+        final int records = 10000;
+        Thread[] recorders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long value = t + 1;
+            recorders[t] = new Thread(() -> {
+                for (int r = 0; r < records; r++) {
+                    timer.record(value);
+                }
+            });
+            recorders[t].start();
+        }
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+        Histogram histogram = timer.snapshot();
+        Assert.assertEquals(threads * records, histogram.getCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(threads, histogram.getMax());
+        timer.reset();
+        Assert.assertEquals(0, timer.snapshot().getCount());
+    }
+
+    /**
+     * Tests the event channel metrics.
+     */
+    @Test
+    public void testEventMetrics() {
+        long dispatched = EventsManager.ELEVATORS.getDispatchedEvents();
+        long observed = EventsManager.ELEVATORS.getObserverTimes().getCount();
+        EventsManager.ELEVATORS.addObserver(e -> { });
+        EventsManager.ELEVATORS.addObserver(e -> { });
+        for (int i = 0; i < 10; i++) {
+            EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(0, i, ElevatorEvent.Kind.DOORS_OPEN));
+        }
+        Assert.assertEquals(dispatched + 10, EventsManager.ELEVATORS.getDispatchedEvents());
+        Assert.assertEquals(observed + 20, EventsManager.ELEVATORS.getObserverTimes().getCount());
+        Assert.assertEquals(dispatched + 10, MetricsRegistry.getInstance().snapshot()
+            .getValue("events.elevators.dispatched").longValue());
+    }
+
+    /**
+     * Tests the car and controller metrics of a headless simulation.
+     */
+    @Test
+    public void testCarMetrics() {
+        long simulated = EngineMetrics.SIMULATE.snapshot().getCount();
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), null);
+        sim.scheduleCall(0, 0, 5, false);
+        sim.runUntilIdle();
+        sim.runUntil(2 * sim.getTime());
+        CarMetrics metrics = sim.getCarMetrics();
+        ProgramSettings settings = ProgramSettings.getInstance();
+        Assert.assertEquals(1, metrics.getDoorCycles().snapshot().getCount());
+        Assert.assertTrue(metrics.getDoorCycles().snapshot().getMin()
+            >= settings.getDoorOpeningDelay() + settings.getDoorClosingDelay());
+        Assert.assertEquals(0.5, metrics.getUtilization(0), 0.01);
+        Assert.assertEquals(0, metrics.getUtilization(1), 0);
+        Assert.assertEquals(0.5 / sim.getElevatorCount(), metrics.getUtilization(), 0.01);
+        Assert.assertTrue(EngineMetrics.SIMULATE.snapshot().getCount() > simulated);
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        metrics.register(registry, "test.");
+        Assert.assertEquals(0.5, registry.snapshot().getValue("test.car.0.utilization").doubleValue(), 0.01);
+        sim.dispose();
+    }
+
+    /**
+     * Tests the JMX exposure.
+     *
+     * @throws JMException shall not occur
+     */
+    @Test
+    public void testMBean() throws JMException {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.counter("test.mbean").add(7);
+        registry.timer("test.mbeanTimer").record(100);
+        registry.registerMBean();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MetricsRegistry.OBJECT_NAME);
+            Assert.assertEquals(7L, server.getAttribute(name, "test.mbean"));
+            Assert.assertEquals(1L, server.getAttribute(name, "test.mbeanTimer.count"));
+            Assert.assertEquals(100L, server.getAttribute(name, "test.mbeanTimer.max"));
+            Assert.assertTrue(server.getMBeanInfo(name).getAttributes().length > 5);
+            server.invoke(name, "reset", null, null);
+            Assert.assertEquals(0L, server.getAttribute(name, "test.mbeanTimer.count"));
+        } finally {
+            registry.unregisterMBean();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+            new ObjectName(MetricsRegistry.OBJECT_NAME)));
+    }
+
+}
@@ -0,0 +1,244 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import demo.SimpleEventController;
+import engine.ButtonEvent;
+import engine.ElevatorEvent;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.headless.HeadlessSimulator;
+import simulator.controllers.AbstractController;
+import simulator.controllers.DefaultEController;
+import simulator.model.Elevator;
+import simulator.model.Motion;
+import simulator.model.MotionProfile;
+
+/**
+ * Tests {@link MotionProfile} and {@link Motion}.
+ *
+ * @author SSE
+ */
+public class MotionProfileTest {
+
+    private static final double EPS = 1e-6;
+
+    /**
+     * Installs the settings.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Cleans up.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Tests a profile with constant velocity.
+     */
+    @Test
+    public void testConstant() {
+        MotionProfile profile = MotionProfile.constant(3, 6);
+        Assert.assertEquals(6, profile.getPeakVelocity(3), EPS);
+        Assert.assertEquals(500, profile.getTravelTime(3), EPS);
+        Assert.assertEquals(1.5, profile.getPosition(3, 250), EPS);
+        Assert.assertEquals(6, profile.getVelocity(3, 250), EPS);
+        Assert.assertEquals(250, profile.getTimeAt(3, 1.5), EPS);
+        Assert.assertEquals(0, profile.getTravelTime(0), EPS);
+    }
+
+    /**
+     * Tests the jerk-limited profile for a long run (cruising at the velocity limit) and a short run (not reaching
+     * the velocity or acceleration limit).
+     */
+    @Test
+    public void testSCurve() {
+        MotionProfile profile = new MotionProfile(3, 2.5, 1.0, 1.5);
+        for (double distance : new double[] {0.5, 3, 30}) {
+            double total = profile.getTravelTime(distance);
+            double vp = profile.getPeakVelocity(distance);
+            Assert.assertTrue(vp <= 2.5 + EPS);
+            Assert.assertTrue(total > 1000 * distance / 2.5);
+            Assert.assertEquals(distance, profile.getPosition(distance, total), EPS);
+            Assert.assertEquals(distance / 2, profile.getPosition(distance, total / 2), EPS); // symmetric
+            Assert.assertEquals(vp, profile.getVelocity(distance, total / 2), EPS);
+            double last = 0;
+            for (int i = 1; i <= 100; i++) {
+                double t = total * i / 100;
+                double x = profile.getPosition(distance, t);
+                Assert.assertTrue(x >= last);
+                Assert.assertTrue(profile.getVelocity(distance, t) <= vp + EPS);
+                // velocity is the derivative of the position
+                double dt = 1e-3;
+                double v = (profile.getPosition(distance, t + dt) - profile.getPosition(distance, t - dt)) / 2 / dt;
+                Assert.assertEquals(v * 1000, profile.getVelocity(distance, t), 1e-3); // m/ms vs. m/s
+                Assert.assertEquals(t, profile.getTimeAt(distance, x), 1e-3);
+                last = x;
+            }
+        }
+        Assert.assertEquals(2.5, profile.getPeakVelocity(30), EPS);
+        Assert.assertTrue(profile.getPeakVelocity(0.5) < 1.0 * 1.0 / 1.5); // pure jerk phases
+    }
+
+    /**
+     * Tests signed runs.
+     */
+    @Test
+    public void testMotion() {
+        MotionProfile profile = new MotionProfile(3, 2.5, 1.0, 1.5);
+        Motion down = new Motion(profile, 1000, 15, -9);
+        Assert.assertEquals(6, down.getEndPosition(), EPS);
+        Assert.assertEquals(1000 + profile.getTravelTime(9), down.getEndTime(), EPS);
+        double t4 = down.getTimeAtFloor(4);
+        Assert.assertEquals(12, down.getPosition(Math.round(t4)), 1e-2);
+        Assert.assertTrue(down.getVelocity(Math.round(t4)) < 0);
+        Assert.assertTrue(down.getTimeAtFloor(3) > t4);
+        Assert.assertEquals(15, down.getPosition(0), EPS);
+    }
+
+    /**
+     * Tests that replanning a run keeps position and velocity of the car continuous.
+     */
+    @Test
+    public void testReplan() {
+        MotionProfile profile = new MotionProfile(3, 2.5, 1.0, 1.5);
+        Motion run = new Motion(profile, 0, 0, 27);
+        long cruise = Math.round(run.getTimeAtFloor(3));
+        Assert.assertEquals(2.5, run.getVelocity(cruise), EPS);
+
+        // longer and shorter while cruising: same run with another length
+        Motion longer = run.replan(cruise, 24 + 3);
+        Assert.assertTrue(longer.isRestToRest());
+        assertContinuous(run, longer, cruise);
+        Motion shorter = run.replan(cruise, 18);
+        Assert.assertTrue(shorter.isRestToRest());
+        Assert.assertEquals(0, shorter.getStartTime());
+        Assert.assertEquals(18, shorter.getEndPosition(), EPS);
+        assertContinuous(run, shorter, cruise);
+
+        // too short for the acceleration limit: brake harder, but do not jump to rest
+        Motion stop = run.replan(cruise, 12);
+        Assert.assertFalse(stop.isRestToRest());
+        assertContinuous(run, stop, cruise);
+        Assert.assertEquals(12, stop.getEndPosition(), EPS);
+        Assert.assertEquals(0, stop.getVelocity(Math.round(stop.getEndTime()) + 1), EPS);
+        double t11 = stop.getTimeAt(11);
+        Assert.assertTrue(t11 > cruise && t11 < stop.getEndTime());
+        Assert.assertEquals(11, stop.getPosition(Math.round(t11)), 1e-2);
+
+        // downwards while accelerating, replanned again while braking
+        Motion down = new Motion(profile, 0, 27, -27);
+        long accelerating = 1000;
+        Motion brake = down.replan(accelerating, 18);
+        assertContinuous(down, brake, accelerating);
+        Assert.assertTrue(brake.getVelocity(accelerating) < 0);
+        long braking = Math.round(brake.getTimeAt(21));
+        Motion again = brake.replan(braking, 15);
+        assertContinuous(brake, again, braking);
+        Assert.assertEquals(15, again.getEndPosition(), EPS);
+
+        try {
+            run.replan(cruise, 3);
+            Assert.fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // expected, behind the car
+        }
+        Motion rest = run.replan(Math.round(run.getEndTime()) + 1, 0);
+        Assert.assertTrue(rest.isRestToRest());
+        Assert.assertEquals(-27, rest.getDistance(), EPS);
+    }
+
+    /**
+     * Asserts that a replanned run continues a run at the given time.
+     *
+     * @param run the run
+     * @param replanned the replanned run
+     * @param time the time of replanning
+     */
+    private static void assertContinuous(Motion run, Motion replanned, long time) {
+        Assert.assertEquals(run.getPosition(time), replanned.getPosition(time), 1e-6);
+        Assert.assertEquals(run.getVelocity(time), replanned.getVelocity(time), 1e-6);
+    }
+
+    /**
+     * Tests an endless downward move of an event-based controller, i.e., a run to the lowest floor which is replanned
+     * when stopping is requested instead of rest-to-rest runs floor by floor.
+     */
+    @Test
+    public void testHeadlessEndlessMove() {
+        MotionProfile profile = new MotionProfile(3, 2.5, 1.0, 1.5);
+        HeadlessSimulator sim = new HeadlessSimulator(i -> {
+            AbstractController controller = new SimpleEventController(i);
+            controller.getElevator().setMotionProfile(profile);
+            return controller;
+        }, null);
+        sim.scheduleCall(0, 0, 7, false);
+        sim.scheduleButton(1000, 0, 7, ButtonEvent.Kind.CANCEL, 0, false);
+        sim.runUntilIdle();
+        Assert.assertEquals(7, sim.getCarFloor(0));
+
+        Elevator elevator = sim.getController(0).getElevator();
+        List<Double> speeds = new ArrayList<>();
+        EventsManager.FLOOR_SENSORS.addObserver(e -> {
+            if (FloorSensorEvent.Position.CLEARED != e.getPosition()) {
+                speeds.add(Math.abs(elevator.getMotion().getVelocity(sim.getTime())));
+            }
+        });
+        long start = sim.getTime() + 1;
+        sim.scheduleCall(start, 0, 2, false); // moves down endlessly
+        sim.scheduleButton(start + 1000, 0, 2, ButtonEvent.Kind.CANCEL, 0, false);
+        sim.runUntilIdle();
+        Assert.assertEquals(2, sim.getCarFloor(0));
+        Assert.assertEquals(5, speeds.size());
+        for (int f = 0; f < 4; f++) {
+            Assert.assertTrue(speeds.get(f) > 1); // passes floors 6 to 3 at speed
+        }
+        Assert.assertEquals(0, speeds.get(4), EPS);
+        sim.dispose();
+    }
+
+    /**
+     * Tests that a headless car passes floors according to its motion profile, i.e., a multi-floor run is faster
+     * than single-floor runs but slower than moving with constant velocity.
+     */
+    @Test
+    public void testHeadlessRun() {
+        MotionProfile profile = new MotionProfile(3, 2.5, 1.0, 1.5);
+        List<Long> opening = new ArrayList<>();
+        HeadlessSimulator sim = new HeadlessSimulator(i -> {
+            DefaultEController controller = new DefaultEController(i);
+            controller.getElevator().setMotionProfile(profile);
+            return controller;
+        }, null);
+        EventsManager.ELEVATORS.addObserver(e -> {
+            if (ElevatorEvent.Kind.DOORS_OPENING == e.getKind()) {
+                opening.add(sim.getTime());
+            }
+        });
+        sim.scheduleCall(0, 0, 6, true);
+        sim.runUntilIdle();
+        Assert.assertEquals(1, opening.size());
+        long arrival = opening.get(0);
+        Assert.assertEquals(Math.round(profile.getTravelTime(18)), arrival);
+        Assert.assertTrue(arrival < 6 * profile.getTravelTime(3));
+        Assert.assertTrue(arrival > 1000 * 18 / 2.5);
+        Motion motion = sim.getController(0).getElevator().getMotion();
+        Assert.assertEquals(18, motion.getPosition(sim.getTime()), EPS);
+        Assert.assertEquals(0, motion.getVelocity(sim.getTime()), EPS);
+        sim.dispose();
+    }
+
+}
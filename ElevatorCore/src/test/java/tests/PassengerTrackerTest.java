@@ -0,0 +1,158 @@
+package tests;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.EventsManager;
+import engine.headless.HeadlessSimulator;
+import engine.metrics.Histogram;
+import engine.traffic.PassengerTracker;
+import engine.traffic.TrafficCall;
+import engine.traffic.TrafficGenerator;
+import engine.traffic.TrafficProfile;
+import properties.ProgramSettings;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.GroupDispatchController;
+import simulator.model.Passenger;
+
+/**
+ * Tests {@link PassengerTracker} and {@link Histogram}.
+ * 
+ * @author SSE
+ */
+public class PassengerTrackerTest {
+
+    private HeadlessSimulator sim;
+    private PassengerTracker tracker;
+
+    /**
+     * Installs the settings, creates the simulator and the tracker.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+        sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new GroupDispatchController(c));
+        tracker = new PassengerTracker(sim);
+    }
+
+    /**
+     * Cleans up.
+     */
+    @After
+    public void tearDown() {
+        tracker.detach();
+        sim.dispose();
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Schedules the arrival of a passenger.
+     * 
+     * @param time the arrival time
+     * @param origin the origin floor
+     * @param destination the destination floor
+     * @param result the passenger, set upon arrival
+     */
+    private void arrive(long time, int origin, int destination, Passenger[] result) {
+        sim.schedule(time, () -> result[0] = tracker.arrive(new TrafficCall(time, 0, origin, destination)));
+    }
+
+    /**
+     * Tests the times of a single passenger.
+     */
+    @Test
+    public void testSinglePassenger() {
+        ProgramSettings settings = ProgramSettings.getInstance();
+        long floorTime = (long) settings.getFloorsHeight() * settings.getElevatorsSpeed();
+        Passenger[] passenger = new Passenger[1];
+        arrive(0, 3, 7, passenger);
+        sim.runUntilIdle();
+        Assert.assertEquals(3 * floorTime + settings.getDoorOpeningDelay(), passenger[0].getWaitingTime());
+        Assert.assertEquals(0, passenger[0].getElevator());
+        Assert.assertTrue(passenger[0].getTransitTime() >= 4 * floorTime);
+        Assert.assertEquals(passenger[0].getWaitingTime() + passenger[0].getTransitTime(), 
+            passenger[0].getJourneyTime());
+        Assert.assertEquals(1, tracker.getCompletedCount());
+        Assert.assertEquals(passenger[0].getWaitingTime(), tracker.getWaitingTimes().getMax());
+        Assert.assertEquals(0, sim.getController(0).getElevator().getLoad());
+    }
+
+    /**
+     * Tests that passengers left behind by a full car are served later.
+     */
+    @Test
+    public void testCapacity() {
+        tracker.detach();
+        sim.dispose();
+        sim = new HeadlessSimulator(i -> new DefaultEController(i), null); // all calls to car 0
+        tracker = new PassengerTracker(sim);
+        for (int c = 0; c < sim.getElevatorCount(); c++) {
+            sim.getController(c).getElevator().setCapacity(1);
+        }
+        Passenger[][] passengers = new Passenger[3][1];
+        for (int p = 0; p < passengers.length; p++) {
+            arrive(0, 2, 6 + p, passengers[p]);
+        }
+        sim.runUntilIdle();
+        Assert.assertEquals(3, tracker.getCompletedCount());
+        Assert.assertEquals(0, tracker.getWaitingCount());
+        Assert.assertEquals(0, tracker.getRidingCount());
+        Assert.assertTrue(passengers[1][0].getWaitingTime() > passengers[0][0].getWaitingTime());
+        Assert.assertTrue(passengers[2][0].getWaitingTime() > passengers[1][0].getWaitingTime());
+        Assert.assertEquals(0, passengers[2][0].getElevator());
+    }
+
+    /**
+     * Tests a generated up-peak.
+     */
+    @Test(timeout = 20000)
+    public void testUpPeak() {
+        TrafficGenerator gen = new TrafficGenerator(11, TestSettings.ELEVATORS).addPhase(15 * 60000, 6, 
+            TrafficProfile.UP_PEAK, TestSettings.FLOORS);
+        gen.feed(sim, c -> tracker.arrive(c));
+        sim.runUntilIdle();
+        Assert.assertTrue(tracker.getArrivedCount() > 40);
+        Assert.assertEquals(tracker.getArrivedCount(), tracker.getCompletedCount());
+        Assert.assertEquals(tracker.getArrivedCount(), tracker.getWaitingTimes().getCount());
+        Assert.assertTrue(tracker.getJourneyTimes().getMean() > tracker.getWaitingTimes().getMean());
+        Assert.assertTrue(tracker.getWaitingTimes().getPercentageAbove(60000) < 50);
+    }
+
+    /**
+     * Tests the precision of the histogram.
+     */
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(-1, histogram.getValueAtPercentile(50));
+        for (int v = 1; v <= 100000; v++) {
+            histogram.record(v);
+        }
+        Assert.assertEquals(100000, histogram.getCount());
+        Assert.assertEquals(50000.5, histogram.getMean(), 0.001);
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(100000, histogram.getMax());
+        for (double p : new double[] {1, 50, 90, 99, 99.9}) {
+            double exact = p * 1000;
+            Assert.assertEquals(exact, histogram.getValueAtPercentile(p), exact * 0.01);
+        }
+        Assert.assertEquals(100000, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(10.0, histogram.getPercentageAbove(90000), 0.2); // bucket width < 1%
+        
+        Histogram small = new Histogram();
+        small.record(3);
+        small.record(-5);
+        Assert.assertEquals(3, small.getValueAtPercentile(100)); // exact for small values
+        Assert.assertEquals(0, small.getValueAtPercentile(50));
+        histogram.add(small);
+        Assert.assertEquals(100002, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMin());
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(-1, histogram.getMax());
+    }
+
+}
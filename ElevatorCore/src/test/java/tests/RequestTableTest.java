@@ -0,0 +1,180 @@
+package tests;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import simulator.model.Request;
+import simulator.model.RequestTable;
+
+/**
+ * Tests {@link RequestTable}.
+ * 
+ * @author SSE
+ */
+public class RequestTableTest {
+
+    /**
+     * Tests setting, getting and clearing requests.
+     */
+    @Test
+    public void testRequests() {
+        RequestTable table = new RequestTable(130);
+        Assert.assertEquals(130, table.size());
+        Assert.assertTrue(table.isEmpty());
+        Request r64 = new Request(64, 1);
+        Assert.assertNull(table.set(64, r64));
+        Assert.assertNull(table.set(129, new Request(129, -1)));
+        Assert.assertEquals(2, table.count());
+        Assert.assertSame(r64, table.get(64));
+        Assert.assertTrue(table.isPending(64));
+        Assert.assertFalse(table.isPending(63));
+        Assert.assertFalse(table.isPending(-1));
+        Assert.assertEquals(1, table.getDirection(64));
+        Assert.assertEquals(-1, table.getDirection(129));
+        Assert.assertEquals(1, table.getPriority(64));
+        Assert.assertSame(r64, table.set(64, new Request(64, 0))); // replace, count unchanged
+        Assert.assertEquals(2, table.count());
+        Assert.assertEquals(0, table.getDirection(64));
+
+        table.adjustPriorities(5, 129);
+        Assert.assertEquals(6, table.getPriority(64));
+        Assert.assertEquals(1, table.getPriority(129));
+        Assert.assertEquals(64, table.highestPriority());
+        Request aged = table.get(64);
+        table.set(64, null);
+        Assert.assertEquals(6, aged.getPriority()); // lazy aging materialized when leaving the table
+        table.set(64, aged);
+        Assert.assertEquals(6, table.getPriority(64));
+        
+        table.setIgnored(3, true);
+        Assert.assertTrue(table.isIgnored(3));
+        Assert.assertFalse(table.isIgnored(4));
+        table.clear();
+        Assert.assertTrue(table.isEmpty());
+        Assert.assertNull(table.get(64));
+        Assert.assertEquals(0, table.getPriority(64));
+        Assert.assertTrue(table.isIgnored(3));
+        table.setIgnored(3, false);
+        Assert.assertFalse(table.isIgnored(3));
+    }
+
+    /**
+     * Tests the pending floor search against a linear search.
+     */
+    @Test
+    public void testSearch() {
+        Random random = new Random(7);
+        for (int size : new int[] {1, 10, 63, 64, 65, 200, 501}) {
+            RequestTable table = new RequestTable(size);
+            boolean[] expected = new boolean[size];
+            for (int i = 0; i < size / 5 + 1; i++) {
+                int floor = random.nextInt(size);
+                table.set(floor, new Request(floor, 0));
+                expected[floor] = true;
+            }
+            for (int from = -1; from <= size; from++) {
+                Assert.assertEquals(linearNext(expected, from), table.nextPending(from));
+                Assert.assertEquals(linearPrevious(expected, from), table.previousPending(from));
+                if (from >= 0 && from < size) {
+                    Assert.assertEquals(linearNearest(expected, from), table.nearestPending(from));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests lazy priority aging and the highest priority lookup against eager aging of all requests.
+     */
+    @Test
+    public void testAging() {
+        Random random = new Random(11);
+        final int size = 150;
+        RequestTable table = new RequestTable(size);
+        int[] expected = new int[size]; // 0 for no request
+        Assert.assertEquals(-1, table.highestPriority());
+        for (int step = 0; step < 20000; step++) {
+            int floor = random.nextInt(size);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                if (expected[floor] == 0) {
+                    table.set(floor, new Request(floor, 0));
+                    expected[floor] = 1;
+                }
+            } else if (op < 6) {
+                table.set(floor, null);
+                expected[floor] = 0;
+            } else {
+                int distance = random.nextInt(5);
+                int except = random.nextBoolean() ? floor : -1;
+                table.adjustPriorities(distance, except);
+                for (int f = 0; f < size; f++) {
+                    if (expected[f] > 0 && f != except) {
+                        expected[f] += distance;
+                    }
+                }
+            }
+            int best = -1;
+            for (int f = 0; f < size; f++) {
+                Assert.assertEquals(expected[f], table.getPriority(f));
+                if (expected[f] > 0 && (best < 0 || expected[f] > expected[best])) {
+                    best = f;
+                }
+            }
+            Assert.assertEquals(best, table.highestPriority());
+        }
+    }
+
+    /**
+     * Linear search for the next set entry at or above {@code from}.
+     * 
+     * @param set the entries
+     * @param from the start index
+     * @return the index, {@code -1} for none
+     */
+    private static int linearNext(boolean[] set, int from) {
+        for (int i = Math.max(0, from); i < set.length; i++) {
+            if (set[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Linear search for the previous set entry at or below {@code from}.
+     * 
+     * @param set the entries
+     * @param from the start index
+     * @return the index, {@code -1} for none
+     */
+    private static int linearPrevious(boolean[] set, int from) {
+        for (int i = Math.min(set.length - 1, from); i >= 0; i--) {
+            if (set[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Linear search for the nearest set entry as formerly done by {@code DistanceEController}.
+     * 
+     * @param set the entries
+     * @param floor the start index
+     * @return the index, {@code -1} for none
+     */
+    private static int linearNearest(boolean[] set, int floor) {
+        for (int i = 1; i < set.length; i++) {
+            if (floor + i < set.length && set[floor + i]) {
+                return floor + i;
+            }
+            if (floor - i >= 0 && set[floor - i]) {
+                return floor - i;
+            }
+        }
+        return -1;
+    }
+
+}
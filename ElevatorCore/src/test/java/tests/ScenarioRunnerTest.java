@@ -0,0 +1,133 @@
+package tests;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.EventsManager;
+import engine.FloorSensorEvent.FloorSensorEventObserver;
+import engine.headless.HeadlessSimulator;
+import engine.metrics.EngineMetrics;
+import engine.metrics.MetricsRegistry;
+import engine.scenario.Scenario;
+import engine.scenario.ScenarioRunner;
+import properties.ProgramSettings;
+import properties.Speed;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.DistanceEController;
+import simulator.controllers.GroupDispatchController;
+
+/**
+ * Tests {@link ScenarioRunner} and the isolation of scenarios.
+ * 
+ * @author SSE
+ */
+public class ScenarioRunnerTest {
+
+    private AtomicInteger globalEvents = new AtomicInteger();
+    private FloorSensorEventObserver globalObserver = e -> globalEvents.incrementAndGet();
+
+    /**
+     * Installs the settings and a global observer.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+        EventsManager.FLOOR_SENSORS.addObserver(globalObserver);
+    }
+
+    /**
+     * Cleans up the observers.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Runs a call to the top floor of the scenario and returns the time needed.
+     * 
+     * @param scenario the scenario
+     * @param sim the simulator
+     * @return the simulated time
+     */
+    private static Long callTopFloor(Scenario scenario, HeadlessSimulator sim) {
+        Assert.assertSame(scenario, ProgramSettings.getInstance());
+        Assert.assertEquals(scenario.getElevators(), sim.getElevatorCount());
+        Assert.assertEquals(scenario.getElevators() > 1, null != sim.getMultiController());
+        sim.scheduleCall(0, 0, scenario.getFloors() - 1, false);
+        sim.runUntilIdle();
+        return sim.getTime();
+    }
+
+    /**
+     * Tests a parameter sweep in parallel against sequential execution.
+     */
+    @Test(timeout = 20000)
+    public void testSweep() {
+        List<Scenario> scenarios = Scenario.sweep(new int[] {5, 10, 20, 40}, new int[] {1, 4, 16}, 
+            new Speed[] {Speed.FAST, Speed.MEDIUM}, Arrays.asList(DefaultEController.class, 
+            DistanceEController.class), GroupDispatchController.class);
+        Assert.assertEquals(4 * 3 * 2 * 2, scenarios.size());
+        List<Long> results;
+        try (ScenarioRunner runner = new ScenarioRunner(4)) {
+            results = runner.run(scenarios, ScenarioRunnerTest::callTopFloor);
+        }
+        Assert.assertEquals(scenarios.size(), results.size());
+        Assert.assertEquals(TestSettings.FLOORS, ProgramSettings.getInstance().getFloors()); // global unchanged
+        for (int s = 0; s < scenarios.size(); s++) {
+            Scenario scenario = scenarios.get(s);
+            long travel = (long) (scenario.getFloors() - 1) * scenario.getFloorsHeight() 
+                * scenario.getElevatorsSpeed();
+            long doors = scenario.getDoorOpeningDelay() + scenario.getMaxDoorClosingDelay() 
+                + scenario.getDoorClosingDelay();
+            Assert.assertEquals(scenario.toString(), travel + doors, results.get(s).longValue());
+            Assert.assertEquals(results.get(s), ScenarioRunner.runScenario(scenario, 
+                ScenarioRunnerTest::callTopFloor));
+        }
+        Assert.assertEquals(0, globalEvents.get()); // scenario events stay in their contexts
+        Assert.assertTrue(EventsManager.FLOOR_SENSORS.containsObserver(globalObserver));
+    }
+
+    /**
+     * Tests that parallel scenarios do not serialize on the shared engine timers, i.e., all scenarios are within
+     * their simulation loop at the same time while timing is enabled.
+     */
+    @Test(timeout = 20000)
+    public void testParallelTiming() {
+        final int parallelism = 4;
+        List<Scenario> scenarios = Scenario.sweep(new int[] {10, 12, 14, 16}, new int[] {4}, 
+            new Speed[] {Speed.FAST}, Arrays.asList(DefaultEController.class), GroupDispatchController.class);
+        CyclicBarrier barrier = new CyclicBarrier(parallelism);
+        long simulated = EngineMetrics.SIMULATE.snapshot().getCount();
+        MetricsRegistry.setTimingEnabled(true);
+        try (ScenarioRunner runner = new ScenarioRunner(parallelism)) {
+            List<Long> results = runner.run(scenarios, (scenario, sim) -> {
+                sim.scheduleCall(0, 0, scenario.getFloors() - 1, false);
+                sim.runUntil(1000);
+                try {
+                    barrier.await(10, TimeUnit.SECONDS); // all scenarios are simulating
+                } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Scenarios are not executed in parallel", e);
+                }
+                sim.runUntilIdle();
+                return sim.getTime();
+            });
+            Assert.assertEquals(scenarios.size(), results.size());
+        } finally {
+            MetricsRegistry.setTimingEnabled(false);
+        }
+        Assert.assertTrue(EngineMetrics.SIMULATE.snapshot().getCount() > simulated);
+    }
+
+}
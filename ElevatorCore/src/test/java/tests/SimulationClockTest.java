@@ -0,0 +1,136 @@
+package tests;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import engine.EventsManager;
+import engine.clock.SimulationClock;
+import engine.clock.SteppedClock;
+import engine.headless.HeadlessSimulator;
+import simulator.controllers.DefaultEController;
+import simulator.model.Elevator;
+
+/**
+ * Tests the {@link SimulationClock} implementations.
+ * 
+ * @author SSE
+ */
+public class SimulationClockTest {
+
+    /**
+     * Tests the scaled clock.
+     * 
+     * @throws InterruptedException shall not occur
+     */
+    @Test(timeout = 5000)
+    public void testScaledClock() throws InterruptedException {
+        SimulationClock clock = SimulationClock.scaled(1000);
+        long start = System.currentTimeMillis();
+        clock.sleep(2000); // 2 ms wall-clock time
+        Assert.assertTrue(clock.currentTimeMillis() >= 2000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    /**
+     * Tests the unbounded clock.
+     * 
+     * @throws InterruptedException shall not occur
+     */
+    @Test(timeout = 5000)
+    public void testUnboundedClock() throws InterruptedException {
+        SimulationClock clock = SimulationClock.unbounded();
+        for (int i = 0; i < 1000; i++) {
+            clock.sleep(1000);
+        }
+        Assert.assertEquals(1000000, clock.currentTimeMillis());
+    }
+
+    /**
+     * Tests the stepped clock.
+     * 
+     * @throws InterruptedException shall not occur
+     */
+    @Test(timeout = 5000)
+    public void testSteppedClock() throws InterruptedException {
+        SteppedClock clock = SimulationClock.stepped();
+        AtomicBoolean woken = new AtomicBoolean();
+        Thread sleeper = new Thread(() -> {
+            try {
+                clock.sleep(100);
+                woken.set(true);
+            } catch (InterruptedException e) {
+            }
+        });
+        sleeper.start();
+        while (clock.getSleepingCount() == 0) {
+            Thread.sleep(1);
+        }
+        clock.step(50);
+        Assert.assertFalse(woken.get());
+        Assert.assertTrue(clock.step());
+        sleeper.join();
+        Assert.assertTrue(woken.get());
+        Assert.assertEquals(100, clock.currentTimeMillis());
+        Assert.assertFalse(clock.step());
+    }
+    
+    /**
+     * Tests signaled waiting for door commands.
+     * 
+     * @throws InterruptedException shall not occur
+     */
+    @Test(timeout = 5000)
+    public void testDoorSignaling() throws InterruptedException {
+        Elevator elevator = new Elevator();
+        AtomicBoolean closeNow = new AtomicBoolean();
+        Thread waiter = new Thread(() -> {
+            try {
+                closeNow.set(elevator.awaitCloseDoorsNow(SimulationClock.realTime(), 60000));
+            } catch (InterruptedException e) {
+            }
+        });
+        waiter.start();
+        Thread.sleep(10);
+        elevator.setCloseDoorsNow(true);
+        waiter.join();
+        Assert.assertTrue(closeNow.get());
+        
+        // stepped clock: timeout in simulated time
+        SteppedClock clock = SimulationClock.stepped();
+        elevator.setCloseDoorsNow(false);
+        waiter = new Thread(() -> {
+            try {
+                closeNow.set(elevator.awaitCloseDoorsNow(clock, 100));
+            } catch (InterruptedException e) {
+            }
+        });
+        waiter.start();
+        while (clock.getSleepingCount() == 0) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(clock.step());
+        waiter.join();
+        Assert.assertFalse(closeNow.get());
+    }
+
+    /**
+     * Tests pacing the headless simulator with a scaled clock.
+     */
+    @Test(timeout = 10000)
+    public void testPacedSimulator() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), null);
+        sim.setClock(SimulationClock.scaled(100));
+        sim.scheduleCall(0, 0, 2, true);
+        long start = System.currentTimeMillis();
+        sim.runUntilIdle();
+        long simulated = sim.getTime();
+        Assert.assertTrue(System.currentTimeMillis() - start >= simulated / 100 - 5);
+        sim.dispose();
+        EventsManager.removeAllObservers();
+    }
+
+}
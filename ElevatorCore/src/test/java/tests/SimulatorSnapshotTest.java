@@ -0,0 +1,260 @@
+package tests;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.EventsManager;
+import engine.headless.HeadlessSimulator;
+import engine.snapshot.SimulatorSnapshot;
+import engine.traffic.PassengerTracker;
+import engine.traffic.TrafficGenerator;
+import engine.traffic.TrafficProfile;
+import simulator.controllers.AbstractController;
+import simulator.controllers.AbstractMultiController;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.DistanceEController;
+import simulator.controllers.JointDispatchController;
+import simulator.controllers.SuperController;
+import simulator.model.Request;
+
+/**
+ * Tests {@link SimulatorSnapshot} and snapshots of the {@link HeadlessSimulator}.
+ *
+ * @author SSE
+ */
+public class SimulatorSnapshotTest {
+
+    private List<String> log = new ArrayList<>();
+    private HeadlessSimulator current;
+
+    /**
+     * Installs the settings.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Cleans up.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Creates a simulator recording all sensor and elevator events with their simulated time into {@link #log}.
+     *
+     * @param controllerFactory the controller factory
+     * @param multiControllerFactory the multi-elevator controller factory
+     * @return the simulator
+     */
+    private HeadlessSimulator createSimulator(IntFunction<AbstractController> controllerFactory,
+        Function<ArrayList<AbstractController>, AbstractMultiController> multiControllerFactory) {
+        EventsManager.removeAllObservers();
+        EventsManager.FLOOR_SENSORS.addObserver(e -> log.add(current.getTime() + " " + e));
+        EventsManager.ELEVATORS.addObserver(e -> log.add(current.getTime() + " " + e));
+        current = new HeadlessSimulator(controllerFactory, multiControllerFactory);
+        return current;
+    }
+
+    /**
+     * Runs a simulation up to {@code checkpoint}, takes a snapshot and runs the simulation to its end. Restores the
+     * snapshot into two new simulators (one via a file) and asserts that both continue exactly as the original one.
+     *
+     * @param controllerFactory the controller factory
+     * @param multiControllerFactory the multi-elevator controller factory
+     * @param scheduler schedules the calls
+     * @param checkpoint the simulated time to take the snapshot at
+     * @throws Exception shall not occur
+     */
+    private void assertResumes(IntFunction<AbstractController> controllerFactory,
+        Function<ArrayList<AbstractController>, AbstractMultiController> multiControllerFactory,
+        Consumer<HeadlessSimulator> scheduler, long checkpoint) throws Exception {
+        HeadlessSimulator sim = createSimulator(controllerFactory, multiControllerFactory);
+        scheduler.accept(sim);
+        sim.runUntil(checkpoint);
+        Assert.assertFalse(sim.isIdle());
+        SimulatorSnapshot snapshot = sim.snapshot();
+        log.clear();
+        sim.runUntilIdle();
+        List<String> expected = new ArrayList<>(log);
+        long endTime = sim.getTime();
+        long processed = sim.getProcessedEvents();
+        double utilization = sim.getCarMetrics().getUtilization();
+        sim.dispose();
+        Assert.assertFalse(expected.isEmpty());
+
+        Path file = Files.createTempFile("simulator", SimulatorSnapshot.SUFFIX);
+        try {
+            snapshot.write(file);
+            for (SimulatorSnapshot fork : Arrays.asList(snapshot, SimulatorSnapshot.read(file))) {
+                HeadlessSimulator restored = createSimulator(controllerFactory, multiControllerFactory);
+                restored.restore(fork);
+                Assert.assertEquals(checkpoint, restored.getTime());
+                log.clear();
+                restored.runUntilIdle();
+                Assert.assertEquals(expected, log);
+                Assert.assertEquals(endTime, restored.getTime());
+                Assert.assertEquals(processed, restored.getProcessedEvents());
+                Assert.assertEquals(utilization, restored.getCarMetrics().getUtilization(), 1e-9);
+                for (int i = 0; i < restored.getElevatorCount(); i++) {
+                    Assert.assertFalse(restored.getController(i).hasCurrentRequest());
+                }
+                restored.dispose();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests resuming a snapshot taken while cars are moving and doors are open.
+     *
+     * @throws Exception shall not occur
+     */
+    @Test
+    public void testResume() throws Exception {
+        assertResumes(i -> new DefaultEController(i), c -> new SuperController(c), sim -> {
+            sim.scheduleCall(0, 0, 7, true);
+            sim.scheduleCall(500, 1, 3, false);
+            sim.scheduleCall(2000, 2, 9, true);
+            sim.scheduleCall(3000, 0, 2, true);
+            sim.scheduleCall(9000, 3, 5, false);
+        }, 2500);
+    }
+
+    /**
+     * Creates the traffic for {@link #testResumeTraffic()}.
+     *
+     * @return the traffic generator
+     */
+    private static TrafficGenerator createTraffic() {
+        return new TrafficGenerator(7, TestSettings.ELEVATORS)
+            .addPhase(5 * 60000, 12, TrafficProfile.UP_PEAK, TestSettings.FLOORS);
+    }
+
+    /**
+     * Tests resuming a snapshot of generated traffic with tracked passengers, i.e., the pending call and the state
+     * of the generator as well as the waiting and riding passengers are part of the snapshot.
+     *
+     * @throws Exception shall not occur
+     */
+    @Test
+    public void testResumeTraffic() throws Exception {
+        IntFunction<AbstractController> factory = i -> {
+            AbstractController controller = new DefaultEController(i);
+            controller.getElevator().setCapacity(2); // leave passengers behind
+            return controller;
+        };
+        HeadlessSimulator sim = createSimulator(factory, c -> new SuperController(c));
+        PassengerTracker tracker = new PassengerTracker(sim);
+        createTraffic().feed(sim, tracker::arrive);
+        sim.runUntil(2 * 60000);
+        Assert.assertTrue(tracker.getWaitingCount() + tracker.getRidingCount() > 0);
+        SimulatorSnapshot snapshot = sim.snapshot();
+        long riding = tracker.getRidingCount();
+        log.clear();
+        sim.runUntilIdle();
+        List<String> expected = new ArrayList<>(log);
+        String expectedTimes = tracker.getJourneyTimes().toString();
+        long arrived = tracker.getArrivedCount();
+        Assert.assertEquals(arrived, tracker.getCompletedCount());
+        tracker.detach();
+        sim.dispose();
+
+        HeadlessSimulator restored = createSimulator(factory, c -> new SuperController(c));
+        PassengerTracker restoredTracker = new PassengerTracker(restored);
+        createTraffic().feed(restored, restoredTracker::arrive);
+        restored.restore(snapshot);
+        Assert.assertEquals(riding, restoredTracker.getRidingCount());
+        long load = 0;
+        for (int i = 0; i < restored.getElevatorCount(); i++) {
+            load += restored.getController(i).getElevator().getLoad();
+        }
+        Assert.assertEquals(riding, load);
+        log.clear();
+        restored.runUntilIdle();
+        Assert.assertEquals(expected, log);
+        Assert.assertEquals(arrived, restoredTracker.getArrivedCount());
+        Assert.assertEquals(arrived, restoredTracker.getCompletedCount());
+        Assert.assertEquals(expectedTimes, restoredTracker.getJourneyTimes().toString());
+        restoredTracker.detach();
+        restored.dispose();
+
+        HeadlessSimulator other = createSimulator(factory, c -> new SuperController(c)); // no participants
+        try {
+            other.restore(snapshot);
+            Assert.fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        other.dispose();
+    }
+
+    /**
+     * Tests resuming a snapshot with pending joint assignments, i.e., with scheduled ticks and call batches.
+     *
+     * @throws Exception shall not occur
+     */
+    @Test
+    public void testResumeJointDispatch() throws Exception {
+        assertResumes(i -> new DistanceEController(i), c -> new JointDispatchController(c), sim -> {
+            sim.scheduleCalls(0, Arrays.asList(new Request(1, 1), new Request(2, 1), new Request(3, 1),
+                new Request(4, 1), new Request(5, 1), new Request(6, 1)));
+            sim.scheduleCalls(5000, Arrays.asList(new Request(8, -1), new Request(2, 1)));
+            sim.scheduleCall(600, 2, 9, true);
+        }, 700);
+    }
+
+    /**
+     * Tests that scheduled actions prevent snapshots and that malformed snapshots are rejected.
+     */
+    @Test
+    public void testInvalid() {
+        HeadlessSimulator sim = createSimulator(i -> new DefaultEController(i), null);
+        sim.scheduleCall(0, 0, 4, true);
+        sim.runUntil(100);
+        SimulatorSnapshot snapshot = sim.snapshot();
+        sim.schedule(200, () -> { });
+        try {
+            sim.snapshot();
+            Assert.fail("Exception expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        byte[] data = snapshot.toByteArray();
+        try {
+            sim.restore(SimulatorSnapshot.fromByteArray(Arrays.copyOf(data, data.length - 3)));
+            Assert.fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        data[0] = 0;
+        try {
+            sim.restore(SimulatorSnapshot.fromByteArray(data));
+            Assert.fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        sim.restore(snapshot);
+        Assert.assertEquals(100, sim.getTime());
+        sim.runUntilIdle();
+        Assert.assertEquals(4, sim.getCarFloor(0));
+        sim.dispose();
+    }
+
+}
@@ -0,0 +1,117 @@
+package tests;
+
+import properties.ProgramSettings;
+import properties.Speed;
+
+/**
+ * Program settings for headless regression tests. As {@link ProgramSettings} can be set only once, all tests
+ * shall use these settings via {@link #install()}.
+ * 
+ * @author SSE
+ */
+public class TestSettings extends ProgramSettings {
+
+    public static final int FLOORS = 10;
+    public static final int ELEVATORS = 4;
+    public static final int FLOORS_HEIGHT = 50;
+
+    /**
+     * Installs the test settings if no settings are installed so far.
+     */
+    public static void install() {
+        if (null == ProgramSettings.getInstance()) {
+            ProgramSettings.setInstance(new TestSettings());
+        }
+    }
+
+    @Override
+    public int getFloorsHeight() {
+        return FLOORS_HEIGHT;
+    }
+
+    @Override
+    public boolean isAutoscroll() {
+        return false;
+    }
+
+    @Override
+    public int getFloors() {
+        return FLOORS;
+    }
+    
+    @Override
+    public boolean isSynchronized() {
+        return true;
+    }
+
+    @Override
+    public int getElevators() {
+        return ELEVATORS;
+    }
+
+    @Override
+    public int getElevatorsSpeed() {
+        return Speed.FAST.getValue();
+    }
+
+    @Override
+    public int getFloorsButtons() {
+        return 1;
+    }
+
+    @Override
+    public boolean isAccelerated() {
+        return false;
+    }
+
+    @Override
+    public boolean isOuterviewCancel() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewEmergency() {
+        return false;
+    }
+
+    @Override
+    public boolean isOuterviewEmergency() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayDirection() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayFloorNumber() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayTarget() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewAuthorization() {
+        return false;
+    }
+
+    @Override
+    public boolean isDisplayDoorstate() {
+        return false;
+    }
+
+    @Override
+    public boolean isFloorSliderDisplay() {
+        return false;
+    }
+
+    @Override
+    public boolean isInnerviewDoorButton() {
+        return false;
+    }
+
+}
@@ -0,0 +1,361 @@
+package tests;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.ButtonEvent;
+import engine.ElevatorEvent;
+import engine.EventsManager;
+import engine.FloorSensorEvent;
+import engine.headless.HeadlessSimulator;
+import engine.snapshot.SimulatorSnapshot;
+import engine.trace.TraceReader;
+import engine.trace.TraceReplayer;
+import engine.trace.TraceRecorder;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.GroupDispatchController;
+import simulator.controllers.SuperController;
+
+/**
+ * Tests {@link TraceRecorder}, {@link TraceReader} and {@link TraceReplayer}.
+ *
+ * @author SSE
+ */
+public class TraceRecorderTest {
+
+    private Path directory;
+
+    /**
+     * Installs the settings and creates the trace directory.
+     *
+     * @throws IOException shall not occur
+     */
+    @Before
+    public void setUp() throws IOException {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+        directory = Files.createTempDirectory("trace");
+    }
+
+    /**
+     * Cleans up.
+     *
+     * @throws IOException shall not occur
+     */
+    @After
+    public void tearDown() throws IOException {
+        EventsManager.removeAllObservers();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Tests recording a simulation and reading it back.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testRecordAndRead() throws IOException {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        List<String> expected = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        TraceRecorder recorder = new TraceRecorder(directory, "sim", 16, 0, sim::getTime);
+        recorder.attach();
+        EventsManager.FLOOR_SENSORS.addObserver(e -> {
+            expected.add(e.toString());
+            times.add(sim.getTime());
+        });
+        EventsManager.BUTTONS.addObserver(e -> {
+            expected.add(e.toString());
+            times.add(sim.getTime());
+        });
+        EventsManager.ELEVATORS.addObserver(e -> {
+            expected.add(e.toString());
+            times.add(sim.getTime());
+        });
+        sim.scheduleCall(0, 0, 7, false);
+        sim.scheduleCall(100, 1, 3, false);
+        sim.runUntilIdle();
+        recorder.close();
+        sim.dispose();
+        Assert.assertTrue(expected.size() > 16); // more than one segment
+        Assert.assertEquals(expected.size(), recorder.getRecordCount());
+        Assert.assertEquals(recorder.getSegments(), TraceReader.listSegments(directory, "sim"));
+
+        List<String> actual = new ArrayList<>();
+        List<Long> actualTimes = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(directory, "sim")) {
+            while (reader.next()) {
+                actual.add(reader.getEvent().toString());
+                actualTimes.add(reader.getTime());
+            }
+        }
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(times, actualTimes);
+    }
+
+    /**
+     * Tests the segment rotation.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testRotation() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        try (TraceRecorder recorder = new TraceRecorder(directory, "rot", 10, 3, clock::get)) {
+            recorder.attach();
+            for (int i = 0; i < 95; i++) {
+                clock.set(i);
+                EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(i % 4, i % 10, ElevatorEvent.Kind.DOORS_OPEN));
+            }
+            Assert.assertEquals(95, recorder.getRecordCount());
+            Assert.assertEquals(3, recorder.getSegments().size());
+            Assert.assertEquals(recorder.getSegments(), TraceReader.listSegments(directory, "rot"));
+        }
+        int count = 0;
+        try (TraceReader reader = new TraceReader(directory, "rot")) {
+            while (reader.next()) {
+                long i = 70 + count; // segments 7 to 9 kept
+                Assert.assertEquals(i, reader.getTime());
+                Assert.assertEquals(TraceRecorder.TYPE_ELEVATOR, reader.getType());
+                ElevatorEvent event = reader.getElevatorEvent();
+                Assert.assertSame(ElevatorEvent.of((int) i % 4, (int) i % 10, ElevatorEvent.Kind.DOORS_OPEN), event);
+                Assert.assertNull(reader.getButtonEvent());
+                count++;
+            }
+        }
+        Assert.assertEquals(25, count);
+    }
+
+    /**
+     * Tests that a shorter second recording with the same prefix replaces the first one and that the segments of
+     * other prefixes starting with the same text are not read.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testRecordAgain() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        try (TraceRecorder recorder = new TraceRecorder(directory, "sim", 10, 0, clock::get)) {
+            recorder.attach();
+            for (int i = 0; i < 35; i++) {
+                EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(0, 1, ElevatorEvent.Kind.DOORS_OPEN));
+            }
+        }
+        try (TraceRecorder recorder = new TraceRecorder(directory, "sim-2", 10, 0, clock::get)) {
+            recorder.attach();
+            EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(0, 2, ElevatorEvent.Kind.DOORS_OPEN));
+        }
+        Assert.assertEquals(4, TraceReader.listSegments(directory, "sim").size());
+        try (TraceRecorder recorder = new TraceRecorder(directory, "sim", 10, 0, clock::get)) {
+            recorder.attach();
+            for (int i = 0; i < 12; i++) {
+                EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(0, 3, ElevatorEvent.Kind.DOORS_OPEN));
+            }
+            Assert.assertEquals(recorder.getSegments(), TraceReader.listSegments(directory, "sim"));
+        }
+        Assert.assertEquals(2, TraceReader.listSegments(directory, "sim").size());
+        Assert.assertEquals(1, TraceReader.listSegments(directory, "sim-2").size());
+        int count = 0;
+        try (TraceReader reader = new TraceReader(directory, "sim")) {
+            while (reader.next()) {
+                Assert.assertEquals(3, reader.getElevatorEvent().getFloor());
+                count++;
+            }
+        }
+        Assert.assertEquals(12, count);
+    }
+
+    /**
+     * Tests the flags and values of button events.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testButtonEvents() throws IOException {
+        try (TraceRecorder recorder = new TraceRecorder(directory, "btn", 16, 0, () -> 42)) {
+            recorder.attach();
+            EventsManager.BUTTONS.sendEvent(ButtonEvent.of(2, 5, ButtonEvent.Kind.BUTTON, -1, true, false));
+            EventsManager.BUTTONS.sendEvent(ButtonEvent.of(1, 3, ButtonEvent.Kind.AUTHORIZE, 1234, false, true));
+        }
+        try (TraceReader reader = new TraceReader(directory, "btn")) {
+            Assert.assertTrue(reader.next());
+            Assert.assertSame(ButtonEvent.of(2, 5, ButtonEvent.Kind.BUTTON, -1, true, false), reader.getEvent());
+            Assert.assertTrue(reader.next());
+            ButtonEvent event = reader.getButtonEvent();
+            Assert.assertEquals(1234, event.getValue());
+            Assert.assertEquals(ButtonEvent.Kind.AUTHORIZE, event.getKind());
+            Assert.assertTrue(event.isInside());
+            Assert.assertFalse(event.isHightlighed());
+            Assert.assertEquals(42, reader.getTime());
+            Assert.assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Tests that recording cached events does not allocate.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testAllocationFreeRecording() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean tBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(tBean.isThreadAllocatedMemorySupported() && tBean.isThreadAllocatedMemoryEnabled());
+        final int floors = 50;
+        final int rounds = 1000;
+        AtomicLong clock = new AtomicLong();
+        try (TraceRecorder recorder = new TraceRecorder(directory, "alloc", 4 * floors * (rounds + 1), 0,
+            clock::incrementAndGet)) {
+            recorder.attach();
+            for (int f = 0; f < floors; f++) { // fill cache, map segment
+                send(f);
+            }
+            long threadId = Thread.currentThread().getId();
+            long before = tBean.getThreadAllocatedBytes(threadId);
+            for (int r = 0; r < rounds; r++) {
+                for (int f = 0; f < floors; f++) {
+                    send(f);
+                }
+            }
+            long allocated = tBean.getThreadAllocatedBytes(threadId) - before;
+            Assert.assertEquals(4 * floors * (rounds + 1), recorder.getRecordCount());
+            Assert.assertTrue("allocated " + allocated, allocated < 64 * 1024);
+        }
+    }
+
+    /**
+     * Tests that replaying a recorded trace against the same controllers reproduces the trace.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testReplay() throws IOException {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        try (TraceRecorder recorder = new TraceRecorder(directory, "orig", 32, 0, sim::getTime)) {
+            recorder.attach();
+            sim.scheduleButton(10, 0, 8, ButtonEvent.Kind.BUTTON, -1, false);
+            sim.scheduleButton(1510, 1, 2, ButtonEvent.Kind.BUTTON, 1, false);
+            sim.scheduleButton(3020, 2, 6, ButtonEvent.Kind.BUTTON, -1, false);
+            sim.scheduleCall(9030, 3, 1, false);
+            sim.runUntilIdle();
+        }
+        sim.dispose();
+        EventsManager.removeAllObservers();
+
+        sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        sim.runUntil(10); // map the first record to its original time
+        TraceReplayer replayer = new TraceReplayer(new TraceReader(directory, "orig"), sim);
+        try (TraceRecorder recorder = new TraceRecorder(directory, "replay", 32, 0, sim::getTime)) {
+            recorder.attach();
+            Assert.assertEquals(4, replayer.replay());
+        }
+        sim.dispose();
+        Assert.assertTrue(replayer.getSkippedCount() > 0);
+        Assert.assertEquals(readAll("orig"), readAll("replay"));
+        EventsManager.removeAllObservers();
+
+        sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new GroupDispatchController(c));
+        replayer = new TraceReplayer(new TraceReader(directory, "orig"), sim);
+        Assert.assertEquals(4, replayer.replay());
+        for (int c = 0; c < sim.getElevatorCount(); c++) {
+            Assert.assertFalse(sim.getController(c).hasCurrentRequest());
+        }
+        sim.dispose();
+    }
+
+    /**
+     * Tests resuming a snapshot taken during a replay, i.e., the replay position is part of the snapshot.
+     *
+     * @throws IOException shall not occur
+     */
+    @Test
+    public void testReplaySnapshot() throws IOException {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        try (TraceRecorder recorder = new TraceRecorder(directory, "orig", 8, 0, sim::getTime)) {
+            recorder.attach();
+            for (int i = 0; i < 12; i++) {
+                sim.scheduleCall(i * 2000, i % 4, (i * 7 + 3) % TestSettings.FLOORS, false);
+            }
+            sim.runUntilIdle();
+        }
+        sim.dispose();
+        EventsManager.removeAllObservers();
+
+        sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        TraceReplayer replayer = new TraceReplayer(new TraceReader(directory, "orig"), sim);
+        replayer.start();
+        sim.runUntil(9000);
+        long replayed = replayer.getReplayedCount();
+        Assert.assertTrue(replayed > 0 && replayed < 12);
+        SimulatorSnapshot snapshot = sim.snapshot();
+        try (TraceRecorder recorder = new TraceRecorder(directory, "first", 8, 0, sim::getTime)) {
+            recorder.attach();
+            sim.runUntilIdle();
+        }
+        Assert.assertEquals(12, replayer.getReplayedCount());
+        sim.dispose();
+        EventsManager.removeAllObservers();
+
+        sim = new HeadlessSimulator(i -> new DefaultEController(i), c -> new SuperController(c));
+        replayer = new TraceReplayer(new TraceReader(directory, "orig"), sim);
+        sim.restore(snapshot);
+        Assert.assertEquals(replayed, replayer.getReplayedCount());
+        try (TraceRecorder recorder = new TraceRecorder(directory, "second", 8, 0, sim::getTime)) {
+            recorder.attach();
+            sim.runUntilIdle();
+        }
+        Assert.assertEquals(12, replayer.getReplayedCount());
+        sim.dispose();
+        Assert.assertFalse(readAll("first").isEmpty());
+        Assert.assertEquals(readAll("first"), readAll("second"));
+    }
+
+    /**
+     * Reads all records of a trace.
+     *
+     * @param prefix the file name prefix
+     * @return the records as text
+     * @throws IOException shall not occur
+     */
+    private List<String> readAll(String prefix) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(directory, prefix)) {
+            while (reader.next()) {
+                result.add(reader.getTime() + " " + reader.getEvent());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends floor sensor, elevator and button events for elevator 1 and the given floor.
+     *
+     * @param floor the floor
+     */
+    private static void send(int floor) {
+        FloorSensorEvent evt = FloorSensorEvent.of(1, floor, FloorSensorEvent.Position.TOP);
+        EventsManager.FLOOR_SENSORS.sendEvent(evt);
+        EventsManager.FLOOR_SENSORS.sendEvent(evt.createClearedEvent());
+        EventsManager.ELEVATORS.sendEvent(ElevatorEvent.of(1, floor, ElevatorEvent.Kind.DOORS_OPENING));
+        EventsManager.BUTTONS.sendEvent(ButtonEvent.of(1, floor, ButtonEvent.Kind.BUTTON, 1, false, false));
+    }
+
+}
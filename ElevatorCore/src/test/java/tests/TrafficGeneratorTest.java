@@ -0,0 +1,157 @@
+package tests;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engine.EventsManager;
+import engine.headless.HeadlessSimulator;
+import engine.traffic.OriginDestinationMatrix;
+import engine.traffic.TrafficCall;
+import engine.traffic.TrafficGenerator;
+import engine.traffic.TrafficProfile;
+import simulator.controllers.DefaultEController;
+import simulator.controllers.GroupDispatchController;
+
+/**
+ * Tests {@link TrafficGenerator}.
+ * 
+ * @author SSE
+ */
+public class TrafficGeneratorTest {
+
+    private static final long HOUR = 3600000;
+
+    /**
+     * Installs the settings.
+     */
+    @Before
+    public void setUp() {
+        TestSettings.install();
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Cleans up the observers.
+     */
+    @After
+    public void tearDown() {
+        EventsManager.removeAllObservers();
+    }
+
+    /**
+     * Tests that generation is reproducible per seed.
+     */
+    @Test
+    public void testReproducible() {
+        List<String> first = new TrafficGenerator(42, 4).addPhase(HOUR, 10, TrafficProfile.LUNCH, 10).stream()
+            .map(TrafficCall::toString).collect(Collectors.toList());
+        List<String> second = new TrafficGenerator(42, 4).addPhase(HOUR, 10, TrafficProfile.LUNCH, 10).stream()
+            .map(TrafficCall::toString).collect(Collectors.toList());
+        Assert.assertEquals(first, second);
+        Assert.assertTrue(first.size() > 400 && first.size() < 800); // mean 600
+    }
+
+    /**
+     * Tests the arrival rate and the trip distribution of the profiles.
+     */
+    @Test(timeout = 20000)
+    public void testProfiles() {
+        final int floors = 20;
+        final double perMinute = 1000;
+        final long duration = 60 * 60000;
+        TrafficGenerator gen = new TrafficGenerator(1, 4);
+        for (TrafficProfile profile : TrafficProfile.values()) {
+            gen.addPhase(duration, perMinute, profile, floors);
+        }
+        long[] calls = new long[TrafficProfile.values().length];
+        long[] fromLobby = new long[calls.length];
+        long[] toLobby = new long[calls.length];
+        long lastTime = 0;
+        while (gen.hasNext()) {
+            TrafficCall call = gen.next();
+            Assert.assertTrue(call.getTime() >= lastTime);
+            Assert.assertNotEquals(call.getOrigin(), call.getDestination());
+            Assert.assertTrue(call.getElevator() >= 0 && call.getElevator() < 4);
+            lastTime = call.getTime();
+            int p = (int) (call.getTime() / duration);
+            calls[p]++;
+            fromLobby[p] += call.getOrigin() == 0 ? 1 : 0;
+            toLobby[p] += call.getDestination() == 0 ? 1 : 0;
+        }
+        for (TrafficProfile profile : TrafficProfile.values()) {
+            int p = profile.ordinal();
+            Assert.assertEquals(perMinute * 60, calls[p], perMinute * 60 * 0.02);
+            double expFrom = TrafficProfile.INTER_FLOOR == profile ? 1.0 / floors : profile.getFromLobby();
+            double expTo = TrafficProfile.INTER_FLOOR == profile ? 1.0 / floors : profile.getToLobby();
+            Assert.assertEquals(profile.name(), expFrom, fromLobby[p] / (double) calls[p], 0.01);
+            Assert.assertEquals(profile.name(), expTo, toLobby[p] / (double) calls[p], 0.01);
+        }
+    }
+
+    /**
+     * Tests a custom origin/destination matrix.
+     */
+    @Test
+    public void testMatrix() {
+        OriginDestinationMatrix matrix = new OriginDestinationMatrix(5);
+        matrix.setWeight(1, 3, 3);
+        matrix.setWeight(4, 2, 1);
+        TrafficGenerator gen = new TrafficGenerator(7, 1).addPhase(HOUR, 100, matrix);
+        long[] counts = new long[2];
+        while (gen.hasNext()) {
+            TrafficCall call = gen.next();
+            if (call.getOrigin() == 1) {
+                Assert.assertEquals(3, call.getDestination());
+                Assert.assertEquals(1, call.getDirection());
+                counts[0]++;
+            } else {
+                Assert.assertEquals(4, call.getOrigin());
+                Assert.assertEquals(2, call.getDestination());
+                Assert.assertEquals(-1, call.toHallCallEvent().getValue());
+                counts[1]++;
+            }
+        }
+        Assert.assertEquals(3.0, counts[0] / (double) counts[1], 0.3);
+        try {
+            matrix.setWeight(2, 2, 1);
+            Assert.fail("Trips to the same floor are not allowed");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that millions of calls can be streamed and that repeating phases do not end.
+     */
+    @Test(timeout = 20000)
+    public void testStreaming() {
+        TrafficGenerator gen = new TrafficGenerator(3, 8).addPhase(HOUR, 6000, TrafficProfile.UP_PEAK, 50)
+            .addPhase(HOUR, 0, TrafficProfile.UP_PEAK, 50).setRepeat(true);
+        Assert.assertEquals(2000000, gen.hallCallEvents().limit(2000000).count());
+        Assert.assertFalse(new TrafficGenerator(3, 8).addPhase(HOUR, 0, TrafficProfile.UP_PEAK, 50)
+            .setRepeat(true).hasNext());
+    }
+
+    /**
+     * Tests feeding generated calls into a simulator.
+     */
+    @Test(timeout = 20000)
+    public void testFeed() {
+        HeadlessSimulator sim = new HeadlessSimulator(i -> new DefaultEController(i), 
+            c -> new GroupDispatchController(c));
+        TrafficGenerator gen = new TrafficGenerator(5, TestSettings.ELEVATORS).addPhase(HOUR / 4, 4, 
+            TrafficProfile.UP_PEAK, TestSettings.FLOORS);
+        gen.feed(sim);
+        sim.runUntilIdle();
+        Assert.assertFalse(gen.hasNext());
+        Assert.assertTrue(sim.getTime() > HOUR / 8);
+        Assert.assertTrue(sim.isIdle());
+        sim.dispose();
+    }
+
+}